@@ -0,0 +1,165 @@
+package hello.core.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * {@code @GeneratedScopedProxy} 가 붙은 클래스마다 {@code <클래스이름>_ScopedProxy} 를 만든다.
+ * 생성된 프록시는 원래 클래스를 상속하고, 오버라이드할 수 있는 메서드를 모두 RequestScopedTarget.get() 이 돌려주는 실제 빈에 위임한다.
+ *
+ * <pre>
+ * public class MyLogger_ScopedProxy extends MyLogger {
+ *     private final RequestScopedTarget&lt;MyLogger&gt; target;
+ *
+ *     public void log(String message) {
+ *         target.get().log(message);
+ *     }
+ * }
+ * </pre>
+ */
+@SupportedAnnotationTypes(ScopedProxyProcessor.ANNOTATION)
+public class ScopedProxyProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "hello.core.annotation.GeneratedScopedProxy";
+    static final String TARGET = "hello.core.scope.RequestScopedTarget";
+    static final String SUFFIX = "_ScopedProxy";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@GeneratedScopedProxy can only be used on classes");
+                } else if (validate((TypeElement) element)) {
+                    generate((TypeElement) element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean validate(final TypeElement type) {
+        if (type.getModifiers().contains(Modifier.FINAL)) {
+            error(type, "scoped proxy target must not be final");
+            return false;
+        }
+        if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+            error(type, "scoped proxy target must be a top level or static nested class");
+            return false;
+        }
+        final boolean hasNoArgConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE));
+        if (!hasNoArgConstructor) {
+            error(type, "scoped proxy target needs a non-private no-arg constructor");
+            return false;
+        }
+        return true;
+    }
+
+    private void generate(final TypeElement type) {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String targetType = type.getQualifiedName().toString();
+        final String proxyName = type.getSimpleName() + SUFFIX;
+
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+              .append("public class ").append(proxyName).append(" extends ").append(targetType).append(" {\n\n")
+              .append("    private final ").append(TARGET).append('<').append(targetType).append("> target;\n\n")
+              .append("    public ").append(proxyName).append("(final ").append(TARGET).append('<').append(targetType).append("> target) {\n")
+              .append("        this.target = target;\n")
+              .append("    }\n");
+        for (ExecutableElement method : delegatedMethods(type)) {
+            source.append('\n');
+            appendMethod(source, method);
+        }
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? proxyName : packageName + "." + proxyName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, "failed to write scoped proxy: " + e.getMessage());
+        }
+    }
+
+    // Object 의 메서드와 오버라이드할 수 없는 메서드는 빼고, 상속받은 메서드까지 모두 위임한다.
+    private List<ExecutableElement> delegatedMethods(final TypeElement type) {
+        final List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            final Set<Modifier> modifiers = method.getModifiers();
+            final TypeElement owner = (TypeElement) method.getEnclosingElement();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE)
+                    || owner.getQualifiedName().contentEquals("java.lang.Object")) {
+                continue;
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    private void appendMethod(final StringBuilder source, final ExecutableElement method) {
+        final String visibility = method.getModifiers().contains(Modifier.PUBLIC) ? "public "
+                : method.getModifiers().contains(Modifier.PROTECTED) ? "protected " : "";
+        final String typeParameters = method.getTypeParameters().isEmpty() ? ""
+                : method.getTypeParameters().stream().map(parameter -> {
+                    final String bounds = parameter.getBounds().stream().map(Object::toString)
+                                                   .filter(bound -> !bound.equals("java.lang.Object"))
+                                                   .collect(Collectors.joining(" & "));
+                    return bounds.isEmpty() ? parameter.toString() : parameter + " extends " + bounds;
+                }).collect(Collectors.joining(", ", "<", "> "));
+        final List<? extends VariableElement> parameters = method.getParameters();
+        final String declaredParameters = parameters.stream()
+                .map(parameter -> "final " + parameterType(method, parameter) + " " + parameter.getSimpleName())
+                .collect(Collectors.joining(", "));
+        final String arguments = parameters.stream().map(parameter -> parameter.getSimpleName().toString()).collect(Collectors.joining(", "));
+        final String throwsClause = method.getThrownTypes().isEmpty() ? ""
+                : method.getThrownTypes().stream().map(Object::toString).collect(Collectors.joining(", ", " throws ", ""));
+        final boolean returnsVoid = method.getReturnType().getKind() == TypeKind.VOID;
+
+        source.append("    @Override\n")
+              .append("    ").append(visibility).append(typeParameters).append(method.getReturnType()).append(' ')
+              .append(method.getSimpleName()).append('(').append(declaredParameters).append(')').append(throwsClause).append(" {\n")
+              .append("        ").append(returnsVoid ? "" : "return ")
+              .append("target.get().").append(method.getSimpleName()).append('(').append(arguments).append(");\n")
+              .append("    }\n");
+    }
+
+    // 가변 인자는 배열 타입으로 나오므로 ... 로 되돌린다.
+    private static String parameterType(final ExecutableElement method, final VariableElement parameter) {
+        final String type = parameter.asType().toString();
+        final List<? extends VariableElement> parameters = method.getParameters();
+        if (method.isVarArgs() && parameter == parameters.get(parameters.size() - 1) && type.endsWith("[]")) {
+            return type.substring(0, type.length() - 2) + "...";
+        }
+        return type;
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,89 @@
+package hello.core.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 동시에 처리 중인 주문 수의 상한을 관측한 지연 시간에 맞춰 조정한다.
+ *
+ * 샘플 window 개마다 평균 지연 시간을 지금까지의 최소 지연 시간과 비교해서,
+ * 평균이 최소 x tolerance 안이면 상한을 sqrt(limit) 만큼 늘리고, 넘으면 그 비율만큼 줄인다. (gradient 방식)
+ * 부하가 없을 때의 지연 시간도 변할 수 있으므로 최소 지연 시간은 window 1000 개마다 다시 잰다.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_RTT_RESET_WINDOWS = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int window;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong samples = new AtomicLong();
+    private final LongAdder latencySum = new LongAdder();
+    private volatile double limit;
+    private volatile long minRttNanos = Long.MAX_VALUE;
+
+    AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final int window) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit || window < 1) {
+            throw new IllegalArgumentException("require 1 <= minLimit <= initialLimit <= maxLimit and window >= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.window = window;
+        this.limit = initialLimit;
+    }
+
+    boolean tryAcquire() {
+        final int currentLimit = getLimit();
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(final long latencyNanos) {
+        inFlight.decrementAndGet();
+        latencySum.add(latencyNanos);
+        final long sample = samples.incrementAndGet();
+        if (sample % window == 0) { // window 를 채운 스레드 하나만 조정한다.
+            adjust(sample / window, latencySum.sumThenReset() / window);
+        }
+    }
+
+    /**
+     * 처리하지 않고 자리만 돌려준다. 지연 시간 샘플로 세지 않는다.
+     */
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private void adjust(final long windowIndex, final long averageNanos) {
+        if (windowIndex % MIN_RTT_RESET_WINDOWS == 0 || averageNanos < minRttNanos) {
+            minRttNanos = Math.max(1, averageNanos);
+        }
+        final double current = limit;
+        final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * minRttNanos / Math.max(1, averageNanos)));
+        final double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getMinRttNanos() {
+        return minRttNanos;
+    }
+}
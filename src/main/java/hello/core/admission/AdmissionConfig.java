@@ -0,0 +1,29 @@
+package hello.core.admission;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * order.admission.enabled=true 이면 OrderServiceImpl 이 주문마다 입장 제어를 거친다.
+ *
+ * order.admission.rate-per-second (기본값: 20), order.admission.burst (기본값: 40), order.admission.max-buckets (기본값: 65536),
+ * order.admission.initial-limit (기본값: CPU 수 x 4), order.admission.min-limit (기본값: CPU 수), order.admission.max-limit (기본값: 1024)
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.admission.enabled", havingValue = "true")
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionController admissionController(final Environment environment) {
+        final int cpus = Runtime.getRuntime().availableProcessors();
+        return new AdmissionController(
+                environment.getProperty("order.admission.rate-per-second", Integer.class, 20),
+                environment.getProperty("order.admission.burst", Integer.class, 40),
+                environment.getProperty("order.admission.max-buckets", Integer.class, 65536),
+                environment.getProperty("order.admission.initial-limit", Integer.class, cpus * 4),
+                environment.getProperty("order.admission.min-limit", Integer.class, cpus),
+                environment.getProperty("order.admission.max-limit", Integer.class, 1024));
+    }
+}
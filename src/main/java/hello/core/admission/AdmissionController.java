@@ -0,0 +1,98 @@
+package hello.core.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 주문 생성 앞단의 입장 제어. 회원마다 토큰 버킷으로 초당 주문 수를 제한하고,
+ * 전체 동시 처리 수는 지연 시간에 맞춰 조정되는 상한으로 제한한다.
+ *
+ * <pre>
+ * final long startNanos = admissionController.acquire(memberId); // 거절되면 OrderRejectedException
+ * try {
+ *     ...
+ * } finally {
+ *     admissionController.release(startNanos);
+ * }
+ * </pre>
+ */
+public class AdmissionController {
+
+    private final TokenBucketTable buckets;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    public AdmissionController(final int ratePerSecond, final int burst, final int maxBuckets,
+                               final int initialLimit, final int minLimit, final int maxLimit) {
+        this(ratePerSecond, burst, maxBuckets, initialLimit, minLimit, maxLimit,
+                () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    AdmissionController(final int ratePerSecond, final int burst, final int maxBuckets,
+                        final int initialLimit, final int minLimit, final int maxLimit, final LongSupplier clockMillis) {
+        this.buckets = new TokenBucketTable(ratePerSecond, burst, maxBuckets, clockMillis);
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, 100);
+    }
+
+    /**
+     * @return 처리 시작 시각(ns). 처리가 끝나면 {@link #release(long)} 에 넘긴다.
+     * @throws OrderRejectedException 회원의 토큰이 없거나 동시 처리 수가 상한에 닿았을 때
+     */
+    public long acquire(final long memberId) {
+        // 동시 처리 수를 먼저 본다. 과부하로 거절한 주문이 회원의 토큰을 쓰지 않게 한다.
+        if (!limiter.tryAcquire()) {
+            overloaded.increment();
+            throw OrderRejectedException.OVERLOADED;
+        }
+        if (!buckets.tryAcquire(memberId)) {
+            limiter.cancel();
+            rateLimited.increment();
+            throw OrderRejectedException.RATE_LIMITED;
+        }
+        admitted.increment();
+        return System.nanoTime();
+    }
+
+    public void release(final long startNanos) {
+        limiter.release(System.nanoTime() - startNanos);
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long getOverloaded() {
+        return overloaded.sum();
+    }
+
+    public long getEvictedBuckets() {
+        return buckets.getEvictions();
+    }
+
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionController{" +
+               "admitted=" + getAdmitted() +
+               ", rateLimited=" + getRateLimited() +
+               ", overloaded=" + getOverloaded() +
+               ", evictedBuckets=" + getEvictedBuckets() +
+               ", concurrencyLimit=" + getConcurrencyLimit() +
+               ", inFlight=" + getInFlight() +
+               '}';
+    }
+}
@@ -0,0 +1,18 @@
+package hello.core.admission;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 주문이 받아들여지지 않았다. 거절은 자주 일어나므로 스택 트레이스를 만들지 않는 공유 인스턴스만 던진다.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class OrderRejectedException extends RuntimeException {
+
+    public static final OrderRejectedException RATE_LIMITED = new OrderRejectedException("rate limited");
+    public static final OrderRejectedException OVERLOADED = new OrderRejectedException("overloaded");
+
+    private OrderRejectedException(final String message) {
+        super(message, null, false, false);
+    }
+}
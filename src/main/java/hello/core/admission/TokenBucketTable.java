@@ -0,0 +1,138 @@
+package hello.core.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 회원 id(long) 별 토큰 버킷. 객체를 만들지 않고 long 배열 두 개에 키와 버킷 상태를 담는다.
+ *
+ * 버킷 상태는 long 하나에 (마지막으로 토큰을 쓴 시각(ms) + 1) &lt;&lt; 24 | 남은 밀리토큰 으로 묶어서 CAS 로만 바꾼다.
+ * 토큰은 조회할 때 마지막 시각부터 지난 시간만큼 채워 계산하므로(lazy refill) 주기적으로 채우는 스레드가 없다.
+ * 표는 고정 크기이고, 탐색 구간이 가득 차면 그 구간에서 가장 오래 쓰이지 않은 버킷을 빼앗는다. (근사 LRU)
+ */
+class TokenBucketTable {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+    private static final int PROBES = 8;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long capacity; // 밀리토큰
+    private final long refillPerMillis; // 1ms 에 채워지는 밀리토큰 = 초당 토큰 수
+    private final LongSupplier clockMillis;
+    private final long epochMillis;
+    private final LongAdder evictions = new LongAdder();
+
+    TokenBucketTable(final int ratePerSecond, final int burst, final int maxBuckets, final LongSupplier clockMillis) {
+        if (ratePerSecond < 1 || burst < 1 || burst * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("ratePerSecond must be positive and burst must be in [1, " + TOKEN_MASK / MILLI + "]");
+        }
+        this.capacity = burst * MILLI;
+        this.refillPerMillis = ratePerSecond;
+        this.clockMillis = clockMillis;
+        this.epochMillis = clockMillis.getAsLong();
+
+        final int buckets = Math.max(PROBES, powerOfTwo(maxBuckets));
+        // 스트라이프마다 배열을 따로 두어서, 서로 다른 스트라이프를 쓰는 스레드가 같은 캐시 라인을 건드리지 않게 한다.
+        final int stripeCount = Math.min(powerOfTwo(Runtime.getRuntime().availableProcessors() * 2), buckets / PROBES);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(buckets / stripeCount);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * @return 토큰을 하나 썼으면 true, 버킷이 비었으면 false
+     */
+    boolean tryAcquire(final long memberId) {
+        if (memberId == EMPTY) {
+            return true; // 빈 칸 표시로 쓰는 값이라 버킷을 둘 수 없다.
+        }
+        final long now = clockMillis.getAsLong() - epochMillis + 1; // 0 은 새 버킷을 뜻한다.
+        final long hash = memberId * 0x9E3779B97F4A7C15L;
+        final Stripe stripe = stripes[(int) (hash >>> 58) & stripeMask];
+        final int start = (int) (hash >>> 16);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int victim = -1;
+            long victimTime = Long.MAX_VALUE;
+            for (int probe = 0; probe < PROBES; probe++) {
+                final int index = (start + probe) & stripe.mask;
+                final long key = stripe.keys.get(index);
+                if (key == memberId) {
+                    return consume(stripe, index, now);
+                }
+                if (key == EMPTY) {
+                    if (stripe.keys.compareAndSet(index, EMPTY, memberId) || stripe.keys.get(index) == memberId) {
+                        return consume(stripe, index, now);
+                    }
+                    continue;
+                }
+                final long time = stripe.states.get(index) >>> TOKEN_BITS;
+                if (time < victimTime) {
+                    victim = index;
+                    victimTime = time;
+                }
+            }
+            if (victim >= 0) {
+                final long evicted = stripe.keys.get(victim);
+                if (evicted != memberId && stripe.keys.compareAndSet(victim, evicted, memberId)) {
+                    stripe.states.set(victim, 0); // 빼앗은 버킷은 가득 찬 상태로 시작한다.
+                    evictions.increment();
+                    return consume(stripe, victim, now);
+                }
+            }
+        }
+        return true; // 다른 스레드와 계속 엇갈리면 막지 않고 통과시킨다.
+    }
+
+    private boolean consume(final Stripe stripe, final int index, final long now) {
+        while (true) {
+            final long state = stripe.states.get(index);
+            final long tokens;
+            if (state == 0) {
+                tokens = capacity;
+            } else {
+                final long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+                tokens = elapsed >= capacity / refillPerMillis ? capacity : Math.min(capacity, (state & TOKEN_MASK) + elapsed * refillPerMillis);
+            }
+            if (tokens < MILLI) {
+                return false; // 거절할 때는 쓰지 않는다.
+            }
+            if (stripe.states.compareAndSet(index, state, now << TOKEN_BITS | (tokens - MILLI))) {
+                return true;
+            }
+        }
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    int getBucketCount() {
+        return stripes.length * stripes[0].keys.length();
+    }
+
+    private static int powerOfTwo(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private static final class Stripe {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray states;
+        private final int mask;
+
+        Stripe(final int size) {
+            keys = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                keys.set(i, EMPTY);
+            }
+            states = new AtomicLongArray(size);
+            mask = size - 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package hello.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * request 스코프 빈에 붙이면 scoped-proxy-processor 가 컴파일 시점에 {@code <클래스이름>_ScopedProxy} 를 만들고,
+ * GeneratedScopedProxyRegistrar 가 CGLIB 스코프 프록시 대신 그 클래스를 빈으로 등록한다.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GeneratedScopedProxy {
+}
@@ -0,0 +1,188 @@
+package hello.core.bulk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemoryMemberRepository;
+
+/**
+ * 회원 파일(CSV 또는 NDJSON, 한 줄에 회원 한 명)을 메모리에 매핑하고, 줄 경계에 맞춰 나눈 조각을 포크조인 풀에서 동시에 읽어
+ * MemberRepository.saveAll 로 저장한다. MemberService.join 을 한 명씩 부르는 것보다 훨씬 빠르다.
+ *
+ * <pre>
+ * java -cp core.jar hello.core.bulk.MemberBulkImporter members.csv
+ * </pre>
+ */
+@Component
+public class MemberBulkImporter {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    private final MemberRepository memberRepository;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public MemberBulkImporter(final MemberRepository memberRepository) {
+        this(memberRepository, ForkJoinPool.commonPool());
+    }
+
+    public MemberBulkImporter(final MemberRepository memberRepository, final ForkJoinPool pool) {
+        this.memberRepository = memberRepository;
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("usage: MemberBulkImporter <members.csv|members.ndjson>");
+            return;
+        }
+        final MemberBulkImporter importer = new MemberBulkImporter(new MemoryMemberRepository());
+        System.out.println(importer.importFile(Paths.get(args[0]), System.out::println));
+    }
+
+    public MemberImportReport importFile(final Path path) throws IOException {
+        return importFile(path, report -> { });
+    }
+
+    /**
+     * @param progress 조각 하나를 다 읽을 때마다 그 조각을 읽은 스레드에서 호출된다.
+     */
+    public MemberImportReport importFile(final Path path, final Consumer<MemberImportReport> progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final Progress counters = new Progress(channel.size(), System.nanoTime());
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (long[] chunk : split(channel)) {
+                tasks.add(pool.submit(() -> {
+                    importChunk(channel, chunk[0], chunk[1], counters);
+                    progress.accept(counters.report());
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                try {
+                    task.join();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            return counters.report();
+        }
+    }
+
+    // 정해둔 크기만큼 건너뛴 다음, 그 뒤의 첫 줄바꿈까지를 한 조각으로 삼는다.
+    private List<long[]> split(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final long chunkSize = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (pool.getParallelism() * 4L)));
+        final List<long[]> chunks = new ArrayList<>();
+        final ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            while (end < size) {
+                probe.clear();
+                final int read = channel.read(probe, end);
+                final int newline = indexOf(probe, read);
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static int indexOf(final ByteBuffer buffer, final int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void importChunk(final FileChannel channel, final long start, final long end, final Progress counters) {
+        final MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final MemberLineParser parser = new MemberLineParser();
+        final List<Member> batch = new ArrayList<>(BATCH_SIZE);
+        final int limit = buffer.limit();
+        long skipped = 0;
+        long imported = 0;
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int to = lineEnd;
+            while (to > lineStart && (buffer.get(to - 1) == '\r' || buffer.get(to - 1) == ' ')) {
+                to--;
+            }
+            if (to > lineStart) {
+                final Member member = parser.parse(buffer, lineStart, to);
+                if (member != null) {
+                    batch.add(member);
+                    if (batch.size() == BATCH_SIZE) {
+                        memberRepository.saveAll(batch);
+                        imported += batch.size();
+                        batch.clear();
+                    }
+                } else if (start != 0 || lineStart != 0) { // 파일 첫 줄은 CSV 헤더일 수 있다.
+                    skipped++;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        memberRepository.saveAll(batch);
+        imported += batch.size();
+        counters.add(end - start, imported, skipped);
+    }
+
+    private static class Progress {
+        private final long totalBytes;
+        private final long startNanos;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+
+        Progress(final long totalBytes, final long startNanos) {
+            this.totalBytes = totalBytes;
+            this.startNanos = startNanos;
+        }
+
+        void add(final long bytes, final long members, final long skippedLines) {
+            imported.addAndGet(members);
+            skipped.addAndGet(skippedLines);
+            bytesRead.addAndGet(bytes);
+        }
+
+        MemberImportReport report() {
+            return new MemberImportReport(totalBytes, bytesRead.get(), imported.get(), skipped.get(), System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package hello.core.bulk;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 가져오기의 진행 상황. 가져오는 도중에도, 끝난 다음에도 같은 형태로 받는다.
+ */
+public class MemberImportReport {
+
+    private final long totalBytes;
+    private final long bytesRead;
+    private final long imported;
+    private final long skipped;
+    private final long elapsedNanos;
+
+    public MemberImportReport(final long totalBytes, final long bytesRead, final long imported, final long skipped, final long elapsedNanos) {
+        this.totalBytes = totalBytes;
+        this.bytesRead = bytesRead;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @return 형식이 맞지 않아 건너뛴 줄 수
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getProgress() {
+        return totalBytes == 0 ? 1.0 : (double) bytesRead / totalBytes;
+    }
+
+    public double getMembersPerSecond() {
+        return elapsedNanos == 0 ? 0 : imported * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesRead / (1024.0 * 1024.0) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%5.1f%% imported %,d members (%,d skipped) in %.3fs: %,.0f members/s, %.1fMB/s",
+                getProgress() * 100, imported, skipped, elapsedNanos / 1e9, getMembersPerSecond(), getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,256 @@
+package hello.core.bulk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+/**
+ * 매핑된 버퍼에서 한 줄을 바로 읽어 Member 로 만든다. 스레드마다 하나씩 쓴다.
+ * 아이디와 등급은 바이트에서 바로 읽으므로, 새로 만드는 문자열은 이름 하나뿐이다.
+ *
+ * <pre>
+ * 1,memberA,VIP
+ * {"id":1,"name":"memberA","grade":"VIP"}
+ * </pre>
+ */
+class MemberLineParser {
+
+    private static final Grade[] GRADES = Grade.values();
+    private static final byte[][] GRADE_NAMES = new byte[GRADES.length][];
+    private static final byte[] ID = bytes("id");
+    private static final byte[] NAME = bytes("name");
+    private static final byte[] GRADE = bytes("grade");
+
+    static {
+        for (int i = 0; i < GRADES.length; i++) {
+            GRADE_NAMES[i] = bytes(GRADES[i].name());
+        }
+    }
+
+    private byte[] scratch = new byte[64];
+    private ByteBuffer buffer;
+    private long id;
+    private String name;
+    private Grade grade;
+
+    /**
+     * @return 형식이 맞지 않으면 null
+     */
+    Member parse(final ByteBuffer buffer, final int from, final int to) {
+        this.buffer = buffer;
+        id = -1;
+        name = null;
+        grade = null;
+        boolean parsed;
+        try {
+            parsed = buffer.get(from) == '{' ? parseJson(from + 1, to) : parseCsv(from, to);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            parsed = false; // 잘못된 유니코드 이스케이프
+        }
+        if (!parsed || id < 0 || name == null || grade == null) {
+            return null;
+        }
+        return new Member(id, name, grade);
+    }
+
+    // 이름에 쉼표가 들어갈 수 있으므로 첫 번째 쉼표와 마지막 쉼표로 나눈다.
+    private boolean parseCsv(final int from, final int to) {
+        int first = -1;
+        int last = -1;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0 || first == last) {
+            return false;
+        }
+        id = parseId(from, first);
+        name = string(unquoteFrom(first + 1, last), unquoteTo(first + 1, last));
+        grade = parseGrade(unquoteFrom(last + 1, to), unquoteTo(last + 1, to));
+        return true;
+    }
+
+    // 한 단계짜리 객체만 읽는다. 모르는 필드는 건너뛴다.
+    private boolean parseJson(int pos, final int to) {
+        while (true) {
+            pos = skipWhitespace(pos, to);
+            if (pos >= to) {
+                return false;
+            }
+            if (buffer.get(pos) == '}') {
+                return true;
+            }
+            if (buffer.get(pos) != '"') {
+                return false;
+            }
+            final int keyFrom = pos + 1;
+            final int keyTo = endOfString(keyFrom, to);
+            if (keyTo < 0) {
+                return false;
+            }
+            pos = skipWhitespace(keyTo + 1, to);
+            if (pos >= to || buffer.get(pos) != ':') {
+                return false;
+            }
+            pos = skipWhitespace(pos + 1, to);
+            if (pos >= to) {
+                return false;
+            }
+            final int valueFrom;
+            final int valueTo;
+            final boolean quoted = buffer.get(pos) == '"';
+            if (quoted) {
+                valueFrom = pos + 1;
+                valueTo = endOfString(valueFrom, to);
+                if (valueTo < 0) {
+                    return false;
+                }
+                pos = valueTo + 1;
+            } else {
+                valueFrom = pos;
+                while (pos < to && buffer.get(pos) != ',' && buffer.get(pos) != '}' && !isWhitespace(buffer.get(pos))) {
+                    pos++;
+                }
+                valueTo = pos;
+            }
+
+            if (matches(keyFrom, keyTo, ID)) {
+                id = parseId(valueFrom, valueTo);
+            } else if (matches(keyFrom, keyTo, NAME)) {
+                name = quoted ? jsonString(valueFrom, valueTo) : null;
+            } else if (matches(keyFrom, keyTo, GRADE)) {
+                grade = parseGrade(valueFrom, valueTo);
+            }
+
+            pos = skipWhitespace(pos, to);
+            if (pos < to && buffer.get(pos) == ',') {
+                pos++;
+            }
+        }
+    }
+
+    private long parseId(final int from, final int to) {
+        if (from >= to || to - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            final int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private Grade parseGrade(final int from, final int to) {
+        for (int i = 0; i < GRADES.length; i++) {
+            if (matches(from, to, GRADE_NAMES[i])) {
+                return GRADES[i];
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(final int from, final int to, final byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int endOfString(int pos, final int to) {
+        while (pos < to) {
+            final byte b = buffer.get(pos);
+            if (b == '\\') {
+                pos += 2;
+            } else if (b == '"') {
+                return pos;
+            } else {
+                pos++;
+            }
+        }
+        return -1;
+    }
+
+    private String jsonString(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\\') {
+                return unescape(from, to);
+            }
+        }
+        return string(from, to);
+    }
+
+    private String unescape(final int from, final int to) {
+        final StringBuilder sb = new StringBuilder(to - from);
+        int runFrom = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != '\\') {
+                continue;
+            }
+            sb.append(string(runFrom, i));
+            final byte escaped = buffer.get(++i);
+            switch (escaped) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(string(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default: sb.append((char) escaped);
+            }
+            runFrom = i + 1;
+        }
+        return sb.append(string(runFrom, to)).toString();
+    }
+
+    private String string(final int from, final int to) {
+        final int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(from + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int unquoteFrom(final int from, final int to) {
+        return to - from >= 2 && buffer.get(from) == '"' && buffer.get(to - 1) == '"' ? from + 1 : from;
+    }
+
+    private int unquoteTo(final int from, final int to) {
+        return to - from >= 2 && buffer.get(from) == '"' && buffer.get(to - 1) == '"' ? to - 1 : to;
+    }
+
+    private int skipWhitespace(int pos, final int to) {
+        while (pos < to && isWhitespace(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
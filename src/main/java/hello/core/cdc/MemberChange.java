@@ -0,0 +1,78 @@
+package hello.core.cdc;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+/**
+ * 회원 저장 한 번의 변경 기록. 저장할 때의 값을 복사해 두므로, 나중에 Member 객체가 바뀌어도 기록은 그대로다.
+ */
+public final class MemberChange {
+
+    private final long sequence;
+    private final long memberId;
+    private final String name;
+    private final Grade grade;
+    private final String previousName;
+    private final Grade previousGrade;
+
+    MemberChange(final long sequence, final Member member, final Member previous) {
+        this.sequence = sequence;
+        this.memberId = member.getId();
+        this.name = member.getName();
+        this.grade = member.getGrade();
+        this.previousName = previous == null ? null : previous.getName();
+        this.previousGrade = previous == null ? null : previous.getGrade();
+    }
+
+    /**
+     * @return 로그 안에서의 순번. 0 부터 빈틈없이 하나씩 올라간다.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getMemberId() {
+        return memberId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    /**
+     * @return 바뀌기 전 이름. 처음 저장된 회원이면 null
+     */
+    public String getPreviousName() {
+        return previousName;
+    }
+
+    /**
+     * @return 바뀌기 전 등급. 처음 저장된 회원이면 null
+     */
+    public Grade getPreviousGrade() {
+        return previousGrade;
+    }
+
+    public boolean isInsert() {
+        return previousGrade == null;
+    }
+
+    public boolean isGradeChanged() {
+        return grade != previousGrade;
+    }
+
+    @Override
+    public String toString() {
+        return "MemberChange{" +
+               "sequence=" + sequence +
+               ", memberId=" + memberId +
+               ", name='" + name + '\'' +
+               ", grade=" + grade +
+               ", previousGrade=" + previousGrade +
+               '}';
+    }
+}
@@ -0,0 +1,122 @@
+package hello.core.cdc;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import hello.core.member.Member;
+
+/**
+ * 회원 변경 기록을 담는 고정 크기 링 버퍼. 저장하는 스레드는 순번을 원자적으로 하나 받아 자기 칸에 기록을 넣기만 하고,
+ * 구독자를 기다리거나 깨우지 않는다. 구독자마다 자기 커서를 가진 스레드가 링을 따라가며 배치로 넘겨준다.
+ *
+ * 느린 구독자 때문에 쓰기가 막히지 않도록, 링이 한 바퀴 돌면 아직 읽지 않은 칸도 덮어쓴다.
+ * 밀린 양이 slow-lag 를 넘으면 느린 구독자로 표시하고, 실제로 덮어써진 변경은 {@link MemberChangeSubscriber#onOverrun(long)} 으로 알린다.
+ *
+ * member.cdc.capacity (기본값: 65536, 2의 거듭제곱으로 올림), member.cdc.slow-lag (기본값: capacity / 2)
+ */
+@Component
+public class MemberChangeLog implements SmartInitializingSingleton {
+
+    private final AtomicReferenceArray<MemberChange> ring;
+    private final int mask;
+    private final long slowLag;
+    private final AtomicLong head = new AtomicLong(); // 다음에 나눠줄 순번
+    private final List<MemberChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ObjectProvider<MemberChangeSubscriber> subscriberBeans;
+    private volatile boolean subscribed;
+
+    @Autowired
+    public MemberChangeLog(final Environment environment, final ObjectProvider<MemberChangeSubscriber> subscriberBeans) {
+        this(environment.getProperty("member.cdc.capacity", Integer.class, 65536),
+                environment.getProperty("member.cdc.slow-lag", Long.class, -1L), subscriberBeans);
+    }
+
+    public MemberChangeLog(final int capacity, final long slowLag) {
+        this(capacity, slowLag, null);
+    }
+
+    private MemberChangeLog(final int capacity, final long slowLag, final ObjectProvider<MemberChangeSubscriber> subscriberBeans) {
+        final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.slowLag = slowLag < 0 ? size / 2 : slowLag;
+        this.subscriberBeans = subscriberBeans;
+    }
+
+    // 구독자 빈이 저장소를 주입받을 수 있으므로, 생성자가 아니라 싱글톤이 모두 만들어진 다음 찾는다.
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (subscriberBeans != null) {
+            subscriberBeans.orderedStream().forEach(this::subscribe);
+        }
+    }
+
+    /**
+     * 저장소의 쓰기 경로에서 호출된다. 구독자가 없으면 기록을 만들지 않는다.
+     *
+     * @param previous 바뀌기 전 회원. 처음 저장하는 회원이면 null
+     */
+    public void publish(final Member member, final Member previous) {
+        if (!subscribed) {
+            return;
+        }
+        final long sequence = head.getAndIncrement();
+        ring.set((int) sequence & mask, new MemberChange(sequence, member, previous));
+    }
+
+    /**
+     * 지금 이후에 저장되는 변경부터 받는다.
+     */
+    public MemberChangeSubscription subscribe(final MemberChangeSubscriber subscriber) {
+        subscribed = true;
+        final MemberChangeSubscription subscription = new MemberChangeSubscription(this, subscriber, head.get());
+        subscriptions.add(subscription);
+        subscriber.onSubscribe();
+        subscription.start();
+        return subscription;
+    }
+
+    public List<MemberChangeSubscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * @return 지금까지 나눠준 순번 수. 아직 링에 넣는 중인 기록도 포함한다.
+     */
+    public long getHeadSequence() {
+        return head.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    long getSlowLag() {
+        return slowLag;
+    }
+
+    MemberChange get(final long sequence) {
+        return ring.get((int) sequence & mask);
+    }
+
+    void unsubscribe(final MemberChangeSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        for (MemberChangeSubscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+}
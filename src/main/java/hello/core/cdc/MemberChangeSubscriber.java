@@ -0,0 +1,35 @@
+package hello.core.cdc;
+
+import java.util.List;
+
+/**
+ * 회원 변경 구독자. 빈으로 등록하면 {@link MemberChangeLog} 가 찾아서 구독시킨다.
+ * 구독자마다 전용 스레드 하나가 순서대로 배치를 넘겨주므로, 구현은 스레드 안전하지 않아도 된다.
+ */
+public interface MemberChangeSubscriber {
+
+    /**
+     * @param changes 순번 순서의 변경 배치. 호출이 끝나면 재사용하므로 보관하려면 복사한다.
+     */
+    void onChanges(List<MemberChange> changes);
+
+    /**
+     * 구독을 시작할 순번이 정해진 다음, 첫 배치보다 먼저 불린다. 이후의 변경은 모두 전달되므로
+     * 여기서부터 저장소를 읽어서 초기 상태를 만들면 빠지는 변경이 없다. (같은 변경을 두 번 볼 수는 있다.)
+     */
+    default void onSubscribe() {
+    }
+
+    /**
+     * 너무 느려서 아직 읽지 못한 변경이 덮어써졌을 때 불린다. 이후 배치는 남아 있는 가장 오래된 변경부터 이어진다.
+     * 유지하던 상태를 다시 만들어야 한다면 MemberRepository.snapshot() 으로 처음부터 만든다.
+     *
+     * @param missed 놓친 변경 수
+     */
+    default void onOverrun(final long missed) {
+    }
+
+    default int getMaxBatchSize() {
+        return 256;
+    }
+}
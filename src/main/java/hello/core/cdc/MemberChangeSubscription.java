@@ -0,0 +1,180 @@
+package hello.core.cdc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 구독자 하나의 커서와 전달 스레드. 커서는 이 스레드만 옮긴다.
+ * 쓰는 쪽이 깨워주지 않으므로 기록이 없으면 잠깐 돌다가 점점 길게 잔다. (최대 1ms)
+ */
+public class MemberChangeSubscription implements Runnable {
+
+    private static final int SPINS = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final AtomicInteger threadSequence = new AtomicInteger();
+
+    private final MemberChangeLog log;
+    private final MemberChangeSubscriber subscriber;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private volatile long cursor; // 다음에 읽을 순번
+    private volatile long delivered;
+    private volatile long batches;
+    private volatile long missed;
+    private volatile long overruns;
+    private volatile long failures;
+    private volatile boolean slow;
+    private volatile long slowDetections;
+
+    MemberChangeSubscription(final MemberChangeLog log, final MemberChangeSubscriber subscriber, final long cursor) {
+        this.log = log;
+        this.subscriber = subscriber;
+        this.cursor = cursor;
+        this.thread = new Thread(this, "member-cdc-" + threadSequence.incrementAndGet());
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        final int maxBatchSize = Math.max(1, subscriber.getMaxBatchSize());
+        final List<MemberChange> batch = new ArrayList<>(maxBatchSize);
+        long next = cursor;
+        int idle = 0;
+        while (running) {
+            next = fill(batch, next, maxBatchSize);
+            if (batch.isEmpty()) {
+                idle(idle++);
+                continue;
+            }
+            idle = 0;
+            try {
+                subscriber.onChanges(batch);
+            } catch (RuntimeException e) {
+                failures++; // 구독자 하나의 예외로 전달을 멈추지 않는다.
+            }
+            cursor = next;
+            delivered += batch.size();
+            batches++;
+            batch.clear();
+            checkLag(next);
+        }
+    }
+
+    // 공개된 기록을 순번대로 최대 maxBatchSize 개까지 담는다. 덮어써진 칸을 만나면 남아 있는 가장 오래된 기록으로 건너뛴다.
+    private long fill(final List<MemberChange> batch, long next, final int maxBatchSize) {
+        while (batch.size() < maxBatchSize) {
+            final MemberChange change = log.get(next);
+            if (change == null || change.getSequence() < next) {
+                break; // 아직 쓰이지 않았다.
+            }
+            if (change.getSequence() > next) {
+                if (!batch.isEmpty()) {
+                    break; // 읽어 둔 것부터 넘겨준다.
+                }
+                final long oldest = change.getSequence() - log.getCapacity() + 1;
+                overrun(oldest - next);
+                next = oldest;
+                continue;
+            }
+            batch.add(change);
+            next++;
+        }
+        return next;
+    }
+
+    private void overrun(final long count) {
+        missed += count;
+        overruns++;
+        try {
+            subscriber.onOverrun(count);
+        } catch (RuntimeException e) {
+            failures++;
+        }
+    }
+
+    private void checkLag(final long next) {
+        final boolean behind = log.getHeadSequence() - next > log.getSlowLag();
+        if (behind && !slow) {
+            slowDetections++;
+        }
+        slow = behind;
+    }
+
+    private static void idle(final int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(idle - SPINS, 10)));
+        }
+    }
+
+    /**
+     * 전달 스레드를 멈춘다. 이미 넘겨주고 있는 배치는 끝까지 처리한다.
+     */
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+        log.unsubscribe(this);
+    }
+
+    public MemberChangeSubscriber getSubscriber() {
+        return subscriber;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return 아직 넘겨주지 못한 변경 수
+     */
+    public long getLag() {
+        return Math.max(0, log.getHeadSequence() - cursor);
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getMissed() {
+        return missed;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return 마지막 배치를 넘겨준 뒤 밀린 양이 slow-lag 를 넘었는지
+     */
+    public boolean isSlow() {
+        return slow;
+    }
+
+    public long getSlowDetections() {
+        return slowDetections;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s cursor=%d lag=%d delivered=%d batches=%d missed=%d overruns=%d slow=%s",
+                thread.getName(), cursor, getLag(), delivered, batches, missed, overruns, slow);
+    }
+}
@@ -0,0 +1,41 @@
+package hello.core.cds;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * cds.training=true 이면 (-Dcds.training=true) 애플리케이션이 뜨자마자 자기 자신에게 요청을 몇 개 보내고 종료한다.
+ * AppCDS 클래스 목록을 만드는 학습 실행용으로, 시작할 때 읽는 클래스에 첫 요청을 처리하는 클래스까지 목록에 들어가게 한다.
+ * (./gradlew cdsArchiveCore)
+ */
+@Configuration
+@ConditionalOnProperty(name = "cds.training", havingValue = "true")
+public class CdsTrainingConfig {
+
+    private static final List<String> TRAINING_PATHS = List.of("/metrics", "/order-statistics", "/members");
+
+    @EventListener
+    public void train(final ApplicationReadyEvent event) throws IOException, InterruptedException {
+        final String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+        if (port != null) {
+            final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            for (String path : TRAINING_PATHS) {
+                final HttpResponse<Void> response = client.send(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                System.out.println("cds training GET " + path + " -> " + response.statusCode());
+            }
+        }
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,219 @@
+package hello.core.cds;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CoreApplication, MemberApp, OrderApp 를 CDS 없이(-Xshare:off), JDK 기본 아카이브로, AppCDS 아카이브로 각각 여러 번 띄워서
+ * 시작 시간의 중앙값을 비교한다.
+ *
+ * CoreApplication 은 프로세스를 시작한 때부터 GET /metrics 가 처음 200 으로 응답할 때까지를 재고, 그때의 RSS 도 읽는다. (리눅스 /proc 만)
+ * MemberApp, OrderApp 은 main 이 끝나면 종료하므로 프로세스가 끝날 때까지를 잰다.
+ *
+ * <pre>
+ * ./gradlew cdsStartupBenchmark
+ * java -cp (classpath) hello.core.cds.StartupBenchmark --classpath=(classpath) --archive-dir=build/cds --runs=5 --apps=core,member,order
+ * </pre>
+ * classpath 는 아카이브를 만들 때와 같아야 한다. 다르면 JVM 이 아카이브를 쓰지 않는다.
+ */
+public class StartupBenchmark {
+
+    private static final Map<String, String> MAIN_CLASSES = Map.of(
+            "core", "hello.core.CoreApplication",
+            "member", "hello.core.MemberApp",
+            "order", "hello.core.OrderApp");
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final String classpath;
+    private final Path archiveDir;
+    private final HttpClient client = HttpClient.newBuilder()
+                                                .version(HttpClient.Version.HTTP_1_1)
+                                                .connectTimeout(Duration.ofSeconds(1))
+                                                .build();
+
+    public StartupBenchmark(final String classpath, final Path archiveDir) {
+        this.classpath = classpath;
+        this.archiveDir = archiveDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                System.out.println("usage: StartupBenchmark --classpath=<cp> [--archive-dir=build/cds] [--runs=5] [--apps=core,member,order]");
+                return;
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        final StartupBenchmark benchmark = new StartupBenchmark(
+                options.getOrDefault("classpath", System.getProperty("java.class.path")),
+                Paths.get(options.getOrDefault("archive-dir", "build/cds")));
+        final int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+
+        System.out.printf("%-8s %-8s %12s %10s%n", "app", "cds", "startup(ms)", "rss(MB)");
+        for (String app : options.getOrDefault("apps", "core,member,order").split(",")) {
+            for (String cds : List.of("off", "default", "app")) {
+                final Result result = benchmark.measure(app, cds, runs);
+                System.out.printf("%-8s %-8s %12.1f %10s%n", app, cds, result.startupNanos / 1e6,
+                        result.rssBytes < 0 ? "-" : String.format("%.1f", result.rssBytes / 1024.0 / 1024.0));
+            }
+        }
+    }
+
+    /**
+     * @param cds off: -Xshare:off, default: JDK 기본 아카이브, app: archive-dir/(app).jsa
+     * @return runs 번 잰 값의 중앙값
+     */
+    public Result measure(final String app, final String cds, final int runs) throws IOException, InterruptedException {
+        final long[] startup = new long[runs];
+        final long[] rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            final Result result = "core".equals(app) ? untilFirstRequest(command(app, cds)) : untilExit(command(app, cds));
+            startup[i] = result.startupNanos;
+            rss[i] = result.rssBytes;
+        }
+        return new Result(median(startup), median(rss));
+    }
+
+    private List<String> command(final String app, final String cds) {
+        final String mainClass = MAIN_CLASSES.get(app);
+        if (mainClass == null) {
+            throw new IllegalArgumentException("unknown app: " + app + ", expected one of " + MAIN_CLASSES.keySet());
+        }
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        switch (cds) {
+            case "off":
+                command.add("-Xshare:off");
+                break;
+            case "default":
+                break;
+            case "app":
+                final Path archive = archiveDir.resolve(app + ".jsa");
+                if (!Files.exists(archive)) {
+                    throw new IllegalStateException("archive not found: " + archive + " (./gradlew cdsArchive)");
+                }
+                command.add("-Xshare:on"); // 아카이브를 못 쓰면 조용히 넘어가지 않고 실패하게 한다.
+                command.add("-XX:SharedArchiveFile=" + archive);
+                break;
+            default:
+                throw new IllegalArgumentException("cds must be off, default or app: " + cds);
+        }
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        return command;
+    }
+
+    private Result untilFirstRequest(final List<String> command) throws IOException, InterruptedException {
+        final int port = freePort();
+        command.add("--server.port=" + port);
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/metrics")).GET().build();
+        final long start = System.nanoTime();
+        final Process process = start(command);
+        try {
+            while (System.nanoTime() - start < TIMEOUT_NANOS) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("exited with " + process.exitValue() + ": " + command);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new Result(System.nanoTime() - start, rssBytes(process.pid()));
+                    }
+                } catch (ConnectException e) {
+                    // 아직 포트를 열지 않았다.
+                }
+                Thread.sleep(2);
+            }
+            throw new IllegalStateException("no response within 60s: " + command);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private Result untilExit(final List<String> command) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        final Process process = start(command);
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("did not exit within 60s: " + command);
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("exited with " + process.exitValue() + ": " + command);
+        }
+        return new Result(System.nanoTime() - start, -1);
+    }
+
+    private static Process start(final List<String> command) throws IOException {
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(new File(nullDevice())).start();
+    }
+
+    private static String nullDevice() {
+        return System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * @return /proc/(pid)/status 의 VmRSS. 읽을 수 없으면 -1
+     */
+    static long rssBytes(final long pid) {
+        final Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024; // kB
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 리눅스가 아니다.
+        }
+        return -1;
+    }
+
+    private static long median(final long[] values) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    public static class Result {
+        private final long startupNanos;
+        private final long rssBytes;
+
+        Result(final long startupNanos, final long rssBytes) {
+            this.startupNanos = startupNanos;
+            this.rssBytes = rssBytes;
+        }
+
+        public long getStartupNanos() {
+            return startupNanos;
+        }
+
+        public long getRssBytes() {
+            return rssBytes;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package hello.core.codec;
+
+import java.nio.ByteBuffer;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+/**
+ * Member 바이너리 형식: id(zigzag varint) | grade ordinal(1) | name({@link StringDictionary})
+ * 쓰는 쪽은 넘겨받은 버퍼에 바로 쓰고, 읽는 쪽은 넘겨받은 Member 에 값을 채우므로 반복해서 쓸 때 새 객체를 만들지 않는다.
+ */
+public class MemberCodec {
+
+    private static final Grade[] GRADES = Grade.values();
+
+    private final StringDictionary dictionary;
+
+    public MemberCodec() {
+        this(StringDictionary.EMPTY);
+    }
+
+    public MemberCodec(final StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public void encode(final Member member, final ByteBuffer buffer) {
+        VarInts.writeZigZagLong(buffer, member.getId());
+        buffer.put((byte) member.getGrade().ordinal());
+        dictionary.write(buffer, member.getName());
+    }
+
+    public Member decode(final ByteBuffer buffer, final Member reuse) {
+        reuse.setId(VarInts.readZigZagLong(buffer));
+        reuse.setGrade(GRADES[buffer.get()]);
+        reuse.setName(dictionary.read(buffer));
+        return reuse;
+    }
+
+    public Member decode(final ByteBuffer buffer) {
+        return decode(buffer, new Member(null, null, null));
+    }
+}
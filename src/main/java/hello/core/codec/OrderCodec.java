@@ -0,0 +1,41 @@
+package hello.core.codec;
+
+import java.nio.ByteBuffer;
+
+import hello.core.order.Order;
+
+/**
+ * Order 바이너리 형식: memberId(zigzag varint) | itemName({@link StringDictionary}) | itemPrice(zigzag varint) | discountPrice(zigzag varint)
+ * 상품 이름은 종류가 많지 않으므로 사전을 함께 쓰면 대부분 1바이트로 줄어든다.
+ */
+public class OrderCodec {
+
+    private final StringDictionary dictionary;
+
+    public OrderCodec() {
+        this(StringDictionary.EMPTY);
+    }
+
+    public OrderCodec(final StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public void encode(final Order order, final ByteBuffer buffer) {
+        VarInts.writeZigZagLong(buffer, order.getMemberId());
+        dictionary.write(buffer, order.getItemName());
+        VarInts.writeZigZagInt(buffer, order.getItemPrice());
+        VarInts.writeZigZagInt(buffer, order.getDiscountPrice());
+    }
+
+    public Order decode(final ByteBuffer buffer, final Order reuse) {
+        reuse.setMemberId(VarInts.readZigZagLong(buffer));
+        reuse.setItemName(dictionary.read(buffer));
+        reuse.setItemPrice(VarInts.readZigZagInt(buffer));
+        reuse.setDiscountPrice(VarInts.readZigZagInt(buffer));
+        return reuse;
+    }
+
+    public Order decode(final ByteBuffer buffer) {
+        return decode(buffer, new Order(null, null, 0, 0));
+    }
+}
@@ -0,0 +1,107 @@
+package hello.core.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 자주 나오는 문자열(상품 이름 등)을 번호로 바꿔 쓰는 사전. 쓰는 쪽과 읽는 쪽이 같은 사전을 가지고 있어야 한다.
+ * 한 번 만들면 바뀌지 않으므로 여러 스레드에서 같이 써도 된다.
+ *
+ * <pre>
+ * 0                 : null
+ * (index << 1) | 1  : 사전 index 번째 문자열
+ * (length + 1) << 1 : 이어지는 length 바이트의 UTF-8 문자열
+ * </pre>
+ */
+public class StringDictionary {
+
+    public static final StringDictionary EMPTY = new StringDictionary();
+
+    private final String[] entries;
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    public StringDictionary(final String... entries) {
+        this.entries = entries.clone();
+        for (int i = 0; i < entries.length; i++) {
+            indexes.putIfAbsent(entries[i], i);
+        }
+    }
+
+    /**
+     * 사전에 없는 문자열은 String.getBytes 없이 버퍼에 바로 UTF-8 로 쓴다.
+     */
+    public void write(final ByteBuffer buffer, final String value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        final Integer index = indexes.get(value);
+        if (index != null) {
+            VarInts.writeVarLong(buffer, ((long) index << 1) | 1);
+            return;
+        }
+        final int length = utf8Length(value);
+        VarInts.writeVarLong(buffer, (length + 1L) << 1);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                      .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?'); // 짝이 없는 서로게이트는 String.getBytes 와 같이 ? 로 쓴다.
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * 사전에 있는 문자열은 사전의 인스턴스를 그대로 돌려주므로 새로 만들지 않는다.
+     * 사전에 없는 문자열은 힙 버퍼라면 버퍼의 배열에서 바로 만들고, 다이렉트 버퍼라면 한 번 복사한다.
+     */
+    public String read(final ByteBuffer buffer) {
+        final long header = VarInts.readVarLong(buffer);
+        if (header == 0) {
+            return null;
+        }
+        if ((header & 1) != 0) {
+            return entries[(int) (header >>> 1)];
+        }
+        final int length = (int) (header >>> 1) - 1;
+        if (buffer.hasArray()) {
+            final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(final String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
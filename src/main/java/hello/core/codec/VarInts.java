@@ -0,0 +1,66 @@
+package hello.core.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 7비트씩 끊어서 쓰는 가변 길이 정수 (protobuf 의 varint 와 같은 형식).
+ * 음수가 들어올 수 있는 값은 zigzag 로 바꿔서 쓰면 절댓값이 작은 음수도 짧게 쓸 수 있다.
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    public static void writeVarLong(final ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long readVarLong(final ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    public static void writeVarInt(final ByteBuffer buffer, final int value) {
+        writeVarLong(buffer, value & 0xFFFFFFFFL);
+    }
+
+    public static int readVarInt(final ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    public static void writeZigZagLong(final ByteBuffer buffer, final long value) {
+        writeVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readZigZagLong(final ByteBuffer buffer) {
+        final long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void writeZigZagInt(final ByteBuffer buffer, final int value) {
+        writeVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    public static int readZigZagInt(final ByteBuffer buffer) {
+        final int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return varint 로 쓸 때 필요한 바이트 수
+     */
+    public static int sizeOfVarLong(final long value) {
+        return value == 0 ? 1 : (64 - Long.numberOfLeadingZeros(value) + 6) / 7;
+    }
+}
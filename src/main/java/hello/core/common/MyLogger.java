@@ -6,14 +6,18 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Component;
 
+import hello.core.annotation.GeneratedScopedProxy;
+import hello.core.jfr.RequestScopeEvent;
+
 @Component
-@Scope(value = "request", proxyMode = ScopedProxyMode.TARGET_CLASS)
+@Scope("request")
+@GeneratedScopedProxy // CGLIB 프록시 대신 컴파일 시점에 생성된 MyLogger_ScopedProxy 가 주입된다.
 public class MyLogger {
     private String uuid;
     private String requestURL;
+    private RequestScopeEvent requestEvent;
 
     public void setRequestURL(final String requestURL) {
         this.requestURL = requestURL;
@@ -26,11 +30,18 @@ public class MyLogger {
     @PostConstruct
     public void init() {
         uuid = UUID.randomUUID().toString(); // 로또 of 로또 of 로또의 확률로 겹치지 않음
+        requestEvent = new RequestScopeEvent();
+        requestEvent.begin();
         System.out.println("[" + uuid + "] request scope bean create: " + this);
     }
 
     @PreDestroy
     public void close() {
         System.out.println("[" + uuid + "] request scope bean close: " + this);
+        if (requestEvent != null && requestEvent.shouldCommit()) {
+            requestEvent.uuid = uuid;
+            requestEvent.requestURL = requestURL;
+            requestEvent.commit();
+        }
     }
 }
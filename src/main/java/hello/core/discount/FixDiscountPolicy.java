@@ -2,9 +2,12 @@ package hello.core.discount;
 
 import org.springframework.stereotype.Component;
 
+import hello.core.annotation.Monitored;
+import hello.core.jfr.DiscountEvent;
 import hello.core.member.Grade;
 import hello.core.member.Member;
 
+@Monitored
 @Component
 public class FixDiscountPolicy implements DiscountPolicy {
 
@@ -12,9 +15,17 @@ public class FixDiscountPolicy implements DiscountPolicy {
 
     @Override
     public int discount(final Member member, final int price) {
-        if (member.getGrade() == Grade.VIP) {
-            return discountFixAmount;
+        final DiscountEvent event = new DiscountEvent();
+        event.begin();
+        final int discountPrice = member.getGrade() == Grade.VIP ? discountFixAmount : 0;
+        if (event.shouldCommit()) {
+            event.policy = "fix";
+            event.memberId = member.getId();
+            event.grade = member.getGrade().name();
+            event.price = price;
+            event.discountPrice = discountPrice;
+            event.commit();
         }
-        return 0;
+        return discountPrice;
     }
 }
@@ -5,9 +5,12 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import hello.core.annotation.MainDiscountPolicy;
+import hello.core.annotation.Monitored;
+import hello.core.jfr.DiscountEvent;
 import hello.core.member.Grade;
 import hello.core.member.Member;
 
+@Monitored
 @Component
 @MainDiscountPolicy
 public class RateDiscountPolicy implements DiscountPolicy {
@@ -15,9 +18,17 @@ public class RateDiscountPolicy implements DiscountPolicy {
 
     @Override
     public int discount(final Member member, final int price) {
-        if (member.getGrade() == Grade.VIP) {
-            return price * discountPercent / 100;
+        final DiscountEvent event = new DiscountEvent();
+        event.begin();
+        final int discountPrice = member.getGrade() == Grade.VIP ? price * discountPercent / 100 : 0;
+        if (event.shouldCommit()) {
+            event.policy = "rate";
+            event.memberId = member.getId();
+            event.grade = member.getGrade().name();
+            event.price = price;
+            event.discountPrice = discountPrice;
+            event.commit();
         }
-        return 0;
+        return discountPrice;
     }
 }
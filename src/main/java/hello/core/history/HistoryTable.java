@@ -0,0 +1,118 @@
+package hello.core.history;
+
+import java.util.Arrays;
+
+/**
+ * 회원 id -> 회원의 주문 기록. 박싱 없이 배열 두 개로 된 열린 주소 해시 표다.
+ * 스레드 안전하지 않다. 쓰는 쪽이 잠금을 잡는다.
+ */
+final class HistoryTable {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private MemberHistory[] values;
+    private int size;
+
+    HistoryTable(final int expected) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1));
+    }
+
+    MemberHistory get(final long memberId) {
+        final int mask = keys.length - 1;
+        for (int i = mix(memberId) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == memberId) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    MemberHistory getOrCreate(final long memberId) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        final int mask = keys.length - 1;
+        int i = mix(memberId) & mask;
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == memberId) {
+                return values[i];
+            }
+        }
+        keys[i] = memberId;
+        values[i] = new MemberHistory();
+        size++;
+        return values[i];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (MemberHistory history : values) {
+            if (history != null) {
+                bytes += history.memoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 회원마다 horizon 보다 오래된 주문을 버리고, 기록이 모두 사라진 회원은 표에서 뺀다.
+     *
+     * @return 버린 주문 수
+     */
+    long expire(final long horizon) {
+        long dropped = 0;
+        int empty = 0;
+        for (MemberHistory history : values) {
+            if (history != null) {
+                dropped += history.expire(horizon);
+                if (history.isEmpty()) {
+                    empty++;
+                }
+            }
+        }
+        if (empty > 0) { // 열린 주소 표에서는 칸을 비우면 뒤의 탐색이 끊기므로 남은 회원으로 다시 채운다.
+            rehash(Math.max(16, Integer.highestOneBit(Math.max(1, size - empty) * 2 - 1) << 1));
+        }
+        return dropped;
+    }
+
+    private void resize() {
+        rehash(keys.length * 2);
+    }
+
+    // 빈 기록은 옮기지 않는다.
+    private void rehash(final int capacity) {
+        final long[] oldKeys = keys;
+        final MemberHistory[] oldValues = values;
+        allocate(capacity);
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY && !oldValues[j].isEmpty()) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new MemberHistory[capacity];
+        size = 0;
+    }
+
+    static int mix(final long memberId) {
+        final long h = memberId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,256 @@
+package hello.core.history;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import hello.core.codec.VarInts;
+
+/**
+ * 회원 한 명의 주문 기록. 시각 순서로 쌓이고, 128 건이 차면 블록 하나로 압축해서 봉인한다.
+ *
+ * 봉인한 블록은 주문마다 (이전 주문과의 시각 차이, 상품 코드, 이전 주문과의 가격 차이, 할인 금액)을 varint 로 쓴 byte[] 다.
+ * 블록마다 첫 시각, 마지막 시각, 최고 가격을 따로 들고 있어서, 범위 밖이거나 top-N 에 들 수 없는 블록은 풀지 않는다.
+ * 아직 차지 않은 마지막 블록은 압축하지 않은 배열로 둔다.
+ * 보관 기간이 지난 주문은 봉인한 블록 단위로 앞에서부터 버린다. 봉인한 블록이 없으면 마지막 블록도 통째로 버린다.
+ * 스레드 안전하지 않다. OrderHistoryIndex 가 잠금을 잡는다.
+ */
+final class MemberHistory {
+
+    static final int BLOCK_ORDERS = 128;
+    // 시각 차이 varlong 10 + 상품 코드 varint 5 + 가격 차이 zigzag 5 + 할인 zigzag 5
+    static final int MAX_BLOCK_BYTES = BLOCK_ORDERS * 25;
+
+    private byte[][] blocks = new byte[2][];
+    private long[] blockFirst = new long[2];
+    private long[] blockLast = new long[2];
+    private int[] blockMaxPrice = new int[2];
+    private int blockCount;
+
+    private long[] times = new long[4];
+    private int[] items = new int[4];
+    private int[] prices = new int[4];
+    private int[] discounts = new int[4];
+    private int tailSize;
+    private long lastTime = Long.MIN_VALUE;
+
+    /**
+     * 시각이 앞 주문보다 이르면(시계가 뒤로 간 경우) 앞 주문의 시각으로 맞춰서 순서를 지킨다.
+     */
+    void append(final long timeMillis, final int item, final int price, final int discount, final ByteBuffer scratch) {
+        final long time = Math.max(timeMillis, lastTime);
+        if (tailSize == times.length) {
+            if (tailSize == BLOCK_ORDERS) {
+                seal(scratch);
+            } else {
+                final int capacity = Math.min(BLOCK_ORDERS, tailSize * 2);
+                times = Arrays.copyOf(times, capacity);
+                items = Arrays.copyOf(items, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                discounts = Arrays.copyOf(discounts, capacity);
+            }
+        }
+        times[tailSize] = time;
+        items[tailSize] = item;
+        prices[tailSize] = price;
+        discounts[tailSize] = discount;
+        tailSize++;
+        lastTime = time;
+    }
+
+    long orders() {
+        return (long) blockCount * BLOCK_ORDERS + tailSize;
+    }
+
+    /**
+     * 마지막 시각이 horizon 보다 이른 블록을 버린다. 남은 블록이 없고 마지막 주문도 horizon 보다 이르면 아직 봉인하지 않은 주문도 버린다.
+     *
+     * @return 버린 주문 수
+     */
+    long expire(final long horizon) {
+        long dropped = 0;
+        if (blockCount > 0 && blockLast[0] < horizon) {
+            final int drop = firstBlockEndingAtOrAfter(horizon);
+            System.arraycopy(blocks, drop, blocks, 0, blockCount - drop);
+            System.arraycopy(blockFirst, drop, blockFirst, 0, blockCount - drop);
+            System.arraycopy(blockLast, drop, blockLast, 0, blockCount - drop);
+            System.arraycopy(blockMaxPrice, drop, blockMaxPrice, 0, blockCount - drop);
+            Arrays.fill(blocks, blockCount - drop, blockCount, null);
+            blockCount -= drop;
+            dropped += (long) drop * BLOCK_ORDERS;
+        }
+        if (blockCount == 0 && tailSize > 0 && lastTime < horizon) {
+            dropped += tailSize;
+            tailSize = 0;
+        }
+        return dropped;
+    }
+
+    boolean isEmpty() {
+        return blockCount == 0 && tailSize == 0;
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (int b = 0; b < blockCount; b++) {
+            bytes += blocks[b].length;
+        }
+        return bytes + (long) times.length * (Long.BYTES + 3 * Integer.BYTES);
+    }
+
+    /**
+     * [fromMillis, toMillis) 안의 주문을 오래된 순서로 visitor 에 넘긴다.
+     */
+    void forEach(final long fromMillis, final long toMillis, final String[] itemNames, final Cursor cursor, final OrderHistoryVisitor visitor) {
+        for (int b = firstBlockEndingAtOrAfter(fromMillis); b < blockCount && blockFirst[b] < toMillis; b++) {
+            decode(b, cursor);
+            visitRange(cursor.times, cursor.items, cursor.prices, cursor.discounts, BLOCK_ORDERS, fromMillis, toMillis, itemNames, visitor);
+        }
+        visitRange(times, items, prices, discounts, tailSize, fromMillis, toMillis, itemNames, visitor);
+    }
+
+    long count(final long fromMillis, final long toMillis, final Cursor cursor) {
+        long count = 0;
+        for (int b = firstBlockEndingAtOrAfter(fromMillis); b < blockCount && blockFirst[b] < toMillis; b++) {
+            if (blockFirst[b] >= fromMillis && blockLast[b] < toMillis) {
+                count += BLOCK_ORDERS; // 블록 전체가 범위 안이면 풀지 않는다.
+            } else {
+                decode(b, cursor);
+                count += countRange(cursor.times, BLOCK_ORDERS, fromMillis, toMillis);
+            }
+        }
+        return count + countRange(times, tailSize, fromMillis, toMillis);
+    }
+
+    /**
+     * 최근 주문부터 limit 건을 visitor 에 넘긴다.
+     */
+    void latest(final int limit, final String[] itemNames, final Cursor cursor, final OrderHistoryVisitor visitor) {
+        int remaining = limit;
+        for (int i = tailSize - 1; i >= 0 && remaining > 0; i--, remaining--) {
+            visitor.visit(times[i], nameOf(itemNames, items[i]), prices[i], discounts[i]);
+        }
+        for (int b = blockCount - 1; b >= 0 && remaining > 0; b--) {
+            decode(b, cursor);
+            for (int i = BLOCK_ORDERS - 1; i >= 0 && remaining > 0; i--, remaining--) {
+                visitor.visit(cursor.times[i], nameOf(itemNames, cursor.items[i]), cursor.prices[i], cursor.discounts[i]);
+            }
+        }
+    }
+
+    /**
+     * [fromMillis, toMillis) 안에서 가격이 높은 주문 top.capacity 건을 모은다.
+     */
+    void top(final long fromMillis, final long toMillis, final Cursor cursor, final TopOrders top) {
+        for (int b = firstBlockEndingAtOrAfter(fromMillis); b < blockCount && blockFirst[b] < toMillis; b++) {
+            if (top.isFull() && blockMaxPrice[b] <= top.minPrice()) {
+                continue; // 이 블록에서는 top-N 에 들 주문이 없다.
+            }
+            decode(b, cursor);
+            offerRange(cursor.times, cursor.items, cursor.prices, cursor.discounts, BLOCK_ORDERS, fromMillis, toMillis, top);
+        }
+        offerRange(times, items, prices, discounts, tailSize, fromMillis, toMillis, top);
+    }
+
+    private void seal(final ByteBuffer scratch) {
+        scratch.clear();
+        long previousTime = times[0];
+        int previousPrice = 0;
+        int maxPrice = Integer.MIN_VALUE;
+        for (int i = 0; i < BLOCK_ORDERS; i++) {
+            VarInts.writeVarLong(scratch, times[i] - previousTime);
+            VarInts.writeVarInt(scratch, items[i]);
+            VarInts.writeZigZagInt(scratch, prices[i] - previousPrice);
+            VarInts.writeZigZagInt(scratch, discounts[i]);
+            previousTime = times[i];
+            previousPrice = prices[i];
+            maxPrice = Math.max(maxPrice, prices[i]);
+        }
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            blockFirst = Arrays.copyOf(blockFirst, blockCount * 2);
+            blockLast = Arrays.copyOf(blockLast, blockCount * 2);
+            blockMaxPrice = Arrays.copyOf(blockMaxPrice, blockCount * 2);
+        }
+        blocks[blockCount] = Arrays.copyOf(scratch.array(), scratch.position());
+        blockFirst[blockCount] = times[0];
+        blockLast[blockCount] = times[BLOCK_ORDERS - 1];
+        blockMaxPrice[blockCount] = maxPrice;
+        blockCount++;
+        tailSize = 0;
+    }
+
+    private void decode(final int block, final Cursor cursor) {
+        final ByteBuffer buffer = ByteBuffer.wrap(blocks[block]);
+        long time = blockFirst[block];
+        int price = 0;
+        for (int i = 0; i < BLOCK_ORDERS; i++) {
+            time += VarInts.readVarLong(buffer);
+            cursor.times[i] = time;
+            cursor.items[i] = VarInts.readVarInt(buffer);
+            price += VarInts.readZigZagInt(buffer);
+            cursor.prices[i] = price;
+            cursor.discounts[i] = VarInts.readZigZagInt(buffer);
+        }
+    }
+
+    // 마지막 시각이 fromMillis 이상인 첫 블록. 블록의 마지막 시각은 순서대로 늘어난다.
+    private int firstBlockEndingAtOrAfter(final long fromMillis) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (blockLast[middle] < fromMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void visitRange(final long[] times, final int[] items, final int[] prices, final int[] discounts, final int size,
+                                   final long fromMillis, final long toMillis, final String[] itemNames, final OrderHistoryVisitor visitor) {
+        for (int i = lowerBound(times, size, fromMillis); i < size && times[i] < toMillis; i++) {
+            visitor.visit(times[i], nameOf(itemNames, items[i]), prices[i], discounts[i]);
+        }
+    }
+
+    private static long countRange(final long[] times, final int size, final long fromMillis, final long toMillis) {
+        return lowerBound(times, size, toMillis) - lowerBound(times, size, fromMillis);
+    }
+
+    private static void offerRange(final long[] times, final int[] items, final int[] prices, final int[] discounts, final int size,
+                                   final long fromMillis, final long toMillis, final TopOrders top) {
+        for (int i = lowerBound(times, size, fromMillis); i < size && times[i] < toMillis; i++) {
+            top.offer(times[i], items[i], prices[i], discounts[i]);
+        }
+    }
+
+    private static int lowerBound(final long[] times, final int size, final long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (times[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    static String nameOf(final String[] itemNames, final int item) {
+        return item < 0 ? null : itemNames[item];
+    }
+
+    /**
+     * 블록 하나를 풀어 담는 배열. 잠금 줄마다 하나씩 두고 다시 쓴다.
+     */
+    static final class Cursor {
+        final long[] times = new long[BLOCK_ORDERS];
+        final int[] items = new int[BLOCK_ORDERS];
+        final int[] prices = new int[BLOCK_ORDERS];
+        final int[] discounts = new int[BLOCK_ORDERS];
+    }
+}
@@ -0,0 +1,24 @@
+package hello.core.history;
+
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * order.history.enabled=true 이면 주문마다 회원별 주문 기록에 붙인다.
+ * OrderListener 빈이므로 OrderService(OrderServiceImpl, PartitionedOrderEngine)가 주문마다 호출한다.
+ *
+ * order.history.retention-days (기본값: 30, 0 이면 버리지 않는다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.history.enabled", havingValue = "true")
+public class OrderHistoryConfig {
+
+    @Bean
+    public OrderHistoryIndex orderHistoryIndex(final Environment environment) {
+        return new OrderHistoryIndex(Duration.ofDays(environment.getProperty("order.history.retention-days", Long.class, 30L)));
+    }
+}
@@ -0,0 +1,245 @@
+package hello.core.history;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import hello.core.member.Member;
+import hello.core.order.Order;
+import hello.core.order.OrderListener;
+
+/**
+ * 회원별 주문 기록. 주문이 만들어질 때 시각과 함께 회원의 기록 끝에 붙이고, 기간과 건수로 조회한다.
+ * 기간은 모두 [fromMillis, toMillis) 이다.
+ *
+ * 회원 id 로 나눈 줄(stripe)마다 잠금을 따로 잡는다. 조회도 그 줄의 잠금 안에서 visitor 를 부르므로 visitor 는 빨리 끝나야 한다.
+ * 상품 이름은 처음 볼 때 코드를 붙여서 기록에는 int 만 쓰고, 읽을 때 같은 String 을 돌려준다.
+ *
+ * retention 이 있으면 그보다 오래된 주문은 봉인한 블록(128 건) 단위로 버린다. 주문을 붙일 때 그 회원의 오래된 블록을 버리고,
+ * 줄마다 주문이 SWEEP_ORDERS 건 쌓일 때마다 줄 전체를 훑어서 기록이 모두 오래된 회원을 뺀다. {@link #expire()} 로 바로 훑을 수도 있다.
+ * 블록 단위로 버리므로 retention 보다 조금 오래된 주문이 남아 있을 수 있다.
+ */
+public class OrderHistoryIndex implements OrderListener {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int SWEEP_ORDERS = 1 << 16;
+
+    private final LongSupplier clock;
+    private final long retentionMillis;
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final Map<String, Integer> itemCodes = new ConcurrentHashMap<>();
+    private volatile String[] itemNames = new String[64];
+    private int itemCount;
+
+    /**
+     * 주문을 버리지 않는다.
+     */
+    public OrderHistoryIndex() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param retention 0 이면 주문을 버리지 않는다.
+     */
+    public OrderHistoryIndex(final Duration retention) {
+        this(retention, System::currentTimeMillis);
+    }
+
+    OrderHistoryIndex(final LongSupplier clock) {
+        this(Duration.ZERO, clock);
+    }
+
+    OrderHistoryIndex(final Duration retention, final LongSupplier clock) {
+        this.clock = clock;
+        this.retentionMillis = retention.toMillis();
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void onOrder(final Member member, final Order order) {
+        if (member == null) {
+            return;
+        }
+        record(member.getId(), clock.getAsLong(), order.getItemName(), order.getItemPrice(), order.getDiscountPrice());
+    }
+
+    /**
+     * 주문 하나를 붙인다. 회원의 앞 주문보다 이른 시각이면 앞 주문의 시각으로 기록한다.
+     */
+    public void record(final long memberId, final long timeMillis, final String itemName, final int itemPrice, final int discountPrice) {
+        final int item = itemCode(itemName);
+        final Stripe stripe = stripeOf(memberId);
+        synchronized (stripe) {
+            final MemberHistory history = stripe.table.getOrCreate(memberId);
+            history.append(timeMillis, item, itemPrice, discountPrice, stripe.scratch);
+            stripe.orders++;
+            if (retentionMillis > 0) {
+                final long horizon = timeMillis - retentionMillis;
+                stripe.orders -= history.expire(horizon);
+                if (++stripe.sinceSweep >= SWEEP_ORDERS) {
+                    stripe.orders -= stripe.table.expire(horizon);
+                    stripe.sinceSweep = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * 지금 시각에서 retention 보다 오래된 주문을 모든 줄에서 버린다. retention 이 0 이면 아무것도 하지 않는다.
+     *
+     * @return 버린 주문 수
+     */
+    public long expire() {
+        if (retentionMillis <= 0) {
+            return 0;
+        }
+        final long horizon = clock.getAsLong() - retentionMillis;
+        long dropped = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                final long stripeDropped = stripe.table.expire(horizon);
+                stripe.orders -= stripeDropped;
+                stripe.sinceSweep = 0;
+                dropped += stripeDropped;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * 기간 안의 주문을 오래된 순서로 넘긴다. Order 객체를 만들지 않는다.
+     */
+    public void forEach(final long memberId, final long fromMillis, final long toMillis, final OrderHistoryVisitor visitor) {
+        final Stripe stripe = stripeOf(memberId);
+        synchronized (stripe) {
+            final MemberHistory history = stripe.table.get(memberId);
+            if (history != null) {
+                history.forEach(fromMillis, toMillis, itemNames, stripe.cursor, visitor);
+            }
+        }
+    }
+
+    public long count(final long memberId, final long fromMillis, final long toMillis) {
+        final Stripe stripe = stripeOf(memberId);
+        synchronized (stripe) {
+            final MemberHistory history = stripe.table.get(memberId);
+            return history == null ? 0 : history.count(fromMillis, toMillis, stripe.cursor);
+        }
+    }
+
+    /**
+     * 최근 주문부터 limit 건을 넘긴다.
+     */
+    public void latest(final long memberId, final int limit, final OrderHistoryVisitor visitor) {
+        final Stripe stripe = stripeOf(memberId);
+        synchronized (stripe) {
+            final MemberHistory history = stripe.table.get(memberId);
+            if (history != null) {
+                history.latest(limit, itemNames, stripe.cursor, visitor);
+            }
+        }
+    }
+
+    /**
+     * 기간 안에서 가격이 높은 주문 limit 건을 비싼 순서로 넘긴다.
+     */
+    public void topByPrice(final long memberId, final long fromMillis, final long toMillis, final int limit, final OrderHistoryVisitor visitor) {
+        if (limit <= 0) {
+            return;
+        }
+        final TopOrders top = new TopOrders(limit);
+        final Stripe stripe = stripeOf(memberId);
+        synchronized (stripe) {
+            final MemberHistory history = stripe.table.get(memberId);
+            if (history != null) {
+                history.top(fromMillis, toMillis, stripe.cursor, top);
+            }
+        }
+        top.drainDescending(itemNames, visitor);
+    }
+
+    /**
+     * 기간 안의 주문을 Order 로 만들어 돌려준다.
+     */
+    public List<Order> findOrders(final long memberId, final long fromMillis, final long toMillis) {
+        final List<Order> orders = new ArrayList<>();
+        forEach(memberId, fromMillis, toMillis,
+                (timeMillis, itemName, itemPrice, discountPrice) -> orders.add(new Order(memberId, itemName, itemPrice, discountPrice)));
+        return orders;
+    }
+
+    public int getMemberCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.table.size();
+            }
+        }
+        return count;
+    }
+
+    public long getOrderCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.orders;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return 압축한 블록과 아직 압축하지 않은 배열의 바이트 수 (객체 헤더 제외)
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.table.memoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private int itemCode(final String itemName) {
+        if (itemName == null) {
+            return -1;
+        }
+        final Integer code = itemCodes.get(itemName);
+        return code != null ? code : addItem(itemName);
+    }
+
+    private synchronized int addItem(final String itemName) {
+        final Integer existing = itemCodes.get(itemName);
+        if (existing != null) {
+            return existing;
+        }
+        String[] names = itemNames;
+        if (itemCount == names.length) {
+            names = Arrays.copyOf(names, itemCount * 2);
+        }
+        names[itemCount] = itemName;
+        itemNames = names; // 코드를 보이기 전에 이름을 먼저 보인다.
+        itemCodes.put(itemName, itemCount);
+        return itemCount++;
+    }
+
+    private Stripe stripeOf(final long memberId) {
+        return stripes[HistoryTable.mix(memberId) >>> (32 - STRIPE_BITS)];
+    }
+
+    private static final class Stripe {
+        private final HistoryTable table = new HistoryTable(1024);
+        private final ByteBuffer scratch = ByteBuffer.allocate(MemberHistory.MAX_BLOCK_BYTES);
+        private final MemberHistory.Cursor cursor = new MemberHistory.Cursor();
+        private long orders;
+        private int sinceSweep;
+    }
+}
@@ -0,0 +1,9 @@
+package hello.core.history;
+
+/**
+ * 주문 기록을 Order 객체로 만들지 않고 읽는다. 상품 이름은 색인이 들고 있는 같은 String 이다.
+ */
+@FunctionalInterface
+public interface OrderHistoryVisitor {
+    void visit(long timeMillis, String itemName, int itemPrice, int discountPrice);
+}
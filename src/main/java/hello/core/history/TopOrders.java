@@ -0,0 +1,94 @@
+package hello.core.history;
+
+/**
+ * 가격이 높은 주문 N 건을 모으는 최소 힙. 가득 차면 힙의 최저가보다 비싼 주문만 들어온다.
+ */
+final class TopOrders {
+
+    private final long[] times;
+    private final int[] items;
+    private final int[] prices;
+    private final int[] discounts;
+    private int size;
+
+    TopOrders(final int capacity) {
+        times = new long[capacity];
+        items = new int[capacity];
+        prices = new int[capacity];
+        discounts = new int[capacity];
+    }
+
+    boolean isFull() {
+        return size == prices.length;
+    }
+
+    int minPrice() {
+        return prices[0];
+    }
+
+    void offer(final long time, final int item, final int price, final int discount) {
+        if (size < prices.length) {
+            set(size, time, item, price, discount);
+            siftUp(size++);
+        } else if (price > prices[0]) {
+            set(0, time, item, price, discount);
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * 비싼 순서로 넘긴다. 힙을 정렬하면서 비운다.
+     */
+    void drainDescending(final String[] itemNames, final OrderHistoryVisitor visitor) {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end); // 가장 싼 주문을 뒤로 보낸다.
+            siftDown(0, end);
+        }
+        for (int i = 0; i < size; i++) {
+            visitor.visit(times[i], MemberHistory.nameOf(itemNames, items[i]), prices[i], discounts[i]);
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (prices[parent] <= prices[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, final int end) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= end) {
+                return;
+            }
+            final int child = left + 1 < end && prices[left + 1] < prices[left] ? left + 1 : left;
+            if (prices[i] <= prices[child]) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void set(final int i, final long time, final int item, final int price, final int discount) {
+        times[i] = time;
+        items[i] = item;
+        prices[i] = price;
+        discounts[i] = discount;
+    }
+
+    private void swap(final int a, final int b) {
+        final long time = times[a];
+        final int item = items[a];
+        final int price = prices[a];
+        final int discount = discounts[a];
+        set(a, times[b], items[b], prices[b], discounts[b]);
+        set(b, time, item, price, discount);
+    }
+}
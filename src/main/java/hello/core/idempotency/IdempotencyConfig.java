@@ -0,0 +1,29 @@
+package hello.core.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * order.idempotency.enabled=true 이면 OrderService(OrderServiceImpl, PartitionedOrderEngine)가 멱등성 키가 같은 주문을 한 번만 만든다.
+ * 꺼져 있으면 멱등성 키를 준 주문은 IllegalStateException 으로 실패한다.
+ *
+ * order.idempotency.retention-ms (기본값: 600000), order.idempotency.generations (기본값: 4),
+ * order.idempotency.expected-keys-per-generation (기본값: 1000000), order.idempotency.false-positive-rate (기본값: 0.01),
+ * order.idempotency.max-keys (기본값: 1000000)
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.idempotency.enabled", havingValue = "true")
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyIndex idempotencyIndex(final Environment environment) {
+        return new IdempotencyIndex(
+                environment.getProperty("order.idempotency.retention-ms", Long.class, 600_000L),
+                environment.getProperty("order.idempotency.generations", Integer.class, 4),
+                environment.getProperty("order.idempotency.expected-keys-per-generation", Integer.class, 1_000_000),
+                environment.getProperty("order.idempotency.false-positive-rate", Double.class, 0.01),
+                environment.getProperty("order.idempotency.max-keys", Integer.class, 1_000_000));
+    }
+}
@@ -0,0 +1,177 @@
+package hello.core.idempotency;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import hello.core.order.Order;
+
+/**
+ * 멱등성 키로 재시도된 주문을 걸러낸다.
+ *
+ * 먼저 회전하는 블룸 필터에 키를 넣어보고, 처음 보는 키가 확실하면(대부분의 요청) exact 집합을 조회하지 않는다.
+ * 블룸 필터가 "본 적 있을 수도 있다"고 하면 exact 집합에서 처음 주문을 찾아 그대로 돌려준다.
+ * exact 집합은 최근 maxKeys 개, retention 시간 안의 키만 들고 있으므로 메모리가 고정된다.
+ * 그보다 오래된 키로 재시도하면 새 주문으로 처리된다.
+ */
+public class IdempotencyIndex {
+
+    private final RotatingBloomFilter bloomFilter;
+    private final Map<String, Entry> recent = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxKeys;
+    private final long retentionMillis;
+    private final LongSupplier clockMillis;
+    private final LongAdder newKeys = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    public IdempotencyIndex(final long retentionMillis, final int generations, final int expectedKeysPerBucket,
+                            final double falsePositiveRate, final int maxKeys) {
+        this(retentionMillis, generations, expectedKeysPerBucket, falsePositiveRate, maxKeys,
+                () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    IdempotencyIndex(final long retentionMillis, final int generations, final int expectedKeysPerBucket,
+                     final double falsePositiveRate, final int maxKeys, final LongSupplier clockMillis) {
+        if (maxKeys < 1 || retentionMillis < generations) {
+            throw new IllegalArgumentException("maxKeys must be positive and retentionMillis >= generations");
+        }
+        // 세대 generations 개가 retention 을 나눠 맡는다.
+        this.bloomFilter = new RotatingBloomFilter(generations, retentionMillis / generations, expectedKeysPerBucket,
+                falsePositiveRate, clockMillis);
+        this.maxKeys = maxKeys;
+        this.retentionMillis = retentionMillis;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * 멱등성 키를 받은 OrderService 가 부른다. 빈이 없으면 키를 무시하고 중복 주문을 만드는 대신 바로 실패한다.
+     */
+    public static IdempotencyIndex require(final IdempotencyIndex idempotencyIndex) {
+        if (idempotencyIndex == null) {
+            throw new IllegalStateException("idempotency key given but no IdempotencyIndex bean (order.idempotency.enabled=true)");
+        }
+        return idempotencyIndex;
+    }
+
+    /**
+     * 처음 보는 키면 create 로 주문을 만들고 기억해 둔다. 이미 본 키면 처음 만든 주문을 돌려준다.
+     * 같은 키로 동시에 들어온 요청은 먼저 들어온 요청의 결과를 기다린다. 처음 요청이 실패했으면 다시 시도한다.
+     */
+    public Order execute(final String key, final Supplier<Order> create) {
+        if (bloomFilter.testAndAdd(hash(key))) {
+            final Entry seen = recent.get(key);
+            if (seen != null) {
+                return duplicateOf(seen, key, create);
+            }
+            bloomFalsePositives.increment(); // 오탐이거나 exact 집합에서 이미 밀려난 키
+        }
+        final Entry entry = new Entry(key, clockMillis.getAsLong());
+        final Entry raced = recent.putIfAbsent(key, entry);
+        if (raced != null) {
+            return duplicateOf(raced, key, create);
+        }
+        newKeys.increment();
+        insertionOrder.offer(entry);
+        size.incrementAndGet();
+        evict(entry.createdMillis);
+        try {
+            final Order order = create.get();
+            entry.order.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            recent.remove(key, entry); // 실패한 요청은 재시도할 수 있어야 한다.
+            entry.order.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Order duplicateOf(final Entry entry, final String key, final Supplier<Order> create) {
+        try {
+            final Order order = entry.order.join();
+            duplicates.increment();
+            return order;
+        } catch (CompletionException e) {
+            return execute(key, create);
+        }
+    }
+
+    // 넣은 순서가 곧 시간 순서이므로 앞에서부터 오래되었거나 넘치는 키를 버린다.
+    private void evict(final long now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null
+               && (size.get() > maxKeys || now - oldest.createdMillis > retentionMillis)) {
+            if (insertionOrder.remove(oldest)) {
+                size.decrementAndGet();
+                recent.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    // FNV-1a 64 에 murmur3 의 마지막 섞기를 더한다.
+    static long hash(final String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public long getNewKeys() {
+        return newKeys.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getBloomFalsePositives() {
+        return bloomFalsePositives.sum();
+    }
+
+    public int getRecentKeys() {
+        return size.get();
+    }
+
+    int getBloomBits() {
+        return bloomFilter.getBitCount();
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyIndex{" +
+               "newKeys=" + getNewKeys() +
+               ", duplicates=" + getDuplicates() +
+               ", bloomFalsePositives=" + getBloomFalsePositives() +
+               ", recentKeys=" + getRecentKeys() +
+               ", bloomBits=" + getBloomBits() +
+               '}';
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final long createdMillis;
+        private final CompletableFuture<Order> order = new CompletableFuture<>();
+
+        Entry(final String key, final long createdMillis) {
+            this.key = key;
+            this.createdMillis = createdMillis;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package hello.core.idempotency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 시간 구간(bucketMillis)마다 세대를 하나씩 쓰는 블룸 필터. 세대가 generations 개 있고,
+ * 새 구간이 시작되면 가장 오래된 세대를 비워서 다시 쓰므로 키가 아무리 많이 들어와도 메모리는 고정이다.
+ *
+ * 블록 블룸 필터다. 키 하나의 비트는 모두 512비트(캐시 라인 하나) 블록 안에 있어서,
+ * 조회는 세대마다 캐시 라인 하나만 읽는다.
+ */
+class RotatingBloomFilter {
+
+    private static final int BLOCK_WORDS = 8; // 8 x 64 = 512비트
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+
+    private final Generation[] generations;
+    private final int blocks;
+    private final int hashes;
+    private final long bucketMillis;
+    private final LongSupplier clockMillis;
+
+    /**
+     * @param expectedKeysPerBucket 구간 하나에 들어올 것으로 예상하는 키 수
+     * @param falsePositiveRate     세대 하나의 목표 오탐률
+     */
+    RotatingBloomFilter(final int generations, final long bucketMillis, final int expectedKeysPerBucket,
+                        final double falsePositiveRate, final LongSupplier clockMillis) {
+        if (generations < 1 || bucketMillis < 1 || expectedKeysPerBucket < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("invalid bloom filter parameters");
+        }
+        final double bits = -expectedKeysPerBucket * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.blocks = (int) Math.max(1, Math.ceil(bits / BLOCK_BITS));
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round(bits / expectedKeysPerBucket * Math.log(2))));
+        this.bucketMillis = bucketMillis;
+        this.clockMillis = clockMillis;
+        this.generations = new Generation[generations];
+        for (int i = 0; i < generations; i++) {
+            this.generations[i] = new Generation(blocks * BLOCK_WORDS, Long.MIN_VALUE / 2); // 아직 쓰지 않은 세대
+        }
+    }
+
+    /**
+     * 키를 현재 세대에 넣는다.
+     *
+     * @return 넣기 전에 살아 있는 세대 중 하나에 이미 있었을 수도 있으면 true, 확실히 없었으면 false
+     */
+    boolean testAndAdd(final long hash) {
+        final long bucket = clockMillis.getAsLong() / bucketMillis;
+        final Generation current = current(bucket);
+        final int block = blockOf(hash);
+        final long h2 = hash >>> 32 | 1; // 홀수라서 512 안에서 hashes 개의 서로 다른 비트가 나온다.
+        boolean present = true;
+        for (int i = 0; i < hashes; i++) {
+            final int bit = (int) ((hash + i * h2) & (BLOCK_BITS - 1));
+            present &= current.set(block + (bit >>> 6), 1L << bit);
+        }
+        if (present) {
+            return true;
+        }
+        for (Generation generation : generations) {
+            if (generation != current && bucket - generation.bucket < generations.length && generation.contains(block, hash, h2, hashes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int getBitCount() {
+        return generations.length * blocks * BLOCK_BITS;
+    }
+
+    int getHashCount() {
+        return hashes;
+    }
+
+    private int blockOf(final long hash) {
+        return (int) (((hash >>> 1) % blocks) * BLOCK_WORDS);
+    }
+
+    // 구간이 바뀌면 한 스레드만 가장 오래된 세대를 비운다. 구간마다 한 번이라 락을 써도 된다.
+    private Generation current(final long bucket) {
+        final Generation generation = generations[(int) Math.floorMod(bucket, (long) generations.length)];
+        if (generation.bucket != bucket) {
+            synchronized (generation) {
+                if (generation.bucket != bucket) {
+                    generation.clear(bucket);
+                }
+            }
+        }
+        return generation;
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private volatile long bucket;
+
+        Generation(final int words, final long bucket) {
+            this.words = new AtomicLongArray(words);
+            this.bucket = bucket;
+        }
+
+        // 이미 켜져 있으면 쓰지 않는다.
+        boolean set(final int index, final long mask) {
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    return true;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+            return false;
+        }
+
+        boolean contains(final int block, final long hash, final long h2, final int hashes) {
+            for (int i = 0; i < hashes; i++) {
+                final int bit = (int) ((hash + i * h2) & (BLOCK_BITS - 1));
+                if ((words.get(block + (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 비우는 동안 이 세대를 읽는 조회는 키를 놓칠 수 있다. 그래도 exact 집합이 중복을 잡는다.
+        void clear(final long bucket) {
+            for (int i = 0; i < words.length(); i++) {
+                words.set(i, 0);
+            }
+            this.bucket = bucket;
+        }
+    }
+}
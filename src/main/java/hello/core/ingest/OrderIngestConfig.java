@@ -0,0 +1,28 @@
+package hello.core.ingest;
+
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import hello.core.order.OrderService;
+
+/**
+ * 논블로킹 읽기(ReadListener)는 DispatcherServlet 을 거치지 않고 서블릿을 직접 등록해야 쓸 수 있다.
+ *
+ * ingest.batch-size (기본값: 256), ingest.max-pending-batches (기본값: 4), ingest.threads (기본값: CPU 수)
+ */
+@Configuration
+public class OrderIngestConfig {
+
+    @Bean
+    public ServletRegistrationBean<OrderIngestServlet> orderIngestServlet(final OrderService orderService, final Environment environment) {
+        final OrderIngestServlet servlet = new OrderIngestServlet(orderService,
+                environment.getProperty("ingest.batch-size", Integer.class, 256),
+                environment.getProperty("ingest.max-pending-batches", Integer.class, 4),
+                environment.getProperty("ingest.threads", Integer.class, Runtime.getRuntime().availableProcessors()));
+        final ServletRegistrationBean<OrderIngestServlet> registration = new ServletRegistrationBean<>(servlet, "/orders/ingest");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
@@ -0,0 +1,59 @@
+package hello.core.ingest;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import hello.core.order.OrderService;
+
+/**
+ * POST /orders/ingest 로 주문 NDJSON 을 받아, 주문마다 결과 한 줄을 NDJSON 으로 돌려준다.
+ * 서블릿 3.1 논블로킹 IO 를 쓰므로, 업로드가 느려도 요청을 읽느라 스레드가 기다리지 않는다.
+ *
+ * <pre>
+ * curl -T orders.ndjson -H 'Content-Type: application/x-ndjson' http://localhost:8080/orders/ingest
+ * </pre>
+ */
+public class OrderIngestServlet extends HttpServlet {
+
+    private final OrderService orderService;
+    private final int batchSize;
+    private final int maxPendingBatches;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ExecutorService executor;
+
+    public OrderIngestServlet(final OrderService orderService, final int batchSize, final int maxPendingBatches, final int threads) {
+        this.orderService = orderService;
+        this.batchSize = batchSize;
+        this.maxPendingBatches = maxPendingBatches;
+        final AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "order-ingest-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    protected void doPost(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        final AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0); // 업로드 크기에 제한이 없으므로 시간 제한도 두지 않는다.
+        final OrderIngestion ingestion = new OrderIngestion(asyncContext, orderService, executor, jsonFactory, batchSize, maxPendingBatches);
+        response.getOutputStream().setWriteListener(ingestion); // 읽기를 시작하면 바로 결과를 쓸 수 있으므로 쓰기 리스너를 먼저 등록한다.
+        request.getInputStream().setReadListener(ingestion);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
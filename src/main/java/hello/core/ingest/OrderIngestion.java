@@ -0,0 +1,259 @@
+package hello.core.ingest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import hello.core.order.Order;
+import hello.core.order.OrderService;
+
+/**
+ * 업로드 요청 하나를 처리한다.
+ *
+ * 1. 톰캣 스레드가 읽을 수 있는 만큼만 읽어 파서에 넣고, batchSize 개씩 묶는다.
+ * 2. 묶음은 executor 에서 차례대로 주문을 만들고, 결과를 NDJSON 으로 응답에 쓴다.
+ * 3. 아직 응답에 쓰지 못한 묶음이 maxPendingBatches 개가 되면 읽기를 멈춘다. 주문이 밀리거나 클라이언트가 결과를 늦게 읽으면
+ *    요청 본문도 더 읽지 않으므로, 업로드 크기와 상관없이 메모리에는 묶음 몇 개만 남는다.
+ *
+ * 읽기와 쓰기는 톰캣 스레드와 executor 스레드 양쪽에서 불릴 수 있으므로 각각 readLock, output 으로 동기화한다.
+ */
+class OrderIngestion implements ReadListener, WriteListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletInputStream in;
+    private final ServletOutputStream out;
+    private final OrderService orderService;
+    private final Executor executor;
+    private final JsonFactory jsonFactory;
+    private final OrderRequestParser parser;
+    private final int batchSize;
+    private final int maxPendingBatches;
+
+    private final byte[] buffer = new byte[8192];
+    private final Object readLock = new Object();
+    private List<OrderRequest> batch;
+    private boolean paused;
+    private boolean inputDone;
+
+    private final Queue<List<OrderRequest>> batches = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean processing = new AtomicBoolean();
+    private final AtomicInteger pendingBatches = new AtomicInteger();
+    private final Deque<byte[]> output = new ArrayDeque<>();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    OrderIngestion(final AsyncContext asyncContext, final OrderService orderService, final Executor executor, final JsonFactory jsonFactory,
+                   final int batchSize, final int maxPendingBatches) throws IOException {
+        this.asyncContext = asyncContext;
+        this.in = asyncContext.getRequest().getInputStream();
+        this.out = asyncContext.getResponse().getOutputStream();
+        this.orderService = orderService;
+        this.executor = executor;
+        this.jsonFactory = jsonFactory;
+        this.parser = new OrderRequestParser(jsonFactory);
+        this.batchSize = batchSize;
+        this.maxPendingBatches = maxPendingBatches;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void onDataAvailable() {
+        read();
+    }
+
+    @Override
+    public void onAllDataRead() {
+        read();
+    }
+
+    @Override
+    public void onWritePossible() {
+        flush();
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+        synchronized (readLock) {
+            inputDone = true;
+        }
+        complete();
+    }
+
+    private void read() {
+        try {
+            synchronized (readLock) {
+                if (paused || inputDone) {
+                    return;
+                }
+                while (in.isReady()) {
+                    final int read = in.read(buffer);
+                    if (read < 0) {
+                        break;
+                    }
+                    parser.feed(buffer, read, this::add);
+                    if (pendingBatches.get() >= maxPendingBatches) {
+                        paused = true;
+                        return;
+                    }
+                }
+                if (in.isFinished()) {
+                    parser.endOfInput(this::add);
+                    inputDone = true;
+                }
+                dispatch(); // 다음 데이터가 아직 도착하지 않았으면 모인 만큼이라도 먼저 처리한다.
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+        completeIfDone();
+    }
+
+    private void resumeIfBelowLimit() {
+        synchronized (readLock) {
+            if (!paused || pendingBatches.get() >= maxPendingBatches) {
+                return;
+            }
+            paused = false;
+        }
+        read();
+    }
+
+    private void add(final OrderRequest request) {
+        batch.add(request);
+        if (batch.size() >= batchSize) {
+            dispatch();
+        }
+    }
+
+    private void dispatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        pendingBatches.incrementAndGet();
+        batches.add(batch);
+        batch = new ArrayList<>(batchSize);
+        if (processing.compareAndSet(false, true)) {
+            executor.execute(this::process);
+        }
+    }
+
+    // 한 요청의 묶음은 한 번에 한 스레드만 처리하므로, 결과는 요청 순서대로 나간다.
+    private void process() {
+        do {
+            List<OrderRequest> next;
+            while ((next = batches.poll()) != null) {
+                enqueue(createOrders(next));
+            }
+            processing.set(false);
+        } while (!batches.isEmpty() && processing.compareAndSet(false, true));
+    }
+
+    private byte[] createOrders(final List<OrderRequest> requests) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(requests.size() * 96);
+        try (JsonGenerator generator = jsonFactory.createGenerator(bytes)) {
+            generator.setRootValueSeparator(null);
+            for (OrderRequest request : requests) {
+                generator.writeStartObject();
+                generator.writeNumberField("seq", request.getSeq());
+                if (!request.isComplete()) {
+                    generator.writeStringField("error", "memberId, itemName and itemPrice are required");
+                } else {
+                    try {
+                        final Order order = orderService.createOrder(request.getMemberId(), request.getItemName(), request.getItemPrice(),
+                                request.getIdempotencyKey());
+                        generator.writeNumberField("memberId", order.getMemberId());
+                        generator.writeStringField("itemName", order.getItemName());
+                        generator.writeNumberField("itemPrice", order.getItemPrice());
+                        generator.writeNumberField("discountPrice", order.getDiscountPrice());
+                    } catch (RuntimeException e) {
+                        generator.writeStringField("error", String.valueOf(e));
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // ByteArrayOutputStream 에 쓰므로 일어나지 않는다.
+        }
+        return bytes.toByteArray();
+    }
+
+    private void fail(final Exception e) {
+        synchronized (readLock) {
+            dispatch();
+            inputDone = true;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(bytes)) {
+            generator.writeStartObject();
+            generator.writeStringField("error", e.getMessage());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException ignored) {
+        }
+        pendingBatches.incrementAndGet();
+        enqueue(bytes.toByteArray());
+    }
+
+    private void enqueue(final byte[] result) {
+        synchronized (output) {
+            output.add(result);
+        }
+        flush();
+    }
+
+    private void flush() {
+        int written = 0;
+        try {
+            synchronized (output) {
+                while (!output.isEmpty() && out.isReady()) {
+                    out.write(output.poll());
+                    written++;
+                }
+                if (output.isEmpty() && out.isReady()) {
+                    out.flush(); // 묶음마다 결과를 바로 내보낸다.
+                }
+            }
+        } catch (IOException e) {
+            onError(e);
+            return;
+        }
+        if (written > 0) {
+            pendingBatches.addAndGet(-written);
+            resumeIfBelowLimit();
+            completeIfDone();
+        }
+    }
+
+    private void completeIfDone() {
+        final boolean done;
+        synchronized (readLock) {
+            done = inputDone;
+        }
+        if (done && pendingBatches.get() == 0) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            asyncContext.complete();
+        }
+    }
+}
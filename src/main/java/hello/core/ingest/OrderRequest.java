@@ -0,0 +1,46 @@
+package hello.core.ingest;
+
+/**
+ * 업로드된 NDJSON 의 한 줄. seq 는 1부터 시작하는 줄 번호로, 결과를 요청과 짝지을 때 쓴다.
+ * idempotencyKey 는 없어도 된다.
+ */
+public class OrderRequest {
+
+    private final long seq;
+    private final Long memberId;
+    private final String itemName;
+    private final Integer itemPrice;
+    private final String idempotencyKey;
+
+    public OrderRequest(final long seq, final Long memberId, final String itemName, final Integer itemPrice, final String idempotencyKey) {
+        this.seq = seq;
+        this.memberId = memberId;
+        this.itemName = itemName;
+        this.itemPrice = itemPrice;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public Integer getItemPrice() {
+        return itemPrice;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public boolean isComplete() {
+        return memberId != null && itemName != null && itemPrice != null;
+    }
+}
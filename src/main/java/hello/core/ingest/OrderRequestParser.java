@@ -0,0 +1,97 @@
+package hello.core.ingest;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * 잭슨의 논블로킹 파서에 받은 만큼씩 바이트를 넣고, 최상위 객체가 하나 끝날 때마다 OrderRequest 를 넘겨준다.
+ * 줄 하나가 여러 조각으로 나뉘어 도착해도 파서가 상태를 들고 있으므로 따로 모아둘 필요가 없다.
+ *
+ * <pre>
+ * {"memberId":1,"itemName":"itemA","itemPrice":10000}
+ * {"memberId":1,"itemName":"itemA","itemPrice":10000,"idempotencyKey":"order-42"}
+ * </pre>
+ */
+class OrderRequestParser {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private int depth;
+    private String field;
+    private long seq;
+    private Long memberId;
+    private String itemName;
+    private Integer itemPrice;
+    private String idempotencyKey;
+
+    OrderRequestParser(final JsonFactory jsonFactory) throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * 넘겨준 바이트를 모두 파싱한 다음 돌아오므로, 호출한 쪽은 같은 배열을 다시 써도 된다.
+     */
+    void feed(final byte[] bytes, final int length, final Consumer<OrderRequest> consumer) throws IOException {
+        feeder.feedInput(bytes, 0, length);
+        drain(consumer);
+    }
+
+    void endOfInput(final Consumer<OrderRequest> consumer) throws IOException {
+        feeder.endOfInput();
+        drain(consumer);
+        if (depth != 0) {
+            throw new IOException("unexpected end of input in line " + (seq + 1));
+        }
+    }
+
+    private void drain(final Consumer<OrderRequest> consumer) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT:
+                    if (depth++ == 0) {
+                        memberId = null;
+                        itemName = null;
+                        itemPrice = null;
+                        idempotencyKey = null;
+                    }
+                    break;
+                case END_OBJECT:
+                    if (--depth == 0) {
+                        consumer.accept(new OrderRequest(++seq, memberId, itemName, itemPrice, idempotencyKey));
+                    }
+                    break;
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    depth--;
+                    break;
+                case FIELD_NAME:
+                    field = parser.getCurrentName(); // 잭슨이 필드 이름을 캐시하므로 새 문자열을 만들지 않는다.
+                    break;
+                case VALUE_NUMBER_INT:
+                    if (depth == 1 && "memberId".equals(field)) {
+                        memberId = parser.getLongValue();
+                    } else if (depth == 1 && "itemPrice".equals(field)) {
+                        itemPrice = parser.getIntValue();
+                    }
+                    break;
+                case VALUE_STRING:
+                    if (depth == 1 && "itemName".equals(field)) {
+                        itemName = parser.getText();
+                    } else if (depth == 1 && "idempotencyKey".equals(field)) {
+                        idempotencyKey = parser.getText();
+                    }
+                    break;
+                default:
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package hello.core.item;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 상품을 0 부터 빈틈없이 매긴 int id 로 등록하고, 이름과 가격을 배열에서 바로 찾는다.
+ *
+ * 이름은 등록할 때 한 번만 받아서 같은 String 을 계속 쓰므로, 주문할 때마다 이름 문자열을 만들거나 해시하지 않는다.
+ * 가격은 int[] 에 두고 쓰기 시 복사로 바꾼다. {@link #updatePrices(int[], int[])} 로 여러 상품의 가격을 한 번에 바꾸면
+ * 읽는 쪽은 바뀌기 전이나 바뀐 뒤의 가격표 하나만 본다. 조회는 락 없이 volatile 읽기 한 번이다.
+ */
+public class ItemCatalog {
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private volatile Table table;
+
+    public ItemCatalog(final int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive: " + initialCapacity);
+        }
+        this.table = new Table(new String[initialCapacity], new int[initialCapacity], 0);
+    }
+
+    /**
+     * 상품 id 로 주문하는 OrderService 가 부른다. 빈이 없으면 IllegalStateException
+     */
+    public static ItemCatalog require(final ItemCatalog itemCatalog) {
+        if (itemCatalog == null) {
+            throw new IllegalStateException("no ItemCatalog bean (item.catalog.enabled=true)");
+        }
+        return itemCatalog;
+    }
+
+    /**
+     * @return 새 상품의 id. 이미 있는 이름이면 IllegalArgumentException
+     */
+    public synchronized int register(final String name, final int price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("price must not be negative: " + price);
+        }
+        if (idsByName.containsKey(name)) {
+            throw new IllegalArgumentException("item already registered: " + name);
+        }
+        final Table current = table;
+        String[] names = current.names;
+        int[] prices = current.prices;
+        if (current.size == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+            prices = Arrays.copyOf(prices, prices.length * 2);
+        }
+        // 지금 가격표의 size 밖에 쓰므로, 이전 가격표를 읽는 쪽에는 보이지 않는다.
+        final int itemId = current.size;
+        names[itemId] = name;
+        prices[itemId] = price;
+        table = new Table(names, prices, itemId + 1);
+        idsByName.put(name, itemId);
+        return itemId;
+    }
+
+    /**
+     * 여러 상품의 가격을 한 번에 바꾼다. 하나라도 잘못되면 아무것도 바꾸지 않는다.
+     */
+    public synchronized void updatePrices(final int[] itemIds, final int[] prices) {
+        if (itemIds.length != prices.length) {
+            throw new IllegalArgumentException("itemIds and prices must have the same length: " + itemIds.length + " != " + prices.length);
+        }
+        final Table current = table;
+        final int[] updated = current.prices.clone();
+        for (int i = 0; i < itemIds.length; i++) {
+            current.check(itemIds[i]);
+            if (prices[i] < 0) {
+                throw new IllegalArgumentException("price must not be negative: " + prices[i]);
+            }
+            updated[itemIds[i]] = prices[i];
+        }
+        table = new Table(current.names, updated, current.size);
+    }
+
+    public int getPrice(final int itemId) {
+        final Table current = table;
+        current.check(itemId);
+        return current.prices[itemId];
+    }
+
+    public String getName(final int itemId) {
+        final Table current = table;
+        current.check(itemId);
+        return current.names[itemId];
+    }
+
+    /**
+     * @return 이름으로 찾은 id, 없으면 -1
+     */
+    public int findId(final String name) {
+        final Integer itemId = idsByName.get(name);
+        return itemId == null ? -1 : itemId;
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    private static final class Table {
+        private final String[] names;
+        private final int[] prices;
+        private final int size;
+
+        Table(final String[] names, final int[] prices, final int size) {
+            this.names = names;
+            this.prices = prices;
+            this.size = size;
+        }
+
+        void check(final int itemId) {
+            if (itemId < 0 || itemId >= size) {
+                throw new IllegalArgumentException("unknown item id: " + itemId);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package hello.core.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * item.catalog.enabled=true 이면 상품 카탈로그를 만들고, OrderService(OrderServiceImpl, PartitionedOrderEngine)가 상품 id 로 주문을 받는다.
+ *
+ * item.catalog.initial-capacity (기본값: 1024)
+ */
+@Configuration
+@ConditionalOnProperty(name = "item.catalog.enabled", havingValue = "true")
+public class ItemCatalogConfig {
+
+    @Bean
+    public ItemCatalog itemCatalog(final Environment environment) {
+        return new ItemCatalog(environment.getProperty("item.catalog.initial-capacity", Integer.class, 1024));
+    }
+}
@@ -0,0 +1,29 @@
+package hello.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("hello.core.Discount")
+@Label("Discount")
+@Category({ "hello.core", "Discount" })
+@StackTrace(false)
+public class DiscountEvent extends Event {
+
+    @Label("Policy")
+    public String policy;
+
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Grade")
+    public String grade;
+
+    @Label("Price")
+    public int price;
+
+    @Label("Discount Price")
+    public int discountPrice;
+}
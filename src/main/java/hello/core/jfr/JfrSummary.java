@@ -0,0 +1,110 @@
+package hello.core.jfr;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+import hello.core.metrics.MethodMetrics;
+import hello.core.metrics.MethodStats;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * .jfr 기록 파일에서 hello.core 이벤트를 읽어 등급별 주문 지연 시간과 엔드포인트별 요청 시간을 요약한다.
+ *
+ * <pre>
+ * java -cp core.jar hello.core.jfr.JfrSummary hello-core.jfr
+ * </pre>
+ */
+public class JfrSummary {
+
+    private final Map<String, MethodMetrics> byGrade = new TreeMap<>();
+    private final Map<String, MethodMetrics> byEndpoint = new TreeMap<>();
+    private Instant first;
+    private Instant last;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("usage: JfrSummary <recording.jfr>");
+            return;
+        }
+        System.out.println(read(Paths.get(args[0])));
+    }
+
+    public static JfrSummary read(final Path recording) throws IOException {
+        final JfrSummary summary = new JfrSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.accept(file.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    private void accept(final RecordedEvent event) {
+        final String type = event.getEventType().getName();
+        if ("hello.core.OrderCreated".equals(type)) {
+            record(byGrade, event.getString("grade"), event);
+        } else if ("hello.core.RequestScope".equals(type)) {
+            record(byEndpoint, endpointOf(event.getString("requestURL")), event);
+        }
+    }
+
+    private void record(final Map<String, MethodMetrics> target, final String key, final RecordedEvent event) {
+        final MethodMetrics metrics = target.computeIfAbsent(key == null ? "unknown" : key, name -> new MethodMetrics(name, 1));
+        metrics.increment();
+        metrics.recordLatency(event.getDuration().toNanos());
+        if (first == null || event.getStartTime().isBefore(first)) {
+            first = event.getStartTime();
+        }
+        if (last == null || event.getEndTime().isAfter(last)) {
+            last = event.getEndTime();
+        }
+    }
+
+    private static String endpointOf(final String requestURL) {
+        if (requestURL == null) {
+            return null;
+        }
+        try {
+            return URI.create(requestURL).getPath();
+        } catch (IllegalArgumentException e) {
+            return requestURL;
+        }
+    }
+
+    public Map<String, MethodStats> getLatencyByGrade() {
+        return snapshot(byGrade);
+    }
+
+    public Map<String, MethodStats> getLatencyByEndpoint() {
+        return snapshot(byEndpoint);
+    }
+
+    private Map<String, MethodStats> snapshot(final Map<String, MethodMetrics> source) {
+        final long window = first == null ? 0 : Duration.between(first, last).toNanos();
+        final Map<String, MethodStats> result = new TreeMap<>();
+        source.forEach((key, metrics) -> result.put(key, metrics.snapshot(window)));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-12s %-30s %10s %12s %12s %12s %12s%n", "group", "key", "count", "mean(us)", "p50(us)", "p99(us)", "max(us)"));
+        append(sb, "grade", getLatencyByGrade());
+        append(sb, "endpoint", getLatencyByEndpoint());
+        return sb.toString();
+    }
+
+    private static void append(final StringBuilder sb, final String group, final Map<String, MethodStats> stats) {
+        stats.forEach((key, stat) -> sb.append(String.format("%-12s %-30s %10d %12.1f %12.1f %12.1f %12.1f%n",
+                group, key, stat.getCount(), stat.getMeanNanos() / 1000.0, stat.getP50Nanos() / 1000.0,
+                stat.getP99Nanos() / 1000.0, stat.getMaxNanos() / 1000.0)));
+    }
+}
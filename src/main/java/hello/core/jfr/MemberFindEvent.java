@@ -0,0 +1,23 @@
+package hello.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("hello.core.MemberFind")
+@Label("Member Find")
+@Category({ "hello.core", "Member" })
+@StackTrace(false)
+public class MemberFindEvent extends Event {
+
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Grade")
+    public String grade;
+
+    @Label("Found")
+    public boolean found;
+}
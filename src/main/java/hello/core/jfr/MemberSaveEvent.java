@@ -0,0 +1,20 @@
+package hello.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("hello.core.MemberSave")
+@Label("Member Save")
+@Category({ "hello.core", "Member" })
+@StackTrace(false)
+public class MemberSaveEvent extends Event {
+
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Grade")
+    public String grade;
+}
@@ -0,0 +1,35 @@
+package hello.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR 이벤트는 기록 중이 아니면 begin(), shouldCommit() 이 아무 일도 하지 않고, 객체 생성도 JIT 가 없애준다.
+ * 그래서 필드 값은 shouldCommit() 이 true 일 때만 채운다.
+ */
+@Name("hello.core.OrderCreated")
+@Label("Order Created")
+@Category({ "hello.core", "Order" })
+@Description("OrderService.createOrder 한 번")
+@StackTrace(false)
+public class OrderCreatedEvent extends Event {
+
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Grade")
+    public String grade;
+
+    @Label("Item Name")
+    public String itemName;
+
+    @Label("Item Price")
+    public int itemPrice;
+
+    @Label("Discount Price")
+    public int discountPrice;
+}
@@ -0,0 +1,22 @@
+package hello.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("hello.core.RequestScope")
+@Label("Request Scope")
+@Category({ "hello.core", "Web" })
+@Description("request 스코프 MyLogger 가 생성되고 소멸될 때까지")
+@StackTrace(false)
+public class RequestScopeEvent extends Event {
+
+    @Label("Request UUID")
+    public String uuid;
+
+    @Label("Request URL")
+    public String requestURL;
+}
@@ -0,0 +1,165 @@
+package hello.core.load;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import hello.core.member.Grade;
+import hello.core.metrics.LogLinearHistogram;
+
+/**
+ * OrderService, MemberService, HTTP 엔드포인트에 부하를 걸고 지연 시간 분포를 JSON 으로 낸다.
+ *
+ * open 모드는 요청마다 보낼 시각을 미리 정해두고, 지연 시간을 그 시각부터 잰다. 앞 요청이 늦어서 늦게 보낸 요청도
+ * 늦어진 만큼 지연 시간에 들어가므로, 대상이 멈춘 동안 요청을 안 보내서 지연 시간이 좋아 보이는 문제(coordinated omission)가 없다.
+ * closed 모드는 --expected-interval-us 를 주면 기대 간격보다 오래 걸린 요청마다 그동안 못 보낸 요청의 지연 시간을 채워 넣는다.
+ *
+ * <pre>
+ * ./gradlew loadTest --args='--target=order-service --mode=open --rate=50000 --duration=30s --output=build/load.json'
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private final LoadOptions options;
+    private final LoadTarget target;
+    private final LogLinearHistogram latency = new LogLinearHistogram();
+    private final LogLinearHistogram serviceTime = new LogLinearHistogram();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder serviceTimeSum = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public LoadGenerator(final LoadOptions options, final LoadTarget target) {
+        this.options = options;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final LoadOptions options = LoadOptions.parse(args);
+        try (LoadTarget target = LoadTargets.create(options)) {
+            final String json = new LoadGenerator(options, target).run().toJson();
+            System.out.println(json);
+            if (options.getOutput() != null) {
+                Files.writeString(Paths.get(options.getOutput()), json);
+            }
+        }
+    }
+
+    public LoadReport run() throws Exception {
+        final ZipfianGenerator zipf = new ZipfianGenerator(options.getMembers(), options.getZipfTheta());
+        if (options.isSeedMembers()) {
+            seedMembers();
+        }
+
+        final int threads = options.getThreads();
+        final long start = System.nanoTime();
+        final long measureStart = start + options.getWarmup().toNanos();
+        final long end = measureStart + options.getDuration().toNanos();
+        final List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            final SplittableRandom random = new SplittableRandom(options.getRandomSeed() + index);
+            final Runnable loop = options.isOpenLoop()
+                    ? () -> openLoop(zipf, random, start + index * intervalNanos() / threads, measureStart, end)
+                    : () -> closedLoop(zipf, random, measureStart, end);
+            final Thread worker = new Thread(loop, "load-" + index);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        final long measured = Math.max(1, Math.min(System.nanoTime(), end) - measureStart);
+        return new LoadReport(describe(), operations.sum(), errors.sum(), operations.sum() * 1e9 / measured,
+                new LoadReport.Percentiles(latency, latencySum.sum()), new LoadReport.Percentiles(serviceTime, serviceTimeSum.sum()));
+    }
+
+    private void seedMembers() throws Exception {
+        final SplittableRandom random = new SplittableRandom(options.getRandomSeed());
+        for (long memberId = 1; memberId <= options.getMembers(); memberId++) {
+            target.addMember(memberId, random.nextDouble() < options.getVipRatio() ? Grade.VIP : Grade.BASIC);
+        }
+    }
+
+    private long intervalNanos() {
+        return (long) (options.getThreads() * 1e9 / options.getRate());
+    }
+
+    // 스레드마다 rate / threads 속도로 보낸다. 밀렸으면 기다리지 않고 바로 보내고, 지연 시간은 보냈어야 할 시각부터 잰다.
+    private void openLoop(final ZipfianGenerator zipf, final SplittableRandom random, final long first, final long measureStart, final long end) {
+        final long interval = intervalNanos();
+        for (long intended = first; intended < end; intended += interval) {
+            long now = System.nanoTime();
+            while (now < intended) {
+                LockSupport.parkNanos(intended - now);
+                now = System.nanoTime();
+            }
+            final boolean ok = call(zipf.next(random) + 1);
+            final long done = System.nanoTime();
+            if (intended >= measureStart) {
+                record(done - intended, done - now, ok);
+            }
+        }
+    }
+
+    private void closedLoop(final ZipfianGenerator zipf, final SplittableRandom random, final long measureStart, final long end) {
+        final long expectedInterval = options.getExpectedIntervalNanos();
+        for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+            final boolean ok = call(zipf.next(random) + 1);
+            final long elapsed = System.nanoTime() - now;
+            if (now >= measureStart) {
+                record(elapsed, elapsed, ok);
+                if (expectedInterval > 0) {
+                    for (long missing = elapsed - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+                        latency.record(missing); // 응답을 기다리느라 보내지 못한 요청
+                        latencySum.add(missing);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean call(final long memberId) {
+        try {
+            target.execute(memberId);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void record(final long latencyNanos, final long serviceNanos, final boolean ok) {
+        latency.record(latencyNanos);
+        latencySum.add(latencyNanos);
+        serviceTime.record(serviceNanos);
+        serviceTimeSum.add(serviceNanos);
+        operations.increment();
+        if (!ok) {
+            errors.increment();
+        }
+    }
+
+    private Map<String, Object> describe() {
+        final Map<String, Object> description = new LinkedHashMap<>();
+        description.put("target", options.getTarget());
+        description.put("mode", options.isOpenLoop() ? "open" : "closed");
+        if (options.isOpenLoop()) {
+            description.put("rate", options.getRate());
+        }
+        description.put("threads", options.getThreads());
+        description.put("durationMillis", options.getDuration().toMillis());
+        description.put("members", options.getMembers());
+        description.put("zipf", options.getZipfTheta());
+        description.put("vipRatio", options.getVipRatio());
+        return description;
+    }
+}
@@ -0,0 +1,124 @@
+package hello.core.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * --이름=값 형식의 부하 생성기 옵션.
+ *
+ * <pre>
+ * --target=order-service      order-service, member-service, http-orders, http-members
+ * --mode=open                 open: 정해진 속도로 요청을 보낸다, closed: 스레드마다 응답을 받으면 바로 다음 요청을 보낸다
+ * --rate=10000                open 에서 초당 요청 수
+ * --threads=4                 요청을 보내는 스레드 수 (closed 에서는 동시 요청 수)
+ * --duration=10s              측정 시간 (ms, s, m 단위)
+ * --warmup=2s                 측정 전에 버리는 시간
+ * --members=100000            회원 수
+ * --zipf=0.99                 회원 id 의 Zipf 분포 theta (0 이면 균등)
+ * --vip-ratio=0.2             VIP 회원 비율
+ * --item-price=10000          주문 금액
+ * --expected-interval-us=0    closed 에서 요청 간격 기대값. 0 보다 크면 응답이 늦어서 못 보낸 요청만큼 지연 시간을 보정한다.
+ * --base-url=http://localhost:8080
+ * --seed-members=true         시작할 때 회원을 가입시킨다.
+ * --output=result.json        결과 JSON 을 파일에도 쓴다.
+ * --random-seed=42
+ * </pre>
+ */
+public class LoadOptions {
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    public static LoadOptions parse(final String... args) {
+        final LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("options must look like --name=value: " + arg);
+            }
+            final int separator = arg.indexOf('=');
+            options.values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    public String getTarget() {
+        return get("target", "order-service");
+    }
+
+    public boolean isOpenLoop() {
+        final String mode = get("mode", "open");
+        if (!mode.equals("open") && !mode.equals("closed")) {
+            throw new IllegalArgumentException("mode must be open or closed: " + mode);
+        }
+        return mode.equals("open");
+    }
+
+    public double getRate() {
+        return Double.parseDouble(get("rate", "10000"));
+    }
+
+    public int getThreads() {
+        return Integer.parseInt(get("threads", "4"));
+    }
+
+    public Duration getDuration() {
+        return duration(get("duration", "10s"));
+    }
+
+    public Duration getWarmup() {
+        return duration(get("warmup", "2s"));
+    }
+
+    public long getMembers() {
+        return Long.parseLong(get("members", "100000"));
+    }
+
+    public double getZipfTheta() {
+        return Double.parseDouble(get("zipf", "0.99"));
+    }
+
+    public double getVipRatio() {
+        return Double.parseDouble(get("vip-ratio", "0.2"));
+    }
+
+    public int getItemPrice() {
+        return Integer.parseInt(get("item-price", "10000"));
+    }
+
+    public long getExpectedIntervalNanos() {
+        return Long.parseLong(get("expected-interval-us", "0")) * 1000;
+    }
+
+    public String getBaseUrl() {
+        return get("base-url", "http://localhost:8080");
+    }
+
+    public boolean isSeedMembers() {
+        return Boolean.parseBoolean(get("seed-members", "true"));
+    }
+
+    public String getOutput() {
+        return values.get("output");
+    }
+
+    public long getRandomSeed() {
+        return Long.parseLong(get("random-seed", "42"));
+    }
+
+    private String get(final String name, final String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    private static Duration duration(final String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofMillis((long) (Double.parseDouble(value.substring(0, value.length() - 1)) * 1000));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
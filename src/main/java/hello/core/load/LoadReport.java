@@ -0,0 +1,141 @@
+package hello.core.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import hello.core.metrics.LogLinearHistogram;
+
+/**
+ * 부하 생성 결과. 회귀 비교용으로 키 순서가 정해진 JSON 으로 쓴다. 시간 단위는 모두 나노초다.
+ *
+ * latency 는 요청을 보냈어야 할 시각부터 잰 응답 시간(coordinated omission 보정), serviceTime 은 실제로 보낸 시각부터 잰 시간이다.
+ */
+public class LoadReport {
+
+    private final Map<String, Object> options;
+    private final long operations;
+    private final long errors;
+    private final double throughputPerSecond;
+    private final Percentiles latency;
+    private final Percentiles serviceTime;
+
+    LoadReport(final Map<String, Object> options, final long operations, final long errors, final double throughputPerSecond,
+               final Percentiles latency, final Percentiles serviceTime) {
+        this.options = options;
+        this.operations = operations;
+        this.errors = errors;
+        this.throughputPerSecond = throughputPerSecond;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public Percentiles getLatency() {
+        return latency;
+    }
+
+    public Percentiles getServiceTime() {
+        return serviceTime;
+    }
+
+    public String toJson() {
+        final Map<String, Object> root = new LinkedHashMap<>(options);
+        root.put("operations", operations);
+        root.put("errors", errors);
+        root.put("throughputPerSecond", Math.round(throughputPerSecond * 10) / 10.0);
+        root.put("latencyNanos", latency.toMap());
+        root.put("serviceTimeNanos", serviceTime.toMap());
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    public static class Percentiles {
+        private final long count;
+        private final long mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long p9999;
+        private final long max;
+
+        Percentiles(final LogLinearHistogram histogram, final long sum) {
+            this.count = histogram.getTotalCount();
+            this.mean = count == 0 ? 0 : sum / count;
+            this.p50 = histogram.getValueAtPercentile(50);
+            this.p90 = histogram.getValueAtPercentile(90);
+            this.p99 = histogram.getValueAtPercentile(99);
+            this.p999 = histogram.getValueAtPercentile(99.9);
+            this.p9999 = histogram.getValueAtPercentile(99.99);
+            this.max = histogram.getMax();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getP9999() {
+            return p9999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        Map<String, Object> toMap() {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("mean", mean);
+            map.put("p50", p50);
+            map.put("p90", p90);
+            map.put("p99", p99);
+            map.put("p99.9", p999);
+            map.put("p99.99", p9999);
+            map.put("max", max);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hello.core.load;
+
+import hello.core.member.Grade;
+
+/**
+ * 부하를 거는 대상. execute 는 여러 스레드에서 동시에 불린다.
+ */
+public interface LoadTarget extends AutoCloseable {
+
+    void addMember(long memberId, Grade grade) throws Exception;
+
+    /**
+     * 요청 하나. 실패하면 예외를 던진다.
+     */
+    void execute(long memberId) throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+}
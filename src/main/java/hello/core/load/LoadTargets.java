@@ -0,0 +1,117 @@
+package hello.core.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import hello.core.AppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.order.OrderService;
+
+/**
+ * --target 이름으로 부하 대상을 만든다. 서비스 대상은 AppConfig 로 컨테이너를 띄워서 같은 프로세스에서 부르고,
+ * http 대상은 이미 떠 있는 애플리케이션(hello.core.reactive 의 /members, /orders)에 요청을 보낸다.
+ */
+final class LoadTargets {
+
+    private LoadTargets() {
+    }
+
+    static LoadTarget create(final LoadOptions options) {
+        switch (options.getTarget()) {
+            case "order-service":
+                return new ServiceTarget(true, options.getItemPrice());
+            case "member-service":
+                return new ServiceTarget(false, options.getItemPrice());
+            case "http-orders":
+                return new HttpTarget(options.getBaseUrl(), true, options.getItemPrice());
+            case "http-members":
+                return new HttpTarget(options.getBaseUrl(), false, options.getItemPrice());
+            default:
+                throw new IllegalArgumentException("unknown target: " + options.getTarget());
+        }
+    }
+
+    private static final class ServiceTarget implements LoadTarget {
+        private final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class);
+        private final MemberService memberService = ac.getBean(MemberService.class);
+        private final OrderService orderService = ac.getBean(OrderService.class);
+        private final boolean order;
+        private final int itemPrice;
+
+        ServiceTarget(final boolean order, final int itemPrice) {
+            this.order = order;
+            this.itemPrice = itemPrice;
+        }
+
+        @Override
+        public void addMember(final long memberId, final Grade grade) {
+            memberService.join(new Member(memberId, "member" + memberId, grade));
+        }
+
+        @Override
+        public void execute(final long memberId) {
+            if (order) {
+                orderService.createOrder(memberId, "item", itemPrice);
+            } else if (memberService.findMember(memberId) == null) {
+                throw new IllegalStateException("member not found: " + memberId);
+            }
+        }
+
+        @Override
+        public void close() {
+            ac.close();
+        }
+    }
+
+    private static final class HttpTarget implements LoadTarget {
+        private final HttpClient client = HttpClient.newBuilder()
+                                                    .version(HttpClient.Version.HTTP_1_1)
+                                                    .connectTimeout(Duration.ofSeconds(5))
+                                                    .build();
+        private final String baseUrl;
+        private final boolean order;
+        private final int itemPrice;
+
+        HttpTarget(final String baseUrl, final boolean order, final int itemPrice) {
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+            this.order = order;
+            this.itemPrice = itemPrice;
+        }
+
+        @Override
+        public void addMember(final long memberId, final Grade grade) throws IOException, InterruptedException {
+            send(post("/members", "{\"id\":" + memberId + ",\"name\":\"member" + memberId + "\",\"grade\":\"" + grade + "\"}"));
+        }
+
+        @Override
+        public void execute(final long memberId) throws IOException, InterruptedException {
+            if (order) {
+                send(post("/orders", "{\"memberId\":" + memberId + ",\"itemName\":\"item\",\"itemPrice\":" + itemPrice + "}"));
+            } else {
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/members/" + memberId)).GET().build());
+            }
+        }
+
+        private HttpRequest post(final String path, final String json) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                              .header("Content-Type", "application/json")
+                              .POST(HttpRequest.BodyPublishers.ofString(json))
+                              .build();
+        }
+
+        private void send(final HttpRequest request) throws IOException, InterruptedException {
+            final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("HTTP " + response.statusCode() + " " + request.uri());
+            }
+        }
+    }
+}
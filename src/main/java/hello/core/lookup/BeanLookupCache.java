@@ -0,0 +1,291 @@
+package hello.core.lookup;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 실행 중에 타입으로 빈을 찾는 getBean(Type.class), getBeansOfType(Type.class) 의 결과를 기억해 둔다.
+ *
+ * 싱글톤이 모두 만들어진 다음, 빈마다 타입과 그 상위 클래스, 인터페이스를 빈 이름에 잇는 색인을 한 번 만든다.
+ * 조회할 때는 색인에서 후보를 찾고, 싱글톤이면 찾은 인스턴스를 그대로 기억해서 다음부터는 맵 조회 한 번으로 끝난다.
+ * 싱글톤이 아니면 이름만 기억하고 매번 컨테이너에서 꺼낸다.
+ *
+ * 후보가 여럿이면 autowire 후보가 아닌 빈을 빼고 @Primary 를 고른다. (@Priority 는 보지 않는다)
+ * 조회할 때마다 빈 정의 이름들과 싱글톤 수를 색인을 만들 때와 비교해서, 다르면 색인을 다시 만든다.
+ * 빈 정의를 더하거나 빼거나 registerSingleton 으로 넣으면 다음 조회부터 보인다. 같은 이름으로 정의만 바꾼 경우에는 {@link #invalidate()} 를 부른다.
+ */
+@Component
+public class BeanLookupCache implements SmartInitializingSingleton {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private volatile Index index;
+
+    public BeanLookupCache(final ConfigurableListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        index = new Index(beanFactory);
+    }
+
+    public void invalidate() {
+        if (index != null) {
+            index = new Index(beanFactory);
+        }
+    }
+
+    public <T> T getBean(final Class<T> type) {
+        final Index current = current();
+        if (current == null) {
+            return beanFactory.getBean(type);
+        }
+        Resolved resolved = current.byType.get(type);
+        if (resolved == null) {
+            resolved = current.byType.computeIfAbsent(type, key -> resolve(ResolvableType.forClass(type), current.namesOf(type)));
+        }
+        return type.cast(resolved.get(beanFactory));
+    }
+
+    /**
+     * 한정자 애너테이션(@Qualifier 가 붙은 애너테이션, 예: @MainDiscountPolicy)이 붙은 빈 중에서 찾는다.
+     * 빈 클래스나 @Bean 메서드에 붙은 애너테이션과, 한정자 값과 같은 이름의 빈이 대상이다.
+     */
+    public <T> T getBean(final Class<T> type, final Class<? extends Annotation> qualifier) {
+        final Index current = current();
+        if (current == null) {
+            return type.cast(beanFactory.getBean(resolve(ResolvableType.forClass(type), qualified(beanFactory.getBeanNamesForType(type), qualifier)).name));
+        }
+        final ConcurrentMap<Class<?>, Resolved> byType = current.byQualifier.computeIfAbsent(qualifier, key -> new ConcurrentHashMap<>());
+        Resolved resolved = byType.get(type);
+        if (resolved == null) {
+            resolved = byType.computeIfAbsent(type, key -> resolve(ResolvableType.forClass(type), qualified(current.namesOf(type), qualifier)));
+        }
+        return type.cast(resolved.get(beanFactory));
+    }
+
+    /**
+     * 제네릭 타입 인자까지 맞는 빈을 찾는다. 예: ResolvableType.forClassWithGenerics(Supplier.class, Member.class)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(final ResolvableType type) {
+        final Index current = current();
+        if (current == null) {
+            return (T) beanFactory.getBeanProvider(type).getObject();
+        }
+        Resolved resolved = current.byGenericType.get(type);
+        if (resolved == null) {
+            resolved = current.byGenericType.computeIfAbsent(type, key -> {
+                final List<String> matching = new ArrayList<>();
+                for (String name : current.namesOf(type.toClass())) {
+                    if (beanFactory.isTypeMatch(name, type)) {
+                        matching.add(name);
+                    }
+                }
+                return resolve(type, matching.toArray(new String[0]));
+            });
+        }
+        return (T) resolved.get(beanFactory);
+    }
+
+    /**
+     * @return 빈 이름 -> 빈. 등록 순서를 지키고, 고칠 수 없는 맵이다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, T> getBeansOfType(final Class<T> type) {
+        final Index current = current();
+        if (current == null) {
+            return beanFactory.getBeansOfType(type);
+        }
+        Object cached = current.beansOfType.get(type);
+        if (cached == null) {
+            cached = current.beansOfType.computeIfAbsent(type, key -> beansOfType(current.namesOf(type)));
+        }
+        if (cached instanceof String[]) { // 싱글톤이 아닌 빈이 섞여 있으면 매번 꺼낸다.
+            final Map<String, T> beans = new LinkedHashMap<>();
+            for (String name : (String[]) cached) {
+                beans.put(name, beanFactory.getBean(name, type));
+            }
+            return beans;
+        }
+        return (Map<String, T>) cached;
+    }
+
+    private Index current() {
+        final Index current = index;
+        if (current != null && !current.matches(beanFactory)) {
+            invalidate();
+            return index;
+        }
+        return current;
+    }
+
+    private Object beansOfType(final String[] names) {
+        final Map<String, Object> beans = new LinkedHashMap<>();
+        for (String name : names) {
+            if (!beanFactory.isSingleton(name)) {
+                return names;
+            }
+            beans.put(name, beanFactory.getBean(name));
+        }
+        return Collections.unmodifiableMap(beans);
+    }
+
+    private String[] qualified(final String[] names, final Class<? extends Annotation> qualifier) {
+        final Qualifier meta = AnnotatedElementUtils.findMergedAnnotation(qualifier, Qualifier.class);
+        final String qualifierValue = meta == null ? "" : meta.value();
+        final List<String> matching = new ArrayList<>();
+        for (String name : names) {
+            if (beanFactory.findAnnotationOnBean(name, qualifier) != null || name.equals(qualifierValue)) {
+                matching.add(name);
+            }
+        }
+        return matching.toArray(new String[0]);
+    }
+
+    private Resolved resolve(final ResolvableType type, final String[] names) {
+        if (names.length == 0) {
+            throw new NoSuchBeanDefinitionException(type);
+        }
+        final String name = names.length == 1 ? names[0] : primaryOf(type, names);
+        return new Resolved(name, beanFactory.isSingleton(name) ? beanFactory.getBean(name) : null);
+    }
+
+    private String primaryOf(final ResolvableType type, final String[] names) {
+        final List<String> candidates = new ArrayList<>();
+        String primary = null;
+        for (String name : names) {
+            final BeanDefinition definition = beanFactory.containsBeanDefinition(name) ? beanFactory.getMergedBeanDefinition(name) : null;
+            if (definition != null && !definition.isAutowireCandidate()) {
+                continue;
+            }
+            candidates.add(name);
+            if (definition != null && definition.isPrimary()) {
+                if (primary != null) {
+                    throw new NoUniqueBeanDefinitionException(type.toClass(), names.length,
+                            "more than one 'primary' bean found among candidates: " + Arrays.toString(names));
+                }
+                primary = name;
+            }
+        }
+        if (primary != null) {
+            return primary;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        throw new NoUniqueBeanDefinitionException(type, names);
+    }
+
+    private static final class Resolved {
+        private final String name;
+        private final Object singleton;
+
+        Resolved(final String name, final Object singleton) {
+            this.name = name;
+            this.singleton = singleton;
+        }
+
+        Object get(final ConfigurableListableBeanFactory beanFactory) {
+            return singleton != null ? singleton : beanFactory.getBean(name);
+        }
+    }
+
+    /**
+     * 타입 -> 빈 이름 색인과 조회 결과. 빈 정의가 바뀌면 통째로 버린다.
+     */
+    private static final class Index {
+        private static final String[] NONE = new String[0];
+
+        private final int definitionCount;
+        private final int singletonCount;
+        private volatile String[] allNames;
+        private final Map<Class<?>, String[]> namesByType;
+        private final boolean complete;
+        private final ConfigurableListableBeanFactory beanFactory;
+        private final ConcurrentMap<Class<?>, Resolved> byType = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<? extends Annotation>, ConcurrentMap<Class<?>, Resolved>> byQualifier = new ConcurrentHashMap<>();
+        private final ConcurrentMap<ResolvableType, Resolved> byGenericType = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<?>, Object> beansOfType = new ConcurrentHashMap<>();
+
+        Index(final ConfigurableListableBeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+            // 먼저 읽어서, 만드는 중에 바뀌면 다음 조회 때 다시 만든다.
+            this.definitionCount = beanFactory.getBeanDefinitionCount();
+            this.singletonCount = beanFactory.getSingletonCount();
+            this.allNames = beanFactory.getBeanNamesForType(Object.class, true, true);
+            final Set<String> names = new LinkedHashSet<>(Arrays.asList(beanFactory.getBeanDefinitionNames()));
+            names.addAll(Arrays.asList(beanFactory.getSingletonNames()));
+            final Map<Class<?>, List<String>> building = new HashMap<>();
+            boolean allTyped = true;
+            for (String name : names) {
+                if (beanFactory.containsBeanDefinition(name) && beanFactory.getMergedBeanDefinition(name).isAbstract()) {
+                    continue;
+                }
+                final Class<?> beanType = beanFactory.getType(name);
+                if (beanType == null) {
+                    allTyped = false; // 타입을 모르는 빈이 있으면 색인에 없는 타입은 컨테이너에 묻는다.
+                    continue;
+                }
+                for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(beanType)) {
+                    building.computeIfAbsent(type, key -> new ArrayList<>()).add(name);
+                }
+                for (Class<?> type = beanType; type != null; type = type.getSuperclass()) {
+                    building.computeIfAbsent(type, key -> new ArrayList<>()).add(name);
+                }
+            }
+            final Map<Class<?>, String[]> index = new HashMap<>(building.size() * 2);
+            building.forEach((type, typeNames) -> index.put(type, typeNames.toArray(new String[0])));
+            this.namesByType = index;
+            this.complete = allTyped;
+        }
+
+        /**
+         * 정의 수와 싱글톤 수를 먼저 비교하고, 같으면 모든 빈 이름(정의 + registerSingleton)을 비교한다. 이름을 빼고 다른 이름으로 넣으면 수는 같다.
+         * 설정이 고정된 컨테이너는 타입별 이름을 캐시해 두고 정의나 싱글톤이 바뀔 때만 비우므로, 보통은 같은 배열이 돌아와서 내용을 비교하지 않는다.
+         */
+        boolean matches(final ConfigurableListableBeanFactory beanFactory) {
+            if (definitionCount != beanFactory.getBeanDefinitionCount() || singletonCount != beanFactory.getSingletonCount()) {
+                return false;
+            }
+            final String[] names = beanFactory.getBeanNamesForType(Object.class, true, true);
+            if (names == allNames) {
+                return true;
+            }
+            if (!Arrays.equals(names, allNames)) {
+                return false;
+            }
+            allNames = names;
+            return true;
+        }
+
+        String[] namesOf(final Class<?> type) {
+            final String[] names = namesByType.get(type);
+            if (names != null) {
+                return names;
+            }
+            return complete ? NONE : beanFactory.getBeanNamesForType(type);
+        }
+    }
+}
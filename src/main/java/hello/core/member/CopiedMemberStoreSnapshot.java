@@ -0,0 +1,37 @@
+package hello.core.member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+
+class CopiedMemberStoreSnapshot implements MemberStoreSnapshot {
+
+    private final List<Member> members;
+    private final Map<Long, Member> byId;
+
+    CopiedMemberStoreSnapshot(final Collection<Member> members) {
+        this.members = Collections.unmodifiableList(new ArrayList<>(members));
+        this.byId = new HashMap<>(this.members.size() * 2);
+        for (Member member : this.members) {
+            byId.put(member.getId(), member);
+        }
+    }
+
+    @Override
+    public Member findById(final Long memberId) {
+        return byId.get(memberId);
+    }
+
+    @Override
+    public Spliterator<Member> spliterator() {
+        return members.spliterator();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,7 +1,21 @@
 package hello.core.member;
 
+import java.util.Collection;
+
 public interface MemberRepository {
     void save(Member member);
 
     Member findById(Long memberId);
+
+    Collection<Member> findAll();
+
+    // 대량 저장. 기본 구현은 save 를 반복한다.
+    default void saveAll(final Collection<Member> members) {
+        members.forEach(this::save);
+    }
+
+    // 지금 시점의 읽기 전용 뷰. 기본 구현은 findAll 을 복사한다.
+    default MemberStoreSnapshot snapshot() {
+        return MemberStoreSnapshot.copyOf(findAll());
+    }
 }
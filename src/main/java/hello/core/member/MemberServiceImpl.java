@@ -3,7 +3,10 @@ package hello.core.member;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import hello.core.annotation.Monitored;
+
 // 구현체가 1개만 있을 때는 관례상 인터페이스+`Impl` 이라고 이름을 많이 짓곤한다.
+@Monitored
 @Component
 public class MemberServiceImpl implements MemberService {
 
@@ -0,0 +1,49 @@
+package hello.core.member;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 만든 시점의 회원 저장소를 그대로 보여주는 읽기 전용 뷰. 그 뒤에 저장된 회원은 보이지 않는다.
+ * 다 쓰면 닫아야 한다. 닫아야 그동안 남겨둔 옛 버전을 치울 수 있다.
+ *
+ * <pre>
+ * try (MemberStoreSnapshot snapshot = memberRepository.snapshot()) {
+ *     snapshot.parallelStream().filter(member -&gt; member.getGrade() == Grade.VIP).count();
+ * }
+ * </pre>
+ */
+public interface MemberStoreSnapshot extends Iterable<Member>, AutoCloseable {
+
+    Member findById(Long memberId);
+
+    @Override
+    Spliterator<Member> spliterator();
+
+    @Override
+    default Iterator<Member> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    default Stream<Member> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    default Stream<Member> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @Override
+    void close();
+
+    /**
+     * 넘겨받은 회원을 복사해서 스냅샷으로 만든다. 버전을 관리하지 않는 저장소가 쓴다.
+     */
+    static MemberStoreSnapshot copyOf(final Collection<Member> members) {
+        return new CopiedMemberStoreSnapshot(members);
+    }
+}
@@ -1,22 +1,82 @@
 package hello.core.member;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.Collections;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import hello.core.cdc.MemberChangeLog;
+import hello.core.jfr.MemberFindEvent;
+import hello.core.jfr.MemberSaveEvent;
+
 @Component
 public class MemoryMemberRepository implements MemberRepository {
 
-    private static Map<Long, Member> store = new HashMap<>();
+    private static final VersionedMemberStore store = new VersionedMemberStore(); // 대량 가져오기는 여러 스레드가 동시에 저장한다.
+
+    private MemberChangeLog changeLog;
+
+    // 선택적 의존관계. MemberChangeLog 빈이 없으면 변경을 알리지 않는다.
+    @Autowired(required = false)
+    public void setChangeLog(final MemberChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
 
     @Override
     public void save(final Member member) {
-        store.put(member.getId(), member);
+        final MemberSaveEvent event = new MemberSaveEvent();
+        event.begin();
+        store.put(member, changeLog);
+        if (event.shouldCommit()) {
+            event.memberId = member.getId();
+            event.grade = member.getGrade().name();
+            event.commit();
+        }
+    }
+
+    // 회원마다 JFR 이벤트를 남기지 않는다.
+    @Override
+    public void saveAll(final Collection<Member> members) {
+        final MemberChangeLog changeLog = this.changeLog;
+        for (Member member : members) {
+            store.put(member, changeLog);
+        }
     }
 
     @Override
     public Member findById(final Long memberId) {
-        return store.get(memberId);
+        final MemberFindEvent event = new MemberFindEvent();
+        event.begin();
+        final Member member = store.get(memberId);
+        if (event.shouldCommit()) {
+            event.memberId = memberId;
+            event.found = member != null;
+            event.grade = member == null ? null : member.getGrade().name();
+            event.commit();
+        }
+        return member;
+    }
+
+    // 복사하지 않는다. 순회하는 동안 저장된 회원은 보일 수도, 안 보일 수도 있다. 일관된 전체 조회는 snapshot() 을 쓴다.
+    @Override
+    public Collection<Member> findAll() {
+        return Collections.unmodifiableCollection(store.latest());
+    }
+
+    // 복사하지 않는다. 버전 체인에서 스냅샷 시점의 버전을 골라서 보여준다.
+    @Override
+    public MemberStoreSnapshot snapshot() {
+        return store.snapshot();
+    }
+
+    // 테스트 용
+    public void clearStore() {
+        store.clear();
+    }
+
+    // 테스트 용
+    int versionCount(final Long memberId) {
+        return store.versionCount(memberId);
     }
 }
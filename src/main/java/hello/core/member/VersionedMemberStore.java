@@ -0,0 +1,256 @@
+package hello.core.member;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import hello.core.cdc.MemberChangeLog;
+
+/**
+ * 회원마다 버전 체인(최신 -> 옛 버전)을 두는 저장소. 저장할 때마다 전역 버전 번호가 하나씩 올라가고,
+ * 스냅샷은 만든 시점까지 나눠준 버전 번호 S 를 기억했다가 회원마다 S 이하인 가장 새 버전을 보여준다.
+ *
+ * 쓰는 쪽은 락을 잡지도, 다른 쓰기를 기다리지도 않는다. 번호를 받기 전에 받을 번호의 하한을 진행 중 목록에 올리고, 체인에 넣은 다음 내린다.
+ * 기다리는 쪽은 스냅샷이다. S 를 고른 다음, 하한이 S 이하인 진행 중 쓰기가 끝날 때까지만 기다린다. 그 뒤에 시작한 쓰기는 기다리지 않는다.
+ * 옛 버전은 열려 있는 가장 오래된 스냅샷이 보는 버전까지만 남기고 체인에서 끊는다.
+ * 그 스냅샷이 닫히면 옛 버전을 남겨둔 회원들의 체인을 다시 정리한다.
+ */
+class VersionedMemberStore {
+
+    private final Map<Long, Version> heads = new ConcurrentHashMap<>();
+    private final AtomicLong nextVersion = new AtomicLong(); // 마지막으로 나눠준 버전 번호
+    private final ConcurrentSkipListMap<Long, Integer> inFlight = new ConcurrentSkipListMap<>(); // 진행 중인 쓰기가 받을 번호의 하한 -> 쓰기 수
+    private final ConcurrentSkipListMap<Long, Integer> openSnapshots = new ConcurrentSkipListMap<>();
+    private final Set<Long> retained = ConcurrentHashMap.newKeySet(); // 옛 버전이 남아 있는 회원
+
+    /**
+     * @param changeLog 변경을 알릴 로그. 없으면 null. 같은 회원의 저장과 같은 임계 구역 안에서 순번을 받으므로,
+     *                  한 회원의 변경은 저장소에 반영된 순서와 같은 순번 순서로 기록된다.
+     * @return 바꾸기 전의 최신 버전. 처음 저장하는 회원이면 null
+     */
+    Member put(final Member member, final MemberChangeLog changeLog) {
+        // 번호를 받기 전에 올리므로, 이 쓰기의 번호 이상을 S 로 고른 스냅샷은 반드시 이 하한을 본다.
+        final long floor = nextVersion.get() + 1;
+        inFlight.merge(floor, 1, Integer::sum);
+        final Version head;
+        try {
+            head = heads.compute(member.getId(), (id, previous) -> {
+                if (changeLog != null) {
+                    changeLog.publish(member, previous == null ? null : previous.member);
+                }
+                return new Version(member, nextVersion.incrementAndGet(), previous);
+            });
+        } finally {
+            inFlight.computeIfPresent(floor, (key, count) -> count == 1 ? null : count - 1);
+        }
+        final Version replaced = head.previous; // 정리하기 전에 읽으므로 아직 끊기지 않았다.
+        prune(member.getId(), head);
+        return replaced == null ? null : replaced.member;
+    }
+
+    Member get(final Long memberId) {
+        final Version head = heads.get(memberId);
+        return head == null ? null : head.member;
+    }
+
+    // 최신 버전을 보여주는 뷰. 복사하지 않는다.
+    Collection<Member> latest() {
+        return new AbstractCollection<Member>() {
+            @Override
+            public Iterator<Member> iterator() {
+                final Iterator<Version> versions = heads.values().iterator();
+                return new Iterator<Member>() {
+                    @Override
+                    public boolean hasNext() {
+                        return versions.hasNext();
+                    }
+
+                    @Override
+                    public Member next() {
+                        return versions.next().member;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return heads.size();
+            }
+        };
+    }
+
+    MemberStoreSnapshot snapshot() {
+        // 등록한 번호(registered) 이하는 이후의 쓰기가 지우지 않는다. 등록 전에 정리를 시작한 쓰기는
+        // 등록 전에 읽은 번호 이하를 기준으로 지웠으므로, 등록한 다음 다시 읽은 번호로 보면 안전하다.
+        final long registered = nextVersion.get();
+        openSnapshots.merge(registered, 1, Integer::sum);
+        final long version = nextVersion.get();
+        awaitWritesUpTo(version);
+        return new VersionedSnapshot(version, registered);
+    }
+
+    void clear() {
+        heads.clear();
+        retained.clear();
+    }
+
+    // 테스트 용
+    int versionCount(final Long memberId) {
+        int count = 0;
+        for (Version version = heads.get(memberId); version != null; version = version.previous) {
+            count++;
+        }
+        return count;
+    }
+
+    // version 이하의 번호를 받았을 수 있는 쓰기가 체인에 넣을 때까지 기다린다.
+    private void awaitWritesUpTo(final long version) {
+        for (int spins = 0; ; spins++) {
+            final Map.Entry<Long, Integer> pending = inFlight.firstEntry();
+            if (pending == null || pending.getKey() > version) {
+                return;
+            }
+            if (spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield(); // 진행 중인 쓰기가 CPU 를 받을 수 있게 한다.
+            }
+        }
+    }
+
+    // 열려 있는 가장 오래된 스냅샷이 보는 버전(없으면 지금까지 나눠준 최신 버전)보다 옛 버전을 끊는다.
+    // 최신 버전을 먼저 읽는다. 그 뒤에 등록하는 스냅샷은 그보다 크거나 같은 번호를 보므로 남긴 버전으로 충분하다.
+    private void prune(final Long memberId, final Version head) {
+        final long latest = nextVersion.get();
+        final Map.Entry<Long, Integer> oldest = openSnapshots.firstEntry();
+        final long horizon = oldest == null ? latest : oldest.getKey();
+        Version version = head;
+        while (version != null && version.version > horizon) {
+            version = version.previous;
+        }
+        if (version != null) {
+            version.previous = null;
+        }
+        if (head.previous != null) {
+            retained.add(memberId);
+        }
+    }
+
+    private void release(final long registered) {
+        openSnapshots.computeIfPresent(registered, (version, count) -> count == 1 ? null : count - 1);
+        for (Long memberId : retained) {
+            retained.remove(memberId);
+            final Version head = heads.get(memberId);
+            if (head != null) {
+                prune(memberId, head);
+            }
+        }
+    }
+
+    private static Member visible(final Version head, final long snapshotVersion) {
+        Version version = head;
+        while (version != null && version.version > snapshotVersion) {
+            version = version.previous;
+        }
+        return version == null ? null : version.member;
+    }
+
+    private static final class Version {
+        private final Member member;
+        private final long version;
+        private volatile Version previous;
+
+        Version(final Member member, final long version, final Version previous) {
+            this.member = member;
+            this.version = version;
+            this.previous = previous;
+        }
+    }
+
+    private final class VersionedSnapshot implements MemberStoreSnapshot {
+        private final long version;
+        private final long registered;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        VersionedSnapshot(final long version, final long registered) {
+            this.version = version;
+            this.registered = registered;
+        }
+
+        @Override
+        public Member findById(final Long memberId) {
+            return visible(heads.get(memberId), version);
+        }
+
+        @Override
+        public Spliterator<Member> spliterator() {
+            return new SnapshotSpliterator(heads.values().spliterator(), version);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(registered);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "MemberStoreSnapshot{version=" + version + '}';
+        }
+    }
+
+    // ConcurrentHashMap 의 spliterator 를 나눠서 병렬로 돌 수 있다. 스냅샷 이후에 생긴 회원은 건너뛴다.
+    private static final class SnapshotSpliterator implements Spliterator<Member>, Consumer<Version> {
+        private final Spliterator<Version> heads;
+        private final long version;
+        private Member next;
+
+        SnapshotSpliterator(final Spliterator<Version> heads, final long version) {
+            this.heads = heads;
+            this.version = version;
+        }
+
+        @Override
+        public void accept(final Version head) {
+            next = visible(head, version);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Member> action) {
+            while (heads.tryAdvance(this)) {
+                if (next != null) {
+                    final Member member = next;
+                    next = null;
+                    action.accept(member);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Member> trySplit() {
+            final Spliterator<Version> split = heads.trySplit();
+            return split == null ? null : new SnapshotSpliterator(split, version);
+        }
+
+        @Override
+        public long estimateSize() {
+            return heads.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+}
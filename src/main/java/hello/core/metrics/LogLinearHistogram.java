@@ -0,0 +1,91 @@
+package hello.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 2의 거듭제곱 구간마다 16개의 선형 버킷을 두는 log-linear 히스토그램.
+ * 기록 시 객체를 만들지 않고, 버킷 하나를 원자적으로 증가시키기만 한다. (상대 오차 약 6%)
+ */
+public class LogLinearHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        buckets.getAndIncrement(indexOf(v));
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+            // 다른 스레드가 더 큰 값을 넣었으면 다시 비교
+        }
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile 0 ~ 100 사이의 백분위
+     * @return 해당 백분위가 속한 버킷의 상한값
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        max.set(0);
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    static long highestValueOf(final int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        final int exponent = index / SUB_COUNT + SUB_BITS - 1;
+        final long sub = index % SUB_COUNT;
+        final long width = 1L << (exponent - SUB_BITS);
+        final long highest = ((SUB_COUNT + sub) << (exponent - SUB_BITS)) + width - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
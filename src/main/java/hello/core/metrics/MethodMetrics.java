@@ -0,0 +1,74 @@
+package hello.core.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나에 대한 호출 수, 실패 수, 지연 시간 분포.
+ * 카운터는 스레드별로 셀을 나누는 LongAdder 를 사용해서 경합을 줄인다.
+ * System.nanoTime() 두 번이 호출당 비용의 대부분이라서, 호출 수는 전부 세고 시간은 sampleRate 번 중 한 번만 잰다.
+ */
+public class MethodMetrics {
+
+    private final String name;
+    private final int sampleMask;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+    /**
+     * @param sampleRate 2의 거듭제곱이어야 한다. 1이면 모든 호출의 시간을 잰다.
+     */
+    public MethodMetrics(final String name, final int sampleRate) {
+        if (sampleRate < 1 || Integer.bitCount(sampleRate) != 1) {
+            throw new IllegalArgumentException("sampleRate must be a power of two: " + sampleRate);
+        }
+        this.name = name;
+        this.sampleMask = sampleRate - 1;
+    }
+
+    public boolean shouldSample() {
+        return sampleMask == 0 || (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void recordLatency(final long elapsedNanos) {
+        sampledNanos.add(elapsedNanos);
+        histogram.record(elapsedNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public MethodStats snapshot(final long windowNanos) {
+        final long calls = count.sum();
+        final long samples = histogram.getTotalCount();
+        final double seconds = Math.max(windowNanos, 1) / 1_000_000_000.0;
+        return new MethodStats(
+                name,
+                calls,
+                errors.sum(),
+                samples == 0 ? 0 : sampledNanos.sum() / samples,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMax(),
+                calls / seconds);
+    }
+
+    public void reset() {
+        count.reset();
+        errors.reset();
+        sampledNanos.reset();
+        histogram.reset();
+    }
+}
@@ -0,0 +1,82 @@
+package hello.core.metrics;
+
+/**
+ * MethodMetrics 의 특정 시점 값. 시간 단위는 모두 나노초다.
+ */
+public class MethodStats {
+
+    private final String name;
+    private final long count;
+    private final long errors;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final double throughputPerSecond;
+
+    public MethodStats(final String name, final long count, final long errors, final long meanNanos,
+                       final long p50Nanos, final long p99Nanos, final long p999Nanos, final long maxNanos,
+                       final double throughputPerSecond) {
+        this.name = name;
+        this.count = count;
+        this.errors = errors;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodStats{" +
+               "name='" + name + '\'' +
+               ", count=" + count +
+               ", errors=" + errors +
+               ", meanNanos=" + meanNanos +
+               ", p50Nanos=" + p50Nanos +
+               ", p99Nanos=" + p99Nanos +
+               ", p999Nanos=" + p999Nanos +
+               ", maxNanos=" + maxNanos +
+               ", throughputPerSecond=" + throughputPerSecond +
+               '}';
+    }
+}
@@ -0,0 +1,141 @@
+package hello.core.metrics;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.Dispatcher;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import hello.core.annotation.Monitored;
+
+/**
+ * {@link Monitored} 가 붙었거나 metrics.base-packages 에 속한 빈을 CGLIB 프록시로 감싸서 호출 시간을 기록한다.
+ * 스프링 AOP 의 인터셉터 체인 대신 메서드마다 전용 콜백을 붙이기 때문에, 호출 경로에는 시간 측정과 카운터 증가만 남는다.
+ * 메트릭 이름은 빈이름.메서드(파라미터 타입) 이다. 예: orderServiceImpl.createOrder(Long,String,int)
+ */
+@Component
+public class MetricsBeanPostProcessor implements BeanPostProcessor {
+
+    private static final int PASS_THROUGH = 0;
+
+    private final MetricsRegistry metricsRegistry;
+    private final String[] basePackages;
+    private final SpringObjenesis objenesis = new SpringObjenesis();
+    // 빈 이름 -> 만든 프록시 클래스. 프로토타입 빈도 인스턴스마다 클래스를 새로 만들지 않는다.
+    private final Map<String, Class<?>> proxyClasses = new ConcurrentHashMap<>();
+
+    public MetricsBeanPostProcessor(final MetricsRegistry metricsRegistry, final Environment environment) {
+        this.metricsRegistry = metricsRegistry;
+        this.basePackages = environment.getProperty("metrics.base-packages", String[].class, new String[0]);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException {
+        final Class<?> targetClass = bean.getClass();
+        if (AopUtils.isAopProxy(bean) || Modifier.isFinal(targetClass.getModifiers()) || !isMonitored(targetClass)) {
+            return bean;
+        }
+
+        final Map<String, Method> methods = monitoredMethods(targetClass);
+        final Map<String, Integer> callbackIndex = new HashMap<>();
+        final Callback[] callbacks = new Callback[methods.size() + 1];
+        final Class<?>[] callbackTypes = new Class<?>[callbacks.length];
+        callbacks[PASS_THROUGH] = (Dispatcher) () -> bean; // 기록하지 않는 메서드는 그대로 대상 빈에게 넘긴다.
+        callbackTypes[PASS_THROUGH] = Dispatcher.class;
+        int index = 1;
+        for (Map.Entry<String, Method> entry : methods.entrySet()) {
+            final MethodMetrics metrics = metricsRegistry.metricsFor(beanName + "." + metricNameOf(entry.getValue()));
+            callbacks[index] = new MetricsInterceptor(bean, metrics);
+            callbackTypes[index] = MethodInterceptor.class;
+            callbackIndex.put(entry.getKey(), index++);
+        }
+
+        // 생성자를 다시 호출하지 않도록 objenesis 로 인스턴스를 만든다. (필드는 비어 있고, 모든 호출은 대상 빈으로 간다)
+        final Factory proxy = (Factory) objenesis.newInstance(proxyClassFor(beanName, targetClass, callbackTypes, callbackIndex));
+        proxy.setCallbacks(callbacks);
+        return proxy;
+    }
+
+    // 같은 빈 정의는 대상 클래스와 메서드 구성이 같으므로 콜백 필터도 같다. 클래스가 바뀐 경우에만 새로 만든다.
+    private Class<?> proxyClassFor(final String beanName, final Class<?> targetClass, final Class<?>[] callbackTypes,
+                                   final Map<String, Integer> callbackIndex) {
+        final Class<?> cached = proxyClasses.get(beanName);
+        if (cached != null && cached.getSuperclass() == targetClass) {
+            return cached;
+        }
+        final Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(targetClass);
+        enhancer.setClassLoader(targetClass.getClassLoader());
+        enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+        enhancer.setUseCache(false); // 콜백 구성이 빈마다 다르므로 CGLIB 캐시는 쓰지 않고 빈 이름으로 직접 기억한다.
+        enhancer.setCallbackTypes(callbackTypes);
+        enhancer.setCallbackFilter(method -> callbackIndex.getOrDefault(signatureOf(method), PASS_THROUGH));
+        final Class<?> proxyClass = enhancer.createClass();
+        proxyClasses.put(beanName, proxyClass);
+        return proxyClass;
+    }
+
+    private boolean isMonitored(final Class<?> targetClass) {
+        if (AnnotatedElementUtils.hasAnnotation(targetClass, Monitored.class)) {
+            return true;
+        }
+        final String className = targetClass.getName();
+        for (String basePackage : basePackages) {
+            if (!basePackage.isEmpty() && className.startsWith(basePackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 인터페이스에 선언된 비즈니스 메서드만 기록한다. 인터페이스가 없으면 public 메서드 전부.
+    private Map<String, Method> monitoredMethods(final Class<?> targetClass) {
+        final Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> anInterface : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            for (Method method : anInterface.getMethods()) {
+                if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                    methods.put(signatureOf(method), method);
+                }
+            }
+        }
+        if (methods.isEmpty()) {
+            for (Method method : targetClass.getDeclaredMethods()) {
+                if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                    methods.put(signatureOf(method), method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    // 오버로드된 메서드가 한 히스토그램에 섞이지 않도록 파라미터 타입까지 이름에 넣는다.
+    private static String metricNameOf(final Method method) {
+        final StringJoiner parameters = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameters.add(parameterType.getSimpleName());
+        }
+        return parameters.toString();
+    }
+
+    private static String signatureOf(final Method method) {
+        return method.getName() + Arrays.toString(method.getParameterTypes());
+    }
+}
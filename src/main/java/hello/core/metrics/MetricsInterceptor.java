@@ -0,0 +1,43 @@
+package hello.core.metrics;
+
+import java.lang.reflect.Method;
+
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.MethodProxy;
+
+/**
+ * 메서드마다 하나씩 만들어지는 CGLIB 콜백. 어떤 MethodMetrics 에 기록할지 이미 알고 있어서 호출 경로에 조회가 없다.
+ */
+class MetricsInterceptor implements MethodInterceptor {
+
+    private final Object target;
+    private final MethodMetrics metrics;
+
+    MetricsInterceptor(final Object target, final MethodMetrics metrics) {
+        this.target = target;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object intercept(final Object proxy, final Method method, final Object[] args, final MethodProxy methodProxy) throws Throwable {
+        metrics.increment();
+        if (!metrics.shouldSample()) {
+            try {
+                return methodProxy.invoke(target, args);
+            } catch (Throwable e) {
+                metrics.recordError();
+                throw e;
+            }
+        }
+
+        final long start = System.nanoTime();
+        try {
+            return methodProxy.invoke(target, args);
+        } catch (Throwable e) {
+            metrics.recordError();
+            throw e;
+        } finally {
+            metrics.recordLatency(System.nanoTime() - start);
+        }
+    }
+}
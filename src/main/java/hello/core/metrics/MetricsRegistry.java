@@ -0,0 +1,46 @@
+package hello.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+    private final int sampleRate;
+    private volatile long startNanos = System.nanoTime();
+
+    @Autowired
+    public MetricsRegistry(final Environment environment) {
+        this(environment.getProperty("metrics.sample-rate", Integer.class, 8));
+    }
+
+    public MetricsRegistry(final int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    // 프록시를 만들 때 한 번만 호출된다. 호출 경로에서는 찾아둔 MethodMetrics 를 바로 쓴다.
+    public MethodMetrics metricsFor(final String name) {
+        return metrics.computeIfAbsent(name, key -> new MethodMetrics(key, sampleRate));
+    }
+
+    public Map<String, MethodStats> snapshot() {
+        final long window = System.nanoTime() - startNanos;
+        final Map<String, MethodStats> result = new TreeMap<>();
+        for (MethodMetrics methodMetrics : metrics.values()) {
+            result.put(methodMetrics.getName(), methodMetrics.snapshot(window));
+        }
+        return result;
+    }
+
+    public void reset() {
+        metrics.values().forEach(MethodMetrics::reset);
+        startNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,10 @@
+package hello.core.order;
+
+import hello.core.member.Member;
+
+/**
+ * 주문이 만들어질 때마다 OrderService 가 호출한다. 주문 요청 스레드(파티션 엔진이면 파티션 스레드)에서 바로 불리므로 빨리 끝나야 한다.
+ */
+public interface OrderListener {
+    void onOrder(Member member, Order order);
+}
@@ -2,4 +2,16 @@ package hello.core.order;
 
 public interface OrderService {
     Order createOrder(Long memberId, String itemName, int itemPrice);
+
+    /**
+     * idempotencyKey 가 같은 요청은 주문을 한 번만 만든다. 키가 null 이면 키 없는 주문과 같다.
+     * 멱등성 처리가 꺼져 있는데(order.idempotency.enabled) 키를 주면, 중복 주문을 만들지 않도록 IllegalStateException 을 던진다.
+     */
+    Order createOrder(Long memberId, String itemName, int itemPrice, String idempotencyKey);
+
+    /**
+     * 상품 카탈로그의 id 로 주문한다. 이름과 가격은 카탈로그에서 찾는다.
+     * 카탈로그가 꺼져 있으면(item.catalog.enabled) IllegalStateException, 없는 id 면 IllegalArgumentException 을 던진다.
+     */
+    Order createOrder(Long memberId, int itemId);
 }
@@ -1,15 +1,22 @@
 package hello.core.order;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import hello.core.admission.AdmissionController;
 import hello.core.annotation.MainDiscountPolicy;
+import hello.core.annotation.Monitored;
 import hello.core.discount.DiscountPolicy;
+import hello.core.idempotency.IdempotencyIndex;
+import hello.core.item.ItemCatalog;
+import hello.core.jfr.OrderCreatedEvent;
 import hello.core.member.Member;
 import hello.core.member.MemberRepository;
 import lombok.RequiredArgsConstructor;
 
+@Monitored
 @Component
 //@RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
@@ -40,11 +47,42 @@ public class OrderServiceImpl implements OrderService {
      */
     private final MemberRepository memberRepository;
     private final DiscountPolicy discountPolicy;
+    private final OrderListener[] orderListeners;
+    private AdmissionController admissionController;
+    private IdempotencyIndex idempotencyIndex;
+    private ItemCatalog itemCatalog;
 
-    // 클래스 내 단 1개의 생성자만 존재한다면 @Autowired는 생략해도 된다.
-    public OrderServiceImpl(final MemberRepository memberRepository, @MainDiscountPolicy final DiscountPolicy discountPolicy) {
+    public OrderServiceImpl(final MemberRepository memberRepository, final DiscountPolicy discountPolicy) {
         this.memberRepository = memberRepository;
         this.discountPolicy = discountPolicy;
+        this.orderListeners = new OrderListener[0];
+    }
+
+    // 생성자가 여러 개라면 스프링이 사용할 생성자에 @Autowired를 붙여야 한다.
+    @Autowired
+    public OrderServiceImpl(final MemberRepository memberRepository, @MainDiscountPolicy final DiscountPolicy discountPolicy,
+                            final ObjectProvider<OrderListener> orderListeners) {
+        this.memberRepository = memberRepository;
+        this.discountPolicy = discountPolicy;
+        this.orderListeners = orderListeners.orderedStream().toArray(OrderListener[]::new);
+    }
+
+    // 선택적 의존관계. AdmissionController 빈이 없으면 호출되지 않는다.
+    @Autowired(required = false)
+    public void setAdmissionController(final AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    // 선택적 의존관계. IdempotencyIndex 빈이 없으면 멱등성 키를 준 주문은 실패한다.
+    @Autowired(required = false)
+    public void setIdempotencyIndex(final IdempotencyIndex idempotencyIndex) {
+        this.idempotencyIndex = idempotencyIndex;
+    }
+
+    // 선택적 의존관계. ItemCatalog 빈이 없으면 상품 id 로 주문할 수 없다.
+    @Autowired(required = false)
+    public void setItemCatalog(final ItemCatalog itemCatalog) {
+        this.itemCatalog = itemCatalog;
     }
 
     /**
@@ -60,10 +98,51 @@ public class OrderServiceImpl implements OrderService {
 //    }
     @Override
     public Order createOrder(final Long memberId, final String itemName, final int itemPrice) {
+        if (admissionController == null) {
+            return doCreateOrder(memberId, itemName, itemPrice);
+        }
+        final long startNanos = admissionController.acquire(memberId); // 거절되면 OrderRejectedException
+        try {
+            return doCreateOrder(memberId, itemName, itemPrice);
+        } finally {
+            admissionController.release(startNanos);
+        }
+    }
+
+    @Override
+    public Order createOrder(final Long memberId, final String itemName, final int itemPrice, final String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createOrder(memberId, itemName, itemPrice);
+        }
+        return IdempotencyIndex.require(idempotencyIndex).execute(idempotencyKey, () -> createOrder(memberId, itemName, itemPrice));
+    }
+
+    @Override
+    public Order createOrder(final Long memberId, final int itemId) {
+        final ItemCatalog catalog = ItemCatalog.require(itemCatalog);
+        return createOrder(memberId, catalog.getName(itemId), catalog.getPrice(itemId));
+    }
+
+    private Order doCreateOrder(final Long memberId, final String itemName, final int itemPrice) {
+        final OrderCreatedEvent event = new OrderCreatedEvent();
+        event.begin();
+
         Member member = memberRepository.findById(memberId);
         int discountPrice = discountPolicy.discount(member, itemPrice);
 
-        return new Order(memberId, itemName, itemPrice, discountPrice);
+        if (event.shouldCommit()) {
+            event.memberId = memberId;
+            event.grade = member.getGrade().name();
+            event.itemName = itemName;
+            event.itemPrice = itemPrice;
+            event.discountPrice = discountPrice;
+            event.commit();
+        }
+        final Order order = new Order(memberId, itemName, itemPrice, discountPrice);
+        for (OrderListener orderListener : orderListeners) {
+            orderListener.onOrder(member, order);
+        }
+        return order;
     }
 
     // 테스트 용
@@ -0,0 +1,56 @@
+package hello.core.partition;
+
+import hello.core.member.Grade;
+
+/**
+ * 파티션 엔진이 모든 파티션에서 모아 합친 등급별 주문 누적 값.
+ */
+public class GradeTotals {
+
+    private final Grade grade;
+    private final long orderCount;
+    private final long grossRevenue;
+    private final long discountTotal;
+
+    public GradeTotals(final Grade grade, final long orderCount, final long grossRevenue, final long discountTotal) {
+        this.grade = grade;
+        this.orderCount = orderCount;
+        this.grossRevenue = grossRevenue;
+        this.discountTotal = discountTotal;
+    }
+
+    GradeTotals plus(final GradeTotals other) {
+        return new GradeTotals(grade, orderCount + other.orderCount, grossRevenue + other.grossRevenue,
+                discountTotal + other.discountTotal);
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getGrossRevenue() {
+        return grossRevenue;
+    }
+
+    public long getDiscountTotal() {
+        return discountTotal;
+    }
+
+    public long getNetRevenue() {
+        return grossRevenue - discountTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "GradeTotals{" +
+               "grade=" + grade +
+               ", orderCount=" + orderCount +
+               ", grossRevenue=" + grossRevenue +
+               ", discountTotal=" + discountTotal +
+               '}';
+    }
+}
@@ -0,0 +1,188 @@
+package hello.core.partition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+import hello.core.discount.DiscountPolicy;
+import hello.core.jfr.OrderCreatedEvent;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderListener;
+
+/**
+ * 스레드 하나가 전담하는 파티션. 회원 조각과 등급별 집계는 이 스레드만 읽고 쓰므로 락도 CAS 도 쓰지 않는다.
+ * 다른 스레드는 {@link #execute(Runnable)} 로 작업을 넘기기만 한다.
+ */
+class OrderPartition implements Runnable {
+
+    private static final int SPINS = 100;
+
+    private final int index;
+    private final MemberRepository memberRepository;
+    private final DiscountPolicy discountPolicy;
+    private final OrderListener[] orderListeners;
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean sleeping;
+    private volatile boolean running = true;
+
+    // 파티션 스레드 전용
+    private final Map<Long, Member> members = new HashMap<>();
+    private final long[] orderCount = new long[Grade.values().length];
+    private final long[] grossRevenue = new long[Grade.values().length];
+    private final long[] discountTotal = new long[Grade.values().length];
+
+    OrderPartition(final int index, final MemberRepository memberRepository, final DiscountPolicy discountPolicy,
+                   final OrderListener[] orderListeners) {
+        this.index = index;
+        this.memberRepository = memberRepository;
+        this.discountPolicy = discountPolicy;
+        this.orderListeners = orderListeners;
+        this.thread = new Thread(this, "order-partition-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    // start() 전에 호출하면 Thread.start() 가 파티션 스레드에 내용을 보여준다.
+    void preload(final Member member) {
+        members.put(member.getId(), member);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void execute(final Runnable task) {
+        if (!running) {
+            throw rejected();
+        }
+        inbox.offer(task);
+        // 확인과 넣기 사이에 닫혔으면 스레드가 이미 끝났을 수 있다. 아직 큐에 있으면 빼서 거절하고, 없으면 스레드가 실행했거나 거절했다.
+        if (!running && inbox.remove(task)) {
+            throw rejected();
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running || !inbox.isEmpty()) {
+            Runnable task = inbox.poll();
+            for (int spin = 0; task == null && spin < SPINS; spin++) {
+                Thread.onSpinWait();
+                task = inbox.poll();
+            }
+            if (task != null) {
+                task.run();
+                continue;
+            }
+            // sleeping 을 먼저 쓰고 큐를 다시 본다. execute() 는 큐에 넣은 다음 sleeping 을 보므로 둘 중 하나는 상대를 본다.
+            sleeping = true;
+            if (running && inbox.isEmpty()) {
+                LockSupport.park(this);
+            }
+            sleeping = false;
+        }
+        // 루프를 나온 다음에 들어온 작업. 결과를 기다리는 쪽이 있으면 실패시킨다.
+        for (Runnable task = inbox.poll(); task != null; task = inbox.poll()) {
+            if (task instanceof Rejectable) {
+                ((Rejectable) task).reject(rejected());
+            }
+        }
+    }
+
+    void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    // 아래 메서드는 모두 파티션 스레드에서만 호출된다.
+
+    Order createOrder(final Long memberId, final String itemName, final int itemPrice) {
+        final OrderCreatedEvent event = new OrderCreatedEvent();
+        event.begin();
+
+        final Member member = findMember(memberId);
+        if (member == null) {
+            throw new IllegalArgumentException("member not found: " + memberId);
+        }
+        final int discountPrice = discountPolicy.discount(member, itemPrice);
+        final int grade = member.getGrade().ordinal();
+        orderCount[grade]++;
+        grossRevenue[grade] += itemPrice;
+        discountTotal[grade] += discountPrice;
+
+        if (event.shouldCommit()) {
+            event.memberId = memberId;
+            event.grade = member.getGrade().name();
+            event.itemName = itemName;
+            event.itemPrice = itemPrice;
+            event.discountPrice = discountPrice;
+            event.commit();
+        }
+        final Order order = new Order(memberId, itemName, itemPrice, discountPrice);
+        for (OrderListener orderListener : orderListeners) {
+            orderListener.onOrder(member, order);
+        }
+        return order;
+    }
+
+    void join(final Member member) {
+        memberRepository.save(member);
+        members.put(member.getId(), member);
+    }
+
+    // 파티션이 모르는 회원은 저장소에서 한 번 읽어 와서 이후로는 파티션이 가진다.
+    Member findMember(final Long memberId) {
+        Member member = members.get(memberId);
+        if (member == null) {
+            member = memberRepository.findById(memberId);
+            if (member != null) {
+                members.put(memberId, member);
+            }
+        }
+        return member;
+    }
+
+    // 저장소에서 바뀐 회원. 다음 조회 때 저장소에서 다시 읽는다.
+    void evict(final long memberId) {
+        members.remove(memberId);
+    }
+
+    void evictAll() {
+        members.clear();
+    }
+
+    int memberCount() {
+        return members.size();
+    }
+
+    private RejectedExecutionException rejected() {
+        return new RejectedExecutionException("partition " + index + " is closed");
+    }
+
+    GradeTotals[] totals() {
+        final Grade[] grades = Grade.values();
+        final GradeTotals[] totals = new GradeTotals[grades.length];
+        for (Grade grade : grades) {
+            final int i = grade.ordinal();
+            totals[i] = new GradeTotals(grade, orderCount[i], grossRevenue[i], discountTotal[i]);
+        }
+        return totals;
+    }
+
+    /**
+     * 파티션이 닫혀서 실행되지 못한 작업. 결과를 기다리는 쪽을 깨운다.
+     */
+    interface Rejectable {
+        void reject(RejectedExecutionException e);
+    }
+}
@@ -0,0 +1,41 @@
+package hello.core.partition;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import hello.core.annotation.MainDiscountPolicy;
+import hello.core.discount.DiscountPolicy;
+import hello.core.idempotency.IdempotencyIndex;
+import hello.core.item.ItemCatalog;
+import hello.core.member.MemberRepository;
+import hello.core.order.OrderListener;
+
+/**
+ * order.engine=partitioned 이면 파티션 엔진을 @Primary 로 등록해서, OrderService 와 MemberService 를 주입받는 곳이 모두 엔진을 쓰게 한다.
+ *
+ * order.partitions (기본값: CPU 수)
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.engine", havingValue = "partitioned")
+public class PartitionedOrderConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public PartitionedOrderEngine partitionedOrderEngine(final MemberRepository memberRepository,
+                                                         @MainDiscountPolicy final DiscountPolicy discountPolicy,
+                                                         final ObjectProvider<IdempotencyIndex> idempotencyIndex,
+                                                         final ObjectProvider<ItemCatalog> itemCatalog,
+                                                         final ObjectProvider<OrderListener> orderListeners,
+                                                         final Environment environment) {
+        final PartitionedOrderEngine engine = new PartitionedOrderEngine(memberRepository, discountPolicy,
+                environment.getProperty("order.partitions", Integer.class, Runtime.getRuntime().availableProcessors()),
+                orderListeners.orderedStream().toArray(OrderListener[]::new));
+        engine.setIdempotencyIndex(idempotencyIndex.getIfAvailable());
+        engine.setItemCatalog(itemCatalog.getIfAvailable());
+        return engine;
+    }
+}
@@ -0,0 +1,236 @@
+package hello.core.partition;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import hello.core.cdc.MemberChange;
+import hello.core.cdc.MemberChangeSubscriber;
+import hello.core.discount.DiscountPolicy;
+import hello.core.idempotency.IdempotencyIndex;
+import hello.core.item.ItemCatalog;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemberService;
+import hello.core.order.Order;
+import hello.core.order.OrderListener;
+import hello.core.order.OrderService;
+
+/**
+ * 회원 id 의 해시로 주문을 파티션에 보내는 OrderService. 파티션마다 스레드가 하나씩 있고,
+ * 그 스레드가 자기 회원 조각과 등급별 집계를 혼자 가지므로 주문 처리 경로에 락이나 CAS 가 없다.
+ * 여러 파티션에 걸친 조회({@link #memberCount()}, {@link #totals()})는 모든 파티션에 작업을 보내고 결과를 합친다.
+ *
+ * OrderListener 는 주문을 처리한 파티션 스레드에서 호출한다. 등급별 집계는 {@link #totals()} 로도 조회할 수 있다.
+ *
+ * 파티션은 회원을 한 번 읽어 오면 들고 있으므로, 엔진을 거치지 않고 저장소에 저장된 변경은 회원 변경 기록으로 받는다.
+ * 빈으로 등록하면 MemberChangeLog 가 구독시키고, 변경된 회원은 담당 파티션에서 지워서 다음 주문 때 저장소에서 다시 읽는다.
+ * 변경 기록이 전달되기 전의 주문은 이전 등급으로 계산될 수 있다.
+ */
+public class PartitionedOrderEngine implements OrderService, MemberService, MemberChangeSubscriber, AutoCloseable {
+
+    private final OrderPartition[] partitions;
+    private volatile boolean closed;
+    private IdempotencyIndex idempotencyIndex;
+    private ItemCatalog itemCatalog;
+
+    public PartitionedOrderEngine(final MemberRepository memberRepository, final DiscountPolicy discountPolicy, final int partitionCount) {
+        this(memberRepository, discountPolicy, partitionCount, new OrderListener[0]);
+    }
+
+    public PartitionedOrderEngine(final MemberRepository memberRepository, final DiscountPolicy discountPolicy, final int partitionCount,
+                                  final OrderListener[] orderListeners) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("partitionCount must be positive: " + partitionCount);
+        }
+        this.partitions = new OrderPartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new OrderPartition(i, memberRepository, discountPolicy, orderListeners);
+        }
+        for (Member member : memberRepository.findAll()) {
+            partitionOf(member.getId()).preload(member);
+        }
+        for (OrderPartition partition : partitions) {
+            partition.start();
+        }
+    }
+
+    @Override
+    public Order createOrder(final Long memberId, final String itemName, final int itemPrice) {
+        return await(submitOrder(memberId, itemName, itemPrice));
+    }
+
+    @Override
+    public Order createOrder(final Long memberId, final String itemName, final int itemPrice, final String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createOrder(memberId, itemName, itemPrice);
+        }
+        return IdempotencyIndex.require(idempotencyIndex).execute(idempotencyKey, () -> createOrder(memberId, itemName, itemPrice));
+    }
+
+    // 이름과 가격은 호출한 스레드에서 카탈로그로 찾고, 파티션에는 이름과 가격으로 넘긴다.
+    @Override
+    public Order createOrder(final Long memberId, final int itemId) {
+        final ItemCatalog catalog = ItemCatalog.require(itemCatalog);
+        return createOrder(memberId, catalog.getName(itemId), catalog.getPrice(itemId));
+    }
+
+    /**
+     * 주문을 담당 파티션에 넘기고 바로 돌아온다. 호출한 스레드는 결과를 기다리지 않고 다음 주문을 넘길 수 있다.
+     */
+    public CompletableFuture<Order> submitOrder(final Long memberId, final String itemName, final int itemPrice) {
+        return submit(partitionOf(memberId), partition -> partition.createOrder(memberId, itemName, itemPrice));
+    }
+
+    @Override
+    public void join(final Member member) {
+        await(submit(partitionOf(member.getId()), partition -> {
+            partition.join(member);
+            return null;
+        }));
+    }
+
+    @Override
+    public Member findMember(final Long memberId) {
+        return await(submit(partitionOf(memberId), partition -> partition.findMember(memberId)));
+    }
+
+    public int memberCount() {
+        int count = 0;
+        for (Integer partitionCount : fanOut(OrderPartition::memberCount)) {
+            count += partitionCount;
+        }
+        return count;
+    }
+
+    public Map<Grade, GradeTotals> totals() {
+        final Map<Grade, GradeTotals> merged = new EnumMap<>(Grade.class);
+        for (GradeTotals[] partitionTotals : fanOut(OrderPartition::totals)) {
+            for (GradeTotals totals : partitionTotals) {
+                merged.merge(totals.getGrade(), totals, GradeTotals::plus);
+            }
+        }
+        return merged;
+    }
+
+    // 선택적 의존관계. null 이면 멱등성 키를 준 주문은 실패한다.
+    public void setIdempotencyIndex(final IdempotencyIndex idempotencyIndex) {
+        this.idempotencyIndex = idempotencyIndex;
+    }
+
+    // 선택적 의존관계. null 이면 상품 id 로 주문할 수 없다.
+    public void setItemCatalog(final ItemCatalog itemCatalog) {
+        this.itemCatalog = itemCatalog;
+    }
+
+    @Override
+    public void onChanges(final List<MemberChange> changes) {
+        if (closed) {
+            return;
+        }
+        for (MemberChange change : changes) {
+            final long memberId = change.getMemberId();
+            final OrderPartition partition = partitionOf(memberId);
+            partition.execute(() -> partition.evict(memberId));
+        }
+    }
+
+    // 구독을 시작하기 전이나 놓친 변경은 알 수 없으므로 파티션이 가진 회원을 모두 버린다.
+    @Override
+    public void onSubscribe() {
+        evictAll();
+    }
+
+    @Override
+    public void onOverrun(final long missed) {
+        evictAll();
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        for (OrderPartition partition : partitions) {
+            partition.close();
+        }
+    }
+
+    private void evictAll() {
+        if (closed) {
+            return;
+        }
+        for (OrderPartition partition : partitions) {
+            partition.execute(partition::evictAll);
+        }
+    }
+
+    // 연속된 id 도 파티션에 고르게 퍼지도록 섞는다.
+    private OrderPartition partitionOf(final Long memberId) {
+        final long mixed = memberId * 0x9E3779B97F4A7C15L;
+        return partitions[(int) ((mixed >>> 32) % partitions.length)];
+    }
+
+    private <T> List<T> fanOut(final Function<OrderPartition, T> query) {
+        final List<CompletableFuture<T>> futures = new ArrayList<>(partitions.length);
+        for (OrderPartition partition : partitions) {
+            futures.add(submit(partition, query));
+        }
+        final List<T> results = new ArrayList<>(partitions.length);
+        for (CompletableFuture<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> CompletableFuture<T> submit(final OrderPartition partition, final Function<OrderPartition, T> work) {
+        final PartitionCall<T> call = new PartitionCall<>(partition, work);
+        partition.execute(call);
+        return call.future;
+    }
+
+    // 파티션에서 던진 예외를 CompletionException 으로 감싸지 않고 그대로 던진다.
+    private static <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class PartitionCall<T> implements Runnable, OrderPartition.Rejectable {
+        private final OrderPartition partition;
+        private final Function<OrderPartition, T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        PartitionCall(final OrderPartition partition, final Function<OrderPartition, T> work) {
+            this.partition = partition;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(work.apply(partition));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void reject(final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package hello.core.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 빈 하나의 생성 단계별 소요 시간(ns). 각 단계 값에는 그 단계 도중에 만들어진 의존 빈의 시간이 빠져 있다.
+ */
+public class BeanTiming {
+
+    static final int INSTANTIATION = 0;
+    static final int INJECTION = 1;
+    static final int INITIALIZATION = 2;
+    static final int PROXY = 3;
+    private static final int FINISHED = 4;
+
+    private final String beanName;
+    private final String beanType;
+    private final BeanTiming parent;
+    private final int parentPhase;
+    private final List<BeanTiming> dependencies = new ArrayList<>();
+
+    private final long[] phaseStart = new long[5];
+    private final long[] phaseElapsed = new long[5];
+    private final long[] dependencyElapsed = new long[5];
+    private final long startNanos;
+    private long endNanos;
+    private int phase = INSTANTIATION;
+
+    BeanTiming(final String beanName, final String beanType, final BeanTiming parent, final long startNanos) {
+        this.beanName = beanName;
+        this.beanType = beanType;
+        this.parent = parent;
+        this.parentPhase = parent == null ? INSTANTIATION : parent.phase;
+        this.startNanos = startNanos;
+        this.endNanos = startNanos;
+        this.phaseStart[INSTANTIATION] = startNanos;
+        if (parent != null) {
+            parent.dependencies.add(this);
+        }
+    }
+
+    void enter(final int nextPhase, final long now) {
+        phaseElapsed[phase] = now - phaseStart[phase];
+        phase = nextPhase;
+        phaseStart[nextPhase] = now;
+        reportToParent(now);
+    }
+
+    void finish(final long now) {
+        phaseElapsed[phase] = now - phaseStart[phase];
+        phase = FINISHED;
+        reportToParent(now);
+    }
+
+    boolean isIn(final int phase) {
+        return this.phase == phase;
+    }
+
+    // 부모 빈의 단계 시간에서 빼야 할 구간을, 아직 알리지 않은 만큼만 더해준다.
+    private void reportToParent(final long now) {
+        if (parent != null) {
+            parent.dependencyElapsed[parentPhase] += now - endNanos;
+        }
+        endNanos = now;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public String getBeanType() {
+        return beanType;
+    }
+
+    public BeanTiming getParent() {
+        return parent;
+    }
+
+    public List<BeanTiming> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    public long getTotalNanos() {
+        return endNanos - startNanos;
+    }
+
+    public long getInstantiationNanos() {
+        return selfNanos(INSTANTIATION);
+    }
+
+    public long getInjectionNanos() {
+        return selfNanos(INJECTION);
+    }
+
+    public long getInitializationNanos() {
+        return selfNanos(INITIALIZATION);
+    }
+
+    public long getProxyNanos() {
+        return selfNanos(PROXY);
+    }
+
+    public long getDependencyNanos() {
+        long total = 0;
+        for (long elapsed : dependencyElapsed) {
+            total += elapsed;
+        }
+        return total;
+    }
+
+    public long getSelfNanos() {
+        return getTotalNanos() - getDependencyNanos();
+    }
+
+    private long selfNanos(final int phase) {
+        return Math.max(0, phaseElapsed[phase] - dependencyElapsed[phase]);
+    }
+}
@@ -0,0 +1,250 @@
+package hello.core.profiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 컨테이너가 refresh 되는 동안 빈마다 생성자, 의존관계 주입, 초기화 콜백, 프록시 생성에 걸린 시간을 잰다.
+ *
+ * <pre>
+ * StartupProfiler profiler = new StartupProfiler();
+ * AnnotationConfigApplicationContext ac = profiler.annotationConfigApplicationContext(AppConfig.class);
+ * System.out.println(profiler.getReport());
+ * </pre>
+ *
+ * 스프링 부트에서는 --context.initializer.classes=hello.core.profiler.StartupProfiler 로 실행하면 refresh 가 끝날 때 리포트를 출력한다.
+ * refresh 는 한 스레드에서 진행되므로 생성 중인 빈은 스택 하나로 추적한다.
+ */
+public class StartupProfiler implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    private static final String INFRASTRUCTURE_PREFIX = StartupProfiler.class.getName();
+
+    private final Map<String, BeanTiming> timings = new LinkedHashMap<>();
+    private final Deque<BeanTiming> creating = new ArrayDeque<>();
+    private final List<String> enhancedConfigurations = new ArrayList<>();
+    private long definitionLoadingNanos;
+    private long definitionProcessingNanos;
+    private long configurationEnhancementNanos;
+    private long bfppStartNanos;
+    private long bfppParsedNanos;
+    private long startNanos;
+    private long totalNanos;
+    private volatile boolean recording;
+
+    public AnnotationConfigApplicationContext annotationConfigApplicationContext(final Class<?>... componentClasses) {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        initialize(ac);
+        final long start = System.nanoTime();
+        ac.register(componentClasses);
+        definitionLoadingNanos = System.nanoTime() - start;
+        ac.refresh();
+        return ac;
+    }
+
+    public GenericXmlApplicationContext genericXmlApplicationContext(final String... resourceLocations) {
+        final GenericXmlApplicationContext ac = new GenericXmlApplicationContext();
+        initialize(ac);
+        final long start = System.nanoTime();
+        ac.load(resourceLocations);
+        definitionLoadingNanos = System.nanoTime() - start;
+        ac.refresh();
+        return ac;
+    }
+
+    /**
+     * refresh 전에 호출해야 한다.
+     */
+    @Override
+    public void initialize(final GenericApplicationContext ac) {
+        recording = true;
+        startNanos = System.nanoTime();
+        ac.addBeanFactoryPostProcessor(new DefinitionPhaseStart());
+        ac.registerBeanDefinition(INFRASTRUCTURE_PREFIX + ".definitionPhaseEnd", infrastructure(DefinitionPhaseEnd.class, new DefinitionPhaseEnd()));
+        ac.getBeanFactory().addBeanPostProcessor(new EarlyProcessor());
+        ac.registerBeanDefinition(INFRASTRUCTURE_PREFIX + ".lateProcessor", infrastructure(LateProcessor.class, new LateProcessor()));
+        ac.addApplicationListener(event -> {
+            if (event instanceof ContextRefreshedEvent && recording) {
+                recording = false;
+                totalNanos = System.nanoTime() - startNanos;
+                collectEnhancedConfigurations(ac.getBeanFactory());
+                if (!(ac instanceof AnnotationConfigApplicationContext) && !(ac instanceof GenericXmlApplicationContext)) {
+                    System.out.println(getReport()); // 스프링 부트에서 initializer 로 등록한 경우
+                }
+            }
+        });
+    }
+
+    public StartupReport getReport() {
+        final List<BeanTiming> beans = new ArrayList<>();
+        for (BeanTiming timing : timings.values()) {
+            if (!timing.getBeanName().startsWith(INFRASTRUCTURE_PREFIX)) {
+                beans.add(timing);
+            }
+        }
+        return new StartupReport(beans, criticalPath(beans), enhancedConfigurations,
+                definitionLoadingNanos, definitionProcessingNanos, configurationEnhancementNanos, totalNanos);
+    }
+
+    // 가장 오래 걸린 최상위 빈에서 시작해서, 가장 오래 걸린 의존 빈을 따라 내려간다.
+    private List<BeanTiming> criticalPath(final List<BeanTiming> beans) {
+        BeanTiming current = null;
+        for (BeanTiming timing : beans) {
+            if (timing.getParent() == null && (current == null || timing.getTotalNanos() > current.getTotalNanos())) {
+                current = timing;
+            }
+        }
+        final List<BeanTiming> path = new ArrayList<>();
+        while (current != null) {
+            path.add(current);
+            BeanTiming slowest = null;
+            for (BeanTiming dependency : current.getDependencies()) {
+                if (slowest == null || dependency.getTotalNanos() > slowest.getTotalNanos()) {
+                    slowest = dependency;
+                }
+            }
+            current = slowest;
+        }
+        return path;
+    }
+
+    private void collectEnhancedConfigurations(final ConfigurableListableBeanFactory beanFactory) {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            final String beanClassName = beanFactory.getBeanDefinition(beanName).getBeanClassName();
+            if (beanClassName != null && beanClassName.contains(ClassUtils.CGLIB_CLASS_SEPARATOR)) {
+                enhancedConfigurations.add(beanName + " -> " + beanClassName);
+            }
+        }
+    }
+
+    private static <T> RootBeanDefinition infrastructure(final Class<T> type, final T instance) {
+        final RootBeanDefinition definition = new RootBeanDefinition(type, () -> instance);
+        definition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        return definition;
+    }
+
+    private BeanTiming timingOf(final String beanName) {
+        return recording ? timings.get(beanName) : null;
+    }
+
+    /**
+     * 컨텍스트에 직접 추가한 BeanFactoryPostProcessor 는 가장 먼저 실행된다.
+     * 설정 정보 파싱(컴포넌트 스캔, @Configuration 분석)이 끝나면 postProcessBeanFactory 가 불린다.
+     */
+    private class DefinitionPhaseStart implements BeanDefinitionRegistryPostProcessor {
+        @Override
+        public void postProcessBeanDefinitionRegistry(final BeanDefinitionRegistry registry) {
+            bfppStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) {
+            bfppParsedNanos = System.nanoTime();
+            definitionProcessingNanos = bfppParsedNanos - bfppStartNanos;
+        }
+    }
+
+    /**
+     * 빈으로 등록된 일반 BeanFactoryPostProcessor 는 @Configuration 클래스의 CGLIB 강화가 끝난 다음에 실행된다.
+     */
+    private class DefinitionPhaseEnd implements BeanFactoryPostProcessor, Ordered {
+        @Override
+        public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) {
+            configurationEnhancementNanos = System.nanoTime() - bfppParsedNanos;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+
+    /**
+     * refresh 전에 직접 추가하므로 모든 BeanPostProcessor 중 가장 앞에서 실행된다.
+     */
+    private class EarlyProcessor implements InstantiationAwareBeanPostProcessor {
+        @Override
+        public Object postProcessBeforeInstantiation(final Class<?> beanClass, final String beanName) {
+            if (recording) {
+                final BeanTiming timing = new BeanTiming(beanName, beanClass.getName(), creating.peek(), System.nanoTime());
+                timings.put(beanName, timing);
+                creating.push(timing);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean postProcessAfterInstantiation(final Object bean, final String beanName) {
+            final BeanTiming timing = timingOf(beanName);
+            if (timing != null) {
+                timing.enter(BeanTiming.INJECTION, System.nanoTime());
+            }
+            return true;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) throws BeansException {
+            final BeanTiming timing = timingOf(beanName);
+            if (timing != null) {
+                timing.enter(BeanTiming.INITIALIZATION, System.nanoTime());
+            }
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException {
+            final BeanTiming timing = timingOf(beanName);
+            if (timing != null && timing.isIn(BeanTiming.INITIALIZATION)) { // FactoryBean 이 만든 객체에 대한 호출은 무시
+                timing.enter(BeanTiming.PROXY, System.nanoTime());
+                while (!creating.isEmpty() && creating.pop() != timing) {
+                    // 생성에 실패해서 끝을 알리지 못한 빈은 버린다.
+                }
+            }
+            return bean;
+        }
+    }
+
+    /**
+     * MergedBeanDefinitionPostProcessor 는 등록 마지막에 다시 정렬되므로,
+     * LOWEST_PRECEDENCE 를 주면 @PostConstruct, @Autowired 처리기와 프록시 생성기보다 뒤에서 실행된다.
+     */
+    private class LateProcessor implements MergedBeanDefinitionPostProcessor, Ordered {
+        @Override
+        public void postProcessMergedBeanDefinition(final RootBeanDefinition beanDefinition, final Class<?> beanType, final String beanName) {
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException {
+            final BeanTiming timing = timingOf(beanName);
+            if (timing != null && timing.isIn(BeanTiming.PROXY)) {
+                timing.finish(System.nanoTime());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
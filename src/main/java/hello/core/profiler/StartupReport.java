@@ -0,0 +1,99 @@
+package hello.core.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class StartupReport {
+
+    private final List<BeanTiming> beans;
+    private final List<BeanTiming> criticalPath;
+    private final List<String> enhancedConfigurations;
+    private final long definitionLoadingNanos;
+    private final long definitionProcessingNanos;
+    private final long configurationEnhancementNanos;
+    private final long totalNanos;
+
+    StartupReport(final List<BeanTiming> beans, final List<BeanTiming> criticalPath, final List<String> enhancedConfigurations,
+                  final long definitionLoadingNanos, final long definitionProcessingNanos,
+                  final long configurationEnhancementNanos, final long totalNanos) {
+        final List<BeanTiming> sorted = new ArrayList<>(beans);
+        sorted.sort(Comparator.comparingLong(BeanTiming::getSelfNanos).reversed());
+        this.beans = Collections.unmodifiableList(sorted);
+        this.criticalPath = Collections.unmodifiableList(criticalPath);
+        this.enhancedConfigurations = Collections.unmodifiableList(new ArrayList<>(enhancedConfigurations));
+        this.definitionLoadingNanos = definitionLoadingNanos;
+        this.definitionProcessingNanos = definitionProcessingNanos;
+        this.configurationEnhancementNanos = configurationEnhancementNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * @return 자기 자신에게 걸린 시간(의존 빈 생성 시간 제외)이 긴 순서
+     */
+    public List<BeanTiming> getBeans() {
+        return beans;
+    }
+
+    public BeanTiming getBean(final String beanName) {
+        for (BeanTiming bean : beans) {
+            if (bean.getBeanName().equals(beanName)) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    public List<BeanTiming> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public List<String> getEnhancedConfigurations() {
+        return enhancedConfigurations;
+    }
+
+    public long getDefinitionLoadingNanos() {
+        return definitionLoadingNanos;
+    }
+
+    public long getDefinitionProcessingNanos() {
+        return definitionProcessingNanos;
+    }
+
+    public long getConfigurationEnhancementNanos() {
+        return configurationEnhancementNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("startup total %.3fms (definition loading %.3fms, definition processing %.3fms, configuration enhancement %.3fms)%n",
+                millis(totalNanos), millis(definitionLoadingNanos), millis(definitionProcessingNanos), millis(configurationEnhancementNanos)));
+        sb.append(String.format("%-40s %10s %10s %10s %10s %10s %10s %10s%n",
+                "bean", "total", "self", "construct", "inject", "init", "proxy", "deps"));
+        for (BeanTiming bean : beans) {
+            sb.append(String.format("%-40s %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    bean.getBeanName(), millis(bean.getTotalNanos()), millis(bean.getSelfNanos()),
+                    millis(bean.getInstantiationNanos()), millis(bean.getInjectionNanos()),
+                    millis(bean.getInitializationNanos()), millis(bean.getProxyNanos()), millis(bean.getDependencyNanos())));
+        }
+        sb.append("critical path:");
+        for (BeanTiming bean : criticalPath) {
+            sb.append(String.format(" -> %s(%.3fms)", bean.getBeanName(), millis(bean.getTotalNanos())));
+        }
+        sb.append(System.lineSeparator());
+        for (String enhanced : enhancedConfigurations) {
+            sb.append("enhanced configuration: ").append(enhanced).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
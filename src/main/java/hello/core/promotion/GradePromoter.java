@@ -0,0 +1,205 @@
+package hello.core.promotion;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderListener;
+
+/**
+ * 주문이 만들어질 때마다 회원의 누적 구매액(결제 금액)을 더하고, 기준을 넘는 순간 BASIC 회원을 VIP 로 올린다.
+ * 누적 구매액은 반감기마다 절반으로 줄어드므로 최근에 많이 산 회원만 기준을 넘는다.
+ * 기준과 비교할 때는 누적 구매액을 원 단위로 반올림한다. 주문 사이 몇 초 동안 줄어든 1원 미만의 금액 때문에 기준에 딱 맞춘 주문이 떨어지지 않는다.
+ *
+ * 주문 스레드에서 바로 계산하므로 올린 다음 주문부터 할인 정책이 VIP 로 본다.
+ * 회원 id 로 나눈 줄(stripe)마다 잠금을 따로 잡으므로, 서로 다른 회원의 주문은 거의 경합하지 않는다.
+ * 등급을 올릴 때는 그 줄의 잠금을 잡고 저장소에서 회원을 다시 읽어서, 아직 BASIC 이면 그 회원의 VIP 복사본을 저장한다.
+ * 주문에 딸려 온 회원 객체는 오래된 것일 수 있으므로, 그 사이의 이름 변경을 덮어쓰거나 같은 회원을 두 번 올리지 않는다.
+ */
+public class GradePromoter implements OrderListener {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int LEAF_ORDERS = 1 << 16;
+
+    private final MemberRepository memberRepository;
+    private final long threshold;
+    private final double decayPerMilli;
+    private final LongSupplier clock;
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final LongAdder promotions = new LongAdder();
+
+    /**
+     * @param halfLife 0 이면 줄어들지 않는다.
+     */
+    public GradePromoter(final MemberRepository memberRepository, final long threshold, final Duration halfLife) {
+        this(memberRepository, threshold, halfLife, System::currentTimeMillis);
+    }
+
+    GradePromoter(final MemberRepository memberRepository, final long threshold, final Duration halfLife, final LongSupplier clock) {
+        this.memberRepository = memberRepository;
+        this.threshold = threshold;
+        this.decayPerMilli = halfLife.isZero() ? 0 : Math.log(2) / halfLife.toMillis();
+        this.clock = clock;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void onOrder(final Member member, final Order order) {
+        if (member == null) {
+            return;
+        }
+        final long memberId = member.getId();
+        final long now = clock.getAsLong();
+        final Stripe stripe = stripeOf(memberId);
+        final double spend;
+        synchronized (stripe) {
+            spend = stripe.table.add(memberId, order.calculatePrice(), now, decayPerMilli);
+        }
+        if (reached(spend) && member.getGrade() == Grade.BASIC) {
+            promote(memberId);
+        }
+    }
+
+    /**
+     * @return 지금 시각으로 줄인 누적 구매액
+     */
+    public double getSpend(final long memberId) {
+        final Stripe stripe = stripeOf(memberId);
+        synchronized (stripe) {
+            return stripe.table.get(memberId, clock.getAsLong(), decayPerMilli);
+        }
+    }
+
+    public long getPromotions() {
+        return promotions.sum();
+    }
+
+    public int getTrackedMembers() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.table.size();
+            }
+        }
+        return size;
+    }
+
+    public int rebuild(final long[] memberIds, final long[] amounts, final long[] timestampsMillis) {
+        return rebuild(memberIds, amounts, timestampsMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 지난 주문 기록으로 누적 구매액을 처음부터 다시 만들고, 기준을 넘는 BASIC 회원을 올린다. 트래픽을 받기 전에 부른다.
+     * 주문 기록을 구간으로 나눠 fork-join 으로 구간마다 표를 만들고, 작은 표를 큰 표에 합친다.
+     * 주문마다 지금 시각까지 줄인 금액을 더하므로 합치는 순서와 상관없이 결과가 같다.
+     *
+     * @param timestampsMillis 주문 시각 (epoch millis)
+     * @return 올린 회원 수
+     */
+    public int rebuild(final long[] memberIds, final long[] amounts, final long[] timestampsMillis, final ForkJoinPool pool) {
+        if (memberIds.length != amounts.length || memberIds.length != timestampsMillis.length) {
+            throw new IllegalArgumentException("order history columns must have the same length");
+        }
+        final long now = clock.getAsLong();
+        final SpendTable merged = pool.invoke(new RebuildTask(memberIds, amounts, timestampsMillis, 0, memberIds.length, now));
+
+        final SpendTable[] tables = new SpendTable[stripes.length];
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new SpendTable(merged.size() / stripes.length);
+        }
+        merged.forEach((memberId, spend, updatedMillis) -> {
+            if (spend >= SpendTable.MIN_SPEND) { // 1원 미만으로 줄어든 회원은 들고 있지 않는다.
+                tables[stripeIndex(memberId)].add(memberId, spend, updatedMillis, decayPerMilli);
+            }
+        });
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                stripes[i].table = tables[i];
+            }
+        }
+
+        final int before = (int) promotions.sum();
+        merged.forEach((memberId, spend, updatedMillis) -> {
+            if (reached(spend)) {
+                promote(memberId);
+            }
+        });
+        return (int) promotions.sum() - before;
+    }
+
+    private boolean reached(final double spend) {
+        return Math.round(spend) >= threshold;
+    }
+
+    // 저장소를 다시 읽어서 올린다. 같은 회원을 올리는 주문끼리는 줄의 잠금으로 줄을 세운다.
+    private void promote(final long memberId) {
+        synchronized (stripeOf(memberId)) {
+            final Member current = memberRepository.findById(memberId);
+            if (current == null || current.getGrade() != Grade.BASIC) {
+                return;
+            }
+            memberRepository.save(new Member(memberId, current.getName(), Grade.VIP));
+            promotions.increment();
+        }
+    }
+
+    private Stripe stripeOf(final long memberId) {
+        return stripes[stripeIndex(memberId)];
+    }
+
+    // 줄 안의 해시 표는 아래 비트를 쓰므로 줄은 위 비트로 고른다.
+    private static int stripeIndex(final long memberId) {
+        return SpendTable.mix(memberId) >>> (32 - STRIPE_BITS);
+    }
+
+    private static final class Stripe {
+        private SpendTable table = new SpendTable(1024);
+    }
+
+    private final class RebuildTask extends RecursiveTask<SpendTable> {
+        private final long[] memberIds;
+        private final long[] amounts;
+        private final long[] timestampsMillis;
+        private final int from;
+        private final int to;
+        private final long now;
+
+        RebuildTask(final long[] memberIds, final long[] amounts, final long[] timestampsMillis, final int from, final int to, final long now) {
+            this.memberIds = memberIds;
+            this.amounts = amounts;
+            this.timestampsMillis = timestampsMillis;
+            this.from = from;
+            this.to = to;
+            this.now = now;
+        }
+
+        @Override
+        protected SpendTable compute() {
+            if (to - from <= LEAF_ORDERS) {
+                final SpendTable table = new SpendTable(to - from);
+                for (int i = from; i < to; i++) {
+                    final double amount = SpendTable.decay(amounts[i], Math.max(0, now - timestampsMillis[i]), decayPerMilli);
+                    table.add(memberIds[i], amount, now, decayPerMilli);
+                }
+                return table;
+            }
+            final int middle = (from + to) >>> 1;
+            final RebuildTask left = new RebuildTask(memberIds, amounts, timestampsMillis, from, middle, now);
+            left.fork();
+            final SpendTable right = new RebuildTask(memberIds, amounts, timestampsMillis, middle, to, now).compute();
+            final SpendTable leftTable = left.join();
+            final SpendTable larger = leftTable.size() >= right.size() ? leftTable : right;
+            final SpendTable smaller = larger == leftTable ? right : leftTable;
+            smaller.forEach((memberId, spend, updatedMillis) -> larger.add(memberId, spend, updatedMillis, decayPerMilli));
+            return larger;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package hello.core.promotion;
+
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import hello.core.member.MemberRepository;
+
+/**
+ * member.promotion.enabled=true 이면 주문마다 누적 구매액을 계산해서 기준을 넘은 BASIC 회원을 VIP 로 올린다.
+ * OrderListener 빈이므로 OrderService(OrderServiceImpl, PartitionedOrderEngine)가 주문마다 호출한다.
+ *
+ * member.promotion.threshold (기본값: 1000000), member.promotion.half-life-days (기본값: 30, 0 이면 줄어들지 않는다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.promotion.enabled", havingValue = "true")
+public class GradePromotionConfig {
+
+    @Bean
+    public GradePromoter gradePromoter(final MemberRepository memberRepository, final Environment environment) {
+        return new GradePromoter(memberRepository,
+                environment.getProperty("member.promotion.threshold", Long.class, 1_000_000L),
+                Duration.ofDays(environment.getProperty("member.promotion.half-life-days", Long.class, 30L)));
+    }
+}
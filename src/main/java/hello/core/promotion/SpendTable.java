@@ -0,0 +1,128 @@
+package hello.core.promotion;
+
+import java.util.Arrays;
+
+/**
+ * 회원 id -> 감쇠된 누적 구매액. 박싱 없이 배열 세 개로 된 열린 주소 해시 표다.
+ * 누적 구매액은 마지막으로 갱신한 시각의 값으로 들고 있다가, 읽거나 더할 때 지난 시간만큼 줄여서 쓴다.
+ * 표를 늘려야 할 때 마지막 갱신 뒤로 줄어서 1원 미만이 된 회원을 먼저 빼고, 남은 회원으로 충분하면 크기를 그대로 둔다. 빠진 회원은 0원으로 읽힌다.
+ * 방금 더한 금액은 1원 미만이어도 빼지 않으므로, 같은 시각으로 더하는 재구성은 합치는 순서와 상관없이 결과가 같다.
+ * 스레드 안전하지 않다. 쓰는 쪽이 잠금을 잡는다.
+ */
+final class SpendTable {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    static final double MIN_SPEND = 1;
+
+    private long[] keys;
+    private double[] spends;
+    private long[] updatedMillis;
+    private int size;
+
+    SpendTable(final int expected) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1));
+    }
+
+    /**
+     * @return 더한 다음의 누적 구매액
+     */
+    double add(final long memberId, final double amount, final long nowMillis, final double decayPerMilli) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(nowMillis, decayPerMilli);
+        }
+        final int mask = keys.length - 1;
+        for (int i = mix(memberId) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = memberId;
+                spends[i] = amount;
+                updatedMillis[i] = nowMillis;
+                size++;
+                return amount;
+            }
+            if (keys[i] == memberId) {
+                if (nowMillis >= updatedMillis[i]) {
+                    spends[i] = decay(spends[i], nowMillis - updatedMillis[i], decayPerMilli) + amount;
+                    updatedMillis[i] = nowMillis;
+                } else { // 다른 스레드가 더 늦은 시각으로 먼저 더했다. 이 주문을 그 시각 기준으로 줄여서 더한다.
+                    spends[i] += decay(amount, updatedMillis[i] - nowMillis, decayPerMilli);
+                }
+                return spends[i];
+            }
+        }
+    }
+
+    double get(final long memberId, final long nowMillis, final double decayPerMilli) {
+        final int mask = keys.length - 1;
+        for (int i = mix(memberId) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == memberId) {
+                return decay(spends[i], Math.max(0, nowMillis - updatedMillis[i]), decayPerMilli);
+            }
+        }
+        return 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(final SpendConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], spends[i], updatedMillis[i]);
+            }
+        }
+    }
+
+    interface SpendConsumer {
+        void accept(long memberId, double spend, long updatedMillis);
+    }
+
+    /**
+     * @return elapsedMillis 가 지난 뒤의 값. 반감기마다 절반이 된다.
+     */
+    static double decay(final double spend, final long elapsedMillis, final double decayPerMilli) {
+        return elapsedMillis == 0 || decayPerMilli == 0 ? spend : spend * Math.exp(-decayPerMilli * elapsedMillis);
+    }
+
+    // 남은 회원이 1/4 을 넘을 때만 늘려서, 다음 resize 까지 적어도 1/4 만큼 더 넣을 수 있게 한다.
+    private void resize(final long nowMillis, final double decayPerMilli) {
+        final long[] oldKeys = keys;
+        final double[] oldSpends = spends;
+        final long[] oldUpdated = updatedMillis;
+        final boolean[] live = new boolean[oldKeys.length];
+        int liveCount = 0;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY && (oldUpdated[j] >= nowMillis || decay(oldSpends[j], nowMillis - oldUpdated[j], decayPerMilli) >= MIN_SPEND)) {
+                live[j] = true;
+                liveCount++;
+            }
+        }
+        allocate(liveCount * 4 > oldKeys.length ? oldKeys.length * 2 : oldKeys.length);
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (live[j]) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                spends[i] = oldSpends[j];
+                updatedMillis[i] = oldUpdated[j];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        spends = new double[capacity];
+        updatedMillis = new long[capacity];
+        size = 0;
+    }
+
+    static int mix(final long memberId) {
+        final long h = memberId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,30 @@
+package hello.core.reactive;
+
+import java.time.Duration;
+
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * LogDemoController 의 리액티브 버전. Thread.sleep 대신 Mono.delay 로 기다리므로 기다리는 동안 스레드를 붙잡지 않는다.
+ */
+public class LogDemoHandler {
+
+    public Mono<ServerResponse> logDemo(final ServerRequest request) {
+        final long delayMs = request.queryParam("delayMs").map(Long::parseLong).orElse(10000L);
+        return RequestLog.current()
+                         .doOnNext(requestLog -> requestLog.log("controller test"))
+                         .then(Mono.delay(Duration.ofMillis(delayMs)))
+                         .then(logic("testId"))
+                         .then(ServerResponse.ok().bodyValue("OK"));
+    }
+
+    // LogDemoService.logic 에 해당. 파라미터로 넘기지 않아도 같은 요청의 RequestLog 를 쓴다.
+    private Mono<Void> logic(final String id) {
+        return RequestLog.current()
+                         .doOnNext(requestLog -> requestLog.log("service id = " + id))
+                         .then();
+    }
+}
@@ -0,0 +1,66 @@
+package hello.core.reactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.order.OrderService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import reactor.core.publisher.Mono;
+
+/**
+ * 회원, 주문 저장소가 메모리에 있어서 막히는 일이 없으므로, 별도 스케줄러로 넘기지 않고 이벤트 루프에서 바로 호출한다.
+ */
+@RequiredArgsConstructor
+public class MemberOrderHandler {
+    private final MemberService memberService;
+    private final OrderService orderService;
+
+    public Mono<ServerResponse> findMember(final ServerRequest request) {
+        final Long memberId = Long.valueOf(request.pathVariable("memberId"));
+        return Mono.fromCallable(() -> memberService.findMember(memberId))
+                   .flatMap(member -> ServerResponse.ok().bodyValue(member))
+                   .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> join(final ServerRequest request) {
+        return request.bodyToMono(MemberForm.class)
+                      .map(form -> new Member(form.getId(), form.getName(), form.getGrade()))
+                      .doOnNext(memberService::join)
+                      .flatMap(member -> ServerResponse.ok().bodyValue(member));
+    }
+
+    public Mono<ServerResponse> createOrder(final ServerRequest request) {
+        return request.bodyToMono(OrderForm.class)
+                      .map(form -> {
+                          if (memberService.findMember(form.getMemberId()) == null) {
+                              throw new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found: " + form.getMemberId());
+                          }
+                          return orderService.createOrder(form.getMemberId(), form.getItemName(), form.getItemPrice(), form.getIdempotencyKey());
+                      })
+                      .flatMap(order -> ServerResponse.ok().bodyValue(order));
+    }
+
+    @Getter
+    @Setter
+    static class MemberForm {
+        private Long id;
+        private String name;
+        private Grade grade;
+    }
+
+    @Getter
+    @Setter
+    static class OrderForm {
+        private Long memberId;
+        private String itemName;
+        private int itemPrice;
+        private String idempotencyKey;
+    }
+}
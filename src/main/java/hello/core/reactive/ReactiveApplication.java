@@ -0,0 +1,23 @@
+package hello.core.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+import hello.core.AppConfig;
+
+/**
+ * 네티 위에서 리액티브로 뜨는 애플리케이션. 컴포넌트 스캔 없이 AppConfig 의 회원/주문 빈과 리액티브 웹 설정만 쓴다.
+ * (@Configuration 이 아니므로 CoreApplication 의 컴포넌트 스캔에 걸리지 않는다.)
+ */
+@EnableAutoConfiguration
+@Import({AppConfig.class, ReactiveWebConfig.class})
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,44 @@
+package hello.core.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import hello.core.member.MemberService;
+import hello.core.order.OrderService;
+
+/**
+ * hello.core.web 의 리액티브 버전. CoreApplication 의 컴포넌트 스캔에도 걸리지만, 서블릿으로 뜰 때는 등록되지 않는다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    // 톰캣도 클래스패스에 있으면 스프링 부트는 리액티브 서버로도 톰캣을 고르므로, 네티를 직접 지정한다.
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RequestLogWebFilter requestLogWebFilter() {
+        return new RequestLogWebFilter();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> routes(final MemberService memberService, final OrderService orderService) {
+        final LogDemoHandler logDemoHandler = new LogDemoHandler();
+        final MemberOrderHandler memberOrderHandler = new MemberOrderHandler(memberService, orderService);
+        return RouterFunctions.route(GET("/log-demo"), logDemoHandler::logDemo)
+                              .andRoute(GET("/members/{memberId}"), memberOrderHandler::findMember)
+                              .andRoute(POST("/members"), memberOrderHandler::join)
+                              .andRoute(POST("/orders"), memberOrderHandler::createOrder);
+    }
+}
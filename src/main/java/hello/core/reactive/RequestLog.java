@@ -0,0 +1,48 @@
+package hello.core.reactive;
+
+import java.util.UUID;
+
+import hello.core.jfr.RequestScopeEvent;
+import reactor.core.publisher.Mono;
+
+/**
+ * MyLogger 의 리액티브 버전. 요청 스코프 프록시 대신 Reactor Context 에 실려서 요청을 처리하는 체인을 따라간다.
+ * 요청 하나를 처리하는 동안 스레드가 여러 번 바뀌어도 같은 인스턴스가 보인다.
+ */
+public class RequestLog {
+    private final String uuid = UUID.randomUUID().toString();
+    private final String requestURL;
+    private final RequestScopeEvent requestEvent = new RequestScopeEvent();
+
+    public RequestLog(final String requestURL) {
+        this.requestURL = requestURL;
+        requestEvent.begin();
+    }
+
+    /**
+     * 지금 처리 중인 요청의 RequestLog. RequestLogWebFilter 를 거치지 않은 체인에서는 비어 있다.
+     */
+    public static Mono<RequestLog> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<RequestLog>getOrEmpty(RequestLog.class)));
+    }
+
+    public void log(final String message) {
+        System.out.println("[" + uuid + "][" + requestURL + "]" + message);
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getRequestURL() {
+        return requestURL;
+    }
+
+    void close() {
+        if (requestEvent.shouldCommit()) {
+            requestEvent.uuid = uuid;
+            requestEvent.requestURL = requestURL;
+            requestEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package hello.core.reactive;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 요청마다 RequestLog 를 만들어 Context 에 넣고, 응답이 끝나면 닫는다. (요청 스코프 빈의 생성/소멸에 해당)
+ */
+public class RequestLogWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        final RequestLog requestLog = new RequestLog(exchange.getRequest().getURI().toString());
+        return chain.filter(exchange)
+                    .doFinally(signal -> requestLog.close())
+                    .contextWrite(context -> context.put(RequestLog.class, requestLog));
+    }
+}
@@ -0,0 +1,72 @@
+package hello.core.scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 크기가 고정된 lock-free 객체 풀. 슬롯 배열을 CAS 로 비우고 채운다.
+ * 스레드마다 다른 위치에서 탐색을 시작해서 같은 슬롯을 두고 경합하는 일을 줄인다.
+ */
+public class BoundedObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+
+    public BoundedObjectPool(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return 풀이 비어 있으면 null
+     */
+    public T poll() {
+        final int length = slots.length();
+        final int start = startIndex(length);
+        for (int i = 0; i < length; i++) {
+            final int index = (start + i) % length;
+            final T item = slots.get(index);
+            if (item != null && slots.compareAndSet(index, item, null)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 풀이 가득 차서 넣지 못했으면 false
+     */
+    public boolean offer(final T item) {
+        final int length = slots.length();
+        final int start = startIndex(length);
+        for (int i = 0; i < length; i++) {
+            final int index = (start + i) % length;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<T> drain() {
+        final List<T> drained = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            final T item = slots.getAndSet(i, null);
+            if (item != null) {
+                drained.add(item);
+            }
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private static int startIndex(final int length) {
+        final long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33) % length;
+    }
+}
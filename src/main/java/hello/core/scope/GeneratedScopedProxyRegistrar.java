@@ -0,0 +1,72 @@
+package hello.core.scope;
+
+import java.lang.reflect.Constructor;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.aop.scope.ScopedProxyUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+import hello.core.annotation.GeneratedScopedProxy;
+
+/**
+ * {@code @GeneratedScopedProxy} 가 붙은 빈을 "scopedTarget.빈이름" 으로 옮기고,
+ * 원래 이름에는 컴파일 시점에 생성된 {@code _ScopedProxy} 싱글톤을 등록한다.
+ * 프록시는 완성된 객체로 등록하므로 @PostConstruct, @PreDestroy 와 빈 후처리기가 프록시에는 적용되지 않는다.
+ */
+@Component
+public class GeneratedScopedProxyRegistrar implements BeanDefinitionRegistryPostProcessor {
+
+    static final String PROXY_SUFFIX = "_ScopedProxy";
+
+    private final Map<String, Class<?>> proxyClasses = new LinkedHashMap<>();
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(final BeanDefinitionRegistry registry) throws BeansException {
+        for (String beanName : registry.getBeanDefinitionNames()) {
+            final BeanDefinition definition = registry.getBeanDefinition(beanName);
+            if (!(definition instanceof AnnotatedBeanDefinition)
+                    || !((AnnotatedBeanDefinition) definition).getMetadata().hasAnnotation(GeneratedScopedProxy.class.getName())) {
+                continue;
+            }
+            if (!WebApplicationContext.SCOPE_REQUEST.equals(definition.getScope())) {
+                throw new IllegalStateException("@GeneratedScopedProxy requires request scope: " + beanName);
+            }
+            final String proxyClassName = definition.getBeanClassName() + PROXY_SUFFIX;
+            final ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+            if (!ClassUtils.isPresent(proxyClassName, classLoader)) {
+                throw new IllegalStateException("generated scoped proxy not found (annotation processor not run?): " + proxyClassName);
+            }
+            final String targetBeanName = ScopedProxyUtils.getTargetBeanName(beanName);
+            if (definition instanceof AbstractBeanDefinition) {
+                ((AbstractBeanDefinition) definition).setPrimary(false);
+            }
+            definition.setAutowireCandidate(false); // 주입은 프록시로만 받는다.
+            registry.removeBeanDefinition(beanName);
+            registry.registerBeanDefinition(targetBeanName, definition);
+            proxyClasses.put(beanName, ClassUtils.resolveClassName(proxyClassName, classLoader));
+        }
+    }
+
+    @Override
+    public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        proxyClasses.forEach((beanName, proxyClass) -> {
+            final Constructor<?> constructor = ClassUtils.getConstructorIfAvailable(proxyClass, RequestScopedTarget.class);
+            if (constructor == null) {
+                throw new IllegalStateException("not a generated scoped proxy: " + proxyClass.getName());
+            }
+            final RequestScopedTarget<?> target = new RequestScopedTarget<>(beanFactory, ScopedProxyUtils.getTargetBeanName(beanName));
+            beanFactory.registerSingleton(beanName, BeanUtils.instantiateClass(constructor, target));
+        });
+    }
+}
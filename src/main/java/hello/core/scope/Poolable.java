@@ -0,0 +1,8 @@
+package hello.core.scope;
+
+/**
+ * pooled 스코프 빈이 풀로 돌아가기 전에 호출된다. 이전 사용자가 남긴 상태를 지워야 한다.
+ */
+public interface Poolable {
+    void reset();
+}
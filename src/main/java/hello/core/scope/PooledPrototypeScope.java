@@ -0,0 +1,195 @@
+package hello.core.scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.Scope;
+
+/**
+ * 프로토타입처럼 조회할 때마다 다른 인스턴스를 주지만, 미리 만들어 둔 인스턴스를 풀에서 꺼내준다.
+ * 다 쓴 빈은 {@link #release(Object)} 로 돌려주고, 돌려줄 때 {@link Poolable#reset()} 이 호출된다.
+ * 프로토타입 빈과 달리 컨테이너가 종료될 때 풀이 만든 모든 인스턴스의 @PreDestroy 가 호출된다.
+ *
+ * <pre>
+ * &#64;Bean
+ * public static PooledPrototypeScope pooledPrototypeScope() {
+ *     return new PooledPrototypeScope(16);
+ * }
+ * </pre>
+ */
+public class PooledPrototypeScope implements Scope, BeanFactoryPostProcessor, SmartInitializingSingleton, DisposableBean {
+
+    public static final String SCOPE_NAME = "pooled";
+
+    private final int capacity;
+    private final ConcurrentMap<String, BeanPool> pools = new ConcurrentHashMap<>();
+    private final ThreadLocal<Runnable> pendingDestructionCallback = new ThreadLocal<>();
+    // 풀이 만든 인스턴스 -> 속한 풀과 소멸 콜백. 같은 클래스의 빈 정의가 여럿이어도 인스턴스로 구분한다.
+    // 돌려줄 때마다 조회하므로 전역 잠금 없이 찾도록 equals 를 고친 빈도 동일성으로 비교하는 키를 쓴다.
+    private final ConcurrentMap<IdentityKey, PooledInstance> pooledInstances = new ConcurrentHashMap<>();
+    private ConfigurableListableBeanFactory beanFactory;
+
+    public PooledPrototypeScope(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+        beanFactory.registerScope(SCOPE_NAME, this);
+    }
+
+    // 싱글톤이 모두 만들어진 다음, pooled 스코프 빈마다 풀을 미리 채워둔다.
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            if (SCOPE_NAME.equals(beanFactory.getMergedBeanDefinition(beanName).getScope())) {
+                release(beanFactory.getBean(beanName)); // 첫 조회로 풀이 만들어진다.
+                pools.get(beanName).fill();
+            }
+        }
+    }
+
+    @Override
+    public Object get(final String name, final ObjectFactory<?> objectFactory) {
+        BeanPool pool = pools.get(name);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(name, key -> new BeanPool(objectFactory));
+        }
+        final Object pooled = pool.instances.poll();
+        return pooled != null ? pooled : pool.create();
+    }
+
+    /**
+     * 풀로 돌려준다. 풀이 가득 찼으면 그 자리에서 소멸 콜백을 호출하고 버린다.
+     */
+    public void release(final Object bean) {
+        final PooledInstance instance = pooledInstances.get(new IdentityKey(bean));
+        if (instance == null) {
+            throw new IllegalArgumentException("not a pooled bean: " + bean);
+        }
+        if (bean instanceof Poolable) {
+            ((Poolable) bean).reset();
+        }
+        if (!instance.pool.instances.offer(bean)) {
+            destroyInstance(bean);
+        }
+    }
+
+    @Override
+    public void registerDestructionCallback(final String name, final Runnable callback) {
+        // ObjectFactory.getObject() 안에서 불리므로, 지금 만들고 있는 인스턴스의 콜백이다.
+        pendingDestructionCallback.set(callback);
+    }
+
+    @Override
+    public Object remove(final String name) {
+        final BeanPool pool = pools.remove(name);
+        if (pool != null) {
+            pool.instances.drain().forEach(this::destroyInstance);
+        }
+        return null;
+    }
+
+    @Override
+    public Object resolveContextualObject(final String key) {
+        return null;
+    }
+
+    @Override
+    public String getConversationId() {
+        return null;
+    }
+
+    // 풀에 남아 있는 인스턴스뿐 아니라, 빌려가고 돌려주지 않은 인스턴스의 소멸 콜백까지 호출한다.
+    @Override
+    public void destroy() {
+        final List<PooledInstance> created = new ArrayList<>(pooledInstances.size());
+        for (IdentityKey key : pooledInstances.keySet()) {
+            final PooledInstance instance = pooledInstances.remove(key);
+            if (instance != null) {
+                created.add(instance);
+            }
+        }
+        pools.values().forEach(pool -> pool.instances.drain());
+        created.forEach(PooledInstance::destroy);
+    }
+
+    private void destroyInstance(final Object bean) {
+        final PooledInstance instance = pooledInstances.remove(new IdentityKey(bean));
+        if (instance != null) {
+            instance.destroy();
+        }
+    }
+
+    private static final class IdentityKey {
+        private final Object bean;
+
+        IdentityKey(final Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).bean == bean;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(bean);
+        }
+    }
+
+    private static final class PooledInstance {
+        private final BeanPool pool;
+        private final Runnable destructionCallback;
+
+        PooledInstance(final BeanPool pool, final Runnable destructionCallback) {
+            this.pool = pool;
+            this.destructionCallback = destructionCallback;
+        }
+
+        void destroy() {
+            if (destructionCallback != null) {
+                destructionCallback.run();
+            }
+        }
+    }
+
+    private class BeanPool {
+        private final ObjectFactory<?> objectFactory;
+        private final BoundedObjectPool<Object> instances = new BoundedObjectPool<>(capacity);
+
+        BeanPool(final ObjectFactory<?> objectFactory) {
+            this.objectFactory = objectFactory;
+        }
+
+        void fill() {
+            for (int i = 1; i < capacity; i++) { // 첫 조회로 만든 인스턴스 하나는 이미 들어 있다.
+                final Object bean = create();
+                if (!instances.offer(bean)) {
+                    destroyInstance(bean);
+                    return;
+                }
+            }
+        }
+
+        // 풀이 비었을 때만 컨테이너를 통해 새로 만든다. (생성자, 의존관계 주입, @PostConstruct)
+        Object create() {
+            pendingDestructionCallback.remove();
+            final Object bean = objectFactory.getObject();
+            final Runnable callback = pendingDestructionCallback.get();
+            pendingDestructionCallback.remove();
+            pooledInstances.put(new IdentityKey(bean), new PooledInstance(this, callback));
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hello.core.scope;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 생성된 스코프 프록시가 호출을 넘길 실제 빈을 찾아준다.
+ * 스레드마다 마지막 요청과 그 요청의 빈을 기억해 두고, 같은 요청 안에서는 빈 팩토리와 request 속성을 다시 조회하지 않는다.
+ *
+ * 기억한 빈은 호출할 때마다 지금 스레드의 RequestAttributes 와 같은지 확인한다.
+ * 요청이 끝나면 소멸 콜백이 그 요청을 기억한 슬롯을 비운다. 비동기 처리로 다른 스레드에서 요청이 끝나도, 처음 빈을 찾은 스레드의 슬롯이 비워진다.
+ */
+public class RequestScopedTarget<T> {
+
+    private static final String CALLBACK_SUFFIX = "#scopedTargetSlot#";
+
+    private final BeanFactory beanFactory;
+    private final String targetBeanName;
+    private final ThreadLocal<AtomicReference<Binding<T>>> slot = ThreadLocal.withInitial(AtomicReference::new);
+
+    public RequestScopedTarget(final BeanFactory beanFactory, final String targetBeanName) {
+        this.beanFactory = beanFactory;
+        this.targetBeanName = targetBeanName;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        final RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        final AtomicReference<Binding<T>> current = slot.get();
+        final Binding<T> bound = current.get();
+        if (bound != null && bound.attributes == attributes) {
+            return bound.target;
+        }
+        final Binding<T> binding = new Binding<>(attributes, (T) beanFactory.getBean(targetBeanName));
+        current.set(binding);
+        // 슬롯을 비우는 쪽은 요청을 끝내는 스레드일 수 있으므로 ThreadLocal 이 아니라 이 슬롯을 직접 비운다.
+        // 이미 다음 요청을 기억하고 있으면 그대로 둔다. 콜백 이름에 스레드를 넣어서 한 요청을 여러 스레드가 거쳐도 콜백이 덮이지 않게 한다.
+        attributes.registerDestructionCallback(targetBeanName + CALLBACK_SUFFIX + Thread.currentThread().getId(),
+                () -> current.compareAndSet(binding, null), RequestAttributes.SCOPE_REQUEST);
+        return binding.target;
+    }
+
+    public String getTargetBeanName() {
+        return targetBeanName;
+    }
+
+    // 지금 스레드가 기억하고 있는 빈. 없으면 null
+    T peek() {
+        final Binding<T> bound = slot.get().get();
+        return bound == null ? null : bound.target;
+    }
+
+    private static final class Binding<T> {
+        private final RequestAttributes attributes;
+        private final T target;
+
+        Binding(final RequestAttributes attributes, final T target) {
+            this.attributes = attributes;
+            this.target = target;
+        }
+    }
+}
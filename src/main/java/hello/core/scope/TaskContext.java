@@ -0,0 +1,147 @@
+package hello.core.scope;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.ObjectFactory;
+
+/**
+ * {@link TaskScope#open(String)} 으로 연 작업 하나. 닫으면 이 작업에서 만든 빈의 소멸 콜백을 만든 순서의 역순으로 호출한다.
+ *
+ * task 스코프 빈은 보통 몇 개뿐이라 이름과 빈을 배열에 넣고 순서대로 찾는다. 이름은 빈 정의의 같은 String 이 넘어오므로 대부분 == 로 끝난다.
+ * 연 스레드에서만 쓰므로 동기화하지 않는다.
+ */
+public final class TaskContext implements AutoCloseable {
+
+    private final TaskScope scope;
+    private final String id;
+    private final TaskContext previous;
+    private String[] names = new String[4];
+    private Object[] beans = new Object[4];
+    private Runnable[] callbacks = new Runnable[4];
+    private int size;
+    private boolean closed;
+
+    TaskContext(final TaskScope scope, final String id, final TaskContext previous) {
+        this.scope = scope;
+        this.id = id;
+        this.previous = previous;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    Object get(final String name, final ObjectFactory<?> objectFactory) {
+        int index = indexOf(name);
+        if (index >= 0 && beans[index] != null) {
+            return beans[index];
+        }
+        if (closed) {
+            throw new IllegalStateException("task context already closed: " + id);
+        }
+        final Object bean = objectFactory.getObject(); // 안에서 registerDestructionCallback 이 먼저 불릴 수 있다.
+        index = indexOf(name);
+        if (index < 0) {
+            index = add(name);
+        }
+        beans[index] = bean;
+        return bean;
+    }
+
+    Object remove(final String name) {
+        final int index = indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        final Object bean = beans[index];
+        final int moved = size - index - 1;
+        System.arraycopy(names, index + 1, names, index, moved);
+        System.arraycopy(beans, index + 1, beans, index, moved);
+        System.arraycopy(callbacks, index + 1, callbacks, index, moved);
+        size--;
+        names[size] = null;
+        beans[size] = null;
+        callbacks[size] = null;
+        return bean;
+    }
+
+    void registerDestructionCallback(final String name, final Runnable callback) {
+        int index = indexOf(name);
+        if (index < 0) {
+            index = add(name);
+        }
+        callbacks[index] = callback;
+    }
+
+    /**
+     * 나중에 만든 빈부터 소멸 콜백을 호출하고, 현재 스레드를 이 작업을 열기 전 상태로 돌린다.
+     * 콜백을 호출하는 동안에는 아직 이 작업이 열려 있어서 @PreDestroy 에서 다른 task 스코프 빈을 쓸 수 있다.
+     * 콜백이 실패해도 나머지 콜백은 호출하고, 첫 예외를 던진다.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (scope.current() != this) {
+            throw new IllegalStateException("task context must be closed on its own thread in reverse order of open: " + id);
+        }
+        closed = true;
+        RuntimeException failure = null;
+        try {
+            for (int i = size - 1; i >= 0; i--) {
+                if (callbacks[i] != null) {
+                    try {
+                        callbacks[i].run();
+                    } catch (RuntimeException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+            }
+        } finally {
+            Arrays.fill(beans, 0, size, null);
+            size = 0;
+            scope.restore(previous);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private int indexOf(final String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i] == name) {
+                return i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int add(final String name) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            beans = Arrays.copyOf(beans, size * 2);
+            callbacks = Arrays.copyOf(callbacks, size * 2);
+        }
+        names[size] = name;
+        return size++;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskContext[" + id + "]";
+    }
+}
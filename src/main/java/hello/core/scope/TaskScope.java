@@ -0,0 +1,94 @@
+package hello.core.scope;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.Scope;
+import org.springframework.stereotype.Component;
+
+/**
+ * HTTP 요청 대신 직접 연 작업(배치 한 건, 메시지 한 건) 동안 살아 있는 "task" 스코프.
+ * 빈으로 등록되면 스스로 컨테이너에 스코프를 등록한다.
+ *
+ * <pre>
+ * try (TaskContext task = taskScope.open("order-batch-42")) {
+ *     orderProcessor.process(...); // task 스코프 빈은 이 안에서 하나만 만들어진다.
+ * } // 여기서 task 스코프 빈의 @PreDestroy 가 호출된다.
+ * </pre>
+ *
+ * 열린 작업은 스레드에 묶이고, 빈은 작업마다 작은 배열에 담는다. 조회할 때는 ThreadLocal 하나와 배열만 보고 공유 맵은 보지 않는다.
+ * 스레드 풀의 스레드든 작업마다 새로 만든 (가상) 스레드든 상관없이, open 한 스레드에서 try-with-resources 로 닫으면 된다.
+ * 싱글톤에 주입하려면 proxyMode = ScopedProxyMode.TARGET_CLASS 나 ObjectProvider 를 쓴다.
+ */
+@Component
+public class TaskScope implements Scope, BeanFactoryPostProcessor {
+
+    public static final String SCOPE_NAME = "task";
+
+    private final ThreadLocal<TaskContext> current = new ThreadLocal<>();
+
+    @Override
+    public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        beanFactory.registerScope(SCOPE_NAME, this);
+    }
+
+    /**
+     * 현재 스레드에 작업을 연다. 이미 열린 작업이 있으면 닫을 때 그 작업으로 돌아간다.
+     */
+    public TaskContext open(final String taskId) {
+        final TaskContext context = new TaskContext(this, taskId, current.get());
+        current.set(context);
+        return context;
+    }
+
+    /**
+     * @return 현재 스레드에 열린 작업, 없으면 null
+     */
+    public TaskContext current() {
+        return current.get();
+    }
+
+    void restore(final TaskContext previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    @Override
+    public Object get(final String name, final ObjectFactory<?> objectFactory) {
+        return currentContext().get(name, objectFactory);
+    }
+
+    @Override
+    public Object remove(final String name) {
+        return currentContext().remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(final String name, final Runnable callback) {
+        currentContext().registerDestructionCallback(name, callback);
+    }
+
+    @Override
+    public Object resolveContextualObject(final String key) {
+        return SCOPE_NAME.equals(key) ? current.get() : null;
+    }
+
+    @Override
+    public String getConversationId() {
+        final TaskContext context = current.get();
+        return context == null ? null : context.getId();
+    }
+
+    private TaskContext currentContext() {
+        final TaskContext context = current.get();
+        if (context == null) {
+            throw new IllegalStateException("No task context open on thread " + Thread.currentThread().getName()
+                    + ". Use TaskScope.open() around task scoped beans.");
+        }
+        return context;
+    }
+}
@@ -0,0 +1,316 @@
+package hello.core.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import hello.core.cdc.MemberChange;
+import hello.core.cdc.MemberChangeSubscriber;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemberStoreSnapshot;
+
+/**
+ * 회원 이름으로 회원 id 를 찾는 색인. 이름 앞부분(prefix)과 편집 거리 검색을 지원한다.
+ *
+ * 색인은 읽기 전용 {@link NameSegment} 여러 개로 이루어진다. 처음에는 저장소 스냅샷으로 큰 조각 하나를 만들고,
+ * 그 뒤로는 변경 배치마다 작은 조각을 하나씩 붙인다. 백그라운드 스레드가 최근 조각들의 크기 합이 바로 앞 조각의 절반을 넘으면
+ * 하나로 합치므로 조각 수는 로그 수준으로 유지된다.
+ *
+ * 이름이 바뀌어도 옛 항목을 바로 지우지 않는다. 찾은 항목은 저장소의 지금 이름과 비교해서 다르면 버리고, 합칠 때 정리한다.
+ */
+public class MemberNameIndex implements MemberChangeSubscriber, AutoCloseable {
+
+    public static final int MAX_EDITS = 2;
+
+    private final MemberRepository memberRepository;
+    private final Thread merger;
+    private final Object lock = new Object();
+    private volatile NameSegment[] segments = new NameSegment[0];
+    private volatile boolean running = true;
+    private volatile boolean ready;
+    private volatile long merges;
+
+    public MemberNameIndex(final MemberRepository memberRepository) {
+        this.memberRepository = memberRepository;
+        this.merger = new Thread(this::mergeLoop, "member-name-index");
+        this.merger.setDaemon(true);
+    }
+
+    // 구독 시작 순번이 정해진 다음이므로, 지금 스냅샷으로 만든 색인에 이후 변경을 더하면 빠지는 회원이 없다.
+    @Override
+    public void onSubscribe() {
+        merger.start();
+    }
+
+    @Override
+    public void onChanges(final List<MemberChange> changes) {
+        final List<Entry> entries = new ArrayList<>(changes.size());
+        for (MemberChange change : changes) {
+            if (change.getName() != null && !change.getName().equals(change.getPreviousName())) {
+                entries.add(new Entry(change.getName(), change.getMemberId()));
+            }
+        }
+        if (!entries.isEmpty()) {
+            append(build(entries));
+        }
+    }
+
+    // 옛 이름 항목은 저장소와 비교해서 걸러지므로, 밀려서 놓친 변경만큼 저장소 전체로 다시 만든다.
+    @Override
+    public void onOverrun(final long missed) {
+        append(buildFromRepository());
+    }
+
+    /**
+     * @return 이름이 prefix 로 시작하는 회원 id (오름차순, 중복 없음)
+     */
+    public LongStream findByPrefix(final String prefix) {
+        final Matches matches = new Matches();
+        for (NameSegment segment : segments) {
+            segment.findByPrefix(prefix, matches);
+        }
+        return matches.stream();
+    }
+
+    /**
+     * @return 이름과의 편집 거리가 maxEdits 이하인 회원 id (오름차순, 중복 없음)
+     */
+    public LongStream findSimilar(final String name, final int maxEdits) {
+        if (maxEdits < 0 || maxEdits > MAX_EDITS) {
+            throw new IllegalArgumentException("maxEdits must be between 0 and " + MAX_EDITS + ": " + maxEdits);
+        }
+        final char[] query = name.toCharArray();
+        final Matches matches = new Matches();
+        for (NameSegment segment : segments) {
+            segment.findSimilar(query, maxEdits, matches);
+        }
+        return matches.stream();
+    }
+
+    /**
+     * @return 저장소 스냅샷으로 만든 첫 색인이 들어갔는지
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @return 옛 이름과 중복 항목을 포함한 항목 수
+     */
+    public long getEntryCount() {
+        long count = 0;
+        for (NameSegment segment : segments) {
+            count += segment.size();
+        }
+        return count;
+    }
+
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (NameSegment segment : segments) {
+            bytes += segment.memoryBytes();
+        }
+        return bytes;
+    }
+
+    public long getMerges() {
+        return merges;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(merger);
+        if (merger.isAlive()) {
+            merger.join();
+        }
+    }
+
+    private void append(final NameSegment segment) {
+        synchronized (lock) {
+            final NameSegment[] current = segments;
+            final NameSegment[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = segment;
+            segments = next;
+        }
+        LockSupport.unpark(merger);
+    }
+
+    private void mergeLoop() {
+        final NameSegment initial = buildFromRepository();
+        synchronized (lock) {
+            final NameSegment[] current = segments;
+            final NameSegment[] next = new NameSegment[current.length + 1];
+            next[0] = initial; // 가장 오래된 조각 자리
+            System.arraycopy(current, 0, next, 1, current.length);
+            segments = next;
+        }
+        ready = true;
+        while (running) {
+            if (!mergeTail()) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    // 합칠 조각은 이 스레드만 빼므로, 합치는 동안 뒤에 붙은 조각이 있어도 앞쪽 위치는 그대로다.
+    private boolean mergeTail() {
+        final NameSegment[] current = segments;
+        int from = current.length - 1;
+        if (from < 1) {
+            return false;
+        }
+        long tail = current[from].size();
+        while (from > 0 && current[from - 1].size() <= 2 * tail) {
+            from--;
+            tail += current[from].size();
+        }
+        if (from == current.length - 1) {
+            return false;
+        }
+        final NameSegment merged = merge(Arrays.copyOfRange(current, from, current.length), tail);
+        synchronized (lock) {
+            final NameSegment[] latest = segments;
+            final NameSegment[] next = new NameSegment[latest.length - (current.length - from) + 1];
+            System.arraycopy(latest, 0, next, 0, from);
+            next[from] = merged;
+            System.arraycopy(latest, current.length, next, from + 1, latest.length - current.length);
+            segments = next;
+        }
+        merges++;
+        return true;
+    }
+
+    // 조각마다 정렬되어 있으므로 k-way 병합한다. 같은 항목은 한 번만 쓰고, 지금 이름이 아닌 항목은 버린다.
+    private NameSegment merge(final NameSegment[] parts, final long expectedEntries) {
+        final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head head) -> head.name).thenComparingLong(head -> head.reader.id));
+        for (NameSegment part : parts) {
+            final Head head = new Head(part.reader());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        final NameSegment.Builder builder = NameSegment.builder((int) Math.min(Integer.MAX_VALUE / 8, expectedEntries));
+        String lastName = null;
+        long lastId = 0;
+        while (!heads.isEmpty()) {
+            final Head head = heads.poll();
+            final String name = head.name;
+            final long id = head.reader.id;
+            if (!(name.equals(lastName) && id == lastId) && isCurrent(id, name)) {
+                builder.add(name, id);
+                lastName = name;
+                lastId = id;
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return builder.build();
+    }
+
+    private NameSegment buildFromRepository() {
+        final List<Entry> entries = new ArrayList<>();
+        try (MemberStoreSnapshot snapshot = memberRepository.snapshot()) {
+            for (Member member : snapshot) {
+                if (member.getName() != null) {
+                    entries.add(new Entry(member.getName(), member.getId()));
+                }
+            }
+        }
+        return build(entries);
+    }
+
+    private static NameSegment build(final List<Entry> entries) {
+        entries.sort(Comparator.comparing((Entry entry) -> entry.name).thenComparingLong(entry -> entry.id));
+        final NameSegment.Builder builder = NameSegment.builder(entries.size());
+        for (Entry entry : entries) {
+            builder.add(entry.name, entry.id);
+        }
+        return builder.build();
+    }
+
+    private boolean isCurrent(final long id, final String name) {
+        final Member member = memberRepository.findById(id);
+        return member != null && name.equals(member.getName());
+    }
+
+    private boolean isCurrent(final long id, final char[] name, final int length) {
+        final Member member = memberRepository.findById(id);
+        if (member == null || member.getName() == null || member.getName().length() != length) {
+            return false;
+        }
+        final String current = member.getName();
+        for (int i = 0; i < length; i++) {
+            if (current.charAt(i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final long id;
+
+        Entry(final String name, final long id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+
+    private static final class Head {
+        private final NameSegment.Reader reader;
+        private String name;
+
+        Head(final NameSegment.Reader reader) {
+            this.reader = reader;
+            reader.seekBlock(0);
+        }
+
+        boolean advance() {
+            if (!reader.next()) {
+                return false;
+            }
+            name = reader.name();
+            return true;
+        }
+    }
+
+    // 찾은 id 를 모아서 정렬하고 중복을 뺀다. 옛 이름으로 찾은 항목은 여기서 걸러진다.
+    private final class Matches implements NameSegment.Collector {
+        private long[] ids = new long[16];
+        private int size;
+
+        @Override
+        public void accept(final char[] name, final int length, final long id) {
+            if (!isCurrent(id, name, length)) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        LongStream stream() {
+            Arrays.sort(ids, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            return Arrays.stream(ids, 0, distinct);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package hello.core.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import hello.core.member.MemberRepository;
+
+/**
+ * member.name-index.enabled=true 이면 회원 이름 색인을 만든다.
+ * 색인은 MemberChangeLog 의 구독자로 등록되어, 구독을 시작할 때 저장소 전체로 만들고 이후 변경을 따라간다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.name-index.enabled", havingValue = "true")
+public class MemberNameIndexConfig {
+
+    @Bean(destroyMethod = "close")
+    public MemberNameIndex memberNameIndex(final MemberRepository memberRepository) {
+        return new MemberNameIndex(memberRepository);
+    }
+}
@@ -0,0 +1,316 @@
+package hello.core.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import hello.core.codec.VarInts;
+
+/**
+ * (이름, 회원 id) 를 이름 순서로 정렬해서 앞부분 압축(front coding)으로 담아둔 읽기 전용 조각.
+ * 블록마다 첫 항목만 이름 전체를 쓰고, 나머지는 바로 앞 이름과 겹치는 길이와 다른 뒷부분만 쓴다.
+ *
+ * <pre>
+ * 항목 : 앞 이름과 겹치는 길이(varint) 뒷부분 길이(varint) 뒷부분 문자들(문자마다 varint) 회원 id(varint)
+ * </pre>
+ *
+ * 정렬된 이름들은 그 자체로 트라이를 펼쳐놓은 것이므로, 겹치는 길이만큼은 앞 이름에서 계산한 결과를 그대로 쓸 수 있다.
+ */
+final class NameSegment {
+
+    static final int BLOCK_SIZE = 32;
+
+    private final ByteBuffer data;
+    private final int[] blockOffsets;
+    private final int size;
+
+    private NameSegment(final ByteBuffer data, final int[] blockOffsets, final int size) {
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.size = size;
+    }
+
+    interface Collector {
+        void accept(char[] name, int length, long id);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        return data.capacity() + 4L * blockOffsets.length;
+    }
+
+    Reader reader() {
+        return new Reader();
+    }
+
+    void findByPrefix(final String prefix, final Collector collector) {
+        final Reader reader = new Reader();
+        reader.seekBlock(Math.max(0, firstBlockAfter(prefix.toCharArray(), prefix.length(), 0, false) - 1));
+        while (reader.next()) {
+            final int compared = reader.compareTo(prefix);
+            if (compared == 0) {
+                collector.accept(reader.term, reader.length, reader.id);
+            } else if (compared > 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 편집 거리(삽입, 삭제, 바꾸기) maxEdits 이하인 이름을 찾는다.
+     * 이름을 한 글자씩 늘려가며 레벤슈타인 표의 한 줄씩 계산하고, 줄의 최솟값이 maxEdits 를 넘으면 그 접두어로 시작하는 이름은 모두 건너뛴다.
+     */
+    void findSimilar(final char[] query, final int maxEdits, final Collector collector) {
+        final int columns = query.length + 1;
+        int[][] rows = new int[16][];
+        rows[0] = new int[columns];
+        for (int j = 0; j < columns; j++) {
+            rows[0][j] = j;
+        }
+        int valid = 0; // rows[0..valid] 가 지금 이름에 맞게 계산되어 있다.
+        int dead = -1; // 이 길이의 접두어로는 maxEdits 안에 들어올 수 없다.
+        final Reader reader = new Reader();
+        reader.seekBlock(0);
+        while (reader.next(dead >= 0 ? dead : Integer.MAX_VALUE)) {
+            if (dead >= 0 && reader.lcp >= dead) {
+                continue;
+            }
+            dead = -1;
+            valid = Math.min(valid, reader.lcp);
+            if (rows.length <= reader.length) {
+                rows = Arrays.copyOf(rows, Math.max(reader.length + 1, rows.length * 2));
+            }
+            for (int depth = valid + 1; depth <= reader.length; depth++) {
+                if (rows[depth] == null) {
+                    rows[depth] = new int[columns];
+                }
+                if (fillRow(rows[depth - 1], rows[depth], query, reader.term[depth - 1], depth) > maxEdits) {
+                    dead = depth;
+                    break;
+                }
+                valid = depth;
+            }
+            if (dead >= 0) {
+                final int target = firstBlockAfter(reader.term, dead, reader.block + 1, true);
+                if (target - 1 > reader.block) {
+                    reader.seekBlock(target - 1); // 블록 첫 이름도 같은 접두어로 시작하므로 계속 건너뛴다.
+                }
+            } else if (rows[reader.length][query.length] <= maxEdits) {
+                collector.accept(reader.term, reader.length, reader.id);
+            }
+        }
+    }
+
+    private static int fillRow(final int[] previous, final int[] row, final char[] query, final char c, final int depth) {
+        row[0] = depth;
+        int min = depth;
+        for (int j = 1; j < row.length; j++) {
+            final int cost = query[j - 1] == c ? 0 : 1;
+            final int value = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost);
+            row[j] = value;
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /**
+     * from 블록부터 보면서 첫 이름이 key[0..length) 보다 뒤에 오는 첫 블록을 찾는다. 없으면 블록 수
+     *
+     * @param prefixOnly true 면 key[0..length) 로 시작하는 이름도 key 와 같다고 본다.
+     */
+    private int firstBlockAfter(final char[] key, final int length, final int from, final boolean prefixOnly) {
+        int low = from;
+        int high = blockOffsets.length;
+        // 편집 거리 검색에서 건너뛸 곳은 대개 가까이 있으므로, 간격을 두 배씩 늘려서 범위를 먼저 좁힌다.
+        for (int step = 1; from > 0 && low + step < high; step <<= 1) {
+            final int compared = compareFirstName(low + step, key, length, prefixOnly);
+            if (compared > 0 || (!prefixOnly && compared == 0)) {
+                high = low + step;
+                break;
+            }
+            low += step + 1;
+        }
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int compared = compareFirstName(mid, key, length, prefixOnly);
+            if (compared > 0 || (!prefixOnly && compared == 0)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private int compareFirstName(final int block, final char[] key, final int length, final boolean prefixOnly) {
+        final ByteBuffer buffer = data.duplicate();
+        buffer.position(blockOffsets[block]);
+        VarInts.readVarInt(buffer); // 블록 첫 항목은 항상 0
+        final int nameLength = VarInts.readVarInt(buffer);
+        final int common = Math.min(nameLength, length);
+        for (int i = 0; i < common; i++) {
+            final int diff = VarInts.readVarInt(buffer) - key[i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        if (nameLength < length) {
+            return -1;
+        }
+        return prefixOnly || nameLength == length ? 0 : 1;
+    }
+
+    /**
+     * 항목을 순서대로 읽는다. term[0..length) 가 지금 이름이고, lcp 는 바로 앞 이름과 겹치는 길이다.
+     */
+    final class Reader {
+        private final ByteBuffer buffer = data.duplicate();
+        char[] term = new char[32];
+        int length;
+        int lcp;
+        long id;
+        int block = -1;
+        private int index;
+
+        void seekBlock(final int block) {
+            if (block >= blockOffsets.length) {
+                index = size;
+                return;
+            }
+            buffer.position(blockOffsets[block]);
+            index = block * BLOCK_SIZE;
+        }
+
+        boolean next() {
+            return next(Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param skipDepth 앞 이름과 이만큼 이상 겹치는 항목은 뒷부분을 풀지 않고 건너뛴다. 이때 term 은 앞 skipDepth 글자만 맞다.
+         */
+        boolean next(final int skipDepth) {
+            if (index >= size) {
+                return false;
+            }
+            final boolean blockStart = index % BLOCK_SIZE == 0;
+            if (blockStart) {
+                block = index / BLOCK_SIZE;
+            }
+            index++;
+            final int prefixLength = VarInts.readVarInt(buffer);
+            final int suffixLength = VarInts.readVarInt(buffer);
+            final int newLength = prefixLength + suffixLength;
+            if (term.length < newLength) {
+                term = Arrays.copyOf(term, Math.max(newLength, term.length * 2));
+            }
+            if (!blockStart && prefixLength >= skipDepth) {
+                skipVarInts(suffixLength + 1); // 뒷부분 문자들과 회원 id
+                lcp = prefixLength;
+                length = newLength;
+                return true;
+            }
+            int matched = prefixLength;
+            boolean matching = true;
+            for (int i = prefixLength; i < newLength; i++) {
+                final char c = (char) VarInts.readVarInt(buffer);
+                if (matching && i < length && term[i] == c) {
+                    matched++; // 블록 첫 항목은 앞 이름과 직접 비교해서 겹치는 길이를 구한다.
+                } else {
+                    matching = false;
+                }
+                term[i] = c;
+            }
+            lcp = Math.min(matched, Math.min(length, newLength));
+            length = newLength;
+            id = VarInts.readVarLong(buffer);
+            return true;
+        }
+
+        private void skipVarInts(final int count) {
+            for (int i = 0; i < count; i++) {
+                while (buffer.get() < 0) {
+                    // 마지막 바이트까지 넘긴다.
+                }
+            }
+        }
+
+        String name() {
+            return new String(term, 0, length);
+        }
+
+        /**
+         * @return 0: prefix 로 시작한다, 음수: prefix 보다 앞이다, 양수: prefix 로 시작하지 않고 뒤에 온다.
+         */
+        int compareTo(final String prefix) {
+            final int common = Math.min(length, prefix.length());
+            for (int i = 0; i < common; i++) {
+                final int diff = term[i] - prefix.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length < prefix.length() ? -1 : 0;
+        }
+    }
+
+    static Builder builder(final int expectedEntries) {
+        return new Builder(expectedEntries);
+    }
+
+    /**
+     * (이름, id) 순서로 정렬된 항목을 받아서 조각을 만든다.
+     */
+    static final class Builder {
+        private ByteBuffer buffer;
+        private int[] blockOffsets;
+        private String previous = "";
+        private int size;
+
+        private Builder(final int expectedEntries) {
+            this.buffer = ByteBuffer.allocate(Math.max(64, expectedEntries * 8));
+            this.blockOffsets = new int[Math.max(1, expectedEntries / BLOCK_SIZE + 1)];
+        }
+
+        void add(final String name, final long id) {
+            ensureCapacity(20 + 3 * name.length());
+            int prefixLength = 0;
+            if (size % BLOCK_SIZE == 0) {
+                final int block = size / BLOCK_SIZE;
+                if (block == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                }
+                blockOffsets[block] = buffer.position();
+            } else {
+                final int common = Math.min(previous.length(), name.length());
+                while (prefixLength < common && previous.charAt(prefixLength) == name.charAt(prefixLength)) {
+                    prefixLength++;
+                }
+            }
+            VarInts.writeVarInt(buffer, prefixLength);
+            VarInts.writeVarInt(buffer, name.length() - prefixLength);
+            for (int i = prefixLength; i < name.length(); i++) {
+                VarInts.writeVarInt(buffer, name.charAt(i));
+            }
+            VarInts.writeVarLong(buffer, id);
+            previous = name;
+            size++;
+        }
+
+        private void ensureCapacity(final int bytes) {
+            if (buffer.remaining() < bytes) {
+                final ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        NameSegment build() {
+            final byte[] bytes = Arrays.copyOf(buffer.array(), buffer.position());
+            final int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            return new NameSegment(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), Arrays.copyOf(blockOffsets, blocks), size);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package hello.core.snapshot;
+
+import java.nio.file.Path;
+
+public class MemberSnapshot {
+
+    private final Path path;
+    private final long size;
+    private final long count;
+    private final long createdNanos;
+
+    public MemberSnapshot(final Path path, final long size, final long count, final long createdNanos) {
+        this.path = path;
+        this.size = size;
+        this.count = count;
+        this.createdNanos = createdNanos;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+}
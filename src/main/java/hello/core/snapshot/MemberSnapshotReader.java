@@ -0,0 +1,87 @@
+package hello.core.snapshot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+/**
+ * /members/snapshot 응답이나 스냅샷 파일을 읽는 클라이언트 쪽 리더. 형식은 {@link MemberSnapshotWriter} 참고.
+ *
+ * <pre>
+ * try (InputStream in = new URL("http://localhost:8080/members/snapshot").openStream()) {
+ *     MemberSnapshotReader.read(in, member -> ...);
+ * }
+ * </pre>
+ */
+public class MemberSnapshotReader {
+
+    private static final Grade[] GRADES = Grade.values();
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final byte[] name = new byte[MemberSnapshotWriter.MAX_NAME_BYTES];
+
+    private MemberSnapshotReader(final InputStream in) {
+        this.channel = Channels.newChannel(in);
+        this.buffer.flip();
+    }
+
+    /**
+     * @return 읽은 회원 수
+     */
+    public static long read(final InputStream in, final Consumer<Member> consumer) throws IOException {
+        return new MemberSnapshotReader(in).readAll(consumer);
+    }
+
+    public static List<Member> readAll(final InputStream in) throws IOException {
+        final List<Member> members = new ArrayList<>();
+        read(in, members::add);
+        return members;
+    }
+
+    private long readAll(final Consumer<Member> consumer) throws IOException {
+        require(MemberSnapshotWriter.HEADER_SIZE);
+        if (buffer.getInt() != MemberSnapshotWriter.MAGIC) {
+            throw new IOException("not a member snapshot");
+        }
+        final byte version = buffer.get();
+        if (version != MemberSnapshotWriter.VERSION) {
+            throw new IOException("unsupported member snapshot version: " + version);
+        }
+        final long count = buffer.getLong();
+        for (long i = 0; i < count; i++) {
+            require(8 + 1 + 2);
+            final long id = buffer.getLong();
+            final Grade grade = GRADES[buffer.get()];
+            final int length = Short.toUnsignedInt(buffer.getShort());
+            require(length);
+            buffer.get(name, 0, length);
+            consumer.accept(new Member(id, new String(name, 0, length, StandardCharsets.UTF_8), grade));
+        }
+        return count;
+    }
+
+    // 버퍼에 남은 바이트가 모자라면 남은 것을 앞으로 당기고 이어서 읽는다.
+    private void require(final int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("member snapshot is truncated");
+            }
+        }
+        buffer.flip();
+    }
+}
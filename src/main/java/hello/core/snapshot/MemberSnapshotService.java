@@ -0,0 +1,98 @@
+package hello.core.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import hello.core.member.MemberRepository;
+import hello.core.member.MemberStoreSnapshot;
+
+/**
+ * 회원 스냅샷 파일을 만들어 두고, max-age 안에 다시 요청하면 같은 파일을 준다.
+ * 파일은 세대마다 이름을 달리해서 만들고 바로 이전 세대까지 남겨두므로, 아직 보내고 있는 파일이 지워지거나 바뀌지 않는다.
+ *
+ * member.snapshot.dir (기본값: 새로 만든 임시 디렉토리), member.snapshot.max-age-ms (기본값: 1000)
+ */
+@Component
+public class MemberSnapshotService {
+
+    private final MemberRepository memberRepository;
+    private Path directory;
+    private boolean temporaryDirectory;
+    private final long maxAgeNanos;
+    private volatile MemberSnapshot current;
+    private long generation;
+
+    @Autowired
+    public MemberSnapshotService(final MemberRepository memberRepository, final Environment environment) {
+        this(memberRepository,
+                environment.containsProperty("member.snapshot.dir") ? Paths.get(environment.getProperty("member.snapshot.dir")) : null,
+                environment.getProperty("member.snapshot.max-age-ms", Long.class, 1000L));
+    }
+
+    /**
+     * @param directory null 이면 첫 스냅샷을 만들 때 임시 디렉토리를 만들고, 종료할 때 지운다.
+     */
+    public MemberSnapshotService(final MemberRepository memberRepository, final Path directory, final long maxAgeMillis) {
+        this.memberRepository = memberRepository;
+        this.directory = directory;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+    }
+
+    public MemberSnapshot current() {
+        final MemberSnapshot snapshot = current;
+        if (snapshot != null && System.nanoTime() - snapshot.getCreatedNanos() < maxAgeNanos) {
+            return snapshot;
+        }
+        return refresh(snapshot);
+    }
+
+    // 동시에 들어온 요청 중 하나만 새로 만들고, 나머지는 그 결과를 쓴다.
+    private synchronized MemberSnapshot refresh(final MemberSnapshot stale) {
+        if (current != stale) {
+            return current;
+        }
+        try {
+            if (directory == null) {
+                directory = Files.createTempDirectory("hello-core-snapshots");
+                temporaryDirectory = true;
+            }
+            Files.createDirectories(directory);
+            final Path path = directory.resolve("members-" + ++generation + ".bin");
+            final long start = System.nanoTime();
+            final long count;
+            try (MemberStoreSnapshot members = memberRepository.snapshot()) { // 쓰는 동안 저장되는 회원이 섞이지 않게 한다.
+                count = MemberSnapshotWriter.write(members, path);
+            }
+            current = new MemberSnapshot(path, Files.size(path), count, start);
+            if (stale != null) {
+                Files.deleteIfExists(directory.resolve("members-" + (generation - 2) + ".bin"));
+            }
+            return current;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        for (long i = Math.max(1, generation - 1); i <= generation; i++) {
+            Files.deleteIfExists(directory.resolve("members-" + i + ".bin"));
+        }
+        if (temporaryDirectory) {
+            Files.deleteIfExists(directory);
+        }
+    }
+}
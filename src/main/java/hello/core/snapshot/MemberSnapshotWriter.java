@@ -0,0 +1,66 @@
+package hello.core.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import hello.core.member.Member;
+
+/**
+ * 회원 스냅샷 파일 형식 (big-endian)
+ *
+ * <pre>
+ * header : magic "HCMS"(4) | version(1) | count(8)
+ * record : id(8) | grade ordinal(1) | name length(2) | name UTF-8
+ * </pre>
+ */
+public class MemberSnapshotWriter {
+
+    static final int MAGIC = 0x48434D53;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 4 + 1 + 8;
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * @return 기록한 회원 수. 회원 수는 끝까지 기록한 다음 헤더에 채운다.
+     */
+    public static long write(final Iterable<Member> members, final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).put(VERSION).putLong(0);
+            long count = 0;
+            for (Member member : members) {
+                final byte[] name = member.getName().getBytes(StandardCharsets.UTF_8);
+                if (name.length > MAX_NAME_BYTES) {
+                    throw new IllegalArgumentException("name too long: " + member.getId());
+                }
+                if (buffer.remaining() < 8 + 1 + 2 + name.length) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(member.getId())
+                      .put((byte) member.getGrade().ordinal())
+                      .putShort((short) name.length)
+                      .put(name);
+                count++;
+            }
+            flush(channel, buffer);
+
+            buffer.putLong(count).flip();
+            channel.write(buffer, 4 + 1);
+            return count;
+        }
+    }
+
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package hello.core.statistics;
+
+import hello.core.member.Grade;
+
+/**
+ * 등급별 주문 누적 값과 최근 1분/5분/15분 동안의 초당 주문 수.
+ */
+public class GradeStatistics {
+
+    private final Grade grade;
+    private final long orderCount;
+    private final long grossRevenue;
+    private final long discountTotal;
+    private final double ordersPerSecond1m;
+    private final double ordersPerSecond5m;
+    private final double ordersPerSecond15m;
+
+    public GradeStatistics(final Grade grade, final long orderCount, final long grossRevenue, final long discountTotal,
+                           final double ordersPerSecond1m, final double ordersPerSecond5m, final double ordersPerSecond15m) {
+        this.grade = grade;
+        this.orderCount = orderCount;
+        this.grossRevenue = grossRevenue;
+        this.discountTotal = discountTotal;
+        this.ordersPerSecond1m = ordersPerSecond1m;
+        this.ordersPerSecond5m = ordersPerSecond5m;
+        this.ordersPerSecond15m = ordersPerSecond15m;
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getGrossRevenue() {
+        return grossRevenue;
+    }
+
+    public long getDiscountTotal() {
+        return discountTotal;
+    }
+
+    public long getNetRevenue() {
+        return grossRevenue - discountTotal;
+    }
+
+    public double getOrdersPerSecond1m() {
+        return ordersPerSecond1m;
+    }
+
+    public double getOrdersPerSecond5m() {
+        return ordersPerSecond5m;
+    }
+
+    public double getOrdersPerSecond15m() {
+        return ordersPerSecond15m;
+    }
+
+    @Override
+    public String toString() {
+        return "GradeStatistics{" +
+               "grade=" + grade +
+               ", orderCount=" + orderCount +
+               ", grossRevenue=" + grossRevenue +
+               ", discountTotal=" + discountTotal +
+               ", ordersPerSecond1m=" + ordersPerSecond1m +
+               ", ordersPerSecond5m=" + ordersPerSecond5m +
+               ", ordersPerSecond15m=" + ordersPerSecond15m +
+               '}';
+    }
+}
@@ -0,0 +1,185 @@
+package hello.core.statistics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.order.Order;
+import hello.core.order.OrderListener;
+
+/**
+ * 등급별 주문 수, 총 매출, 할인 총액을 누적하는 싱글톤.
+ * StatefulService 와 달리 여러 스레드가 동시에 주문해도 값이 섞이지 않고, 쓰는 스레드끼리 같은 필드를 두고 경합하지 않는다.
+ *
+ * 누적 값은 등급마다 CPU 수의 두 배만큼 나눈 칸(Cell)에 기록하고, 조회할 때 칸을 모두 더한다.
+ * 한 주문의 건수, 매출, 할인은 한 칸에 함께 기록되므로 조회 결과에서 항상 같이 보인다.
+ * 최근 1분/5분/15분 주문 수는 5초 단위 버킷을 돌려 쓰면서 센다.
+ */
+@Component
+public class OrderStatistics implements OrderListener {
+
+    private static final Grade[] GRADES = Grade.values();
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int BUCKETS = (int) (TimeUnit.MINUTES.toNanos(15) / BUCKET_NANOS) + 1;
+
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final int stripes;
+    private final Cell[] cells; // [grade.ordinal() * stripes + stripe]
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+    public OrderStatistics() {
+        this(System::nanoTime);
+    }
+
+    OrderStatistics(final LongSupplier clock) {
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        this.stripes = 1 << (32 - Integer.numberOfLeadingZeros(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.cells = new Cell[GRADES.length * stripes];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell();
+        }
+    }
+
+    @Override
+    public void onOrder(final Member member, final Order order) {
+        if (member != null) {
+            record(member.getGrade(), order.getItemPrice(), order.getDiscountPrice());
+        }
+    }
+
+    public void record(final Grade grade, final long itemPrice, final long discountPrice) {
+        final int base = grade.ordinal() * stripes;
+        int probe = (int) Thread.currentThread().getId();
+        while (!cells[base + (probe & (stripes - 1))].tryAdd(itemPrice, discountPrice)) {
+            probe++; // 다른 스레드가 쓰고 있는 칸이면 기다리지 않고 옆 칸에 쓴다.
+        }
+
+        final long now = clock.getAsLong();
+        final Bucket bucket = bucketFor(Math.floorDiv(now, BUCKET_NANOS));
+        if (bucket != null) {
+            bucket.counts[grade.ordinal()].increment();
+        }
+    }
+
+    public Map<Grade, GradeStatistics> snapshot() {
+        final Map<Grade, GradeStatistics> result = new EnumMap<>(Grade.class);
+        for (Grade grade : GRADES) {
+            result.put(grade, snapshot(grade));
+        }
+        return result;
+    }
+
+    public GradeStatistics snapshot(final Grade grade) {
+        final long[] totals = new long[3];
+        final int base = grade.ordinal() * stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells[base + i].addTo(totals);
+        }
+        final long now = clock.getAsLong();
+        return new GradeStatistics(grade, totals[0], totals[1], totals[2],
+                ordersPerSecond(grade, TimeUnit.MINUTES.toNanos(1), now),
+                ordersPerSecond(grade, TimeUnit.MINUTES.toNanos(5), now),
+                ordersPerSecond(grade, TimeUnit.MINUTES.toNanos(15), now));
+    }
+
+    // 지금 채우고 있는 버킷까지 포함하고, 시작한 지 얼마 안 됐으면 실제로 지난 시간으로 나눈다.
+    private double ordersPerSecond(final Grade grade, final long windowNanos, final long now) {
+        final long nowEpoch = Math.floorDiv(now, BUCKET_NANOS);
+        final long firstEpoch = nowEpoch - windowNanos / BUCKET_NANOS + 1;
+        long count = 0;
+        for (long epoch = firstEpoch; epoch <= nowEpoch; epoch++) {
+            final Bucket bucket = buckets.get((int) Math.floorMod(epoch, (long) BUCKETS));
+            if (bucket != null && bucket.epoch == epoch) {
+                count += bucket.counts[grade.ordinal()].sum();
+            }
+        }
+        final long covered = now - Math.max(startNanos, firstEpoch * BUCKET_NANOS);
+        return covered <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / covered;
+    }
+
+    /**
+     * 자리에 남아 있는 버킷이 지난 주기의 것이면 새 버킷으로 바꾼다. 잠금 없이 CAS 로 바꾸고, 실패하면 다른 스레드가 바꾼 버킷을 쓴다.
+     * 오래 멈춰 있던 스레드가 이미 지나간 버킷에 기록하려고 하면 null 을 돌려준다.
+     */
+    private Bucket bucketFor(final long epoch) {
+        final int slot = (int) Math.floorMod(epoch, (long) BUCKETS);
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.epoch < epoch) {
+            final Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = buckets.get(slot);
+        }
+        return bucket.epoch == epoch ? bucket : null;
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder[] counts = new LongAdder[GRADES.length];
+
+        Bucket(final long epoch) {
+            this.epoch = epoch;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * 홀수 version 은 기록 중이라는 뜻이다. 쓰는 쪽은 CAS 로 version 을 홀수로 만든 스레드만 기록하고,
+     * 읽는 쪽은 기록 전후 version 이 같을 때까지 다시 읽으므로 쓰는 쪽을 막지 않는다.
+     */
+    private static final class Cell {
+        private static final AtomicLongFieldUpdater<Cell> VERSION = AtomicLongFieldUpdater.newUpdater(Cell.class, "version");
+
+        // 이웃한 칸과 같은 캐시 라인을 쓰지 않도록 채워 둔다.
+        long p1, p2, p3, p4, p5, p6, p7;
+        private volatile long version;
+        private volatile long count;
+        private volatile long grossRevenue;
+        private volatile long discountTotal;
+        long q1, q2, q3, q4, q5, q6, q7;
+
+        boolean tryAdd(final long itemPrice, final long discountPrice) {
+            final long current = version;
+            if ((current & 1) != 0 || !VERSION.compareAndSet(this, current, current + 1)) {
+                return false;
+            }
+            count = count + 1;
+            grossRevenue = grossRevenue + itemPrice;
+            discountTotal = discountTotal + discountPrice;
+            version = current + 2;
+            return true;
+        }
+
+        void addTo(final long[] totals) {
+            long before;
+            long c;
+            long g;
+            long d;
+            do {
+                before = version;
+                c = count;
+                g = grossRevenue;
+                d = discountTotal;
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                }
+            } while ((before & 1) != 0 || before != version);
+            totals[0] += c;
+            totals[1] += g;
+            totals[2] += d;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package hello.core.tiered;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * 회원 id -> 콜드 티어 위치(long). 박싱 없이 long 배열 두 개로 된 열린 주소 해시 표다.
+ * 쓰는 스레드는 하나(강등 스레드)뿐이고 읽는 스레드는 락 없이 읽는다.
+ * 값 0 은 빈 칸이다. 쓰는 쪽은 키를 먼저 쓰고 값을 나중에 쓰므로, 값이 보이면 키도 보인다.
+ */
+class ColdIndex {
+
+    private volatile Table table = new Table(1024);
+
+    long get(final long memberId) {
+        final Table current = table;
+        for (int i = mix(memberId) & current.mask; ; i = (i + 1) & current.mask) {
+            final long value = current.values.get(i);
+            if (value == 0) {
+                return 0;
+            }
+            if (current.keys.get(i) == memberId) {
+                return value;
+            }
+        }
+    }
+
+    // 강등 스레드에서만 호출한다.
+    void put(final long memberId, final long value) {
+        Table current = table;
+        if ((current.size + 1) * 2 > current.values.length()) {
+            current = resize(current);
+        }
+        for (int i = mix(memberId) & current.mask; ; i = (i + 1) & current.mask) {
+            if (current.values.get(i) == 0) {
+                current.keys.set(i, memberId);
+                current.values.set(i, value);
+                current.size++;
+                return;
+            }
+            if (current.keys.get(i) == memberId) {
+                current.values.set(i, value);
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return table.size;
+    }
+
+    void forEachKey(final LongConsumer action) {
+        final Table current = table;
+        for (int i = 0; i < current.values.length(); i++) {
+            if (current.values.get(i) != 0) {
+                action.accept(current.keys.get(i));
+            }
+        }
+    }
+
+    // 새 표를 다 채운 다음에 바꿔 끼우므로, 옛 표를 읽고 있는 스레드도 그대로 읽을 수 있다.
+    private Table resize(final Table old) {
+        final Table bigger = new Table(old.values.length() * 2);
+        for (int i = 0; i < old.values.length(); i++) {
+            final long value = old.values.get(i);
+            if (value != 0) {
+                final long key = old.keys.get(i);
+                int j = mix(key) & bigger.mask;
+                while (bigger.values.get(j) != 0) {
+                    j = (j + 1) & bigger.mask;
+                }
+                bigger.keys.set(j, key);
+                bigger.values.set(j, value);
+                bigger.size++;
+            }
+        }
+        table = bigger;
+        return bigger;
+    }
+
+    private static int mix(final long memberId) {
+        return (int) ((memberId * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray values;
+        private final int mask;
+        private int size; // 강등 스레드만 쓴다.
+
+        Table(final int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package hello.core.tiered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import hello.core.codec.MemberCodec;
+import hello.core.codec.VarInts;
+import hello.core.member.Member;
+
+/**
+ * 강등된 회원을 MemberCodec 형식으로 메모리 맵 파일 끝에 이어 쓴다. 레코드는 길이(varint) + 회원이다.
+ * 파일은 segmentBytes 크기 세그먼트 단위로 맵핑한다. 쓰기는 강등 스레드 하나만 하고, 읽기는 락 없이 여러 스레드가 한다.
+ * 같은 회원을 다시 강등하면 새 레코드를 쓰고 색인만 바꾸므로 옛 레코드는 파일에 남는다.
+ */
+class ColdTier implements AutoCloseable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int segmentBytes;
+    private final ColdIndex index = new ColdIndex();
+    private final MemberCodec codec = new MemberCodec();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private ByteBuffer scratch = ByteBuffer.allocate(256); // 강등 스레드 전용
+    private int writePosition;
+    private long bytesWritten;
+
+    ColdTier(final Path file, final int segmentBytes) throws IOException {
+        this.file = file;
+        this.segmentBytes = segmentBytes;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @return 회원의 마지막 레코드 위치, 없으면 0. 같은 회원을 다시 강등하면 바뀐다.
+     */
+    long locationOf(final long memberId) {
+        return index.get(memberId);
+    }
+
+    /**
+     * @return location 의 레코드를 새로 디코딩한 Member
+     */
+    Member read(final long location) {
+        final ByteBuffer record = segments[(int) (location >>> 32)].duplicate();
+        record.position((int) location - 1);
+        VarInts.readVarInt(record); // 길이
+        return codec.decode(record);
+    }
+
+    // 강등 스레드에서만 호출한다. 레코드를 다 쓴 다음에 색인에 넣으므로, 색인으로 찾은 레코드는 항상 완전하다.
+    void write(final Member member) {
+        final ByteBuffer encoded = encode(member);
+        final int recordBytes = VarInts.sizeOfVarLong(encoded.remaining()) + encoded.remaining();
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("member record is larger than a segment: " + member.getId());
+        }
+        MappedByteBuffer[] current = segments;
+        if (current.length == 0 || writePosition + recordBytes > segmentBytes) {
+            current = addSegment(current);
+        }
+        final ByteBuffer segment = current[current.length - 1].duplicate();
+        segment.position(writePosition);
+        VarInts.writeVarInt(segment, encoded.remaining());
+        segment.put(encoded);
+        index.put(member.getId(), (long) (current.length - 1) << 32 | (writePosition + 1));
+        writePosition += recordBytes;
+        bytesWritten += recordBytes;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    ColdIndex getIndex() {
+        return index;
+    }
+
+    private ByteBuffer encode(final Member member) {
+        while (true) {
+            try {
+                scratch.clear();
+                codec.encode(member, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2); // 이름이 긴 회원
+            }
+        }
+    }
+
+    private MappedByteBuffer[] addSegment(final MappedByteBuffer[] current) {
+        try {
+            final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, (long) current.length * segmentBytes, segmentBytes);
+            final MappedByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = segment;
+            segments = grown;
+            writePosition = 0;
+            return grown;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments = new MappedByteBuffer[0];
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,30 @@
+package hello.core.tiered;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * member.storage=tiered 이면 TieredMemberRepository 를 @Primary 로 등록해서 MemberRepository 를 주입받는 곳이 모두 쓰게 한다.
+ *
+ * member.tiered.hot-capacity (기본값: 100000), member.tiered.segment-bytes (기본값: 64MB),
+ * member.tiered.dir (기본값: 새로 만든 임시 디렉토리)
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.storage", havingValue = "tiered")
+public class TieredMemberConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public TieredMemberRepository tieredMemberRepository(final Environment environment) throws IOException {
+        return new TieredMemberRepository(
+                environment.getProperty("member.tiered.hot-capacity", Integer.class, 100_000),
+                environment.getProperty("member.tiered.segment-bytes", Integer.class, 64 * 1024 * 1024),
+                environment.containsProperty("member.tiered.dir") ? Paths.get(environment.getProperty("member.tiered.dir")) : null);
+    }
+}
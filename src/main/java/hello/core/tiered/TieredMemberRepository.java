@@ -0,0 +1,271 @@
+package hello.core.tiered;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import hello.core.cdc.MemberChangeLog;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+
+/**
+ * 자주/최근에 조회된 회원은 힙(핫 티어)에 두고, 오래 조회되지 않은 회원은 메모리 맵 파일(콜드 티어)로 내리는 MemberRepository.
+ *
+ * 핫 티어가 hotCapacity 를 넘으면 백그라운드 강등 스레드가 CLOCK 방식으로 내릴 회원을 고른다.
+ * 조회할 때마다 회원의 사용 횟수(최대 3)를 올리고, 강등 스레드는 핫 티어를 한 바퀴 돌 때마다 하나씩 내려서 0 이 된 회원을 내린다.
+ * 콜드 티어에서 찾은 회원은 다시 핫 티어로 올린다. 올라온 뒤 save 되지 않은 회원은 다시 내릴 때 파일에 쓰지 않는다.
+ *
+ * 조회는 항상 핫 티어를 먼저 보고, 강등은 콜드 티어에 다 쓴 다음에 핫 티어에서 지우므로 어느 순간에도 회원을 놓치지 않는다.
+ * MemberChangeLog 빈이 있으면 save 마다 변경을 기록한다. 콜드 티어에만 있던 회원의 이전 값은 알리지 않는다(previous 가 null).
+ * 회원을 고친 다음에는 save 를 다시 호출해야 한다. 콜드 티어로 내려간 뒤에는 예전에 돌려준 객체를 고쳐도 반영되지 않는다.
+ */
+public class TieredMemberRepository implements MemberRepository, AutoCloseable {
+
+    private static final int MAX_FREQUENCY = 3;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Map<Long, HotEntry> hot = new ConcurrentHashMap<>();
+    private final ColdTier cold;
+    private final int hotCapacity;
+    private final int lowWatermark;
+    private final Path directory;
+    private final boolean temporaryDirectory;
+    private final Thread demoter;
+    private volatile boolean running = true;
+    private final LongAdder hotHits = new LongAdder();
+    private final LongAdder coldHits = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+    private MemberChangeLog changeLog;
+
+    /**
+     * @param directory null 이면 임시 디렉토리를 만들고, 닫을 때 지운다.
+     */
+    public TieredMemberRepository(final int hotCapacity, final int segmentBytes, final Path directory) throws IOException {
+        if (hotCapacity < 1) {
+            throw new IllegalArgumentException("hotCapacity must be positive: " + hotCapacity);
+        }
+        this.hotCapacity = hotCapacity;
+        this.lowWatermark = Math.max(1, hotCapacity - Math.max(1, hotCapacity / 10)); // 한 번에 10% 를 비운다.
+        this.temporaryDirectory = directory == null;
+        this.directory = temporaryDirectory ? Files.createTempDirectory("hello-core-members") : Files.createDirectories(directory);
+        this.cold = new ColdTier(this.directory.resolve("cold-members.bin"), segmentBytes);
+        this.demoter = new Thread(this::demoteLoop, "member-demoter");
+        this.demoter.setDaemon(true);
+        this.demoter.start();
+    }
+
+    // 선택적 의존관계. MemberChangeLog 빈이 없으면 변경을 알리지 않는다.
+    @Autowired(required = false)
+    public void setChangeLog(final MemberChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    @Override
+    public void save(final Member member) {
+        put(member, changeLog);
+        wakeDemoterIfFull();
+    }
+
+    @Override
+    public void saveAll(final Collection<Member> members) {
+        final MemberChangeLog changeLog = this.changeLog;
+        for (Member member : members) {
+            put(member, changeLog);
+        }
+        wakeDemoterIfFull();
+    }
+
+    @Override
+    public Member findById(final Long memberId) {
+        final HotEntry entry = hot.get(memberId);
+        if (entry != null) {
+            hotHits.increment();
+            entry.touch();
+            return entry.member;
+        }
+        long location = cold.locationOf(memberId);
+        if (location == 0) {
+            return null;
+        }
+        coldHits.increment();
+        while (true) {
+            final Member member = promote(memberId, location, cold.read(location));
+            if (member != null) {
+                wakeDemoterIfFull();
+                return member;
+            }
+            location = cold.locationOf(memberId); // 디코딩하는 사이에 새 값이 강등됐다. 다시 읽는다.
+        }
+    }
+
+    /**
+     * 콜드 티어의 location 에서 읽은 회원을 핫 티어로 올린다. 그 사이에 save 된 회원이 핫 티어에 있으면 그쪽이 최신이다.
+     * 핫 티어에 없고 색인이 다른 위치를 가리키면, 읽는 사이에 새 값이 강등된 것이므로 올리지 않고 null 을 돌려준다.
+     * 강등은 색인을 바꾼 다음에 핫 티어에서 지우므로, 같은 칸의 락을 잡은 채로 색인을 보면 옛 값을 되살리지 않는다.
+     */
+    Member promote(final long memberId, final long location, final Member member) {
+        final HotEntry promoted = new HotEntry(member, false);
+        promoted.touch();
+        final HotEntry current = hot.compute(memberId, (key, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            return cold.locationOf(key) == location ? promoted : null;
+        });
+        return current == null ? null : current.member;
+    }
+
+    // 복사본이다. 콜드 티어의 회원은 핫 티어로 올리지 않고 디코딩만 한다.
+    // 도는 동안 강등된 회원이 두 번 나오지 않도록 핫 티어에서 먼저 담은 회원은 콜드 티어에서 건너뛴다.
+    @Override
+    public Collection<Member> findAll() {
+        final Map<Long, Member> members = new HashMap<>(hot.size() + cold.size());
+        hot.forEach((memberId, entry) -> members.put(memberId, entry.member));
+        cold.getIndex().forEachKey(memberId -> {
+            if (!members.containsKey(memberId)) {
+                final long location = cold.locationOf(memberId);
+                if (location != 0) {
+                    members.put(memberId, cold.read(location));
+                }
+            }
+        });
+        return new ArrayList<>(members.values());
+    }
+
+    public int getHotSize() {
+        return hot.size();
+    }
+
+    // 콜드 티어에 한 번이라도 내려간 회원 수. 다시 승격된 회원도 포함한다.
+    public int getColdSize() {
+        return cold.size();
+    }
+
+    // 콜드 티어의 레코드 위치, 없으면 0
+    long getColdLocation(final long memberId) {
+        return cold.locationOf(memberId);
+    }
+
+    public long getColdBytes() {
+        return cold.getBytesWritten();
+    }
+
+    public long getHotHits() {
+        return hotHits.sum();
+    }
+
+    public long getColdHits() {
+        return coldHits.sum();
+    }
+
+    public long getDemotions() {
+        return demotions.sum();
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        LockSupport.unpark(demoter);
+        demoter.join();
+        cold.close();
+        if (temporaryDirectory) {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TieredMemberRepository{" +
+               "hot=" + getHotSize() +
+               ", cold=" + getColdSize() +
+               ", coldBytes=" + getColdBytes() +
+               ", hotHits=" + getHotHits() +
+               ", coldHits=" + getColdHits() +
+               ", demotions=" + getDemotions() +
+               '}';
+    }
+
+    // 같은 회원의 변경이 저장한 순서대로 기록되도록, 핫 티어의 같은 칸 잠금 안에서 기록한다.
+    // 콜드 티어에만 있던 회원은 디코딩하지 않으므로 previous 가 null 이다.
+    private void put(final Member member, final MemberChangeLog changeLog) {
+        final HotEntry entry = new HotEntry(member, true);
+        if (changeLog == null) {
+            hot.put(member.getId(), entry);
+            return;
+        }
+        hot.compute(member.getId(), (memberId, previous) -> {
+            changeLog.publish(member, previous == null ? null : previous.member);
+            return entry;
+        });
+    }
+
+    private void wakeDemoterIfFull() {
+        if (hot.size() > hotCapacity) {
+            LockSupport.unpark(demoter);
+        }
+    }
+
+    private void demoteLoop() {
+        Iterator<Map.Entry<Long, HotEntry>> hand = hot.entrySet().iterator(); // CLOCK 의 바늘. 바퀴를 넘어가도 이어서 돈다.
+        while (running) {
+            if (hot.size() <= hotCapacity) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            while (running && hot.size() > lowWatermark) {
+                if (!hand.hasNext()) {
+                    hand = hot.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        break;
+                    }
+                }
+                final Map.Entry<Long, HotEntry> next = hand.next();
+                final HotEntry entry = next.getValue();
+                if (entry.frequency > 0) {
+                    entry.frequency--;
+                    continue;
+                }
+                try {
+                    if (entry.dirty) { // 승격된 뒤 save 되지 않은 회원은 콜드 티어의 레코드가 그대로 맞다.
+                        cold.write(entry.member);
+                    }
+                } catch (IllegalArgumentException e) {
+                    entry.frequency = MAX_FREQUENCY; // 세그먼트보다 큰 회원은 핫 티어에 남긴다.
+                    continue;
+                }
+                if (hot.remove(next.getKey(), entry)) { // 그 사이에 save 나 승격으로 바뀌었으면 핫 티어에 남긴다.
+                    demotions.increment();
+                }
+            }
+        }
+    }
+
+    private static final class HotEntry {
+        private final Member member;
+        private final boolean dirty;
+        // 정확할 필요가 없으므로 volatile 이 아니다. 조회하는 스레드끼리 겹쳐서 한 번 덜 올라가도 괜찮다.
+        private int frequency;
+
+        HotEntry(final Member member, final boolean dirty) {
+            this.member = member;
+            this.dirty = dirty;
+        }
+
+        void touch() {
+            if (frequency < MAX_FREQUENCY) {
+                frequency++;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hello.core.web;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.snapshot.MemberSnapshot;
+import hello.core.snapshot.MemberSnapshotService;
+import lombok.RequiredArgsConstructor;
+
+@Controller
+@RequiredArgsConstructor
+public class MemberExportController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MemberRepository memberRepository;
+    private final MemberSnapshotService memberSnapshotService;
+
+    @GetMapping("members")
+    @ResponseBody // 비교용. 회원마다 객체를 JSON 으로 직렬화한다.
+    public Collection<Member> members() {
+        return memberRepository.findAll();
+    }
+
+    /**
+     * 스냅샷 파일을 그대로 보낸다. 톰캣이 sendfile 을 지원하면 파일 이름만 넘겨서 커널이 파일에서 소켓으로 바로 복사하게 하고,
+     * 아니면 transferTo 로 응답 스트림에 나눠서 쓴다.
+     */
+    @GetMapping("members/snapshot")
+    public void snapshot(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final MemberSnapshot snapshot = memberSnapshotService.current();
+        response.setContentType("application/octet-stream");
+        response.setContentLengthLong(snapshot.getSize());
+        response.setHeader("X-Member-Count", String.valueOf(snapshot.getCount()));
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, snapshot.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, snapshot.getSize());
+            return;
+        }
+        try (FileChannel file = FileChannel.open(snapshot.getPath(), StandardOpenOption.READ)) {
+            final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < snapshot.getSize()) {
+                position += file.transferTo(position, snapshot.getSize() - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package hello.core.web;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import hello.core.metrics.MethodStats;
+import hello.core.metrics.MetricsRegistry;
+import lombok.RequiredArgsConstructor;
+
+@Controller
+@RequiredArgsConstructor
+public class MetricsController {
+    private final MetricsRegistry metricsRegistry;
+
+    @GetMapping("metrics")
+    @ResponseBody // 메서드 이름별 호출 수, p50/p99/p999(ns), 초당 처리량을 JSON 으로 반환
+    public Map<String, MethodStats> metrics() {
+        return metricsRegistry.snapshot();
+    }
+
+    @PostMapping("metrics/reset")
+    @ResponseBody
+    public String reset() {
+        metricsRegistry.reset();
+        return "OK";
+    }
+}
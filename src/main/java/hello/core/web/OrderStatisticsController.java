@@ -0,0 +1,24 @@
+package hello.core.web;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import hello.core.member.Grade;
+import hello.core.statistics.GradeStatistics;
+import hello.core.statistics.OrderStatistics;
+import lombok.RequiredArgsConstructor;
+
+@Controller
+@RequiredArgsConstructor
+public class OrderStatisticsController {
+    private final OrderStatistics orderStatistics;
+
+    @GetMapping("order-statistics")
+    @ResponseBody // 등급별 주문 수, 매출, 할인 총액과 최근 1분/5분/15분 초당 주문 수
+    public Map<Grade, GradeStatistics> orderStatistics() {
+        return orderStatistics.snapshot();
+    }
+}
@@ -0,0 +1,167 @@
+package hello.core.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AppConfig;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.OrderService;
+
+class AdmissionControllerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("회원마다 burst 만큼 통과시키고, 지난 시간만큼만 토큰이 다시 채워진다. 다른 회원은 영향을 받지 않는다.")
+    @Test
+    void tokenBucketPerMember() {
+        final AdmissionController admission = new AdmissionController(10, 5, 1024, 8, 1, 8, clock::get);
+        for (int i = 0; i < 5; i++) {
+            admission.release(admission.acquire(1L));
+        }
+        assertThatThrownBy(() -> admission.acquire(1L)).isSameAs(OrderRejectedException.RATE_LIMITED);
+        assertThat(OrderRejectedException.RATE_LIMITED.getStackTrace()).isEmpty();
+        admission.release(admission.acquire(2L));
+
+        clock.addAndGet(100); // 초당 10개 -> 100ms 에 1개
+        admission.release(admission.acquire(1L));
+        assertThatThrownBy(() -> admission.acquire(1L)).isSameAs(OrderRejectedException.RATE_LIMITED);
+
+        clock.addAndGet(60_000); // 오래 쉬어도 burst 까지만 채워진다.
+        for (int i = 0; i < 5; i++) {
+            admission.release(admission.acquire(1L));
+        }
+        assertThatThrownBy(() -> admission.acquire(1L)).isSameAs(OrderRejectedException.RATE_LIMITED);
+        assertThat(admission.getRateLimited()).isEqualTo(3);
+        assertThat(admission.getAdmitted()).isEqualTo(12);
+    }
+
+    @DisplayName("과부하로 거절한 주문은 회원의 토큰을 쓰지 않고, 토큰이 없어 거절한 주문은 동시 처리 자리를 돌려준다.")
+    @Test
+    void overloadDoesNotSpendTokens() {
+        final AdmissionController admission = new AdmissionController(10, 2, 1024, 1, 1, 1, clock::get);
+        final long holder = admission.acquire(1L);
+        for (int i = 0; i < 100; i++) {
+            assertThatThrownBy(() -> admission.acquire(2L)).isSameAs(OrderRejectedException.OVERLOADED);
+        }
+        admission.release(holder);
+
+        // 회원 2 는 과부하로 100 번 거절됐어도 burst 만큼 남아 있다.
+        admission.release(admission.acquire(2L));
+        admission.release(admission.acquire(2L));
+        assertThatThrownBy(() -> admission.acquire(2L)).isSameAs(OrderRejectedException.RATE_LIMITED);
+        assertThat(admission.getInFlight()).isEqualTo(0);
+        admission.release(admission.acquire(3L));
+        assertThat(admission.getOverloaded()).isEqualTo(100);
+        assertThat(admission.getRateLimited()).isEqualTo(1);
+        assertThat(admission.getAdmitted()).isEqualTo(4);
+    }
+
+    @DisplayName("버킷 표는 고정 크기이고, 자리가 없으면 가장 오래 쓰이지 않은 버킷을 빼앗는다.")
+    @Test
+    void boundedTableEvictsIdleBuckets() {
+        final TokenBucketTable table = new TokenBucketTable(1, 1, 64, clock::get);
+        assertThat(table.getBucketCount()).isEqualTo(64);
+        for (long id = 0; id < 10_000; id++) {
+            clock.incrementAndGet();
+            assertThat(table.tryAcquire(id)).isTrue();
+        }
+        assertThat(table.getEvictions()).isGreaterThanOrEqualTo(10_000 - 64);
+
+        // 방금 쓴 회원은 남아 있어서 토큰이 없다.
+        assertThat(table.tryAcquire(9_999L)).isFalse();
+    }
+
+    @DisplayName("동시 처리 상한은 지연 시간이 최소치 근처면 늘고, 지연 시간이 커지면 줄어든다.")
+    @Test
+    void adaptiveConcurrencyLimit() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+        for (int i = 0; i < 10; i++) {
+            limiter.release(1_000);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            limiter.tryAcquire();
+            limiter.release(1_000);
+        }
+        final int grown = limiter.getLimit();
+        System.out.println("limit after fast responses = " + grown);
+        assertThat(grown).isGreaterThan(10);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.tryAcquire();
+            limiter.release(20_000); // 최소 지연 시간의 20배
+        }
+        System.out.println("limit after slow responses = " + limiter.getLimit());
+        assertThat(limiter.getLimit()).isLessThan(grown);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(2);
+        assertThat(limiter.getInFlight()).isEqualTo(0);
+    }
+
+    @DisplayName("order.admission.enabled=true 이면 OrderService 가 회원별 제한을 넘는 주문을 거절하고 센다.")
+    @Test
+    void orderServiceRejects() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("order.admission.enabled", "true", "order.admission.rate-per-second", "1", "order.admission.burst", "3")));
+        ac.register(AppConfig.class, RateDiscountPolicy.class, AdmissionConfig.class);
+        ac.refresh();
+
+        ac.getBean(MemberService.class).join(new Member(1L, "memberA", Grade.VIP));
+        ac.getBean(MemberService.class).join(new Member(2L, "memberB", Grade.BASIC));
+        final OrderService orderService = ac.getBean(OrderService.class);
+        for (int i = 0; i < 3; i++) {
+            orderService.createOrder(1L, "itemA", 10000);
+        }
+        assertThatThrownBy(() -> orderService.createOrder(1L, "itemA", 10000)).isInstanceOf(OrderRejectedException.class);
+        assertThat(orderService.createOrder(2L, "itemA", 10000).getItemPrice()).isEqualTo(10000);
+
+        final AdmissionController admission = ac.getBean(AdmissionController.class);
+        System.out.println(admission);
+        assertThat(admission.getRateLimited()).isEqualTo(1);
+        assertThat(admission.getAdmitted()).isEqualTo(4);
+        assertThat(admission.getInFlight()).isEqualTo(0);
+        ac.close();
+    }
+
+    @DisplayName("거절 비용 - 토큰이 없는 회원을 반복해서 거절할 때 호출당 시간")
+    @Test
+    void rejectionCost() {
+        final AdmissionController admission = new AdmissionController(1, 1, 65536, 8, 1, 8, clock::get);
+        admission.release(admission.acquire(42L));
+        final int calls = 2_000_000;
+        for (int round = 1; round <= 3; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                try {
+                    admission.acquire(42L);
+                } catch (OrderRejectedException e) {
+                    // 거절
+                }
+            }
+            System.out.printf("round %d: %.1fns/rejection%n", round, (double) (System.nanoTime() - start) / calls);
+        }
+        assertThat(admission.getRateLimited()).isEqualTo(3L * calls);
+    }
+}
@@ -0,0 +1,126 @@
+package hello.core.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemberServiceImpl;
+import hello.core.member.MemoryMemberRepository;
+
+class MemberBulkImporterTest {
+
+    private static final int MEMBERS = 500_000;
+
+    private final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void clear() {
+        memberRepository.clearStore();
+    }
+
+    @DisplayName("CSV - 헤더는 건너뛰고, 이름에 쉼표나 따옴표가 있어도 읽으며, 형식이 틀린 줄은 건너뛴 줄로 센다.")
+    @Test
+    void csv() throws IOException {
+        final Path file = tempDir.resolve("members.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("id,name,grade\n");
+            for (int i = 1; i <= MEMBERS; i++) {
+                writer.write(i + ",member" + i + "," + (i % 10 == 0 ? "VIP" : "BASIC") + "\r\n");
+            }
+            writer.write((MEMBERS + 1) + ",\"Kim, 회원\",VIP\n");
+            writer.write("oops,memberX,VIP\n");
+            writer.write((MEMBERS + 2) + ",memberY,GOLD\n");
+        }
+
+        final List<MemberImportReport> progress = new ArrayList<>();
+        final MemberBulkImporter importer = new MemberBulkImporter(memberRepository, new ForkJoinPool(4));
+        final MemberImportReport report = importer.importFile(file, r -> {
+            synchronized (progress) {
+                progress.add(r);
+            }
+        });
+        System.out.println("csv = " + report);
+
+        assertThat(report.getImported()).isEqualTo(MEMBERS + 1);
+        assertThat(report.getSkipped()).isEqualTo(2);
+        assertThat(report.getProgress()).isEqualTo(1.0);
+        assertThat(progress).hasSizeGreaterThan(1);
+        assertThat(memberRepository.findById(10L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberRepository.findById((long) MEMBERS).getName()).isEqualTo("member" + MEMBERS);
+        assertThat(memberRepository.findById(MEMBERS + 1L).getName()).isEqualTo("Kim, 회원");
+    }
+
+    @DisplayName("NDJSON - 필드 순서, 공백, 이스케이프, 모르는 필드와 상관없이 읽는다.")
+    @Test
+    void ndjson() throws IOException {
+        final Path file = tempDir.resolve("members.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 1; i <= MEMBERS; i++) {
+                writer.write("{\"id\":" + i + ",\"name\":\"member" + i + "\",\"grade\":\"" + (i % 10 == 0 ? "VIP" : "BASIC") + "\"}\n");
+            }
+            writer.write("{ \"grade\" : \"VIP\", \"age\": 30, \"name\": \"say \\\"hi\\\" \\uD55C\", \"id\": " + (MEMBERS + 1) + " }\n");
+            writer.write("{\"id\":1,\"name\":\"broken\"\n");
+        }
+
+        final MemberImportReport report = new MemberBulkImporter(memberRepository, new ForkJoinPool(4)).importFile(file);
+        System.out.println("ndjson = " + report);
+
+        assertThat(report.getImported()).isEqualTo(MEMBERS + 1);
+        assertThat(report.getSkipped()).isEqualTo(1);
+        assertThat(memberRepository.findById(MEMBERS + 1L).getName()).isEqualTo("say \"hi\" 한");
+        assertThat(memberRepository.findById(MEMBERS + 1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberRepository.findById(1L).getName()).isEqualTo("member1");
+    }
+
+    @DisplayName("한 줄씩 읽어 MemberService.join 을 부르는 방식과 비교")
+    @Test
+    @Tag("benchmark")
+    void benchmark() throws IOException {
+        final Path file = tempDir.resolve("members.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 1; i <= MEMBERS; i++) {
+                writer.write(i + ",member" + i + ",BASIC\n");
+            }
+        }
+
+        for (int round = 0; round < 3; round++) {
+            memberRepository.clearStore();
+            final MemberService memberService = new MemberServiceImpl(memberRepository);
+            final long start = System.nanoTime();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String[] fields = line.split(",");
+                    memberService.join(new Member(Long.parseLong(fields[0]), fields[1], Grade.valueOf(fields[2])));
+                }
+            }
+            final long joinNanos = System.nanoTime() - start;
+
+            memberRepository.clearStore();
+            final MemberImportReport report = new MemberBulkImporter(memberRepository).importFile(file);
+            System.out.printf("join = %,.0f members/s, bulk import = %,.0f members/s (%d cores)%n",
+                    MEMBERS * 1e9 / joinNanos, report.getMembersPerSecond(), Runtime.getRuntime().availableProcessors());
+            assertThat(report.getImported()).isEqualTo(MEMBERS);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package hello.core.cdc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+
+class MemberChangeLogTest {
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("구독자 빈은 저장소에 저장된 변경을 저장 순서대로, 바뀌기 전 값과 함께 받는다.")
+    @Test
+    void subscriberBean() throws InterruptedException {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("member.cdc.capacity", "1024")));
+        ac.register(AppConfig.class, MemberChangeLog.class, SubscriberConfig.class);
+        ac.refresh();
+
+        final MemberService memberService = ac.getBean(MemberService.class);
+        memberService.join(new Member(1L, "memberA", Grade.BASIC));
+        memberService.join(new Member(2L, "memberB", Grade.BASIC));
+        memberService.join(new Member(1L, "memberA", Grade.VIP));
+
+        final CollectingSubscriber subscriber = ac.getBean(CollectingSubscriber.class);
+        final MemberChangeLog log = ac.getBean(MemberChangeLog.class);
+        final MemberChangeSubscription subscription = log.getSubscriptions().get(0);
+        awaitDelivered(subscription, 3);
+        System.out.println("subscription = " + subscription);
+
+        final List<MemberChange> changes = subscriber.changes;
+        assertThat(changes).extracting(MemberChange::getSequence).containsExactly(0L, 1L, 2L);
+        assertThat(changes.get(0).isInsert()).isTrue();
+        assertThat(changes.get(2).getMemberId()).isEqualTo(1L);
+        assertThat(changes.get(2).getPreviousGrade()).isEqualTo(Grade.BASIC);
+        assertThat(changes.get(2).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(changes.get(2).isGradeChanged()).isTrue();
+
+        ac.close();
+        assertThat(log.getSubscriptions()).isEmpty();
+    }
+
+    @DisplayName("여러 스레드가 동시에 저장해도 구독자마다 빠짐없이 순번 순서로, 배치로 묶어서 받는다.")
+    @Test
+    void concurrentWritersMultipleSubscribers() throws InterruptedException {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        final MemberChangeLog log = new MemberChangeLog(1 << 16, -1);
+        memberRepository.setChangeLog(log);
+        final OrderCheckingSubscriber first = new OrderCheckingSubscriber();
+        final OrderCheckingSubscriber second = new OrderCheckingSubscriber();
+        final MemberChangeSubscription firstSubscription = log.subscribe(first);
+        final MemberChangeSubscription secondSubscription = log.subscribe(second);
+
+        final int writers = 4;
+        final int perWriter = 10_000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final long base = w * (long) perWriter;
+            final Thread thread = new Thread(() -> {
+                for (long i = 0; i < perWriter; i++) {
+                    memberRepository.save(new Member(base + i, "member" + i, Grade.BASIC));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        awaitDelivered(firstSubscription, writers * perWriter);
+        awaitDelivered(secondSubscription, writers * perWriter);
+        System.out.println("first = " + firstSubscription);
+        System.out.println("second = " + secondSubscription);
+
+        for (OrderCheckingSubscriber subscriber : List.of(first, second)) {
+            assertThat(subscriber.outOfOrder).isZero();
+            assertThat(subscriber.received).isEqualTo(writers * perWriter);
+        }
+        assertThat(firstSubscription.getMissed()).isZero();
+        assertThat(firstSubscription.getBatches()).isLessThanOrEqualTo(firstSubscription.getDelivered());
+        log.close();
+    }
+
+    @DisplayName("여러 스레드가 같은 회원을 동시에 저장해도, 변경 순서가 저장소에 반영된 순서와 같아서 바뀌기 전 값이 이어지고 마지막 값이 저장소와 같다.")
+    @Test
+    void concurrentWritersSameMember() throws InterruptedException {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        final MemberChangeLog log = new MemberChangeLog(1 << 17, -1);
+        memberRepository.setChangeLog(log);
+        final ChainCheckingSubscriber subscriber = new ChainCheckingSubscriber();
+        final MemberChangeSubscription subscription = log.subscribe(subscriber);
+
+        final int writers = 4;
+        final int perWriter = 20_000;
+        final int members = 4; // 모든 스레드가 같은 회원 몇 명을 번갈아 저장한다.
+        final List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    memberRepository.save(new Member((long) (i % members), "writer" + writer + "-" + i, i % 2 == 0 ? Grade.BASIC : Grade.VIP));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        awaitDelivered(subscription, writers * perWriter);
+        System.out.println("subscription = " + subscription);
+
+        assertThat(subscription.getMissed()).isZero();
+        assertThat(subscriber.brokenChains).isZero();
+        for (long id = 0; id < members; id++) {
+            assertThat(subscriber.latestNames.get(id)).isEqualTo(memberRepository.findById(id).getName());
+        }
+        log.close();
+    }
+
+    @DisplayName("느린 구독자는 쓰기를 막지 않는다. 밀린 구독자는 느린 구독자로 표시되고, 덮어써진 변경 수를 onOverrun 으로 받는다.")
+    @Test
+    void slowConsumer() throws InterruptedException {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        final MemberChangeLog log = new MemberChangeLog(64, 16);
+        memberRepository.setChangeLog(log);
+        final SlowSubscriber subscriber = new SlowSubscriber();
+        final MemberChangeSubscription subscription = log.subscribe(subscriber);
+
+        final int total = 100_000;
+        final long start = System.nanoTime();
+        for (long id = 0; id < total; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        final long elapsed = System.nanoTime() - start;
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while (subscription.getDelivered() + subscription.getMissed() < total && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        System.out.println("subscription = " + subscription + ", write " + elapsed / total + "ns/save");
+
+        assertThat(subscription.getDelivered() + subscription.getMissed()).isEqualTo(total);
+        assertThat(subscription.getMissed()).isEqualTo(subscriber.missed).isGreaterThan(0);
+        assertThat(subscription.getOverruns()).isGreaterThan(0);
+        assertThat(subscription.getSlowDetections()).isGreaterThan(0);
+        assertThat(subscription.getLag()).isZero();
+        log.close();
+    }
+
+    @DisplayName("성능 비교 - 구독자가 없을 때와 있을 때 save() 지연 시간")
+    @Test
+    @Tag("benchmark")
+    void writeLatency() throws InterruptedException {
+        final int rounds = 200_000;
+        final MemoryMemberRepository plain = new MemoryMemberRepository();
+        final MemoryMemberRepository published = new MemoryMemberRepository();
+        final MemberChangeLog log = new MemberChangeLog(1 << 16, -1);
+        published.setChangeLog(log);
+        final MemberChangeSubscription subscription = log.subscribe(new OrderCheckingSubscriber());
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            measure(plain, rounds);
+            measure(published, rounds);
+        }
+        final long plainNanos = measure(plain, rounds);
+        final long publishedNanos = measure(published, rounds);
+        System.out.printf("save without cdc %dns, with cdc %dns (%s)%n", plainNanos / rounds, publishedNanos / rounds, subscription);
+        log.close();
+    }
+
+    private static long measure(final MemoryMemberRepository memberRepository, final int rounds) {
+        final long start = System.nanoTime();
+        for (long id = 0; id < rounds; id++) {
+            memberRepository.save(new Member(id % 10_000, "member", Grade.BASIC));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void awaitDelivered(final MemberChangeSubscription subscription, final long count) throws InterruptedException {
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while (subscription.getDelivered() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Configuration
+    static class SubscriberConfig {
+        @Bean
+        public CollectingSubscriber collectingSubscriber() {
+            return new CollectingSubscriber();
+        }
+    }
+
+    static class CollectingSubscriber implements MemberChangeSubscriber {
+        private final List<MemberChange> changes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onChanges(final List<MemberChange> batch) {
+            changes.addAll(batch);
+        }
+    }
+
+    static class OrderCheckingSubscriber implements MemberChangeSubscriber {
+        private long expected;
+        private volatile long received;
+        private volatile long outOfOrder;
+
+        @Override
+        public void onChanges(final List<MemberChange> batch) {
+            for (MemberChange change : batch) {
+                if (change.getSequence() != expected) {
+                    outOfOrder++;
+                }
+                expected = change.getSequence() + 1;
+            }
+            received += batch.size();
+        }
+    }
+
+    // 회원마다 바로 앞 변경의 값이 다음 변경의 바뀌기 전 값과 같은지 본다.
+    static class ChainCheckingSubscriber implements MemberChangeSubscriber {
+        private final Map<Long, String> latestNames = new ConcurrentHashMap<>();
+        private volatile long brokenChains;
+
+        @Override
+        public void onChanges(final List<MemberChange> batch) {
+            for (MemberChange change : batch) {
+                final String latest = latestNames.put(change.getMemberId(), change.getName());
+                if (latest != null && !latest.equals(change.getPreviousName())) {
+                    brokenChains++;
+                }
+            }
+        }
+    }
+
+    static class SlowSubscriber implements MemberChangeSubscriber {
+        private volatile long missed;
+
+        @Override
+        public void onChanges(final List<MemberChange> batch) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onOverrun(final long count) {
+            missed += count;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 8;
+        }
+    }
+}
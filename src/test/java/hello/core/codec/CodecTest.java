@@ -0,0 +1,128 @@
+package hello.core.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.order.Order;
+
+class CodecTest {
+
+    private static final StringDictionary ITEMS = new StringDictionary("itemA", "itemB", "itemC");
+
+    @DisplayName("varint, zigzag 는 경계값을 그대로 되돌린다.")
+    @Test
+    void varInts() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final long[] longs = {0, 1, -1, 63, -64, 64, 127, 128, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : longs) {
+            buffer.clear();
+            VarInts.writeZigZagLong(buffer, value);
+            VarInts.writeVarLong(buffer, value);
+            buffer.flip();
+            assertThat(VarInts.readZigZagLong(buffer)).isEqualTo(value);
+            assertThat(VarInts.readVarLong(buffer)).isEqualTo(value);
+        }
+        final int[] ints = {0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 300};
+        for (int value : ints) {
+            buffer.clear();
+            VarInts.writeZigZagInt(buffer, value);
+            VarInts.writeVarInt(buffer, value);
+            buffer.flip();
+            assertThat(VarInts.readZigZagInt(buffer)).isEqualTo(value);
+            assertThat(VarInts.readVarInt(buffer)).isEqualTo(value);
+        }
+        buffer.clear();
+        VarInts.writeZigZagLong(buffer, -64);
+        assertThat(buffer.position()).isEqualTo(1);
+        assertThat(VarInts.sizeOfVarLong(128)).isEqualTo(2);
+    }
+
+    @DisplayName("Member - 한글, 서로게이트 쌍, null 이름과 음수 아이디를 읽고 쓴다. 읽을 때는 넘겨준 인스턴스를 채운다.")
+    @Test
+    void member() {
+        final MemberCodec codec = new MemberCodec();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        final Member[] members = {
+                new Member(1L, "memberA", Grade.VIP),
+                new Member(-5L, "회원 😀", Grade.BASIC),
+                new Member(Long.MAX_VALUE, null, Grade.BASIC),
+        };
+        for (Member member : members) {
+            codec.encode(member, buffer);
+        }
+        assertThat(buffer.position()).isEqualTo((1 + 1 + 1 + 7) + (1 + 1 + 1 + "회원 😀".getBytes(StandardCharsets.UTF_8).length) + (10 + 1 + 1));
+
+        buffer.flip();
+        final Member reuse = new Member(null, null, null);
+        for (Member member : members) {
+            assertThat(codec.decode(buffer, reuse)).isSameAs(reuse).usingRecursiveComparison().isEqualTo(member);
+        }
+    }
+
+    @DisplayName("Order - 사전에 있는 상품 이름은 1바이트로 쓰고, 읽을 때도 사전의 문자열을 그대로 준다.")
+    @Test
+    void order() {
+        final OrderCodec codec = new OrderCodec(ITEMS);
+        final ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.encode(new Order(1L, "itemB", 10000, 1000), buffer);
+        assertThat(buffer.position()).isEqualTo(1 + 1 + 3 + 2);
+        codec.encode(new Order(2L, "itemZ", -300, 0), buffer);
+
+        buffer.flip();
+        final Order reuse = new Order(null, null, 0, 0);
+        assertThat(codec.decode(buffer, reuse).getItemName()).isSameAs("itemB");
+        assertThat(reuse.getDiscountPrice()).isEqualTo(1000);
+        assertThat(codec.decode(buffer, reuse)).usingRecursiveComparison().isEqualTo(new Order(2L, "itemZ", -300, 0));
+    }
+
+    @DisplayName("Jackson 과 크기, 속도 비교")
+    @Test
+    @Tag("benchmark")
+    void compareWithJackson() throws IOException {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final ObjectWriter writer = objectMapper.writerFor(Order.class);
+        final Order order = new Order(123456L, "itemA", 10000, 1000);
+        final Order reuse = new Order(null, null, 0, 0);
+        final ObjectReader reader = objectMapper.readerForUpdating(reuse);
+        final OrderCodec codec = new OrderCodec(ITEMS);
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        final byte[] json = writer.writeValueAsBytes(order);
+        codec.encode(order, buffer);
+        System.out.println("size: json = " + json.length + " bytes, varint = " + buffer.position() + " bytes");
+        assertThat(buffer.position()).isLessThan(json.length / 4);
+
+        final int iterations = 1_000_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                reader.readValue(writer.writeValueAsBytes(order));
+            }
+            final long jacksonNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                buffer.clear();
+                codec.encode(order, buffer);
+                buffer.flip();
+                codec.decode(buffer, reuse);
+            }
+            final long codecNanos = System.nanoTime() - start;
+            System.out.printf("encode+decode: jackson = %dns/op, varint = %dns/op%n", jacksonNanos / iterations, codecNanos / iterations);
+        }
+        assertThat(reuse).usingRecursiveComparison().isEqualTo(order);
+    }
+}
@@ -0,0 +1,189 @@
+package hello.core.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderService;
+
+class OrderHistoryIndexTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("설정을 켜면 OrderService 로 만든 주문이 회원별 기록에 남는다.")
+    @Test
+    void recordsOrders() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("order.history.enabled", "true")));
+        ac.register(AutoAppConfig.class, OrderHistoryConfig.class);
+        ac.refresh();
+
+        ac.getBean(MemberService.class).join(new Member(1L, "memberA", Grade.VIP));
+        ac.getBean(MemberService.class).join(new Member(2L, "memberB", Grade.BASIC));
+        final OrderService orderService = ac.getBean(OrderService.class);
+        orderService.createOrder(1L, "itemA", 10000);
+        orderService.createOrder(1L, "itemB", 20000);
+        orderService.createOrder(2L, "itemA", 30000);
+
+        final OrderHistoryIndex index = ac.getBean(OrderHistoryIndex.class);
+        final List<Order> orders = index.findOrders(1L, 0, Long.MAX_VALUE);
+        assertThat(orders).extracting(Order::getItemName).containsExactly("itemA", "itemB");
+        assertThat(orders).extracting(Order::getDiscountPrice).containsExactly(1000, 2000);
+        assertThat(index.count(2L, 0, Long.MAX_VALUE)).isEqualTo(1);
+        assertThat(index.getMemberCount()).isEqualTo(2);
+        ac.close();
+    }
+
+    @DisplayName("기간 조회, 건수, 최근 N 건, 가격 top-N 이 전체를 훑은 결과와 같다.")
+    @Test
+    void queriesMatchBruteForce() {
+        final AtomicLong now = new AtomicLong(1_600_000_000_000L);
+        final OrderHistoryIndex index = new OrderHistoryIndex(now::get);
+        final SplittableRandom random = new SplittableRandom(7);
+        final List<long[]> all = new ArrayList<>(); // 회원 1 의 {시각, 가격, 할인}
+        for (int i = 0; i < 2000; i++) {
+            now.addAndGet(random.nextLong(3 * 60 * 60 * 1000L)); // 평균 1.5 시간마다 한 건
+            final int price = 1000 + random.nextInt(100_000);
+            final int discount = random.nextInt(2) * price / 10;
+            index.record(1L, now.get(), "item" + random.nextInt(20), price, discount);
+            index.record(2L, now.get(), "other", 1, 0);
+            all.add(new long[]{now.get(), price, discount});
+        }
+        index.record(1L, now.get() - DAY, "late", 5, 0); // 시계가 뒤로 가도 앞 주문의 시각으로 기록된다.
+        all.add(new long[]{now.get(), 5, 0});
+
+        for (int query = 0; query < 200; query++) {
+            final long from = all.get(0)[0] + random.nextLong(now.get() - all.get(0)[0]);
+            final long to = from + random.nextLong(60 * DAY);
+            final List<long[]> expected = all.stream().filter(o -> o[0] >= from && o[0] < to).collect(Collectors.toList());
+
+            final List<long[]> actual = new ArrayList<>();
+            index.forEach(1L, from, to, (time, item, price, discount) -> actual.add(new long[]{time, price, discount}));
+            assertThat(actual).usingElementComparator(Comparator.comparing(o -> o[0] + ":" + o[1] + ":" + o[2])).containsExactlyElementsOf(expected);
+            assertThat(index.count(1L, from, to)).isEqualTo(expected.size());
+
+            final List<Long> topPrices = new ArrayList<>();
+            index.topByPrice(1L, from, to, 5, (time, item, price, discount) -> topPrices.add((long) price));
+            assertThat(topPrices).containsExactlyElementsOf(expected.stream().map(o -> o[1]).sorted(Comparator.reverseOrder()).limit(5)
+                                                                   .collect(Collectors.toList()));
+        }
+
+        final List<Long> latest = new ArrayList<>();
+        index.latest(1L, 300, (time, item, price, discount) -> latest.add((long) price));
+        final List<Long> expectedLatest = new ArrayList<>();
+        for (int i = all.size() - 1; i >= all.size() - 300; i--) {
+            expectedLatest.add(all.get(i)[1]);
+        }
+        assertThat(latest).containsExactlyElementsOf(expectedLatest);
+        assertThat(index.count(2L, 0, Long.MAX_VALUE)).isEqualTo(2000);
+        assertThat(index.getOrderCount()).isEqualTo(4001);
+    }
+
+    @DisplayName("보관 기간이 지난 블록은 주문을 붙일 때 버리고, 주문이 끊긴 회원은 expire 로 뺀다.")
+    @Test
+    void retention() {
+        final long hour = TimeUnit.HOURS.toMillis(1);
+        final AtomicLong now = new AtomicLong(1_600_000_000_000L);
+        final OrderHistoryIndex index = new OrderHistoryIndex(Duration.ofDays(30), now::get);
+        final long start = now.get();
+        for (int i = 0; i < 100 * 24; i++) { // 회원 1 은 100 일 동안 한 시간마다, 회원 2 는 처음 10 일만
+            now.set(start + i * hour);
+            index.record(1L, now.get(), "itemA", 1000 + i, 0);
+            if (i < 10 * 24) {
+                index.record(2L, now.get(), "itemB", 1000, 0);
+            }
+        }
+        final long horizon = now.get() - 30 * DAY;
+
+        final long kept = index.count(1L, 0, Long.MAX_VALUE);
+        final long inRetention = index.count(1L, horizon, Long.MAX_VALUE);
+        assertThat(inRetention).isEqualTo(30 * 24 + 1);
+        assertThat(kept).isGreaterThanOrEqualTo(inRetention).isLessThan(inRetention + MemberHistory.BLOCK_ORDERS);
+        final List<Long> oldest = new ArrayList<>();
+        index.forEach(1L, 0, horizon, (time, item, price, discount) -> oldest.add(time));
+        assertThat(oldest).allMatch(time -> time > horizon - MemberHistory.BLOCK_ORDERS * hour);
+        assertThat(index.count(2L, 0, Long.MAX_VALUE)).isEqualTo(10 * 24); // 주문이 끊긴 회원은 아직 남아 있다.
+
+        assertThat(index.expire()).isEqualTo(10 * 24);
+        assertThat(index.count(2L, 0, Long.MAX_VALUE)).isZero();
+        assertThat(index.getMemberCount()).isEqualTo(1);
+        assertThat(index.getOrderCount()).isEqualTo(kept);
+
+        index.record(2L, now.get(), "itemC", 3000, 0); // 뺀 회원도 다시 기록된다.
+        assertThat(index.findOrders(2L, 0, Long.MAX_VALUE)).extracting(Order::getItemName).containsExactly("itemC");
+        assertThat(index.getOrderCount()).isEqualTo(kept + 1);
+    }
+
+    @DisplayName("주문 기록 쌓는 속도와 최근 30일 조회 시간")
+    @Test
+    @Tag("benchmark")
+    void benchmark() {
+        final int members = 10_000;
+        final int orders = 3_000_000;
+        final long start = 1_600_000_000_000L;
+        final long span = 365 * DAY;
+        final OrderHistoryIndex index = new OrderHistoryIndex();
+        final SplittableRandom random = new SplittableRandom(1);
+        final String[] items = new String[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = "item" + i;
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            final long memberId = i % 1000 == 0 ? 1 : 1 + random.nextInt(members); // 회원 1 은 3000 건
+            final int price = 1000 + random.nextInt(100) * 100;
+            index.record(memberId, start + span * i / orders, items[random.nextInt(items.length)], price, price / 10);
+        }
+        final long insertNanos = System.nanoTime() - begin;
+        System.out.printf("insert: %d orders in %dms (%.0f orders/s), %.1f bytes/order%n", orders, insertNanos / 1_000_000,
+                orders * 1e9 / insertNanos, (double) index.getMemoryBytes() / orders);
+
+        final long[] sink = new long[1];
+        for (int round = 0; round < 3; round++) {
+            begin = System.nanoTime();
+            final int queries = 10_000;
+            for (int q = 0; q < queries; q++) {
+                final long to = start + span - random.nextLong(span / 2);
+                index.forEach(1L, to - 30 * DAY, to, (time, item, price, discount) -> sink[0] += price);
+            }
+            final long rangeNanos = (System.nanoTime() - begin) / queries;
+
+            begin = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                final long to = start + span - random.nextLong(span / 2);
+                index.topByPrice(1L, to - 30 * DAY, to, 10, (time, item, price, discount) -> sink[0] += price);
+            }
+            final long topNanos = (System.nanoTime() - begin) / queries;
+            System.out.printf("member 1 (%d orders): 30 day range %dus, top 10 by price %dus (%d)%n",
+                    index.count(1L, 0, Long.MAX_VALUE), rangeNanos / 1000, topNanos / 1000, sink[0] % 10);
+            assertThat(rangeNanos).isLessThan(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
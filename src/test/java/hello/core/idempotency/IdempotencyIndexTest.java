@@ -0,0 +1,225 @@
+package hello.core.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AppConfig;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderService;
+import hello.core.order.OrderServiceImpl;
+import hello.core.partition.PartitionedOrderConfig;
+import hello.core.partition.PartitionedOrderEngine;
+
+class IdempotencyIndexTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("같은 키로 다시 요청하면 주문을 새로 만들지 않고 처음 주문을 돌려준다. 실패한 요청은 다시 시도된다.")
+    @Test
+    void duplicateReturnsFirstOrder() {
+        final IdempotencyIndex index = new IdempotencyIndex(60_000, 4, 1000, 0.01, 1000, clock::get);
+        final AtomicInteger created = new AtomicInteger();
+        final Order first = index.execute("order-1", () -> newOrder(created));
+        assertThat(index.execute("order-1", () -> newOrder(created))).isSameAs(first);
+        assertThat(index.execute("order-2", () -> newOrder(created))).isNotSameAs(first);
+        assertThat(created.get()).isEqualTo(2);
+
+        assertThatThrownBy(() -> index.execute("order-3", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        index.execute("order-3", () -> newOrder(created));
+        assertThat(created.get()).isEqualTo(3);
+        assertThat(index.getDuplicates()).isEqualTo(1);
+    }
+
+    @DisplayName("같은 키로 동시에 들어온 요청도 주문은 하나만 만든다.")
+    @Test
+    void concurrentRetries() throws InterruptedException {
+        final IdempotencyIndex index = new IdempotencyIndex(60_000, 4, 1000, 0.01, 1000, clock::get);
+        final AtomicInteger created = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Order> results = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                final Order order = index.execute("retry", () -> newOrder(created));
+                synchronized (results) {
+                    results.add(order);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(results).hasSize(8).allMatch(order -> order == results.get(0));
+    }
+
+    @DisplayName("exact 집합은 maxKeys 와 retention 을 넘지 않는다. 그보다 오래된 키는 새 주문이 된다.")
+    @Test
+    void boundedMemory() {
+        final IdempotencyIndex index = new IdempotencyIndex(4_000, 4, 10_000, 0.01, 1000, clock::get);
+        final AtomicInteger created = new AtomicInteger();
+        for (int i = 0; i < 100_000; i++) {
+            index.execute("key-" + i, () -> newOrder(created));
+        }
+        assertThat(index.getRecentKeys()).isLessThanOrEqualTo(1000);
+
+        index.execute("old", () -> newOrder(created));
+        clock.addAndGet(5_000);
+        index.execute("new", () -> newOrder(created));
+        final int before = created.get();
+        index.execute("old", () -> newOrder(created));
+        assertThat(created.get()).isEqualTo(before + 1);
+        System.out.println(index);
+    }
+
+    @DisplayName("오탐률 측정 - 세대 하나를 예상 키 수만큼 채운 뒤, 그리고 모든 세대를 채운 뒤 처음 보는 키의 오탐률")
+    @Test
+    void falsePositiveRate() {
+        final int keysPerBucket = 100_000;
+        final RotatingBloomFilter filter = new RotatingBloomFilter(4, 1000, keysPerBucket, 0.01, clock::get);
+        long next = 0;
+        for (int i = 0; i < keysPerBucket; i++) {
+            filter.testAndAdd(IdempotencyIndex.hash("key-" + next++));
+        }
+        final double oneGeneration = measureFalsePositives(filter, "probe-a-", 10_000);
+        for (int bucket = 1; bucket < 4; bucket++) {
+            clock.addAndGet(1000);
+            for (int i = 0; i < keysPerBucket; i++) {
+                filter.testAndAdd(IdempotencyIndex.hash("key-" + next++));
+            }
+        }
+        final double allGenerations = measureFalsePositives(filter, "probe-b-", 10_000);
+        System.out.printf("bits=%d, hashes=%d, false positive rate: 1 generation %.4f, 4 generations %.4f%n",
+                filter.getBitCount(), filter.getHashCount(), oneGeneration, allGenerations);
+        assertThat(oneGeneration).isLessThan(0.02);
+        assertThat(allGenerations).isLessThan(0.06);
+
+        // 한 바퀴 돌면 가장 오래된 세대의 키는 잊힌다. 남은 세대의 오탐만큼만 "있을 수도 있다"가 나온다.
+        clock.addAndGet(1000);
+        final double forgotten = measureFalsePositives(filter, "key-", 10_000);
+        System.out.printf("first generation keys still reported after rotation: %.4f%n", forgotten);
+        assertThat(forgotten).isLessThan(0.06);
+    }
+
+    @DisplayName("처리량 측정 - 처음 보는 키가 대부분일 때 execute 의 초당 처리 수")
+    @Test
+    @Tag("benchmark")
+    void throughput() throws InterruptedException {
+        final IdempotencyIndex index = new IdempotencyIndex(600_000, 4, 1_000_000, 0.01, 200_000);
+        final Order order = new Order(1L, "itemA", 10000, 1000);
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final int perThread = 500_000;
+        for (int round = 1; round <= 2; round++) {
+            final int seed = round;
+            final List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final String prefix = "r" + seed + "-t" + t + "-";
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        index.execute(prefix + i, () -> order);
+                    }
+                }));
+            }
+            final long start = System.nanoTime();
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            final long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %d threads, %.0f keys/s, %s%n", round, threads,
+                    (double) threads * perThread * 1_000_000_000L / elapsed, index);
+        }
+        assertThat(index.getRecentKeys()).isLessThanOrEqualTo(200_000);
+    }
+
+    @DisplayName("order.idempotency.enabled=true 이면 OrderService 가 같은 키의 주문을 한 번만 만든다.")
+    @Test
+    void orderService() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("order.idempotency.enabled", "true")));
+        ac.register(AppConfig.class, RateDiscountPolicy.class, IdempotencyConfig.class);
+        ac.refresh();
+
+        ac.getBean(MemberService.class).join(new Member(1L, "memberA", Grade.VIP));
+        final OrderService orderService = ac.getBean(OrderService.class);
+        final Order first = orderService.createOrder(1L, "itemA", 10000, "client-request-1");
+        assertThat(orderService.createOrder(1L, "itemA", 10000, "client-request-1")).isSameAs(first);
+        assertThat(orderService.createOrder(1L, "itemA", 10000, null)).isNotSameAs(first);
+        assertThat(ac.getBean(IdempotencyIndex.class).getDuplicates()).isEqualTo(1);
+        ac.close();
+    }
+
+    @DisplayName("파티션 엔진도 멱등성 키를 지킨다. 멱등성 처리가 꺼져 있으면 두 구현 모두 키를 준 주문을 실패시킨다.")
+    @Test
+    void partitionedEngineAndDisabled() {
+        for (boolean enabled : new boolean[]{true, false}) {
+            final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+            ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                    Map.of("order.idempotency.enabled", String.valueOf(enabled), "order.engine", "partitioned", "order.partitions", "2")));
+            ac.register(AppConfig.class, RateDiscountPolicy.class, IdempotencyConfig.class, PartitionedOrderConfig.class);
+            ac.refresh();
+
+            final PartitionedOrderEngine engine = ac.getBean(PartitionedOrderEngine.class);
+            engine.join(new Member(1L, "memberA", Grade.VIP));
+            final OrderServiceImpl orderServiceImpl = ac.getBean(OrderServiceImpl.class);
+            if (enabled) {
+                final Order first = engine.createOrder(1L, "itemA", 10000, "client-request-1");
+                assertThat(engine.createOrder(1L, "itemA", 10000, "client-request-1")).isSameAs(first);
+                assertThat(engine.totals().get(Grade.VIP).getOrderCount()).isEqualTo(1);
+            } else {
+                assertThatThrownBy(() -> engine.createOrder(1L, "itemA", 10000, "client-request-1")).isInstanceOf(IllegalStateException.class);
+                assertThatThrownBy(() -> orderServiceImpl.createOrder(1L, "itemA", 10000, "client-request-1")).isInstanceOf(IllegalStateException.class);
+                assertThat(engine.createOrder(1L, "itemA", 10000, null).getDiscountPrice()).isEqualTo(1000);
+            }
+            ac.close();
+        }
+    }
+
+    private static double measureFalsePositives(final RotatingBloomFilter filter, final String prefix, final int probes) {
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.testAndAdd(IdempotencyIndex.hash(prefix + i))) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / probes;
+    }
+
+    private static Order newOrder(final AtomicInteger created) {
+        created.incrementAndGet();
+        return new Order(1L, "itemA", 10000, 0);
+    }
+}
@@ -0,0 +1,150 @@
+package hello.core.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemoryMemberRepository;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"ingest.batch-size=64", "ingest.max-pending-batches=2"})
+class OrderIngestTest {
+
+    private static final int MEMBERS = 10;
+
+    @LocalServerPort
+    int port;
+
+    private final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @BeforeEach
+    void members() {
+        for (long id = 1; id <= MEMBERS; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+    }
+
+    @AfterEach
+    void clear() {
+        memberRepository.clearStore();
+    }
+
+    @DisplayName("올리는 동안 결과가 줄마다 순서대로 돌아오고, 없는 회원이나 빠진 필드는 그 줄만 에러가 된다.")
+    @Test
+    void streamResults() throws Exception {
+        final int lines = 200_000;
+        try (Socket socket = new Socket("localhost", port)) {
+            final CompletableFuture<Void> upload = CompletableFuture.runAsync(() -> upload(socket, lines, new AtomicLong()));
+
+            long count = 0;
+            long errors = 0;
+            long vipDiscount = 0;
+            final long start = System.nanoTime();
+            try (BufferedReader reader = responseBody(socket)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    count++;
+                    assertThat(line).startsWith("{\"seq\":" + count + ",");
+                    if (line.contains("\"error\"")) {
+                        errors++;
+                    } else if (line.contains("\"discountPrice\":1000}")) {
+                        vipDiscount++;
+                    }
+                }
+            }
+            upload.get(10, TimeUnit.SECONDS);
+            System.out.printf("ingest = %,.0f orders/s%n", lines * 1e9 / (System.nanoTime() - start));
+
+            assertThat(count).isEqualTo(lines);
+            assertThat(errors).isEqualTo(lines / 12 * 2); // memberId 11 은 없는 회원, 12 는 itemPrice 가 없다.
+            assertThat(vipDiscount).isGreaterThan(0);
+        }
+    }
+
+    @DisplayName("결과를 읽지 않으면 서버도 요청 본문을 더 읽지 않는다.")
+    @Test
+    void backpressure() throws Exception {
+        final int lines = 500_000;
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(16 * 1024);
+            socket.connect(new InetSocketAddress("localhost", port));
+            final AtomicLong sent = new AtomicLong();
+            final CompletableFuture<Void> upload = CompletableFuture.runAsync(() -> upload(socket, lines, sent));
+
+            long previous = -1;
+            while (sent.get() != previous) { // 보내던 줄 수가 더 늘지 않을 때까지 기다린다.
+                previous = sent.get();
+                Thread.sleep(500);
+            }
+            System.out.println("stalled after " + previous + " of " + lines + " lines");
+            assertThat(upload).isNotDone();
+            assertThat(previous).isLessThan(lines);
+
+            long count = 0;
+            try (BufferedReader reader = responseBody(socket)) {
+                while (reader.readLine() != null) {
+                    count++;
+                }
+            }
+            upload.get(10, TimeUnit.SECONDS);
+            assertThat(count).isEqualTo(lines);
+        }
+    }
+
+    private void upload(final Socket socket, final int lines, final AtomicLong sent) {
+        try {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            long length = 0;
+            for (int i = 0; i < lines; i++) {
+                length += line(i).getBytes(StandardCharsets.UTF_8).length;
+            }
+            // HTTP/1.0 이면 톰캣이 응답을 chunked 로 보내지 않고 연결을 닫아서 끝을 알린다.
+            writer.write("POST /orders/ingest HTTP/1.0\r\nHost: localhost\r\nContent-Type: application/x-ndjson\r\n"
+                    + "Content-Length: " + length + "\r\n\r\n");
+            for (int i = 0; i < lines; i++) {
+                writer.write(line(i));
+                sent.incrementAndGet();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String line(final int i) {
+        final long memberId = i % 12 + 1;
+        return memberId == 12
+                ? "{\"memberId\":12,\"itemName\":\"itemA\"}\n"
+                : "{\"memberId\":" + memberId + ",\"itemName\":\"itemA\",\"itemPrice\":10000}\n";
+    }
+
+    private static BufferedReader responseBody(final Socket socket) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        assertThat(reader.readLine()).contains("200");
+        String header;
+        while ((header = reader.readLine()) != null && !header.isEmpty()) {
+            // 헤더는 건너뛴다.
+        }
+        return reader;
+    }
+}
@@ -0,0 +1,151 @@
+package hello.core.item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderService;
+import hello.core.partition.PartitionedOrderConfig;
+import hello.core.partition.PartitionedOrderEngine;
+
+class ItemCatalogTest {
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("설정을 켜면 상품 id 로 주문할 수 있고, 이름과 가격은 카탈로그에서 가져온다.")
+    @Test
+    void orderByItemId() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("item.catalog.enabled", "true")));
+        ac.register(AutoAppConfig.class, ItemCatalogConfig.class);
+        ac.refresh();
+
+        final ItemCatalog itemCatalog = ac.getBean(ItemCatalog.class);
+        final int itemA = itemCatalog.register("itemA", 10000);
+        final int itemB = itemCatalog.register("itemB", 20000);
+        assertThat(itemB).isEqualTo(itemA + 1);
+        assertThat(itemCatalog.findId("itemB")).isEqualTo(itemB);
+        assertThat(itemCatalog.findId("itemC")).isEqualTo(-1);
+        assertThatThrownBy(() -> itemCatalog.register("itemA", 1)).isInstanceOf(IllegalArgumentException.class);
+
+        ac.getBean(MemberService.class).join(new Member(1L, "memberA", Grade.VIP));
+        final OrderService orderService = ac.getBean(OrderService.class);
+        final Order order = orderService.createOrder(1L, itemB);
+        assertThat(order.getItemName()).isSameAs(itemCatalog.getName(itemB));
+        assertThat(order.getItemPrice()).isEqualTo(20000);
+        assertThat(order.getDiscountPrice()).isEqualTo(2000);
+
+        itemCatalog.updatePrices(new int[]{itemA, itemB}, new int[]{15000, 25000});
+        assertThat(orderService.createOrder(1L, itemB).getItemPrice()).isEqualTo(25000);
+        assertThatThrownBy(() -> orderService.createOrder(1L, 99)).isInstanceOf(IllegalArgumentException.class);
+        ac.close();
+    }
+
+    @DisplayName("파티션 엔진도 상품 id 로 주문을 받는다. 카탈로그가 꺼져 있으면 두 OrderService 모두 IllegalStateException 을 던진다.")
+    @Test
+    void orderByItemIdPartitioned() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("item.catalog.enabled", "true", "order.engine", "partitioned", "order.partitions", "2")));
+        ac.register(AutoAppConfig.class, ItemCatalogConfig.class, PartitionedOrderConfig.class);
+        ac.refresh();
+
+        final int itemA = ac.getBean(ItemCatalog.class).register("itemA", 10000);
+        ac.getBean(MemberService.class).join(new Member(1L, "memberA", Grade.VIP));
+        final OrderService orderService = ac.getBean(PartitionedOrderEngine.class);
+        final Order order = orderService.createOrder(1L, itemA);
+        assertThat(order.getItemName()).isEqualTo("itemA");
+        assertThat(order.getDiscountPrice()).isEqualTo(1000);
+        assertThatThrownBy(() -> orderService.createOrder(1L, 99)).isInstanceOf(IllegalArgumentException.class);
+        ac.close();
+
+        final AnnotationConfigApplicationContext disabled = new AnnotationConfigApplicationContext();
+        disabled.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("order.engine", "partitioned", "order.partitions", "2")));
+        disabled.register(AutoAppConfig.class, PartitionedOrderConfig.class);
+        disabled.refresh();
+        for (OrderService each : disabled.getBeansOfType(OrderService.class).values()) {
+            assertThatThrownBy(() -> each.createOrder(1L, 0)).isInstanceOf(IllegalStateException.class);
+        }
+        disabled.close();
+    }
+
+    @DisplayName("가격을 한꺼번에 바꾸면 읽는 쪽은 바뀌기 전이나 바뀐 뒤의 가격표만 본다. 잘못된 id 가 섞이면 아무것도 바꾸지 않는다.")
+    @Test
+    void atomicBulkUpdate() throws InterruptedException {
+        final ItemCatalog itemCatalog = new ItemCatalog(2); // 등록하면서 배열이 늘어난다.
+        final int items = 100;
+        final int[] itemIds = new int[items];
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = itemCatalog.register("item" + i, 100);
+        }
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong torn = new AtomicLong();
+        final Thread reader = new Thread(() -> {
+            while (running.get()) {
+                final int first = itemCatalog.getPrice(itemIds[0]);
+                final int last = itemCatalog.getPrice(itemIds[items - 1]);
+                if (last < first) { // 모든 가격이 같이 오르므로 뒤에 읽은 가격이 더 작으면 섞인 것이다.
+                    torn.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        final int[] prices = new int[items];
+        for (int version = 1; version <= 10_000; version++) {
+            Arrays.fill(prices, 100 + version);
+            itemCatalog.updatePrices(itemIds, prices);
+        }
+        running.set(false);
+        reader.join();
+        assertThat(torn.get()).isZero();
+        assertThat(itemCatalog.getPrice(itemIds[50])).isEqualTo(10_100);
+
+        assertThatThrownBy(() -> itemCatalog.updatePrices(new int[]{itemIds[0], items}, new int[]{1, 1}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(itemCatalog.getPrice(itemIds[0])).isEqualTo(10_100);
+    }
+
+    @DisplayName("상품 id 로 이름과 가격을 찾을 때는 메모리를 할당하지 않는다.")
+    @Test
+    void noAllocation() {
+        final ItemCatalog itemCatalog = new ItemCatalog(1024);
+        for (int i = 0; i < 1000; i++) {
+            itemCatalog.register("item" + i, i);
+        }
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            final long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < 1_000_000; i++) {
+                final int itemId = i % 1000;
+                sink += itemCatalog.getPrice(itemId) + itemCatalog.getName(itemId).length();
+            }
+            final long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            System.out.println("round " + round + ": allocated " + allocated + " bytes for 1M lookups (" + sink + ")");
+            if (round == 2) {
+                assertThat(allocated).isLessThan(1024);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hello.core.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import hello.core.common.MyLogger;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.OrderService;
+import hello.core.order.OrderServiceImpl;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class JfrEventTest {
+
+    @DisplayName("기록 중에는 주문, 회원, 할인, 요청 스코프 이벤트가 남고, JfrSummary 로 등급별/엔드포인트별 요약을 볼 수 있다.")
+    @Test
+    void recordAndSummarize() throws Exception {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        final OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+        final Path file = Files.createTempFile("hello-core", ".jfr");
+
+        final Configuration settings;
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream("/jfr/hello-core.jfc"), StandardCharsets.UTF_8)) {
+            settings = Configuration.create(reader);
+        }
+
+        try (Recording recording = new Recording(settings)) {
+            recording.start();
+            memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+            memberRepository.save(new Member(2L, "memberB", Grade.BASIC));
+            for (int i = 0; i < 10; i++) {
+                orderService.createOrder(1L, "itemA", 10000);
+                orderService.createOrder(2L, "itemB", 20000);
+            }
+            final MyLogger myLogger = new MyLogger();
+            myLogger.init();
+            myLogger.setRequestURL("http://localhost:8080/log-demo");
+            myLogger.close();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        final List<String> names = events.stream().map(event -> event.getEventType().getName()).distinct().collect(Collectors.toList());
+        assertThat(names).contains("hello.core.OrderCreated", "hello.core.MemberSave", "hello.core.MemberFind",
+                "hello.core.Discount", "hello.core.RequestScope");
+
+        final JfrSummary summary = JfrSummary.read(file);
+        System.out.println(summary);
+        assertThat(summary.getLatencyByGrade().get("VIP").getCount()).isEqualTo(10);
+        assertThat(summary.getLatencyByGrade().get("BASIC").getCount()).isEqualTo(10);
+        assertThat(summary.getLatencyByEndpoint().get("/log-demo").getCount()).isEqualTo(1);
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,103 @@
+package hello.core.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hello.core.member.Grade;
+import hello.core.member.MemoryMemberRepository;
+
+class LoadGeneratorTest {
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("open 모드는 정해진 속도만큼 OrderService 를 부르고 결과를 JSON 으로 낸다.")
+    @Test
+    void openLoopOrderService() throws Exception {
+        final LoadOptions options = LoadOptions.parse("--target=order-service", "--rate=5000", "--threads=2",
+                "--duration=1s", "--warmup=200ms", "--members=1000");
+        final LoadReport report;
+        try (LoadTarget target = LoadTargets.create(options)) {
+            report = new LoadGenerator(options, target).run();
+        }
+        final String json = report.toJson();
+        System.out.println(json);
+
+        assertThat(report.getErrors()).isZero();
+        assertThat(report.getOperations()).isBetween(4000L, 5100L);
+        assertThat(report.getLatency().getP99()).isGreaterThanOrEqualTo(report.getLatency().getP50());
+        assertThat(report.getLatency().getP99()).isGreaterThanOrEqualTo(report.getServiceTime().getP99());
+
+        final JsonNode node = new ObjectMapper().readTree(json);
+        assertThat(node.get("mode").asText()).isEqualTo("open");
+        assertThat(node.get("operations").asLong()).isEqualTo(report.getOperations());
+        assertThat(node.get("latencyNanos").get("p99.9").asLong()).isEqualTo(report.getLatency().getP999());
+    }
+
+    @DisplayName("대상이 한 번 멈추면 그동안 보내지 못한 요청의 지연 시간이 보정된 분포에 들어간다.")
+    @Test
+    void coordinatedOmission() throws Exception {
+        final AtomicLong calls = new AtomicLong();
+        final LoadTarget target = new LoadTarget() {
+            @Override
+            public void addMember(final long memberId, final Grade grade) {
+            }
+
+            @Override
+            public void execute(final long memberId) throws InterruptedException {
+                if (calls.incrementAndGet() == 200) {
+                    Thread.sleep(200); // 200 번째 요청에서 한 번 200ms 멈춘다.
+                }
+            }
+        };
+
+        final LoadReport open = new LoadGenerator(LoadOptions.parse("--rate=2000", "--threads=1", "--duration=1s",
+                "--warmup=0s", "--members=100"), target).run();
+        System.out.printf("open   latency p99 = %dus, service p99 = %dus%n",
+                open.getLatency().getP99() / 1000, open.getServiceTime().getP99() / 1000);
+        // 멈춘 동안 보냈어야 할 요청 약 400 개(전체의 20%)가 늦어진다. 실제로 보낸 뒤 잰 시간으로는 한 개만 늦다.
+        assertThat(open.getLatency().getP99()).isGreaterThan(50_000_000L);
+        assertThat(open.getServiceTime().getP99()).isLessThan(50_000_000L);
+
+        calls.set(0);
+        final LoadReport closed = new LoadGenerator(LoadOptions.parse("--mode=closed", "--threads=1", "--duration=500ms",
+                "--warmup=0s", "--members=100", "--expected-interval-us=500"), target).run();
+        System.out.printf("closed latency count = %d, max = %dus, operations = %d%n",
+                closed.getLatency().getCount(), closed.getLatency().getMax() / 1000, closed.getOperations());
+        assertThat(closed.getLatency().getCount() - closed.getOperations()).isGreaterThan(300);
+        assertThat(closed.getServiceTime().getCount()).isEqualTo(closed.getOperations());
+    }
+
+    @DisplayName("Zipf 분포는 순위별 확률대로 id 를 뽑는다.")
+    @Test
+    void zipfian() {
+        final ZipfianGenerator zipf = new ZipfianGenerator(10_000, 0.99);
+        final SplittableRandom random = new SplittableRandom(1);
+        final int samples = 1_000_000;
+        final long[] counts = new long[2]; // Gray 의 방법은 0, 1 순위만 정확하고 그 뒤는 근사다.
+        for (int i = 0; i < samples; i++) {
+            final long rank = zipf.next(random);
+            assertThat(rank).isBetween(0L, 9_999L);
+            if (rank < counts.length) {
+                counts[(int) rank]++;
+            }
+        }
+        for (int rank = 0; rank < counts.length; rank++) {
+            System.out.printf("rank %d: %.4f (expected %.4f)%n", rank, (double) counts[rank] / samples, zipf.probability(rank));
+            assertThat((double) counts[rank] / samples).isCloseTo(zipf.probability(rank), offset(0.01));
+        }
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+    }
+}
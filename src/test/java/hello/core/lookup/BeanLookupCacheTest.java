@@ -0,0 +1,157 @@
+package hello.core.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+
+import hello.core.AutoAppConfig;
+import hello.core.annotation.MainDiscountPolicy;
+import hello.core.discount.DiscountPolicy;
+import hello.core.discount.FixDiscountPolicy;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+
+class BeanLookupCacheTest {
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("타입, 한정자, 제네릭으로 찾은 결과가 컨테이너에서 찾은 결과와 같다.")
+    @Test
+    void sameAsContainer() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class, GenericConfig.class);
+        final BeanLookupCache cache = ac.getBean(BeanLookupCache.class);
+
+        assertThat(cache.getBean(MemberService.class)).isSameAs(ac.getBean(MemberService.class));
+        assertThat(cache.getBean(DiscountPolicy.class, MainDiscountPolicy.class)).isInstanceOf(RateDiscountPolicy.class);
+        assertThatThrownBy(() -> cache.getBean(DiscountPolicy.class)).isInstanceOf(NoUniqueBeanDefinitionException.class);
+        assertThatThrownBy(() -> cache.getBean(Runnable.class)).isInstanceOf(NoSuchBeanDefinitionException.class);
+
+        final Map<String, DiscountPolicy> policies = cache.getBeansOfType(DiscountPolicy.class);
+        assertThat(policies).containsExactlyEntriesOf(ac.getBeansOfType(DiscountPolicy.class));
+        assertThat(policies.keySet()).containsExactly("fixDiscountPolicy", "rateDiscountPolicy");
+        assertThat(cache.getBeansOfType(DiscountPolicy.class)).isSameAs(policies);
+
+        final Supplier<String> text = cache.getBean(ResolvableType.forClassWithGenerics(Supplier.class, String.class));
+        final Supplier<Integer> number = cache.getBean(ResolvableType.forClassWithGenerics(Supplier.class, Integer.class));
+        assertThat(text.get()).isEqualTo("text");
+        assertThat(number.get()).isEqualTo(1);
+        ac.close();
+    }
+
+    @DisplayName("빈 정의를 더하거나, 빼고 다른 이름으로 넣거나, registerSingleton 으로 넣으면 invalidate 없이 다음 조회에 보인다.")
+    @Test
+    void invalidation() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class);
+        final BeanLookupCache cache = ac.getBean(BeanLookupCache.class);
+        assertThat(cache.getBeansOfType(DiscountPolicy.class)).hasSize(2);
+
+        ac.registerBean("extraDiscountPolicy", FixDiscountPolicy.class);
+        assertThat(cache.getBeansOfType(DiscountPolicy.class)).containsOnlyKeys("fixDiscountPolicy", "rateDiscountPolicy", "extraDiscountPolicy");
+
+        // 프로토타입이라 싱글톤 수도, 정의 수도 그대로다.
+        ac.registerBean("prototypeDiscountPolicy", FixDiscountPolicy.class, definition -> definition.setScope(BeanDefinition.SCOPE_PROTOTYPE));
+        assertThat(cache.getBeansOfType(DiscountPolicy.class)).containsKey("prototypeDiscountPolicy");
+        ac.removeBeanDefinition("prototypeDiscountPolicy");
+        ac.registerBean("otherDiscountPolicy", FixDiscountPolicy.class, definition -> definition.setScope(BeanDefinition.SCOPE_PROTOTYPE));
+        assertThat(cache.getBeansOfType(DiscountPolicy.class))
+                .containsOnlyKeys("fixDiscountPolicy", "rateDiscountPolicy", "extraDiscountPolicy", "otherDiscountPolicy");
+
+        // 정의가 없는 싱글톤이다.
+        final Runnable task = () -> { };
+        ac.getBeanFactory().registerSingleton("task", task);
+        assertThat(cache.getBean(Runnable.class)).isSameAs(task);
+        ac.close();
+    }
+
+    @DisplayName("빈 수에 따른 조회 시간: 컨테이너 vs 캐시")
+    @Test
+    @Tag("benchmark")
+    void benchmark() {
+        for (int fillers : new int[]{10, 1_000, 10_000}) {
+            final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+            ac.register(AutoAppConfig.class);
+            for (int i = 0; i < fillers; i++) {
+                ac.registerBean("filler" + i, Filler.class);
+            }
+            ac.refresh();
+            final BeanLookupCache cache = ac.getBean(BeanLookupCache.class);
+
+            final int lookups = 200_000;
+            long sink = 0;
+            long containerType = 0, cacheType = 0, containerQualified = 0, cacheQualified = 0, containerAll = 0, cacheAll = 0;
+            for (int round = 0; round < 3; round++) {
+                long begin = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += ac.getBean(MemberService.class).hashCode();
+                }
+                containerType = (System.nanoTime() - begin) / lookups;
+                begin = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += cache.getBean(MemberService.class).hashCode();
+                }
+                cacheType = (System.nanoTime() - begin) / lookups;
+
+                begin = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += BeanFactoryAnnotationUtils.qualifiedBeanOfType(ac.getBeanFactory(), DiscountPolicy.class, "mainDiscountPolicy").hashCode();
+                }
+                containerQualified = (System.nanoTime() - begin) / lookups;
+                begin = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += cache.getBean(DiscountPolicy.class, MainDiscountPolicy.class).hashCode();
+                }
+                cacheQualified = (System.nanoTime() - begin) / lookups;
+
+                begin = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += ac.getBeansOfType(DiscountPolicy.class).size();
+                }
+                containerAll = (System.nanoTime() - begin) / lookups;
+                begin = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += cache.getBeansOfType(DiscountPolicy.class).size();
+                }
+                cacheAll = (System.nanoTime() - begin) / lookups;
+            }
+            System.out.printf("%5d beans: getBean(type) %dns -> %dns, qualifier %dns -> %dns, getBeansOfType %dns -> %dns (%d)%n",
+                    ac.getBeanDefinitionCount(), containerType, cacheType, containerQualified, cacheQualified, containerAll, cacheAll, sink % 10);
+            assertThat(cacheQualified).isLessThan(containerQualified);
+            ac.close();
+        }
+    }
+
+    @Configuration
+    static class GenericConfig {
+        @Bean
+        Supplier<String> textSupplier() {
+            return () -> "text";
+        }
+
+        @Bean
+        Supplier<Integer> numberSupplier() {
+            return () -> 1;
+        }
+    }
+
+    static class Filler {
+    }
+}
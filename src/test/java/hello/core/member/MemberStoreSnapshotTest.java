@@ -0,0 +1,153 @@
+package hello.core.member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import hello.core.cdc.MemberChangeLog;
+
+class MemberStoreSnapshotTest {
+
+    private final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @AfterEach
+    void afterEach() {
+        memberRepository.clearStore();
+    }
+
+    @DisplayName("스냅샷은 만든 시점의 회원만 보여주고, 그 뒤에 저장되거나 바뀐 회원은 보이지 않는다.")
+    @Test
+    void pointInTime() {
+        for (long id = 0; id < 1000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        try (MemberStoreSnapshot snapshot = memberRepository.snapshot()) {
+            for (long id = 0; id < 2000; id++) {
+                memberRepository.save(new Member(id, "member" + id, Grade.VIP));
+            }
+            assertThat(snapshot.stream().count()).isEqualTo(1000);
+            assertThat(snapshot.parallelStream().allMatch(member -> member.getGrade() == Grade.BASIC)).isTrue();
+            assertThat(snapshot.findById(10L).getGrade()).isEqualTo(Grade.BASIC);
+            assertThat(snapshot.findById(1500L)).isNull();
+
+            assertThat(memberRepository.findAll()).hasSize(2000);
+            assertThat(memberRepository.findById(10L).getGrade()).isEqualTo(Grade.VIP);
+        }
+    }
+
+    @DisplayName("쓰기가 계속되는 동안 같은 스냅샷을 순차로, 병렬로 여러 번 돌아도 결과가 같다.")
+    @Test
+    void stableUnderConcurrentWrites() throws InterruptedException {
+        for (long id = 0; id < 10_000; id++) {
+            memberRepository.save(new Member(id, "gen0", Grade.BASIC));
+        }
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong writes = new AtomicLong();
+        final Thread writer = new Thread(() -> {
+            for (int generation = 1; running.get(); generation++) {
+                for (long id = 0; id < 12_000 && running.get(); id++) {
+                    memberRepository.save(new Member(id, "gen" + generation, Grade.VIP));
+                    writes.incrementAndGet();
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int round = 0; round < 5; round++) {
+                try (MemberStoreSnapshot snapshot = memberRepository.snapshot()) {
+                    final Map<Long, String> sequential = snapshot.stream().collect(Collectors.toMap(Member::getId, Member::getName));
+                    final Map<Long, String> parallel = snapshot.parallelStream().collect(Collectors.toConcurrentMap(Member::getId, Member::getName));
+                    assertThat(parallel).isEqualTo(sequential);
+                    assertThat(sequential.size()).isBetween(10_000, 12_000);
+                    for (long id = 0; id < 100; id++) {
+                        assertThat(snapshot.findById(id).getName()).isEqualTo(sequential.get(id));
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        System.out.println("writes during scans = " + writes.get());
+        assertThat(writes.get()).isGreaterThan(0);
+    }
+
+    @DisplayName("저장 도중에 멈춘 쓰기가 있어도 다른 쓰기는 기다리지 않는다. 그동안 만든 스냅샷만 멈춘 쓰기가 번호를 받을 때까지 기다린다.")
+    @Test
+    void stalledWriterBlocksOnlySnapshots() throws InterruptedException {
+        final VersionedMemberStore store = new VersionedMemberStore();
+        final CountDownLatch stalled = new CountDownLatch(1);
+        final CountDownLatch resume = new CountDownLatch(1);
+        final MemberChangeLog stallingLog = new MemberChangeLog(2, -1) {
+            @Override
+            public void publish(final Member member, final Member previous) { // 번호를 받기 직전에 멈춘다.
+                stalled.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        final Thread slowWriter = new Thread(() -> store.put(new Member(1L, "slow", Grade.BASIC), stallingLog));
+        slowWriter.start();
+        stalled.await();
+
+        // 멈춘 쓰기는 회원 1 의 칸(ConcurrentHashMap bin)을 잡고 있으므로, 같은 칸을 쓰지 않고 표를 늘리지도 않는 회원만 저장한다.
+        final Thread writers = new Thread(() -> {
+            for (long id = 2; id < 10; id++) {
+                store.put(new Member(id, "member" + id, Grade.BASIC), null);
+            }
+        });
+        writers.start();
+        writers.join(5_000);
+        assertThat(writers.isAlive()).isFalse();
+
+        final AtomicReference<MemberStoreSnapshot> snapshot = new AtomicReference<>();
+        final Thread reader = new Thread(() -> snapshot.set(store.snapshot()));
+        reader.start();
+        reader.join(100);
+        assertThat(reader.isAlive()).isTrue(); // 멈춘 쓰기의 번호가 S 이하일 수 있으므로 기다린다.
+
+        resume.countDown();
+        reader.join(5_000);
+        slowWriter.join();
+        assertThat(snapshot.get().findById(1L)).isNull(); // 멈춘 쓰기는 다른 쓰기보다 늦게 번호를 받아서 스냅샷 시점 뒤에 있다.
+        assertThat(snapshot.get().stream().count()).isEqualTo(8);
+        assertThat(store.get(1L).getName()).isEqualTo("slow");
+        snapshot.get().close();
+    }
+
+    @DisplayName("열린 스냅샷이 보는 옛 버전만 남고, 스냅샷을 닫으면 정리된다.")
+    @Test
+    void reclaimsOldVersions() {
+        memberRepository.save(new Member(1L, "v1", Grade.BASIC));
+        memberRepository.save(new Member(1L, "v2", Grade.BASIC));
+        assertThat(memberRepository.versionCount(1L)).isEqualTo(1); // 스냅샷이 없으면 옛 버전을 남기지 않는다.
+
+        final MemberStoreSnapshot first = memberRepository.snapshot();
+        memberRepository.save(new Member(1L, "v3", Grade.BASIC));
+        final MemberStoreSnapshot second = memberRepository.snapshot();
+        memberRepository.save(new Member(1L, "v4", Grade.BASIC));
+        memberRepository.save(new Member(1L, "v5", Grade.BASIC));
+        assertThat(memberRepository.versionCount(1L)).isEqualTo(4); // v5, v4, v3(second), v2(first)
+        assertThat(List.of(first.findById(1L).getName(), second.findById(1L).getName())).containsExactly("v2", "v3");
+
+        first.close();
+        assertThat(memberRepository.versionCount(1L)).isEqualTo(3); // v5, v4, v3(second). 가장 오래된 스냅샷이 보는 버전 위로는 모두 남긴다.
+        assertThat(second.findById(1L).getName()).isEqualTo("v3");
+        second.close();
+        assertThat(memberRepository.versionCount(1L)).isEqualTo(1);
+        assertThat(memberRepository.findById(1L).getName()).isEqualTo("v5");
+    }
+}
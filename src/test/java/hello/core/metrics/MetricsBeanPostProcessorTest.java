@@ -0,0 +1,123 @@
+package hello.core.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import hello.core.AutoAppConfig;
+import hello.core.annotation.Monitored;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemberServiceImpl;
+import hello.core.order.OrderService;
+
+class MetricsBeanPostProcessorTest {
+
+    @DisplayName("@Monitored 빈은 프록시로 감싸지고, 메서드별 호출 수와 지연 시간이 기록된다.")
+    @Test
+    void monitoredBeanIsRecorded() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class);
+        final MemberService memberService = ac.getBean(MemberService.class);
+        final OrderService orderService = ac.getBean(OrderService.class);
+        assertThat(memberService.getClass().getName()).contains(ClassUtils.CGLIB_CLASS_SEPARATOR);
+        assertThat(ac.getBean(MemberServiceImpl.class)).isSameAs(memberService); // 구체 클래스 조회도 가능
+
+        memberService.join(new Member(1L, "memberA", Grade.VIP));
+        for (int i = 0; i < 100; i++) {
+            orderService.createOrder(1L, "itemA", 10000);
+        }
+
+        final Map<String, MethodStats> snapshot = ac.getBean(MetricsRegistry.class).snapshot();
+        System.out.println("snapshot = " + snapshot);
+        assertThat(snapshot.get("memberServiceImpl.join(Member)").getCount()).isEqualTo(1);
+        assertThat(snapshot.get("orderServiceImpl.createOrder(Long,String,int)").getCount()).isEqualTo(100);
+        assertThat(snapshot.get("rateDiscountPolicy.discount(Member,int)").getCount()).isEqualTo(100);
+        assertThat(snapshot.get("orderServiceImpl.createOrder(Long,String,int)").getP99Nanos()).isGreaterThan(0);
+        ac.close();
+    }
+
+    @DisplayName("오버로드된 메서드는 따로 기록되고, 프로토타입 빈은 인스턴스가 늘어도 프록시 클래스를 하나만 만든다.")
+    @Test
+    void overloadsAndPrototypes() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.registerBean(MetricsRegistry.class);
+        ac.registerBean(MetricsBeanPostProcessor.class);
+        ac.registerBean("calculator", Calculator.class, definition -> definition.setScope("prototype"));
+        ac.refresh();
+
+        final Calculator first = ac.getBean(Calculator.class);
+        final Calculator second = ac.getBean(Calculator.class);
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getClass()).isSameAs(second.getClass());
+        first.add(1, 2);
+        second.add(1, 2);
+        first.add(1, 2, 3);
+
+        final Map<String, MethodStats> snapshot = ac.getBean(MetricsRegistry.class).snapshot();
+        assertThat(snapshot.get("calculator.add(int,int)").getCount()).isEqualTo(2);
+        assertThat(snapshot.get("calculator.add(int,int,int)").getCount()).isEqualTo(1);
+        ac.close();
+    }
+
+    @DisplayName("히스토그램의 백분위 값은 버킷 폭(약 6%) 안에서 정확해야 한다.")
+    @Test
+    void histogramPercentile() {
+        final LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getTotalCount()).isEqualTo(10000);
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(5000L, 5320L);
+        assertThat(histogram.getValueAtPercentile(99)).isBetween(9900L, 10000L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10000);
+    }
+
+    @DisplayName("프록시를 거칠 때 추가되는 호출당 비용을 측정한다.")
+    @Test
+    @Tag("benchmark")
+    void overhead() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class);
+        final MemberService proxied = ac.getBean(MemberService.class);
+        final MemberService direct = new MemberServiceImpl(((MemberServiceImpl) proxied).getMemberRepository());
+        proxied.join(new Member(1L, "memberA", Grade.VIP));
+
+        final int iterations = 2_000_000;
+        for (int round = 0; round < 3; round++) { // 앞의 라운드는 JIT 워밍업
+            final long directNanos = measure(direct, iterations);
+            final long proxiedNanos = measure(proxied, iterations);
+            System.out.println("direct = " + directNanos / iterations + "ns/call, proxied = "
+                               + proxiedNanos / iterations + "ns/call, overhead = "
+                               + (proxiedNanos - directNanos) / iterations + "ns/call");
+        }
+        ac.close();
+    }
+
+    private long measure(final MemberService memberService, final int iterations) {
+        long sink = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += memberService.findMember(1L).getId();
+        }
+        final long elapsed = System.nanoTime() - start;
+        assertThat(sink).isEqualTo(iterations);
+        return elapsed;
+    }
+
+    @Monitored
+    static class Calculator {
+        public int add(final int a, final int b) {
+            return a + b;
+        }
+
+        public int add(final int a, final int b, final int c) {
+            return a + b + c;
+        }
+    }
+}
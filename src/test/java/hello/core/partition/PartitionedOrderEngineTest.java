@@ -0,0 +1,267 @@
+package hello.core.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AppConfig;
+import hello.core.AutoAppConfig;
+import hello.core.cdc.MemberChangeLog;
+import hello.core.cdc.MemberChangeSubscription;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemberServiceImpl;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderListener;
+import hello.core.order.OrderService;
+import hello.core.order.OrderServiceImpl;
+import hello.core.statistics.GradeStatistics;
+import hello.core.statistics.OrderStatistics;
+import hello.core.tiered.TieredMemberConfig;
+import hello.core.tiered.TieredMemberRepository;
+
+class PartitionedOrderEngineTest {
+
+    private final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @AfterEach
+    void afterEach() {
+        memberRepository.clearStore();
+    }
+
+    @DisplayName("여러 스레드가 동시에 주문해도 파티션별 집계를 합친 값이 정확하다.")
+    @Test
+    void concurrentOrders() throws Exception {
+        saveMembers(1000);
+        try (PartitionedOrderEngine engine = new PartitionedOrderEngine(memberRepository, new RateDiscountPolicy(), 4)) {
+            assertThat(engine.memberCount()).isEqualTo(1000);
+
+            final int threads = 4;
+            final int ordersPerThread = 20_000;
+            final List<Thread> callers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                callers.add(new Thread(() -> {
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        final Order order = engine.createOrder((long) (i % 1000), "itemA", 10000);
+                        assertThat(order.getDiscountPrice()).isEqualTo(i % 2 == 0 ? 1000 : 0);
+                    }
+                }));
+            }
+            callers.forEach(Thread::start);
+            for (Thread caller : callers) {
+                caller.join();
+            }
+
+            final Map<Grade, GradeTotals> totals = engine.totals();
+            System.out.println("totals = " + totals);
+            final long ordersPerGrade = threads * ordersPerThread / 2;
+            assertThat(totals.get(Grade.VIP).getOrderCount()).isEqualTo(ordersPerGrade);
+            assertThat(totals.get(Grade.VIP).getDiscountTotal()).isEqualTo(ordersPerGrade * 1000);
+            assertThat(totals.get(Grade.BASIC).getOrderCount()).isEqualTo(ordersPerGrade);
+            assertThat(totals.get(Grade.BASIC).getNetRevenue()).isEqualTo(ordersPerGrade * 10000);
+        }
+    }
+
+    @DisplayName("회원 가입은 담당 파티션으로 가고, 없는 회원의 주문은 호출한 스레드에 예외로 전달된다.")
+    @Test
+    void joinAndUnknownMember() throws Exception {
+        try (PartitionedOrderEngine engine = new PartitionedOrderEngine(memberRepository, new RateDiscountPolicy(), 3)) {
+            engine.join(new Member(7L, "memberA", Grade.VIP));
+            assertThat(engine.findMember(7L).getName()).isEqualTo("memberA");
+            assertThat(memberRepository.findById(7L)).isNotNull();
+            assertThat(engine.createOrder(7L, "itemA", 20000).getDiscountPrice()).isEqualTo(2000);
+
+            memberRepository.save(new Member(8L, "memberB", Grade.BASIC)); // 저장소에 직접 저장된 회원은 처음 조회할 때 파티션이 가져간다.
+            assertThat(engine.createOrder(8L, "itemA", 20000).getDiscountPrice()).isEqualTo(0);
+            assertThat(engine.memberCount()).isEqualTo(2);
+
+            assertThatThrownBy(() -> engine.createOrder(99L, "itemA", 10000))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("99");
+        }
+    }
+
+    @DisplayName("order.engine=partitioned 이면 OrderService 와 MemberService 로 파티션 엔진이 주입되고, OrderListener 빈도 주문마다 불린다.")
+    @Test
+    void partitionedMode() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("order.engine", "partitioned", "order.partitions", "2")));
+        ac.register(AppConfig.class, RateDiscountPolicy.class, OrderStatistics.class, PartitionedOrderConfig.class);
+        ac.refresh();
+
+        final PartitionedOrderEngine engine = ac.getBean(PartitionedOrderEngine.class);
+        assertThat(ac.getBean(OrderService.class)).isSameAs(engine);
+        assertThat(ac.getBean(MemberService.class)).isSameAs(engine);
+        assertThat(engine.getPartitionCount()).isEqualTo(2);
+
+        engine.join(new Member(1L, "memberA", Grade.VIP));
+        assertThat(ac.getBean(OrderService.class).createOrder(1L, "itemA", 10000).getDiscountPrice()).isEqualTo(1000);
+        final GradeStatistics vip = ac.getBean(OrderStatistics.class).snapshot(Grade.VIP);
+        assertThat(vip.getOrderCount()).isEqualTo(1);
+        assertThat(vip.getDiscountTotal()).isEqualTo(1000);
+        ac.close();
+    }
+
+    @DisplayName("엔진을 거치지 않고 MemberService 로 등급을 바꿔도, 변경 기록이 전달된 다음 주문은 바뀐 등급으로 할인된다.")
+    @Test
+    void gradeChangeOutsideEngine() throws InterruptedException {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("order.engine", "partitioned", "order.partitions", "2")));
+        ac.register(AutoAppConfig.class, PartitionedOrderConfig.class);
+        ac.refresh();
+
+        final PartitionedOrderEngine engine = ac.getBean(PartitionedOrderEngine.class);
+        engine.join(new Member(1L, "memberA", Grade.BASIC));
+        assertThat(engine.createOrder(1L, "itemA", 10000).getDiscountPrice()).isEqualTo(0);
+
+        ac.getBean(MemberServiceImpl.class).join(new Member(1L, "memberA", Grade.VIP)); // 저장소에 바로 저장한다.
+        awaitDelivered(ac.getBean(MemberChangeLog.class), engine);
+        assertThat(engine.createOrder(1L, "itemA", 10000).getDiscountPrice()).isEqualTo(1000);
+        ac.close();
+    }
+
+    @DisplayName("member.storage=tiered 여도 저장소가 변경을 기록하므로, 엔진 밖에서 바꾼 등급이 다음 주문에 반영된다.")
+    @Test
+    void gradeChangeOutsideEngineTiered() throws InterruptedException {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("order.engine", "partitioned", "order.partitions", "2", "member.storage", "tiered")));
+        ac.register(AutoAppConfig.class, TieredMemberConfig.class, PartitionedOrderConfig.class);
+        ac.refresh();
+
+        final PartitionedOrderEngine engine = ac.getBean(PartitionedOrderEngine.class);
+        engine.join(new Member(1L, "memberA", Grade.BASIC));
+        assertThat(ac.getBean(TieredMemberRepository.class).findById(1L).getName()).isEqualTo("memberA");
+        assertThat(engine.createOrder(1L, "itemA", 10000).getDiscountPrice()).isEqualTo(0);
+
+        ac.getBean(MemberServiceImpl.class).join(new Member(1L, "memberA", Grade.VIP));
+        awaitDelivered(ac.getBean(MemberChangeLog.class), engine);
+        assertThat(engine.createOrder(1L, "itemA", 10000).getDiscountPrice()).isEqualTo(1000);
+        ac.close();
+    }
+
+    @DisplayName("주문하는 도중에 엔진을 닫아도 모든 호출이 결과를 받거나 RejectedExecutionException 으로 끝난다.")
+    @Test
+    void closeWhileOrdering() throws Exception {
+        saveMembers(100);
+        final PartitionedOrderEngine engine = new PartitionedOrderEngine(memberRepository, new RateDiscountPolicy(), 2);
+        final List<Thread> callers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            callers.add(new Thread(() -> {
+                for (long i = 0; ; i++) {
+                    try {
+                        engine.createOrder(i % 100, "itemA", 10000);
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        callers.forEach(Thread::start);
+        Thread.sleep(50);
+        engine.close();
+        for (Thread caller : callers) {
+            caller.join(10_000);
+            assertThat(caller.isAlive()).isFalse();
+        }
+    }
+
+    @DisplayName("1개부터 CPU 수만큼 스레드를 늘려가며 공유 상태를 쓰는 OrderServiceImpl 과 파티션 엔진의 처리량을 비교한다.")
+    @Test
+    @Tag("benchmark")
+    void scalingBenchmark() throws Exception {
+        saveMembers(10_000);
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final int ordersPerThread = 200_000;
+        final List<Integer> threadCounts = new ArrayList<>();
+        for (int n = 1; n < cores; n *= 2) {
+            threadCounts.add(n);
+        }
+        threadCounts.add(cores);
+
+        System.out.printf("%8s %20s %20s%n", "threads", "shared(orders/s)", "partitioned(orders/s)");
+        for (int round = 0; round < 2; round++) { // 첫 번째 라운드는 워밍업
+            for (int threads : threadCounts) {
+                final OrderStatistics statistics = new OrderStatistics();
+                final OrderServiceImpl shared = new OrderServiceImpl(memberRepository, new RateDiscountPolicy(),
+                        new StaticListableBeanFactory(Collections.singletonMap("orderStatistics", statistics))
+                                .getBeanProvider(OrderListener.class));
+                final double sharedRate = run(threads, ordersPerThread, (memberId, ignored) -> shared.createOrder(memberId, "itemA", 10000));
+
+                final double partitionedRate;
+                try (PartitionedOrderEngine engine = new PartitionedOrderEngine(memberRepository, new RateDiscountPolicy(), threads)) {
+                    partitionedRate = run(threads, ordersPerThread, (memberId, pending) -> pending.add(engine.submitOrder(memberId, "itemA", 10000)));
+                    assertThat(engine.totals().values().stream().mapToLong(GradeTotals::getOrderCount).sum())
+                            .isEqualTo((long) threads * ordersPerThread);
+                }
+                if (round == 1) {
+                    System.out.printf("%8d %20.0f %20.0f%n", threads, sharedRate, partitionedRate);
+                }
+            }
+        }
+    }
+
+    // 호출 스레드마다 주문을 256개씩 넘기고, 다 끝날 때까지 기다린 다음 다음 묶음을 넘긴다.
+    private static double run(final int threads, final int ordersPerThread, final OrderCall call) throws InterruptedException {
+        final List<Thread> callers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            callers.add(new Thread(() -> {
+                final List<CompletableFuture<Order>> pending = new ArrayList<>(256);
+                for (int i = 0; i < ordersPerThread; i++) {
+                    call.order((long) ((seed * 7919L + i) % 10_000), pending);
+                    if (pending.size() == 256) {
+                        pending.forEach(CompletableFuture::join);
+                        pending.clear();
+                    }
+                }
+                pending.forEach(CompletableFuture::join);
+            }));
+        }
+        final long start = System.nanoTime();
+        callers.forEach(Thread::start);
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        return (double) threads * ordersPerThread * 1_000_000_000L / (System.nanoTime() - start);
+    }
+
+    private void saveMembers(final int count) {
+        for (long id = 0; id < count; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+    }
+
+    private interface OrderCall {
+        void order(Long memberId, List<CompletableFuture<Order>> pending);
+    }
+
+    private static void awaitDelivered(final MemberChangeLog log, final PartitionedOrderEngine engine) throws InterruptedException {
+        final MemberChangeSubscription subscription = log.getSubscriptions().stream()
+                                                         .filter(s -> s.getSubscriber() == engine).findFirst().orElseThrow();
+        assertThat(log.getHeadSequence()).isPositive();
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while (subscription.getCursor() < log.getHeadSequence() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
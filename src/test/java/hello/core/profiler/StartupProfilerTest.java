@@ -0,0 +1,108 @@
+package hello.core.profiler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import hello.core.AppConfig;
+import hello.core.AutoAppConfig;
+
+class StartupProfilerTest {
+
+    @DisplayName("AppConfig - 팩토리 메서드 안에서 만들어지는 빈은 의존 빈으로 잡히고, 설정 클래스의 CGLIB 강화도 보고된다.")
+    @Test
+    void appConfig() {
+        final StartupProfiler profiler = new StartupProfiler();
+        final ConfigurableApplicationContext ac = profiler.annotationConfigApplicationContext(AppConfig.class);
+        final StartupReport report = profiler.getReport();
+        System.out.println(report);
+
+        assertThat(report.getBean("memberService").getDependencies())
+                .extracting(BeanTiming::getBeanName).contains("memberRepository");
+        assertThat(report.getEnhancedConfigurations()).anyMatch(line -> line.startsWith("appConfig"));
+        assertThat(report.getCriticalPath()).isNotEmpty();
+        ac.close();
+    }
+
+    @DisplayName("AutoAppConfig - 컴포넌트 스캔으로 등록된 빈도 측정된다.")
+    @Test
+    void autoAppConfig() {
+        final StartupProfiler profiler = new StartupProfiler();
+        final ConfigurableApplicationContext ac = profiler.annotationConfigApplicationContext(AutoAppConfig.class);
+        final StartupReport report = profiler.getReport();
+        System.out.println(report);
+
+        final BeanTiming memberRepository = report.getBean("memoryMemberRepository");
+        assertThat(memberRepository.getParent()).isNotNull(); // 먼저 스캔된 빈의 생성자 주입으로 만들어진다.
+        assertThat(memberRepository.getParent().getDependencies()).contains(memberRepository);
+        assertThat(report.getBean("memberServiceImpl").getProxyNanos()).isGreaterThan(0); // @Monitored 프록시 생성
+        assertThat(report.getDefinitionProcessingNanos()).isGreaterThan(0);
+        ac.close();
+    }
+
+    @DisplayName("appConfig.xml - 생성자 인자로 참조하는 빈이 의존 빈으로 잡힌다.")
+    @Test
+    void xmlConfig() {
+        final StartupProfiler profiler = new StartupProfiler();
+        final ConfigurableApplicationContext ac = profiler.genericXmlApplicationContext("appConfig.xml");
+        final StartupReport report = profiler.getReport();
+        System.out.println(report);
+
+        assertThat(report.getBean("orderService").getDependencies())
+                .extracting(BeanTiming::getBeanName).contains("discountPolicy");
+        assertThat(report.getDefinitionLoadingNanos()).isGreaterThan(0);
+        ac.close();
+    }
+
+    @DisplayName("@PostConstruct 에서 오래 걸리는 빈은 초기화 시간으로 잡히고, 그 빈을 쓰는 빈의 self 시간에서는 빠진다.")
+    @Test
+    void slowInitCallback() {
+        final StartupProfiler profiler = new StartupProfiler();
+        final ConfigurableApplicationContext ac = profiler.annotationConfigApplicationContext(SlowConfig.class);
+        final StartupReport report = profiler.getReport();
+        System.out.println(report);
+
+        final BeanTiming slowClient = report.getBean("slowClient");
+        assertThat(slowClient.getInitializationNanos()).isGreaterThanOrEqualTo(50_000_000L);
+        assertThat(report.getBeans()).allMatch(bean -> bean.getInitializationNanos() <= slowClient.getInitializationNanos());
+        final BeanTiming clientUser = report.getBean("clientUser");
+        assertThat(clientUser.getDependencyNanos()).isEqualTo(slowClient.getTotalNanos());
+        assertThat(clientUser.getSelfNanos()).isEqualTo(clientUser.getTotalNanos() - slowClient.getTotalNanos());
+        assertThat(report.getCriticalPath()).extracting(BeanTiming::getBeanName).containsSubsequence("clientUser", "slowClient");
+        ac.close();
+    }
+
+    @Configuration
+    static class SlowConfig {
+        @Bean
+        public ClientUser clientUser() {
+            return new ClientUser(slowClient());
+        }
+
+        @Bean
+        public SlowClient slowClient() {
+            return new SlowClient();
+        }
+    }
+
+    static class SlowClient {
+        @PostConstruct
+        public void init() throws InterruptedException {
+            Thread.sleep(50); // 초기화 시점에 네트워크 연결을 맺는 NetworkClient 흉내
+        }
+    }
+
+    static class ClientUser {
+        private final SlowClient slowClient;
+
+        ClientUser(final SlowClient slowClient) {
+            this.slowClient = slowClient;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package hello.core.promotion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderService;
+
+class GradePromoterTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @AfterEach
+    void afterEach() {
+        memberRepository.clearStore();
+    }
+
+    @DisplayName("설정을 켜면 누적 구매액이 기준을 넘는 주문 바로 다음 주문부터 VIP 할인을 받는다.")
+    @Test
+    void promotesOnThreshold() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("member.promotion.enabled", "true", "member.promotion.threshold", "20000",
+                        "member.promotion.half-life-days", "0"))); // 실제 시계로 줄어드는 금액이 결과를 흔들지 않게 한다.
+        ac.register(AutoAppConfig.class, GradePromotionConfig.class);
+        ac.refresh();
+
+        ac.getBean(MemberService.class).join(new Member(1L, "memberA", Grade.BASIC));
+        final OrderService orderService = ac.getBean(OrderService.class);
+        assertThat(orderService.createOrder(1L, "itemA", 10000).getDiscountPrice()).isZero();
+        assertThat(orderService.createOrder(1L, "itemA", 10000).getDiscountPrice()).isZero(); // 이 주문으로 20000 이 된다.
+        assertThat(ac.getBean(MemberService.class).findMember(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(orderService.createOrder(1L, "itemA", 10000).getDiscountPrice()).isEqualTo(1000);
+        assertThat(ac.getBean(GradePromoter.class).getPromotions()).isEqualTo(1);
+        ac.close();
+    }
+
+    @DisplayName("누적 구매액은 반감기마다 절반으로 줄어서, 오래전에 산 금액으로는 기준을 넘지 못한다.")
+    @Test
+    void decay() {
+        final AtomicLong clock = new AtomicLong(1000 * DAY);
+        final GradePromoter promoter = new GradePromoter(memberRepository, 20000, Duration.ofDays(30), clock::get);
+        final Member member = new Member(1L, "memberA", Grade.BASIC);
+        memberRepository.save(member);
+
+        promoter.onOrder(member, new Order(1L, "itemA", 15000, 0));
+        clock.addAndGet(30 * DAY);
+        assertThat(promoter.getSpend(1L)).isCloseTo(7500, offset(0.01));
+        promoter.onOrder(member, new Order(1L, "itemA", 10000, 0));
+        assertThat(promoter.getSpend(1L)).isCloseTo(17500, offset(0.01));
+        assertThat(memberRepository.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+
+        promoter.onOrder(member, new Order(1L, "itemA", 5000, 0));
+        assertThat(memberRepository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(member.getGrade()).isEqualTo(Grade.BASIC); // 저장소의 회원 객체는 고치지 않고 복사본을 저장한다.
+    }
+
+    @DisplayName("기준과는 원 단위로 반올림해서 비교하므로, 주문 사이에 줄어든 1원 미만의 금액으로는 떨어지지 않는다.")
+    @Test
+    void thresholdRounding() {
+        final AtomicLong clock = new AtomicLong(1000 * DAY);
+        final GradePromoter promoter = new GradePromoter(memberRepository, 20000, Duration.ofDays(30), clock::get);
+        final Member member = new Member(1L, "memberA", Grade.BASIC);
+        memberRepository.save(member);
+
+        promoter.onOrder(member, new Order(1L, "itemA", 10000, 0));
+        clock.addAndGet(1000);
+        promoter.onOrder(member, new Order(1L, "itemA", 10000, 0));
+        assertThat(promoter.getSpend(1L)).isLessThan(20000);
+        assertThat(memberRepository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+    }
+
+    @DisplayName("올릴 때는 저장소의 최신 회원을 다시 읽으므로, 주문에 딸려 온 회원이 오래됐어도 이름 변경을 덮어쓰지 않고 한 번만 올린다.")
+    @Test
+    void promotesLatestMemberOnce() throws InterruptedException {
+        final GradePromoter promoter = new GradePromoter(memberRepository, 20000, Duration.ZERO);
+        final Member stale = new Member(1L, "memberA", Grade.BASIC);
+        memberRepository.save(stale);
+        memberRepository.save(new Member(1L, "renamed", Grade.BASIC));
+
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] orderThreads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            orderThreads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int order = 0; order < 100; order++) {
+                    promoter.onOrder(stale, new Order(1L, "itemA", 10000, 0));
+                }
+            });
+            orderThreads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : orderThreads) {
+            thread.join();
+        }
+
+        assertThat(promoter.getPromotions()).isEqualTo(1);
+        final Member promoted = memberRepository.findById(1L);
+        assertThat(promoted.getName()).isEqualTo("renamed");
+        assertThat(promoted.getGrade()).isEqualTo(Grade.VIP);
+    }
+
+    @DisplayName("1원 미만으로 줄어든 회원은 표를 늘릴 때와 재구성할 때 빠지고, 0원으로 읽힌다.")
+    @Test
+    void dropsDecayedMembers() {
+        final AtomicLong clock = new AtomicLong(1000 * DAY);
+        final GradePromoter promoter = new GradePromoter(new MemoryMemberRepository(), Long.MAX_VALUE, Duration.ofDays(1), clock::get);
+        final Member any = new Member(0L, "any", Grade.VIP);
+        final int members = 70_000; // 줄마다 처음 표 크기의 절반을 넘겨서 resize 가 일어난다.
+        for (long id = 0; id < members; id++) {
+            any.setId(id);
+            promoter.onOrder(any, new Order(id, "item", 10000, 0));
+        }
+        assertThat(promoter.getTrackedMembers()).isEqualTo(members);
+
+        clock.addAndGet(60 * DAY); // 10000 원이 2^-60 배가 된다.
+        for (long id = members; id < 2 * members; id++) {
+            any.setId(id);
+            promoter.onOrder(any, new Order(id, "item", 10000, 0));
+        }
+        assertThat(promoter.getTrackedMembers()).isLessThan(2 * members - members / 2);
+        assertThat(promoter.getSpend(1L)).isZero();
+        assertThat(promoter.getSpend(members + 1L)).isEqualTo(10000);
+
+        final long now = clock.get();
+        final int promoted = promoter.rebuild(new long[]{1L, 2L, 2L, 3L}, new long[]{10000, 10000, 10000, 10000},
+                new long[]{now - 60 * DAY, now - 60 * DAY, now, now - DAY});
+        assertThat(promoted).isZero();
+        assertThat(promoter.getTrackedMembers()).isEqualTo(2);
+        assertThat(promoter.getSpend(1L)).isZero();
+        assertThat(promoter.getSpend(2L)).isCloseTo(10000, offset(0.01));
+        assertThat(promoter.getSpend(3L)).isCloseTo(5000, offset(0.01));
+    }
+
+    @DisplayName("fork-join 재구성 결과는 주문을 하나씩 더한 결과와 같고, 기준을 넘는 회원만 올린다.")
+    @Test
+    void parallelRebuild() {
+        final long now = 1000 * DAY;
+        final int members = 50_000;
+        final int orders = 1_000_000;
+        final Random random = new Random(1);
+        final long[] memberIds = new long[orders];
+        final long[] amounts = new long[orders];
+        final long[] timestamps = new long[orders];
+        for (int i = 0; i < orders; i++) {
+            memberIds[i] = random.nextInt(members);
+            amounts[i] = 1000 + random.nextInt(20000);
+            timestamps[i] = now - (long) (random.nextDouble() * 90 * DAY);
+        }
+        for (long id = 0; id < members; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+
+        final GradePromoter sequential = new GradePromoter(new MemoryMemberRepository(), Long.MAX_VALUE, Duration.ofDays(30), () -> now);
+        long start = System.nanoTime();
+        final Member any = new Member(0L, "any", Grade.VIP);
+        for (int i = 0; i < orders; i++) {
+            any.setId(memberIds[i]);
+            sequential.onOrder(any, new Order(memberIds[i], "item", (int) amounts[i], 0));
+        }
+        final long sequentialNanos = System.nanoTime() - start;
+
+        final Map<Long, Double> expected = new HashMap<>();
+        final double decayPerMilli = Math.log(2) / (30 * DAY);
+        for (int i = 0; i < orders; i++) {
+            expected.merge(memberIds[i], amounts[i] * Math.exp(-decayPerMilli * (now - timestamps[i])), Double::sum);
+        }
+        final long threshold = 120_000;
+        final long expectedPromotions = expected.entrySet().stream()
+                .filter(entry -> Math.round(entry.getValue()) >= threshold && entry.getKey() % 10 != 0).count();
+
+        final GradePromoter promoter = new GradePromoter(memberRepository, threshold, Duration.ofDays(30), () -> now);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        start = System.nanoTime();
+        final int promoted = promoter.rebuild(memberIds, amounts, timestamps, pool);
+        final long rebuildNanos = System.nanoTime() - start;
+        pool.shutdown();
+        System.out.printf("onOrder %dns/order (single thread), rebuild %d orders in %dms, promoted %d of %d members%n",
+                sequentialNanos / orders, orders, rebuildNanos / 1_000_000, promoted, members);
+
+        assertThat(promoter.getTrackedMembers()).isEqualTo(expected.size());
+        for (long id = 0; id < members; id += 97) {
+            assertThat(promoter.getSpend(id)).isCloseTo(expected.getOrDefault(id, 0.0), offset(0.001));
+        }
+        assertThat(promoted).isEqualTo(expectedPromotions).isGreaterThan(0);
+        assertThat(memberRepository.findAll()).filteredOn(member -> member.getGrade() == Grade.VIP)
+                .hasSize((int) (members / 10 + expectedPromotions));
+    }
+}
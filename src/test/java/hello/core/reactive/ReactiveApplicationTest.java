@@ -0,0 +1,142 @@
+package hello.core.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.ClientHttpConnectorAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import hello.core.AppConfig;
+import hello.core.common.MyLogger;
+import hello.core.scope.GeneratedScopedProxyRegistrar;
+import hello.core.web.LogDemoController;
+import hello.core.web.LogDemoService;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest(classes = ReactiveApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class ReactiveApplicationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @DisplayName("회원 가입, 조회, 주문을 논블로킹 엔드포인트로 처리한다.")
+    @Test
+    void memberAndOrder() {
+        webTestClient.post().uri("/members").bodyValue("{\"id\":500,\"name\":\"memberA\",\"grade\":\"VIP\"}")
+                     .header("Content-Type", "application/json")
+                     .exchange().expectStatus().isOk();
+        webTestClient.get().uri("/members/500").exchange()
+                     .expectStatus().isOk()
+                     .expectBody().jsonPath("$.name").isEqualTo("memberA");
+        webTestClient.post().uri("/orders").bodyValue("{\"memberId\":500,\"itemName\":\"itemA\",\"itemPrice\":20000}")
+                     .header("Content-Type", "application/json")
+                     .exchange().expectStatus().isOk()
+                     .expectBody().jsonPath("$.discountPrice").isEqualTo(2000);
+        webTestClient.get().uri("/members/404404").exchange().expectStatus().isNotFound();
+        webTestClient.post().uri("/orders").bodyValue("{\"memberId\":404404,\"itemName\":\"itemA\",\"itemPrice\":20000}")
+                     .header("Content-Type", "application/json")
+                     .exchange().expectStatus().isNotFound();
+    }
+
+    @DisplayName("요청 로거는 Reactor Context 로 전달되어, 컨트롤러와 서비스에 해당하는 로그가 같은 uuid 로 찍힌다.")
+    @Test
+    void requestLogInContext(final CapturedOutput output) {
+        webTestClient.get().uri("/log-demo?delayMs=10").exchange()
+                     .expectStatus().isOk()
+                     .expectBody(String.class).isEqualTo("OK");
+
+        final Matcher controller = Pattern.compile("\\[([0-9a-f-]{36})]\\[[^]]*log-demo[^]]*]controller test").matcher(output.getOut());
+        assertThat(controller.find()).isTrue();
+        assertThat(output.getOut()).contains("[" + controller.group(1) + "]").contains("service id = testId");
+        assertThat(output.getOut()).containsPattern(Pattern.quote("[" + controller.group(1) + "]") + "\\[[^]]*]service id = testId");
+    }
+
+    @DisplayName("동시 연결 수가 많을 때 톰캣(요청마다 스레드)과 네티(이벤트 루프) 비교")
+    @Test
+    @Tag("benchmark")
+    void compareWithTomcat() {
+        final int connections = Integer.getInteger("bench.connections", 2000);
+        final long delayMs = 500;
+        final ConfigurableApplicationContext servlet = new SpringApplicationBuilder(ServletApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0", "server.tomcat.max-connections=" + (connections + 100))
+                .run();
+        try {
+            final int tomcatPort = ((WebServerApplicationContext) servlet).getWebServer().getPort();
+            for (int round = 0; round < 2; round++) {
+                run("tomcat", "http-nio-", tomcatPort, connections, delayMs);
+                run("netty", "reactor-http-", port, connections, delayMs);
+            }
+        } finally {
+            servlet.close();
+        }
+    }
+
+    private void run(final String name, final String serverThreadPrefix, final int port, final int connections, final long delayMs) {
+        final ConnectionProvider provider = ConnectionProvider.builder(name).maxConnections(connections)
+                                                              .pendingAcquireMaxCount(-1).build();
+        final HttpClient client = HttpClient.create(provider).baseUrl("http://localhost:" + port)
+                                            .responseTimeout(Duration.ofMinutes(2));
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        final long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        final AtomicInteger serverThreads = new AtomicInteger();
+        final Disposable sampler = Flux.interval(Duration.ofMillis(100)).subscribe(tick -> {
+            final int count = (int) Thread.getAllStackTraces().keySet().stream()
+                                          .filter(thread -> thread.getName().startsWith(serverThreadPrefix)).count();
+            serverThreads.accumulateAndGet(count, Math::max);
+        });
+        final long start = System.nanoTime();
+
+        final List<String> bodies = new ArrayList<>(connections);
+        Flux.range(0, connections)
+            .flatMap(i -> client.get().uri("/log-demo?delayMs=" + delayMs).responseContent().aggregate().asString(), connections)
+            .doOnNext(bodies::add)
+            .blockLast();
+
+        final long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        sampler.dispose();
+        final long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%s: %d connections x %dms delay -> %dms, %.0f req/s, server threads %d, heap +%dMB (client included)%n",
+                name, connections, delayMs, elapsedMs, connections * 1000.0 / elapsedMs, serverThreads.get(),
+                (heapAfter - heapBefore) / (1024 * 1024));
+        provider.disposeLater().block();
+        assertThat(bodies).hasSize(connections).containsOnly("OK");
+    }
+
+    // 테스트 클래스까지 스캔하는 CoreApplication 대신, 톰캣 위의 log-demo 만 띄운다.
+    // 종료할 때 네티 서버와 같이 쓰는 전역 이벤트 루프를 닫지 않도록 WebClient 커넥터 자동 설정은 뺀다.
+    @EnableAutoConfiguration(exclude = ClientHttpConnectorAutoConfiguration.class)
+    @Import({AppConfig.class, LogDemoController.class, LogDemoService.class, MyLogger.class, GeneratedScopedProxyRegistrar.class})
+    static class ServletApplication {
+    }
+}
@@ -0,0 +1,139 @@
+package hello.core.scope;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.RequestScope;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import hello.core.common.MyLogger;
+
+class GeneratedScopedProxyTest {
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @DisplayName("생성된 프록시가 주입되고, 같은 요청 안에서는 같은 MyLogger 에, 다음 요청에서는 새 MyLogger 에 위임한다.")
+    @Test
+    void delegatesToCurrentRequestBean() {
+        final AnnotationConfigApplicationContext ac = requestContext(GeneratedScopedProxyRegistrar.class, MyLogger.class);
+        final MyLogger proxy = ac.getBean(MyLogger.class);
+        assertThat(proxy.getClass().getSimpleName()).isEqualTo("MyLogger_ScopedProxy");
+        assertThat(AopUtils.isAopProxy(proxy)).isFalse();
+        assertThatThrownBy(() -> proxy.log("no request")).isInstanceOf(IllegalStateException.class);
+
+        final ServletRequestAttributes first = startRequest();
+        proxy.setRequestURL("http://localhost/first");
+        final Object firstTarget = ac.getBean("scopedTarget.myLogger");
+        assertThat(ReflectionTestUtils.getField(firstTarget, "requestURL")).isEqualTo("http://localhost/first");
+        proxy.log("first");
+        first.requestCompleted(); // @PreDestroy 와 슬롯 정리
+
+        startRequest();
+        proxy.setRequestURL("http://localhost/second");
+        final Object secondTarget = ac.getBean("scopedTarget.myLogger");
+        assertThat(secondTarget).isNotSameAs(firstTarget);
+        assertThat(ReflectionTestUtils.getField(secondTarget, "requestURL")).isEqualTo("http://localhost/second");
+        assertThat(ReflectionTestUtils.getField(firstTarget, "requestURL")).isEqualTo("http://localhost/first");
+        ac.close();
+    }
+
+    @DisplayName("비동기 처리로 요청이 다른 스레드에서 끝나도, 처음 빈을 찾은 스레드의 슬롯이 비워진다.")
+    @Test
+    void asyncCompletionClearsOriginalThreadSlot() throws Exception {
+        final AnnotationConfigApplicationContext ac = requestContext(GeneratedScopedProxyRegistrar.class, MyLogger.class);
+        final RequestScopedTarget<MyLogger> target = new RequestScopedTarget<>(ac.getBeanFactory(), "scopedTarget.myLogger");
+        final ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        final ExecutorService requestThread = Executors.newSingleThreadExecutor();
+        try {
+            final MyLogger bound = requestThread.submit(() -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    return target.get();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }).get();
+            assertThat(requestThread.submit(target::peek).get()).isSameAs(bound);
+
+            attributes.requestCompleted(); // 다른 스레드(여기서는 테스트 스레드)에서 요청이 끝난다.
+            assertThat(requestThread.submit(target::peek).get()).isNull();
+        } finally {
+            requestThread.shutdown();
+        }
+        ac.close();
+    }
+
+    @DisplayName("요청 하나 안에서 반복 호출할 때 CGLIB 스코프 프록시와 생성된 프록시의 호출당 비용")
+    @Test
+    @Tag("benchmark")
+    void perCallBenchmark() {
+        final AnnotationConfigApplicationContext generated = requestContext(GeneratedScopedProxyRegistrar.class, MyLogger.class);
+        final AnnotationConfigApplicationContext cglib = requestContext(CglibConfig.class);
+        final MyLogger generatedProxy = generated.getBean(MyLogger.class);
+        final MyLogger cglibProxy = cglib.getBean(MyLogger.class);
+        assertThat(AopUtils.isCglibProxy(cglibProxy)).isTrue();
+
+        final ServletRequestAttributes attributes = startRequest();
+        final int calls = 1_000_000;
+        for (int round = 1; round <= 5; round++) {
+            final long cglibNanos = measure(cglibProxy, calls);
+            final long generatedNanos = measure(generatedProxy, calls);
+            System.out.printf("round %d: cglib %.1fns/call, generated %.1fns/call%n",
+                    round, (double) cglibNanos / calls, (double) generatedNanos / calls);
+        }
+        attributes.requestCompleted();
+        generated.close();
+        cglib.close();
+    }
+
+    private static long measure(final MyLogger proxy, final int calls) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            proxy.setRequestURL("http://localhost/log-demo");
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static AnnotationConfigApplicationContext requestContext(final Class<?>... componentClasses) {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getBeanFactory().registerScope(WebApplicationContext.SCOPE_REQUEST, new RequestScope());
+        ac.register(componentClasses);
+        ac.refresh();
+        return ac;
+    }
+
+    private static ServletRequestAttributes startRequest() {
+        final ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        return attributes;
+    }
+
+    @Configuration
+    static class CglibConfig {
+        @Bean
+        @Scope(value = WebApplicationContext.SCOPE_REQUEST, proxyMode = ScopedProxyMode.TARGET_CLASS)
+        public MyLogger myLogger() {
+            return new MyLogger();
+        }
+    }
+}
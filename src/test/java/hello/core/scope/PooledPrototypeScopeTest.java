@@ -0,0 +1,236 @@
+package hello.core.scope;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+
+public class PooledPrototypeScopeTest {
+
+    static final AtomicInteger created = new AtomicInteger();
+    static final AtomicInteger destroyed = new AtomicInteger();
+
+    @DisplayName("Provider.get() 은 미리 만들어둔 인스턴스를 주고, 돌려받을 때 reset 한다. 컨테이너 종료 시 @PreDestroy 가 호출된다.")
+    @Test
+    void pooledPrototype() {
+        created.set(0);
+        destroyed.set(0);
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(PoolConfig.class, ClientBean.class, PooledBean.class);
+        assertThat(created.get()).isEqualTo(4); // 풀 크기만큼 미리 생성
+
+        final ClientBean clientBean = ac.getBean(ClientBean.class);
+        for (int i = 0; i < 100; i++) {
+            assertThat(clientBean.logic()).isEqualTo(1); // reset 되었으므로 항상 1
+        }
+        assertThat(created.get()).isEqualTo(4); // 더 만들지 않음
+
+        final PooledBean borrowed1 = ac.getBean(PooledBean.class);
+        final PooledBean borrowed2 = ac.getBean(PooledBean.class);
+        assertThat(borrowed1).isNotSameAs(borrowed2);
+
+        ac.close();
+        assertThat(destroyed.get()).isEqualTo(4); // 돌려주지 않은 인스턴스까지 소멸 콜백 호출
+    }
+
+    @DisplayName("풀이 비면 새로 만들고, 가득 찬 풀에 돌려주면 소멸 콜백을 호출하고 버린다.")
+    @Test
+    void overflow() {
+        created.set(0);
+        destroyed.set(0);
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(PoolConfig.class, PooledBean.class);
+        final PooledPrototypeScope scope = ac.getBean(PooledPrototypeScope.class);
+        final PooledBean[] beans = new PooledBean[6];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = ac.getBean(PooledBean.class);
+        }
+        assertThat(created.get()).isEqualTo(6);
+        for (PooledBean bean : beans) {
+            scope.release(bean);
+        }
+        assertThat(destroyed.get()).isEqualTo(2);
+        ac.close();
+        assertThat(destroyed.get()).isEqualTo(6);
+    }
+
+    @DisplayName("같은 클래스의 pooled 빈 정의가 둘이어도 돌려준 인스턴스는 자기 빈 정의의 풀로 돌아간다.")
+    @Test
+    void sameClassTwoDefinitions() {
+        created.set(0);
+        destroyed.set(0);
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(PoolConfig.class, TwoPoolsConfig.class);
+        final PooledPrototypeScope scope = ac.getBean(PooledPrototypeScope.class);
+        assertThat(created.get()).isEqualTo(8);
+
+        final Object borrowed = ac.getBean("secondPooledBean");
+        scope.release(borrowed);
+        final List<Object> second = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            second.add(ac.getBean("secondPooledBean"));
+        }
+        assertThat(second).contains(borrowed);
+        assertThat(created.get()).isEqualTo(8);
+        assertThat(destroyed.get()).isZero();
+        ac.close();
+        assertThat(destroyed.get()).isEqualTo(8);
+    }
+
+    @DisplayName("Provider.get() 으로 매번 프로토타입을 만드는 것과 풀에서 꺼내는 것의 비용 비교")
+    @Test
+    @Tag("benchmark")
+    void benchmark() {
+        final AnnotationConfigApplicationContext pooled = new AnnotationConfigApplicationContext(PoolConfig.class, HeavyPooledBean.class, HeavyPooledClient.class);
+        final AnnotationConfigApplicationContext prototype = new AnnotationConfigApplicationContext(HeavyPrototypeBean.class, HeavyPrototypeClient.class);
+        final HeavyPooledClient pooledClient = pooled.getBean(HeavyPooledClient.class);
+        final HeavyPrototypeClient prototypeClient = prototype.getBean(HeavyPrototypeClient.class);
+
+        final int iterations = 100_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                prototypeClient.logic();
+            }
+            final long prototypeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                pooledClient.logic();
+            }
+            final long pooledNanos = System.nanoTime() - start;
+            System.out.println("Provider.get() prototype = " + prototypeNanos / iterations + "ns/op, pooled = " + pooledNanos / iterations + "ns/op");
+        }
+        pooled.close();
+        prototype.close();
+    }
+
+    @Configuration
+    static class PoolConfig {
+        @Bean
+        public static PooledPrototypeScope pooledPrototypeScope() {
+            return new PooledPrototypeScope(4);
+        }
+    }
+
+    @Configuration
+    static class TwoPoolsConfig {
+        @Bean
+        @Scope(PooledPrototypeScope.SCOPE_NAME)
+        public PooledBean firstPooledBean() {
+            return new PooledBean();
+        }
+
+        @Bean
+        @Scope(PooledPrototypeScope.SCOPE_NAME)
+        public PooledBean secondPooledBean() {
+            return new PooledBean();
+        }
+    }
+
+    @Scope("singleton")
+    static class ClientBean {
+        @Autowired
+        private Provider<PooledBean> pooledBeanProvider;
+        @Autowired
+        private PooledPrototypeScope pooledPrototypeScope;
+
+        public int logic() {
+            final PooledBean pooledBean = pooledBeanProvider.get();
+            try {
+                pooledBean.addCount();
+                return pooledBean.getCount();
+            } finally {
+                pooledPrototypeScope.release(pooledBean);
+            }
+        }
+    }
+
+    @Scope(PooledPrototypeScope.SCOPE_NAME)
+    static class PooledBean implements Poolable {
+        private int count = 0;
+
+        public void addCount() {
+            count++;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public void reset() {
+            count = 0;
+        }
+
+        @PostConstruct
+        public void init() {
+            created.incrementAndGet();
+        }
+
+        @PreDestroy
+        public void destroy() { // 프로토타입과 달리 호출됨
+            destroyed.incrementAndGet();
+        }
+    }
+
+    // 초기화 비용이 큰 빈: 버퍼를 할당하고 채운다.
+    static class HeavyBean {
+        protected final byte[] buffer = new byte[16 * 1024];
+
+        @PostConstruct
+        public void init() {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = (byte) i;
+            }
+        }
+
+        public int work() {
+            return buffer[buffer.length - 1];
+        }
+    }
+
+    @Scope(PooledPrototypeScope.SCOPE_NAME)
+    static class HeavyPooledBean extends HeavyBean {
+    }
+
+    @Scope("prototype")
+    static class HeavyPrototypeBean extends HeavyBean {
+    }
+
+    static class HeavyPooledClient {
+        @Autowired
+        private Provider<HeavyPooledBean> provider;
+        @Autowired
+        private PooledPrototypeScope pooledPrototypeScope;
+
+        public int logic() {
+            final HeavyPooledBean bean = provider.get();
+            try {
+                return bean.work();
+            } finally {
+                pooledPrototypeScope.release(bean);
+            }
+        }
+    }
+
+    static class HeavyPrototypeClient {
+        @Autowired
+        private Provider<HeavyPrototypeBean> provider;
+
+        public int logic() {
+            return provider.get().work();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package hello.core.scope;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.RequestScope;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class TaskScopeTest {
+
+    static final List<String> destroyed = new ArrayList<>();
+    static final AtomicInteger instances = new AtomicInteger();
+
+    @DisplayName("작업 안에서는 같은 빈을, 다음 작업에서는 새 빈을 주고, 작업을 닫으면 나중에 만든 빈부터 @PreDestroy 가 호출된다.")
+    @Test
+    void taskScope() {
+        destroyed.clear();
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(TaskScope.class, TaskLogger.class, TaskCounter.class, BatchJob.class);
+        final TaskScope taskScope = ac.getBean(TaskScope.class);
+        final BatchJob job = ac.getBean(BatchJob.class);
+        assertThatThrownBy(() -> job.process("no task")).hasRootCauseInstanceOf(IllegalStateException.class);
+
+        final int first;
+        try (TaskContext task = taskScope.open("task-1")) {
+            assertThat(job.process("a")).isEqualTo("[task-1] a #1");
+            assertThat(job.process("b")).isEqualTo("[task-1] b #2");
+            first = ac.getBean(TaskLogger.class).getInstance(); // 주입받은 것은 프록시라서 인스턴스 번호로 비교한다.
+            assertThat(ac.getBean(TaskLogger.class).getInstance()).isEqualTo(first);
+        }
+        assertThat(destroyed).containsExactly("counter task-1", "logger task-1");
+
+        try (TaskContext task = taskScope.open("task-2")) {
+            assertThat(job.process("c")).isEqualTo("[task-2] c #1");
+            assertThat(ac.getBean(TaskLogger.class).getInstance()).isNotEqualTo(first);
+        }
+        assertThat(destroyed).hasSize(4);
+        assertThat(taskScope.current()).isNull();
+        ac.close();
+    }
+
+    @DisplayName("작업 안에서 작업을 열면 닫을 때 바깥 작업으로 돌아가고, 순서를 어겨서 닫으면 실패한다.")
+    @Test
+    void nested() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(TaskScope.class, TaskLogger.class);
+        final TaskScope taskScope = ac.getBean(TaskScope.class);
+        try (TaskContext outer = taskScope.open("outer")) {
+            final int outerLogger = ac.getBean(TaskLogger.class).getInstance();
+            final TaskContext inner = taskScope.open("inner");
+            assertThat(ac.getBean(TaskLogger.class).getInstance()).isNotEqualTo(outerLogger);
+            assertThatThrownBy(outer::close).isInstanceOf(IllegalStateException.class);
+            assertThat(outer.isClosed()).isFalse();
+            inner.close();
+            assertThat(taskScope.current()).isSameAs(outer);
+            assertThat(ac.getBean(TaskLogger.class).getInstance()).isEqualTo(outerLogger);
+        }
+        ac.close();
+    }
+
+    @DisplayName("작업마다 스코프를 열고 빈을 하나 만들어 쓰고 닫는 비용: request 스코프(가짜 요청) vs task 스코프")
+    @Test
+    @Tag("benchmark")
+    void perTaskBenchmark() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getBeanFactory().registerScope(WebApplicationContext.SCOPE_REQUEST, new RequestScope());
+        ac.register(TaskScope.class, TaskWork.class, RequestWork.class);
+        ac.refresh();
+        final TaskScope taskScope = ac.getBean(TaskScope.class);
+        final ObjectProvider<TaskWork> taskWorks = ac.getBeanProvider(TaskWork.class);
+        final ObjectProvider<RequestWork> requestWorks = ac.getBeanProvider(RequestWork.class);
+
+        final int tasks = 200_000;
+        for (int round = 1; round <= 5; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                final ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+                RequestContextHolder.setRequestAttributes(attributes);
+                sink += requestWorks.getObject().work();
+                attributes.requestCompleted();
+                RequestContextHolder.resetRequestAttributes();
+            }
+            final long requestNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < tasks; i++) {
+                try (TaskContext task = taskScope.open("task")) {
+                    sink += taskWorks.getObject().work();
+                }
+            }
+            final long taskNanos = System.nanoTime() - start;
+            System.out.printf("round %d: request scope %.0fns/task, task scope %.0fns/task (%d)%n",
+                    round, (double) requestNanos / tasks, (double) taskNanos / tasks, sink);
+        }
+        ac.close();
+    }
+
+    @Scope(value = TaskScope.SCOPE_NAME, proxyMode = ScopedProxyMode.TARGET_CLASS)
+    static class TaskLogger {
+        @Autowired
+        private TaskScope taskScope;
+        private final int instance = instances.incrementAndGet();
+        private String taskId;
+
+        public String log(final String message) {
+            if (taskId == null) {
+                taskId = taskScope.current().getId();
+            }
+            return "[" + taskId + "] " + message;
+        }
+
+        public int getInstance() {
+            return instance;
+        }
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("logger " + taskId);
+        }
+    }
+
+    @Scope(value = TaskScope.SCOPE_NAME, proxyMode = ScopedProxyMode.TARGET_CLASS)
+    static class TaskCounter {
+        @Autowired
+        private TaskLogger logger;
+        private int count;
+
+        public int increment() {
+            return ++count;
+        }
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("counter " + logger.log("").trim().replaceAll("[\\[\\]]", ""));
+        }
+    }
+
+    static class BatchJob {
+        @Autowired
+        private TaskLogger logger;
+        @Autowired
+        private TaskCounter counter;
+
+        public String process(final String item) {
+            return logger.log(item) + " #" + counter.increment();
+        }
+    }
+
+    // 벤치마크용. 스코프만 다르고 같은 일을 한다.
+    static class Work {
+        private int count;
+
+        public int work() {
+            return ++count;
+        }
+
+        @PreDestroy
+        public void close() {
+            count = 0;
+        }
+    }
+
+    @Scope(WebApplicationContext.SCOPE_REQUEST)
+    static class RequestWork extends Work {
+    }
+
+    @Scope(TaskScope.SCOPE_NAME)
+    static class TaskWork extends Work {
+    }
+}
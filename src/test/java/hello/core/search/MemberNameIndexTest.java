@@ -0,0 +1,197 @@
+package hello.core.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.AppConfig;
+import hello.core.cdc.MemberChangeLog;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.member.MemoryMemberRepository;
+
+class MemberNameIndexTest {
+
+    private static final String[] SURNAMES = {"김", "이", "박", "최", "정", "강", "조", "윤", "장", "임"};
+    private static final String[] SYLLABLES = {"민", "서", "지", "현", "준", "우", "하", "윤", "도", "예", "수", "연", "재", "은", "진", "영"};
+
+    @AfterEach
+    void afterEach() {
+        new MemoryMemberRepository().clearStore();
+    }
+
+    @DisplayName("설정을 켜면 이미 저장된 회원과 새로 가입한 회원을 이름 앞부분과 편집 거리로 찾고, 이름이 바뀌면 옛 이름으로는 찾지 않는다.")
+    @Test
+    void springBean() throws InterruptedException {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        memberRepository.save(new Member(1L, "김민수", Grade.BASIC));
+        memberRepository.save(new Member(2L, "김민서", Grade.BASIC));
+
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of("member.name-index.enabled", "true")));
+        ac.register(AppConfig.class, MemberChangeLog.class, MemberNameIndexConfig.class);
+        ac.refresh();
+        final MemberNameIndex index = ac.getBean(MemberNameIndex.class);
+        final MemberService memberService = ac.getBean(MemberService.class);
+
+        memberService.join(new Member(3L, "김민준", Grade.VIP));
+        memberService.join(new Member(4L, "이서연", Grade.BASIC));
+        await(() -> index.isReady() && index.findByPrefix("이").count() == 1);
+
+        assertThat(index.findByPrefix("김민").toArray()).containsExactly(1L, 2L, 3L);
+        assertThat(index.findByPrefix("김민서").toArray()).containsExactly(2L);
+        assertThat(index.findByPrefix("박").toArray()).isEmpty();
+        assertThat(index.findSimilar("김민수", 1).toArray()).containsExactly(1L, 2L, 3L);
+        assertThat(index.findSimilar("김민", 1).toArray()).containsExactly(1L, 2L, 3L);
+        assertThat(index.findSimilar("이민", 1).toArray()).isEmpty();
+
+        memberService.join(new Member(1L, "박민수", Grade.BASIC));
+        await(() -> index.findByPrefix("박").count() == 1);
+        assertThat(index.findByPrefix("김민").toArray()).containsExactly(2L, 3L);
+        assertThat(index.findSimilar("박민수", 0).toArray()).containsExactly(1L);
+        assertThatThrownBy(() -> index.findSimilar("김민수", 3)).isInstanceOf(IllegalArgumentException.class);
+
+        ac.close();
+    }
+
+    @DisplayName("조각이 여러 개로 나뉘고 합쳐지는 동안에도, 전체를 하나씩 비교한 결과와 같은 회원을 찾는다.")
+    @Test
+    void matchesBruteForce() throws InterruptedException {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        final Random random = new Random(42);
+        final List<Member> members = new ArrayList<>();
+        for (long id = 0; id < 5_000; id++) {
+            members.add(new Member(id, randomName(random), Grade.BASIC));
+        }
+        members.subList(0, 2_000).forEach(memberRepository::save);
+
+        final MemberChangeLog log = new MemberChangeLog(1 << 16, -1);
+        memberRepository.setChangeLog(log);
+        final MemberNameIndex index = new MemberNameIndex(memberRepository);
+        log.subscribe(index);
+        members.subList(2_000, 5_000).forEach(memberRepository::save);
+        for (long id = 0; id < 500; id++) { // 이름 바꾸기
+            final Member renamed = new Member(id, randomName(random), Grade.BASIC);
+            members.set((int) id, renamed);
+            memberRepository.save(renamed);
+        }
+        await(() -> index.isReady() && log.getSubscriptions().get(0).getLag() == 0 && index.getSegmentCount() <= maxSegments(index));
+        System.out.println("segments=" + index.getSegmentCount() + ", entries=" + index.getEntryCount() + ", merges=" + index.getMerges());
+
+        for (int q = 0; q < 200; q++) {
+            final String query = randomName(random);
+            final String prefix = query.substring(0, 1 + random.nextInt(2));
+            final int maxEdits = q % 3;
+            assertThat(index.findByPrefix(prefix).toArray())
+                    .containsExactly(members.stream().filter(m -> m.getName().startsWith(prefix)).mapToLong(Member::getId).sorted().toArray());
+            assertThat(index.findSimilar(query, maxEdits).toArray())
+                    .containsExactly(members.stream().filter(m -> distance(m.getName(), query) <= maxEdits).mapToLong(Member::getId).sorted().toArray());
+        }
+        assertThat(index.getSegmentCount()).isLessThanOrEqualTo(maxSegments(index)); // 백그라운드에서 합쳐서 조각 수가 로그 수준으로 유지된다.
+        assertThat(index.getMerges()).isGreaterThan(0);
+        index.close();
+        log.close();
+    }
+
+    @DisplayName("성능 측정 - 회원 100만 명의 이름 색인 크기와 검색 지연 시간")
+    @Test
+    @Tag("benchmark")
+    void latency() throws InterruptedException {
+        final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        final Random random = new Random(7);
+        final int count = 1_000_000;
+        for (long id = 0; id < count; id++) {
+            memberRepository.save(new Member(id, randomKoreanName(random) + (id % 100), Grade.BASIC));
+        }
+        final MemberChangeLog log = new MemberChangeLog(1 << 16, -1);
+        final MemberNameIndex index = new MemberNameIndex(memberRepository);
+        final long buildStart = System.nanoTime();
+        log.subscribe(index);
+        await(index::isReady);
+        final long buildNanos = System.nanoTime() - buildStart;
+
+        final int rounds = 2_000;
+        final String[] queries = new String[rounds];
+        for (int i = 0; i < rounds; i++) {
+            queries[i] = randomKoreanName(random) + random.nextInt(100);
+        }
+        long found = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            for (String query : queries) {
+                found += index.findByPrefix(query.substring(0, 3)).count() + index.findSimilar(query, 1).count();
+            }
+        }
+        long start = System.nanoTime();
+        for (String query : queries) {
+            found += index.findByPrefix(query).count();
+        }
+        final long prefixNanos = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (String query : queries) {
+            found += index.findSimilar(query, 1).count();
+        }
+        final long similarNanos = (System.nanoTime() - start) / rounds;
+        System.out.printf("%d names: build %dms, %.1f bytes/name, prefix %.1fus, edit distance 1 %.1fus (found %d)%n",
+                count, buildNanos / 1_000_000, index.getMemoryBytes() / (double) count, prefixNanos / 1000.0, similarNanos / 1000.0, found);
+        assertThat(found).isGreaterThan(0);
+        index.close();
+        log.close();
+    }
+
+    private static String randomName(final Random random) {
+        final int length = 3 + random.nextInt(4);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(5)));
+        }
+        return sb.toString();
+    }
+
+    private static String randomKoreanName(final Random random) {
+        return SURNAMES[random.nextInt(SURNAMES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+
+    private static int distance(final String a, final String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost);
+            }
+            final int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // 합치고 남은 조각은 앞 조각이 뒤 조각들의 합보다 두 배 넘게 크므로, 조각 수는 log2(항목 수) + 1 을 넘지 않는다.
+    private static int maxSegments(final MemberNameIndex index) {
+        return 64 - Long.numberOfLeadingZeros(index.getEntryCount());
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + 30_000_000_000L;
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
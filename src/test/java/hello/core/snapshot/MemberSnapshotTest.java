@@ -0,0 +1,120 @@
+package hello.core.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.web.MemberExportController;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "member.snapshot.max-age-ms=0")
+class MemberSnapshotTest {
+
+    private static final int MEMBERS = 200_000;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MemberExportController memberExportController;
+
+    private final MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+
+    @AfterEach
+    void clear() {
+        memberRepository.clearStore();
+    }
+
+    @DisplayName("파일로 쓰고 다시 읽으면 같은 회원이 나온다.")
+    @Test
+    void writeAndRead(@TempDir final Path tempDir) throws IOException {
+        final List<Member> members = new ArrayList<>();
+        members.add(new Member(1L, "memberA", Grade.VIP));
+        members.add(new Member(Long.MAX_VALUE, "회원B", Grade.BASIC));
+        members.add(new Member(3L, "", Grade.BASIC));
+        final Path file = tempDir.resolve("members.bin");
+
+        assertThat(MemberSnapshotWriter.write(members, file)).isEqualTo(3);
+        try (InputStream in = Files.newInputStream(file)) {
+            assertThat(MemberSnapshotReader.readAll(in))
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(members);
+        }
+    }
+
+    @DisplayName("sendfile 을 지원하지 않으면 transferTo 로 응답 스트림에 쓴다.")
+    @Test
+    void streamingFallback() throws IOException {
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        memberExportController.snapshot(new MockHttpServletRequest(), response);
+
+        final List<Member> members = MemberSnapshotReader.readAll(new ByteArrayInputStream(response.getContentAsByteArray()));
+        assertThat(members).extracting(Member::getName).containsExactly("memberA");
+        assertThat(response.getHeader("X-Member-Count")).isEqualTo("1");
+    }
+
+    @DisplayName("HTTP 로 받은 바이너리 스냅샷과 JSON 비교")
+    @Test
+    void snapshotOverHttp() throws IOException {
+        final List<Member> members = new ArrayList<>();
+        for (long i = 1; i <= MEMBERS; i++) {
+            members.add(new Member(i, "member" + i, i % 10 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        memberRepository.saveAll(members);
+        final ObjectMapper objectMapper = new ObjectMapper();
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            final HttpURLConnection binary = open("/members/snapshot");
+            final List<Member> received = new ArrayList<>(MEMBERS);
+            try (InputStream in = binary.getInputStream()) {
+                assertThat(MemberSnapshotReader.read(in, received::add)).isEqualTo(MEMBERS);
+            }
+            final long binaryNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final HttpURLConnection json = open("/members");
+            final byte[] body;
+            try (InputStream in = json.getInputStream()) {
+                body = in.readAllBytes();
+            }
+            final JsonNode tree = objectMapper.readTree(body);
+            final long jsonNanos = System.nanoTime() - start;
+
+            System.out.printf("binary = %,d bytes %.1fms, json = %,d bytes %.1fms%n",
+                    binary.getContentLengthLong(), binaryNanos / 1e6, body.length, jsonNanos / 1e6);
+            assertThat(received.get(0).getName()).isEqualTo("member" + received.get(0).getId());
+            assertThat(tree.size()).isEqualTo(MEMBERS);
+        }
+    }
+
+    private HttpURLConnection open(final String path) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        return connection;
+    }
+}
@@ -0,0 +1,118 @@
+package hello.core.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberService;
+import hello.core.order.OrderService;
+
+class OrderStatisticsTest {
+
+    @DisplayName("여러 스레드가 동시에 주문해도 누적 값이 정확하고, 조회할 때 건수와 매출이 어긋나지 않는다.")
+    @Test
+    void concurrentOrders() throws InterruptedException {
+        final OrderStatistics statistics = new OrderStatistics();
+        final int threads = 8;
+        final int ordersPerThread = 200_000;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong inconsistent = new AtomicLong();
+
+        final Thread reader = new Thread(() -> {
+            while (running.get()) {
+                final GradeStatistics vip = statistics.snapshot(Grade.VIP);
+                if (vip.getGrossRevenue() != vip.getOrderCount() * 10000 || vip.getDiscountTotal() != vip.getOrderCount() * 1000) {
+                    inconsistent.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        final List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            writers.add(new Thread(() -> {
+                for (int j = 0; j < ordersPerThread; j++) {
+                    statistics.record(Grade.VIP, 10000, 1000);
+                    statistics.record(Grade.BASIC, 20000, 0);
+                }
+            }));
+        }
+        final long start = System.nanoTime();
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        final long elapsed = System.nanoTime() - start;
+        running.set(false);
+        reader.join();
+        System.out.println("record = " + elapsed / (threads * ordersPerThread * 2L) + "ns/op (" + threads + " threads)");
+
+        final GradeStatistics vip = statistics.snapshot(Grade.VIP);
+        final GradeStatistics basic = statistics.snapshot(Grade.BASIC);
+        System.out.println("vip = " + vip);
+        System.out.println("basic = " + basic);
+        assertThat(vip.getOrderCount()).isEqualTo((long) threads * ordersPerThread);
+        assertThat(vip.getNetRevenue()).isEqualTo((long) threads * ordersPerThread * 9000);
+        assertThat(basic.getGrossRevenue()).isEqualTo((long) threads * ordersPerThread * 20000);
+        assertThat(inconsistent.get()).isZero();
+    }
+
+    @DisplayName("최근 1분/5분/15분 초당 주문 수는 오래된 버킷을 빼고 센다.")
+    @Test
+    void slidingWindow() {
+        final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        final OrderStatistics statistics = new OrderStatistics(now::get);
+
+        // 15분 동안 매초 VIP 주문 1건
+        for (int second = 0; second < 15 * 60; second++) {
+            statistics.record(Grade.VIP, 10000, 1000);
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+        GradeStatistics vip = statistics.snapshot(Grade.VIP);
+        assertThat(vip.getOrdersPerSecond1m()).isCloseTo(1.0, offset(0.1));
+        assertThat(vip.getOrdersPerSecond15m()).isCloseTo(1.0, offset(0.1));
+
+        // 그 다음 2분은 주문이 없다.
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        vip = statistics.snapshot(Grade.VIP);
+        System.out.println("vip = " + vip);
+        assertThat(vip.getOrdersPerSecond1m()).isZero();
+        assertThat(vip.getOrdersPerSecond5m()).isCloseTo(0.6, offset(0.1));
+        assertThat(vip.getOrdersPerSecond15m()).isCloseTo(13.0 / 15, offset(0.1));
+        assertThat(vip.getOrderCount()).isEqualTo(15 * 60);
+        assertThat(statistics.snapshot(Grade.BASIC).getOrdersPerSecond1m()).isZero();
+    }
+
+    @DisplayName("OrderService 로 주문하면 등급별 통계에 반영된다.")
+    @Test
+    void fedByOrderService() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class);
+        final MemberService memberService = ac.getBean(MemberService.class);
+        final OrderService orderService = ac.getBean(OrderService.class);
+        final OrderStatistics statistics = ac.getBean(OrderStatistics.class);
+
+        memberService.join(new Member(300L, "vip", Grade.VIP));
+        memberService.join(new Member(301L, "basic", Grade.BASIC));
+        orderService.createOrder(300L, "itemA", 20000);
+        orderService.createOrder(301L, "itemA", 20000);
+
+        final GradeStatistics vip = statistics.snapshot(Grade.VIP);
+        assertThat(vip.getOrderCount()).isEqualTo(1);
+        assertThat(vip.getGrossRevenue()).isEqualTo(20000);
+        assertThat(vip.getDiscountTotal()).isEqualTo(2000); // RateDiscountPolicy 10%
+        assertThat(statistics.snapshot(Grade.BASIC).getDiscountTotal()).isZero();
+        ac.close();
+    }
+}
@@ -0,0 +1,159 @@
+package hello.core.tiered;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemberService;
+import hello.core.member.MemberServiceImpl;
+
+class TieredMemberRepositoryTest {
+
+    @DisplayName("핫 티어가 넘치면 백그라운드에서 콜드 티어로 내리고, 내리는 동안에도 조회는 모든 회원을 찾는다.")
+    @Test
+    void demotesWithoutLosingMembers() throws Exception {
+        try (TieredMemberRepository repository = new TieredMemberRepository(1000, 64 * 1024, null)) {
+            final AtomicLong saved = new AtomicLong(-1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final AtomicLong missing = new AtomicLong();
+            final Thread reader = new Thread(() -> {
+                long id = 0;
+                while (running.get()) {
+                    final long max = saved.get();
+                    if (max < 0) {
+                        continue;
+                    }
+                    id = (id + 7919) % (max + 1);
+                    final Member member = repository.findById(id);
+                    if (member == null || !member.getName().equals("member" + id)) {
+                        missing.incrementAndGet();
+                    }
+                }
+            });
+            reader.start();
+            for (long id = 0; id < 20_000; id++) {
+                repository.save(member(id));
+                saved.set(id);
+            }
+            awaitHotSize(repository, 1000);
+            running.set(false);
+            reader.join();
+            System.out.println(repository);
+
+            assertThat(missing.get()).isZero();
+            assertThat(repository.getDemotions()).isGreaterThanOrEqualTo(19_000);
+            assertThat(repository.getColdBytes()).isGreaterThan(64 * 1024); // 세그먼트가 여러 개
+            for (long id = 0; id < 20_000; id++) {
+                assertThat(repository.findById(id).getName()).isEqualTo("member" + id);
+            }
+            assertThat(repository.findById(20_000L)).isNull();
+            assertThat(repository.findAll()).hasSize(20_000);
+        }
+    }
+
+    @DisplayName("콜드 티어의 회원은 조회하면 핫 티어로 올라가고, 다시 save 한 값이 어느 티어에서든 보인다.")
+    @Test
+    void promotesOnAccessAndKeepsLatestSave() throws Exception {
+        try (TieredMemberRepository repository = new TieredMemberRepository(100, 1024 * 1024, null)) {
+            for (long id = 0; id < 1000; id++) {
+                repository.save(member(id));
+            }
+            awaitHotSize(repository, 100);
+
+            final long coldHits = repository.getColdHits();
+            final Member member = findCold(repository);
+            assertThat(repository.getColdHits()).isEqualTo(coldHits + 1);
+            final long hotHits = repository.getHotHits();
+            assertThat(repository.findById(member.getId())).isSameAs(member); // 승격된 객체
+            assertThat(repository.getHotHits()).isEqualTo(hotHits + 1);
+
+            repository.save(new Member(member.getId(), "renamed", Grade.VIP));
+            assertThat(repository.findById(member.getId()).getName()).isEqualTo("renamed");
+            for (long id = 1000; id < 2000; id++) { // 다시 밀려나게 한다.
+                repository.save(member(id));
+            }
+            awaitHotSize(repository, 100);
+            final Member reloaded = repository.findById(member.getId());
+            assertThat(reloaded.getName()).isEqualTo("renamed");
+            assertThat(reloaded.getGrade()).isEqualTo(Grade.VIP);
+        }
+    }
+
+    @DisplayName("콜드 티어에서 읽는 사이에 새 값이 강등되면, 읽은 옛 값을 핫 티어로 올리지 않는다.")
+    @Test
+    void staleReadIsNotPromoted() throws Exception {
+        try (TieredMemberRepository repository = new TieredMemberRepository(100, 1024 * 1024, null)) {
+            for (long id = 0; id < 1000; id++) {
+                repository.save(member(id));
+            }
+            awaitHotSize(repository, 90);
+            long memberId = 0;
+            while (repository.getColdLocation(memberId) == 0) {
+                memberId++;
+            }
+            // 조회하는 스레드가 이 위치에서 옛 값을 디코딩했다고 치고, 올리기 전에 새 값을 저장하고 강등시킨다.
+            final long staleLocation = repository.getColdLocation(memberId);
+            repository.save(new Member(memberId, "renamed", Grade.VIP));
+            for (long id = 1000; repository.getColdLocation(memberId) == staleLocation; id += 1000) {
+                for (long filler = id; filler < id + 1000; filler++) {
+                    repository.save(member(filler));
+                }
+                awaitHotSize(repository, 90); // 강등 스레드가 한 번에 lowWatermark(90) 까지 내린다.
+            }
+
+            assertThat(repository.promote(memberId, staleLocation, member(memberId))).isNull();
+            final Member reloaded = repository.findById(memberId);
+            assertThat(reloaded.getName()).isEqualTo("renamed");
+            assertThat(repository.findById(memberId)).isSameAs(reloaded);
+        }
+    }
+
+    @DisplayName("member.storage=tiered 이면 MemberService 가 TieredMemberRepository 를 쓴다.")
+    @Test
+    void tieredStorageMode() {
+        final AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("member.storage", "tiered", "member.tiered.hot-capacity", "10")));
+        ac.register(TieredMemberConfig.class, MemberServiceImpl.class, RateDiscountPolicy.class);
+        ac.refresh();
+
+        final MemberService memberService = ac.getBean(MemberService.class);
+        assertThat(((MemberServiceImpl) memberService).getMemberRepository()).isSameAs(ac.getBean(MemberRepository.class));
+        memberService.join(member(1L));
+        assertThat(memberService.findMember(1L).getName()).isEqualTo("member1");
+        ac.close();
+    }
+
+    private static Member findCold(final TieredMemberRepository repository) {
+        for (long id = 0; ; id++) {
+            final long before = repository.getColdHits();
+            final Member member = repository.findById(id);
+            if (repository.getColdHits() > before) {
+                return member;
+            }
+        }
+    }
+
+    private static void awaitHotSize(final TieredMemberRepository repository, final int capacity) throws InterruptedException {
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while (repository.getHotSize() > capacity && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(repository.getHotSize()).isLessThanOrEqualTo(capacity);
+    }
+
+    private static Member member(final long id) {
+        return new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC);
+    }
+}